@@ -0,0 +1,93 @@
+package spa.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Puzzle texts (in {@code .zgr} format) used as benchmark input:
+ * the files in the puzzle directory, followed by generated puzzles.
+ * The puzzle directory is {@code puzzles}, or the value of system property
+ * {@code spa.puzzles}.
+ * Generated puzzles come from random fillings, so they are always solvable,
+ * though not necessarily uniquely.
+ *
+ */
+public final class Corpus {
+
+    /** Seed for generated puzzles, so that runs are comparable. */
+    private static final long SEED = 20231215L;
+
+    private Corpus() {
+    }
+
+    /**
+     * Loads the puzzle files and generates additional puzzles.
+     *
+     * @param generated number of puzzles to generate
+     * @param givens number of given digits in each generated puzzle
+     * @return the puzzle texts
+     * @throws IOException  if the puzzle directory cannot be read
+     */
+    public static List<String> load(final int generated, final int givens) throws IOException {
+        final List<String> result = new ArrayList<>();
+        final Path directory = Paths.get(System.getProperty("spa.puzzles", "puzzles"));
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.zgr")) {
+                for (Path file : files) {
+                    result.add(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        final Random random = new Random(SEED);
+        for (int i = 0; i < generated; i++) {
+            result.add(generate(random, givens));
+        }
+        return result;
+    }
+
+    /**
+     * Generates a puzzle from a random filling of the grid.
+     *
+     * @param random the source of randomness
+     * @param givens number of digits to keep
+     * @return the puzzle text
+     */
+    static String generate(final Random random, final int givens) {
+        final int[] digits = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        for (int i = digits.length - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int swap = digits[i];
+            digits[i] = digits[j];
+            digits[j] = swap;
+        }
+        final int[] sums = new int[4];
+        for (int circle = 0; circle < 4; circle++) {
+            final int top = circle / 2 * 3 + circle % 2;
+            sums[circle] = digits[top] + digits[top + 1] + digits[top + 3] + digits[top + 4];
+        }
+        final int[] order = {0, 1, 2, 3, 4, 5, 6, 7, 8};
+        for (int i = order.length - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        for (int i = givens; i < order.length; i++) {
+            digits[order[i]] = 0;
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (int cell = 0; cell < digits.length; cell++) {
+            sb.append(digits[cell]).append(cell % 3 == 2 ? "\n" : " ");
+        }
+        sb.append(sums[0]).append(' ').append(sums[1]).append(' ')
+                .append(sums[2]).append(' ').append(sums[3]);
+        return sb.toString();
+    }
+}
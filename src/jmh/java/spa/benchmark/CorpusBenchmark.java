@@ -0,0 +1,141 @@
+package spa.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import spa.corpus.CorpusReader;
+import spa.corpus.PuzzleRecord;
+import spa.corpus.ZgrConverter;
+import spa.model.SujikoGrid;
+
+/**
+ * Benchmarks loading a whole corpus: one {@code .zgr} file per puzzle
+ * against one memory-mapped binary corpus file.
+ * Every operation reads all puzzles and sums their first digit and sum,
+ * so that nothing can be optimized away.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CorpusBenchmark {
+
+    /** Number of generated puzzles in the corpus. */
+    @Param({"10000"})
+    public int generated;
+
+    private Path directory;
+
+    private List<Path> files;
+
+    private Path corpus;
+
+    /**
+     * Writes the corpus as {@code .zgr} files and as a binary file.
+     *
+     * @throws IOException  if a file cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("corpus");
+        files = new ArrayList<>();
+        int i = 0;
+        for (String text : Corpus.load(generated, 2)) {
+            final Path file = directory.resolve("p" + i++ + ".zgr");
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        }
+        corpus = directory.resolve("corpus.sjb");
+        ZgrConverter.toBinary(files, corpus);
+    }
+
+    /**
+     * Deletes the corpus files.
+     *
+     * @throws IOException  if a file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Reads every {@code .zgr} file with {@link SujikoGrid#read}.
+     *
+     * @return a checksum
+     * @throws IOException  if a file cannot be read
+     */
+    @Benchmark
+    public long zgrFiles() throws IOException {
+        long checksum = 0;
+        for (Path file : files) {
+            try (Scanner scanner = new Scanner(file.toFile(), StandardCharsets.UTF_8)) {
+                final SujikoGrid grid = SujikoGrid.read(scanner);
+                checksum += grid.getCell(0).getDigit() + grid.getSumCells().get(0).getSum();
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Maps the binary corpus and decodes fields straight from the records.
+     *
+     * @return a checksum
+     * @throws IOException  if the corpus cannot be read
+     */
+    @Benchmark
+    public long mappedRecords() throws IOException {
+        long checksum = 0;
+        try (CorpusReader reader = new CorpusReader(corpus)) {
+            for (long i = 0; i < reader.size(); i++) {
+                final long record = reader.get(i);
+                checksum += PuzzleRecord.digit(record, 0) + PuzzleRecord.sum(record, 0);
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Maps the binary corpus and decodes every record into a grid.
+     *
+     * @return a checksum
+     * @throws IOException  if the corpus cannot be read
+     */
+    @Benchmark
+    public long mappedGrids() throws IOException {
+        long checksum = 0;
+        try (CorpusReader reader = new CorpusReader(corpus)) {
+            for (long i = 0; i < reader.size(); i++) {
+                final SujikoGrid grid = reader.getGrid(i);
+                checksum += grid.getCell(0).getDigit() + grid.getSumCells().get(0).getSum();
+            }
+        }
+        return checksum;
+    }
+}
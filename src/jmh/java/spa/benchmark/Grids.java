@@ -0,0 +1,24 @@
+package spa.benchmark;
+
+import java.util.Scanner;
+import spa.model.SujikoGrid;
+
+/**
+ * Helpers for turning corpus texts into grids.
+ *
+ */
+final class Grids {
+
+    private Grids() {
+    }
+
+    /**
+     * Reads a puzzle text into a fresh grid.
+     *
+     * @param text the puzzle in {@code .zgr} format
+     * @return the grid
+     */
+    static SujikoGrid read(final String text) {
+        return SujikoGrid.read(new Scanner(text));
+    }
+}
@@ -0,0 +1,119 @@
+package spa.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import spa.command.Journal;
+import spa.command.SetCommand;
+import spa.command.UndoRedo;
+import spa.model.SujikoGrid;
+
+/**
+ * Benchmarks of {@link Journal}: recording a history of {@link #length}
+ * set-commands with a journal, as the event dispatch thread sees it and
+ * until it is durable, and replaying such a journal.
+ * After each trial the size of the journal and the number of commits are
+ * printed.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+    /** Number of commands in the history. */
+    @Param({"1000", "100000", "1000000"})
+    public int length;
+
+    private Path file;
+
+    private Journal journal;
+
+    private SujikoGrid grid;
+
+    /**
+     * Opens a journal in a temporary file and records a session in it.
+     *
+     * @throws Exception  if the journal cannot be created or written
+     */
+    @Setup
+    public void setUp() throws Exception {
+        file = Files.createTempFile("sujiko", ".journal");
+        journal = Journal.open(file);
+        grid = Grids.read("0 0 0\n0 0 0\n0 0 0\n10 10 10 10");
+        durable();
+    }
+
+    /**
+     * Records a history of {@link #length} set-commands in a new session of
+     * the journal, without waiting for the disk.
+     *
+     * @return the undo-redo facility holding the history
+     */
+    @Benchmark
+    public UndoRedo journaled() {
+        final UndoRedo undoRedo = new UndoRedo();
+        journal.begin(grid);
+        undoRedo.setJournal(journal);
+        for (int i = 0; i < length; i++) {
+            undoRedo.did(new SetCommand(grid.getCell(i % 9), i % 9 + 1));
+        }
+        return undoRedo;
+    }
+
+    /**
+     * Records a history as {@link #journaled()} and waits until it is durable.
+     *
+     * @return the undo-redo facility holding the history
+     * @throws Exception  if the journal cannot be written
+     */
+    @Benchmark
+    public UndoRedo durable() throws Exception {
+        final UndoRedo undoRedo = journaled();
+        journal.flush();
+        return undoRedo;
+    }
+
+    /**
+     * Replays the journal.
+     *
+     * @return the puzzle at the end of the session
+     * @throws Exception  if the journal cannot be read
+     */
+    @Benchmark
+    public SujikoGrid replay() throws Exception {
+        journal.flush();
+        return Journal.replay(file, new UndoRedo());
+    }
+
+    /**
+     * Prints the size of the journal and the number of commits, and
+     * deletes it.
+     *
+     * @throws Exception  if the journal cannot be written or deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        journal.flush();
+        System.out.printf("%njournal of %d steps: %d bytes, %d commits in the trial%n",
+                length, Files.size(file), journal.getCommits());
+        journal.close();
+        Files.delete(file);
+    }
+}
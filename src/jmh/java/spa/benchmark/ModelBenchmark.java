@@ -0,0 +1,139 @@
+package spa.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import spa.model.DigitCell;
+import spa.model.Location;
+import spa.model.SujikoGrid;
+import spa.model.SumCell;
+import spa.solvers.ConcreteSujikoSolver;
+
+/**
+ * Benchmarks of the model: parsing, circle locations and sum feasibility,
+ * and the checks of the solver built on them.  With {@code -prof gc} the
+ * checks should allocate nothing.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    private List<String> corpus;
+
+    private int next;
+
+    private SujikoGrid grid;
+
+    private List<SumCell> sumCells;
+
+    private Checks checks;
+
+    /**
+     * Loads the corpus and a grid to query.
+     *
+     * @throws IOException  if the puzzle directory cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        corpus = Corpus.load(2000, 3);
+        next = 0;
+        grid = Grids.read(corpus.get(0));
+        sumCells = grid.getSumCells();
+        checks = new Checks(grid);
+    }
+
+    /**
+     * Parses the next puzzle of the corpus with {@link SujikoGrid#readGrid}.
+     *
+     * @return the grid read
+     */
+    @Benchmark
+    public SujikoGrid readGrid() {
+        final SujikoGrid result = SujikoGrid.read(new Scanner(corpus.get(next)));
+        next = (next + 1) % corpus.size();
+        return result;
+    }
+
+    /**
+     * Gets the locations of all four circles.
+     *
+     * @param blackhole sink for the results
+     */
+    @Benchmark
+    public void getLocations(final Blackhole blackhole) {
+        for (SumCell sumCell : sumCells) {
+            final List<Location> locations = sumCell.getLocations();
+            blackhole.consume(locations);
+        }
+    }
+
+    /**
+     * Checks sum feasibility of all four circles.
+     *
+     * @param blackhole sink for the results
+     */
+    @Benchmark
+    public void canAchieveSum(final Blackhole blackhole) {
+        for (SumCell sumCell : sumCells) {
+            blackhole.consume(sumCell.canAchieveSum(grid));
+        }
+    }
+
+    /**
+     * Checks the move in every cell, and whether the grid is solved,
+     * as the solver does in its innermost loop.
+     *
+     * @param blackhole sink for the results
+     */
+    @Benchmark
+    public void validMoves(final Blackhole blackhole) {
+        checks.run(blackhole);
+    }
+
+    /**
+     * Exposes the checks of {@link ConcreteSujikoSolver}.
+     */
+    private static final class Checks extends ConcreteSujikoSolver {
+
+        /**
+         * Constructs the checks of a grid.
+         *
+         * @param grid the grid
+         */
+        Checks(final SujikoGrid grid) {
+            super(grid, null);
+        }
+
+        /**
+         * Runs the checks.
+         *
+         * @param blackhole sink for the results
+         */
+        void run(final Blackhole blackhole) {
+            final int cells = grid.getLayout().getCellCount();
+            for (int index = 0; index < cells; index++) {
+                final DigitCell cell = grid.getCell(index);
+                blackhole.consume(isUniqueInGrid(cell));
+                blackhole.consume(satisfiesCircles(cell));
+            }
+            blackhole.consume(isSolved());
+        }
+    }
+}
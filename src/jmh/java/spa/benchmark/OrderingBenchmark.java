@@ -0,0 +1,109 @@
+package spa.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import spa.solvers.CellOrders;
+import spa.solvers.ConcreteSujikoSolver;
+import spa.solvers.DigitOrders;
+
+/**
+ * Benchmarks the ordering strategies of {@link ConcreteSujikoSolver}
+ * on the corpus, one puzzle per operation.
+ * Besides the time per puzzle, the secondary results {@code nodes} and
+ * {@code puzzles} give the total number of search nodes and puzzles per
+ * iteration; their ratio is the number of nodes per puzzle.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderingBenchmark {
+
+    /** The variable-ordering strategy. */
+    @Param({"FIRST_EMPTY", "MINIMUM_REMAINING_VALUES", "MOST_CIRCLES", "CENTRE_FIRST"})
+    public CellOrders cellOrder;
+
+    /** The value-ordering strategy. */
+    @Param({"ASCENDING", "CANDIDATES_FIRST", "LEAST_CONSTRAINING"})
+    public DigitOrders digitOrder;
+
+    /** Number of generated puzzles added to the corpus. */
+    @Param({"2000"})
+    public int generated;
+
+    /** Number of givens in each generated puzzle. */
+    @Param({"1", "3"})
+    public int givens;
+
+    private List<String> corpus;
+
+    private int next;
+
+    /**
+     * Search effort, reported as secondary results.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Effort {
+
+        /** Search nodes visited. */
+        public long nodes;
+
+        /** Puzzles solved. */
+        public long puzzles;
+
+        /**
+         * Clears the counters before every iteration.
+         */
+        @Setup(Level.Iteration)
+        public void clear() {
+            nodes = 0;
+            puzzles = 0;
+        }
+    }
+
+    /**
+     * Loads the corpus.
+     *
+     * @throws IOException  if the puzzle directory cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        corpus = Corpus.load(generated, givens);
+        next = 0;
+    }
+
+    /**
+     * Solves the next puzzle of the corpus.
+     *
+     * @param effort accumulates the search effort
+     * @return whether the puzzle was solved
+     */
+    @Benchmark
+    public boolean solve(final Effort effort) {
+        final ConcreteSujikoSolver solver = new ConcreteSujikoSolver(
+                Grids.read(corpus.get(next)), null, cellOrder, digitOrder);
+        next = (next + 1) % corpus.size();
+        final boolean solved = solver.solve();
+        effort.nodes += solver.getNodes();
+        effort.puzzles++;
+        return solved;
+    }
+}
@@ -0,0 +1,161 @@
+package spa.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import spa.model.CircleLayout;
+import spa.model.SujikoGrid;
+import spa.model.ZgrParser;
+
+/**
+ * Benchmarks parsing {@code .zgr} text: the former {@link Scanner} path
+ * (one line at a time, split on white space, {@link Integer#parseInt})
+ * against {@link ZgrParser}, per puzzle text and over one concatenated
+ * buffer.  Scores are per puzzle.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    /** Number of puzzles parsed per operation. */
+    private static final int PUZZLES = 2000;
+
+    private List<String> texts;
+
+    private List<byte[]> bytes;
+
+    private ByteBuffer concatenated;
+
+    /**
+     * Loads the corpus.
+     *
+     * @throws IOException  if the puzzle directory cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        texts = Corpus.load(PUZZLES, 2).subList(0, PUZZLES);
+        bytes = new ArrayList<>();
+        final StringBuilder all = new StringBuilder();
+        for (String text : texts) {
+            bytes.add(text.getBytes(StandardCharsets.UTF_8));
+            all.append(text).append('\n');
+        }
+        concatenated = ByteBuffer.wrap(all.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses every text the way {@code SujikoGrid.readGrid} did with a scanner.
+     *
+     * @return a checksum
+     */
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public long scanner() {
+        long checksum = 0;
+        for (String text : texts) {
+            checksum += readWithScanner(new Scanner(text)).getSumCells().get(0).getSum();
+        }
+        return checksum;
+    }
+
+    /**
+     * Parses every text into a grid with {@link ZgrParser}.
+     *
+     * @return a checksum
+     */
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public long parserPerText() {
+        long checksum = 0;
+        for (byte[] text : bytes) {
+            checksum += SujikoGrid.read(ByteBuffer.wrap(text)).getSumCells().get(0).getSum();
+        }
+        return checksum;
+    }
+
+    /**
+     * Parses the concatenated texts into grids with one {@link ZgrParser}.
+     *
+     * @return a checksum
+     */
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public long parserConcatenated() {
+        long checksum = 0;
+        final ZgrParser parser = new ZgrParser(concatenated.duplicate());
+        while (parser.hasNext()) {
+            checksum += parser.next().getSumCells().get(0).getSum();
+        }
+        return checksum;
+    }
+
+    /**
+     * Parses the concatenated texts without building grids.
+     *
+     * @return a checksum
+     */
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public long parseOnly() {
+        long checksum = 0;
+        final ZgrParser parser = new ZgrParser(concatenated.duplicate());
+        while (parser.hasNext()) {
+            parser.parse();
+            checksum += parser.getSum(0);
+        }
+        return checksum;
+    }
+
+    /**
+     * Reads a classic puzzle as the former {@code SujikoGrid.readGrid} did.
+     *
+     * @param scanner the scanner
+     * @return the grid
+     */
+    private static SujikoGrid readWithScanner(final Scanner scanner) {
+        final CircleLayout layout = CircleLayout.CLASSIC;
+        final int[] digits = new int[layout.getCellCount()];
+        for (int i = 0; i < layout.getRows(); i++) {
+            final int[] row = numbers(scanner.nextLine());
+            System.arraycopy(row, 0, digits, i * layout.getColumns(), layout.getColumns());
+        }
+        final int[] sums = numbers(scanner.nextLine());
+        scanner.close();
+        return SujikoGrid.of(layout, digits, sums);
+    }
+
+    /**
+     * Parses the numbers on a line as the former {@code SujikoGrid} did.
+     *
+     * @param line the line
+     * @return the numbers
+     */
+    private static int[] numbers(final String line) {
+        final String[] parts = line.trim().split("\\s+");
+        final int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i]);
+        }
+        return result;
+    }
+}
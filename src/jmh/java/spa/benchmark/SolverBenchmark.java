@@ -0,0 +1,103 @@
+package spa.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import spa.model.SujikoGrid;
+import spa.solvers.AbstractSolver;
+import spa.solvers.BitboardSujikoSolver;
+import spa.solvers.ConcreteSujikoSolver;
+
+/**
+ * Benchmarks solving the puzzles of the corpus, one puzzle per operation.
+ * Each operation reads a fresh grid, since solving modifies it;
+ * {@link ModelBenchmark#readGrid} measures that part on its own.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+
+    /** The solver to benchmark. */
+    @Param({"concrete", "bitboard"})
+    public String solver;
+
+    /** Number of generated puzzles added to the corpus. */
+    @Param({"2000"})
+    public int generated;
+
+    /** Number of givens in each generated puzzle. */
+    @Param({"1", "3"})
+    public int givens;
+
+    private List<String> corpus;
+
+    private int next;
+
+    /**
+     * Loads the corpus.
+     *
+     * @throws IOException  if the puzzle directory cannot be read
+     */
+    @Setup
+    public void setUp() throws IOException {
+        corpus = Corpus.load(generated, givens);
+        next = 0;
+    }
+
+    /**
+     * Solves the next puzzle of the corpus.
+     *
+     * @return whether the puzzle was solved
+     */
+    @Benchmark
+    public boolean solve() {
+        final SujikoGrid grid = Grids.read(corpus.get(next));
+        next = (next + 1) % corpus.size();
+        return create(grid).solve();
+    }
+
+    /**
+     * Checks whether the next puzzle of the corpus has a unique solution.
+     *
+     * @return whether the solution is unique
+     */
+    @Benchmark
+    public boolean hasUniqueSolution() {
+        final SujikoGrid grid = Grids.read(corpus.get(next));
+        next = (next + 1) % corpus.size();
+        return create(grid).hasUniqueSolution();
+    }
+
+    /**
+     * Creates the solver selected by {@link #solver}.
+     *
+     * @param grid the grid to solve
+     * @return the solver
+     */
+    private AbstractSolver create(final SujikoGrid grid) {
+        switch (solver) {
+            case "concrete":
+                return new ConcreteSujikoSolver(grid, null);
+            case "bitboard":
+                return new BitboardSujikoSolver(grid, null);
+            default:
+                throw new IllegalArgumentException("Unknown solver " + solver);
+        }
+    }
+}
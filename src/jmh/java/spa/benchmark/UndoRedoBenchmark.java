@@ -0,0 +1,147 @@
+package spa.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import spa.command.SetCommand;
+import spa.command.UndoRedo;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+
+/**
+ * Benchmarks of {@link UndoRedo} over long histories:
+ * recording a history with {@code did}, then undoing and redoing all of it,
+ * one step at a time or by jumping.
+ * The commands are set-commands that {@link UndoRedo} packs, or, for
+ * comparison, instances of a subclass that it keeps as objects.
+ * After each trial the heap retained by one history is printed.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UndoRedoBenchmark {
+
+    /** Number of commands in the history. */
+    @Param({"1000", "100000", "1000000"})
+    public int length;
+
+    /** How the history keeps the commands: {@code packed} or {@code objects}. */
+    @Param({"packed", "objects"})
+    public String entries;
+
+    private DigitCell[] cells;
+
+    /**
+     * Prepares the cells the commands operate on.
+     */
+    @Setup
+    public void setUp() {
+        final SujikoGrid grid = Grids.read("0 0 0\n0 0 0\n0 0 0\n10 10 10 10");
+        cells = new DigitCell[9];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = grid.getCells().get(i / 3).get(i % 3);
+        }
+    }
+
+    /**
+     * Records a history of {@link #length} set commands.
+     *
+     * @return the undo-redo facility holding the history
+     */
+    @Benchmark
+    public UndoRedo did() {
+        final UndoRedo undoRedo = new UndoRedo();
+        for (int i = 0; i < length; i++) {
+            undoRedo.did(command(cells[i % cells.length], i % 9 + 1));
+        }
+        return undoRedo;
+    }
+
+    /**
+     * Records a history, then undoes and redoes all of it, one step at a time.
+     *
+     * @return the undo-redo facility holding the history
+     */
+    @Benchmark
+    public UndoRedo undoRedo() {
+        final UndoRedo undoRedo = did();
+        while (undoRedo.canUndo()) {
+            undoRedo.undo(true);
+        }
+        while (undoRedo.canRedo()) {
+            undoRedo.redo();
+        }
+        return undoRedo;
+    }
+
+    /**
+     * Records a history, then jumps to its start and back to its end.
+     *
+     * @return the undo-redo facility holding the history
+     */
+    @Benchmark
+    public UndoRedo jump() {
+        final UndoRedo undoRedo = did();
+        undoRedo.jump(0);
+        undoRedo.jump(undoRedo.size());
+        return undoRedo;
+    }
+
+    /**
+     * Creates a set-command of the kind benchmarked.
+     *
+     * @param cell the cell
+     * @param digit the digit
+     * @return the command
+     */
+    private SetCommand command(final DigitCell cell, final int digit) {
+        if ("packed".equals(entries)) {
+            return new SetCommand(cell, digit);
+        }
+        return new SetCommand(cell, digit) {
+            // a subclass, which is not packed
+        };
+    }
+
+    /**
+     * Prints the heap retained by one history of {@link #length} commands,
+     * and the estimate of {@link UndoRedo#getBytes()}.
+     */
+    @TearDown(Level.Trial)
+    public void footprint() {
+        final long before = usedHeap();
+        final UndoRedo undoRedo = did();
+        final long retained = usedHeap() - before;
+        System.out.printf("%n%s history of %d steps: %d bytes retained (%.1f per step), "
+                + "%d estimated%n", entries, undoRedo.size(), retained,
+                (double) retained / length, undoRedo.getBytes());
+    }
+
+    /**
+     * Measures the heap in use after garbage collection.
+     *
+     * @return the number of bytes in use
+     */
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Package holding the JMH benchmarks for solvers, model and command layer.
+ * Only compiled in the {@code jmh} Maven profile.
+ *
+ */
+package spa.benchmark;
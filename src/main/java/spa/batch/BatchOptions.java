@@ -0,0 +1,218 @@
+package spa.batch;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
+import spa.catalogue.SumCatalogue;
+import spa.model.SujikoGrid;
+import spa.reasoning.Reasoner;
+import spa.solvers.AbstractSolver;
+import spa.solvers.BitboardSujikoSolver;
+import spa.solvers.CatalogueSolver;
+import spa.solvers.CellOrders;
+import spa.solvers.ConcreteSujikoSolver;
+import spa.solvers.DigitOrders;
+
+/**
+ * The options and puzzle arguments of the command line of
+ * {@link BatchSolver}, with their defaults.
+ *
+ */
+final class BatchOptions {
+
+    /** Names of the solvers for option {@code -s}; the first is the default. */
+    static final List<String> SOLVERS = List.of("concrete", "bitboard", "catalogue");
+
+    /** Number of worker threads, option {@code -t}. */
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    /** Name of the solver, option {@code -s}. */
+    String solver = SOLVERS.get(0);
+
+    /** Cell order of the concrete solver, option {@code -c}. */
+    CellOrders cellOrder = CellOrders.FIRST_EMPTY;
+
+    /** Digit order of the concrete solver, option {@code -d}. */
+    DigitOrders digitOrder = DigitOrders.ASCENDING;
+
+    /** Whether to add the statistics columns, option {@code -S}. */
+    boolean statistics;
+
+    /** Output file, option {@code -o}; null for standard output. */
+    String output;
+
+    /** Cache file, option {@code -C}; null for no cache. */
+    String cacheFile;
+
+    /**
+     * Binary index of the catalogue solver, option {@code -K}; null to
+     * build the catalogue in memory.
+     */
+    String catalogueFile;
+
+    /** The directories, files and globs of puzzles. */
+    final List<String> arguments = new ArrayList<>();
+
+    /** The command line arguments being parsed. */
+    private final String[] args;
+
+    /** Index of the next argument to parse. */
+    private int next;
+
+    /**
+     * Constructs the options for a command line.
+     *
+     * @param args the command line arguments
+     */
+    private BatchOptions(final String[] args) {
+        this.args = args;
+    }
+
+    /**
+     * Parses a command line.
+     *
+     * @param args the command line arguments
+     * @return the options
+     * @throws IllegalArgumentException  if an option has no valid value,
+     *     or there are no puzzles
+     */
+    static BatchOptions parse(final String[] args) {
+        final BatchOptions options = new BatchOptions(args);
+        while (options.next < args.length) {
+            options.option(args[options.next++]);
+        }
+        if (options.arguments.isEmpty()) {
+            throw new IllegalArgumentException("No puzzles given");
+        }
+        if (options.catalogueFile != null && !"catalogue".equals(options.solver)) {
+            throw new IllegalArgumentException("Option -K needs -s catalogue");
+        }
+        return options;
+    }
+
+    /**
+     * Chooses the solver factory for option {@code -s}; for the catalogue
+     * solver, reads the binary index of option {@code -K}, if given, once
+     * for all puzzles.
+     *
+     * @return the factory
+     * @throws IOException  if the index cannot be read
+     */
+    BiFunction<SujikoGrid, Reasoner, AbstractSolver> factory() throws IOException {
+        switch (solver) {
+            case "bitboard":
+                return BitboardSujikoSolver::new;
+            case "catalogue":
+                final SumCatalogue catalogue = catalogueFile == null ? SumCatalogue.classic()
+                        : SumCatalogue.read(Paths.get(catalogueFile));
+                return (grid, reasoner) -> new CatalogueSolver(grid, reasoner, catalogue);
+            case "concrete":
+                return (grid, reasoner) -> new ConcreteSujikoSolver(grid, reasoner,
+                        cellOrder, digitOrder);
+            default:
+                throw new IllegalStateException(this.getClass().getSimpleName()
+                        + ".factory(): no solver " + solver);
+        }
+    }
+
+    /**
+     * Parses one option, with its value, or a puzzle argument.
+     *
+     * @param option the argument
+     * @throws IllegalArgumentException  if the option has no valid value
+     */
+    private void option(final String option) {
+        switch (option) {
+            case "-t":
+                threads = threads(value(option));
+                break;
+            case "-s":
+                solver = value(option);
+                if (!SOLVERS.contains(solver)) {
+                    throw new IllegalArgumentException("Option -s needs one of " + SOLVERS
+                            + ": " + solver);
+                }
+                break;
+            case "-c":
+                cellOrder = constant(CellOrders.class, option, value(option));
+                break;
+            case "-d":
+                digitOrder = constant(DigitOrders.class, option, value(option));
+                break;
+            case "-S":
+                statistics = true;
+                break;
+            case "-C":
+                cacheFile = value(option);
+                break;
+            case "-K":
+                catalogueFile = value(option);
+                break;
+            case "-o":
+                output = value(option);
+                break;
+            default:
+                arguments.add(option);
+        }
+    }
+
+    /**
+     * Gets the value of an option, the next argument.
+     *
+     * @param option the option
+     * @return the value
+     * @throws IllegalArgumentException  if there is no next argument
+     */
+    private String value(final String option) {
+        if (next >= args.length) {
+            throw new IllegalArgumentException("Option " + option + " needs a value");
+        }
+        return args[next++];
+    }
+
+    /**
+     * Parses the number of threads of option {@code -t}.
+     *
+     * @param value the value of the option
+     * @return the number of threads, at least 1
+     * @throws IllegalArgumentException  if the value is not a positive number
+     */
+    private static int threads(final String value) {
+        final int result;
+        try {
+            result = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option -t needs a number of threads: " + value,
+                    e);
+        }
+        if (result < 1) {
+            throw new IllegalArgumentException("Option -t needs at least 1 thread: " + value);
+        }
+        return result;
+    }
+
+    /**
+     * Parses the constant named by an option, ignoring case.
+     *
+     * @param <E> the enum type
+     * @param type the enum class
+     * @param option the option
+     * @param value the value of the option
+     * @return the constant
+     * @throws IllegalArgumentException  if there is no such constant
+     */
+    private static <E extends Enum<E>> E constant(final Class<E> type, final String option,
+            final String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Option " + option + " needs one of "
+                    + Arrays.toString(type.getEnumConstants()).toLowerCase(Locale.ROOT)
+                    + ": " + value, e);
+        }
+    }
+}
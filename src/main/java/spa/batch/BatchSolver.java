@@ -0,0 +1,344 @@
+package spa.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import spa.cache.SolveCache;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+import spa.model.SujikoPuzzle;
+import spa.reasoning.Reasoner;
+import spa.solvers.AbstractSolver;
+import spa.solvers.CachingSolver;
+import spa.solvers.SolverStatistics;
+
+/**
+ * Headless solver for many {@code .zgr} puzzle files.
+ * Puzzles are solved in parallel on a work-stealing pool, and for every
+ * puzzle one tab-separated line is written as soon as it is solved:
+ * <pre>
+ *   name  status  solution  nodes  microseconds
+ * </pre>
+ * where status is {@code solved}, {@code unsolvable} or {@code error},
+ * and the solution lists the rows of the grid separated by {@code /}
+ * (or holds the error message).
+ * With statistics enabled, the columns of {@link SolverStatistics#COLUMNS}
+ * follow (empty for errors).
+ * Lines appear in completion order, not in input order.
+ * <p>
+ * Usage:
+ * <pre>
+ *   java spa.batch.BatchSolver [-t threads] [-s concrete|bitboard|catalogue]
+ *       [-c cellOrder] [-d digitOrder] [-S] [-C cacheFile] [-K catalogueFile]
+ *       [-o file] (directory | file | glob)...
+ * </pre>
+ * A directory stands for all {@code .zgr} files in it; a glob such as
+ * {@code puzzles/*.zgr} is expanded relative to its fixed leading part.
+ * Options {@code -c} and {@code -d} name a {@link spa.solvers.CellOrders}
+ * and a {@link spa.solvers.DigitOrders} constant for the concrete solver (by default
+ * {@code FIRST_EMPTY} and {@code ASCENDING}).
+ * Option {@code -S} enables the statistics columns.
+ * Option {@code -C} puts a {@link SolveCache} in front of the solver,
+ * loaded from the given file if it exists and saved to it afterwards, so
+ * puzzles solved in earlier runs are not solved again.
+ * Option {@code -K} makes the catalogue solver read the binary index
+ * written by {@link spa.catalogue.SumCatalogue#main} instead of building
+ * the catalogue in memory.
+ * Without puzzles, or with an option whose value is missing or invalid
+ * (see {@link BatchOptions}), the problem and the usage are printed and the
+ * exit status is 2.
+ *
+ */
+public class BatchSolver {
+
+    /** Creates the solver for a grid. */
+    private final BiFunction<SujikoGrid, Reasoner, AbstractSolver> solverFactory;
+
+    /** Number of worker threads. */
+    private final int threads;
+
+    /** Whether to write search statistics. */
+    private final boolean statistics;
+
+    /** The cache of solve results; null if none. */
+    private final SolveCache cache;
+
+    /**
+     * Constructs a batch solver that does not write search statistics.
+     *
+     * @param solverFactory creates the solver for a grid
+     * @param threads number of worker threads
+     * @throws IllegalArgumentException  if {@code threads < 1}
+     * @pre {@code solverFactory != null && threads >= 1}
+     */
+    public BatchSolver(final BiFunction<SujikoGrid, Reasoner, AbstractSolver> solverFactory,
+            final int threads) {
+        this(solverFactory, threads, false);
+    }
+
+    /**
+     * Constructs a batch solver.
+     *
+     * @param solverFactory creates the solver for a grid
+     * @param threads number of worker threads
+     * @param statistics whether to write search statistics
+     * @throws IllegalArgumentException  if {@code threads < 1}
+     * @pre {@code solverFactory != null && threads >= 1}
+     */
+    public BatchSolver(final BiFunction<SujikoGrid, Reasoner, AbstractSolver> solverFactory,
+            final int threads, final boolean statistics) {
+        this(solverFactory, threads, statistics, null);
+    }
+
+    /**
+     * Constructs a batch solver that looks puzzles up in a cache first.
+     *
+     * @param solverFactory creates the solver for a grid
+     * @param threads number of worker threads
+     * @param statistics whether to write search statistics
+     * @param cache the cache of solve results, shared by the worker
+     *     threads; null for none
+     * @throws IllegalArgumentException  if {@code threads < 1}
+     * @pre {@code solverFactory != null && threads >= 1}
+     */
+    public BatchSolver(final BiFunction<SujikoGrid, Reasoner, AbstractSolver> solverFactory,
+            final int threads, final boolean statistics, final SolveCache cache) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + "().pre failed: threads " + threads + " < 1");
+        }
+        this.solverFactory = solverFactory;
+        this.threads = threads;
+        this.statistics = statistics;
+        this.cache = cache;
+    }
+
+    /**
+     * Solves the given puzzle files and writes one result line per puzzle.
+     *
+     * @param files the puzzle files
+     * @param out where to write the result lines
+     * @return number of puzzles solved
+     */
+    public int solveAll(final List<Path> files, final Writer out) {
+        final PrintWriter printer = new PrintWriter(out);
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            final List<ForkJoinTask<Boolean>> tasks = new ArrayList<>(files.size());
+            for (final Path file : files) {
+                tasks.add(pool.submit(() -> solveOne(file, printer)));
+            }
+            int solved = 0;
+            for (ForkJoinTask<Boolean> task : tasks) {
+                if (task.join()) {
+                    solved++;
+                }
+            }
+            return solved;
+        } finally {
+            pool.shutdown();
+            printer.flush();
+        }
+    }
+
+    /**
+     * Solves one puzzle file and writes its result line.
+     *
+     * @param file the puzzle file
+     * @param printer where to write the result line
+     * @return whether the puzzle was solved
+     */
+    private boolean solveOne(final Path file, final PrintWriter printer) {
+        final String name = file.getFileName().toString();
+        String line;
+        boolean solved = false;
+        try (InputStream in = Files.newInputStream(file)) {
+            final SujikoPuzzle puzzle = new SujikoPuzzle(SujikoGrid.read(in), name);
+            final AbstractSolver base = solverFactory.apply(puzzle.getGrid(), null);
+            final AbstractSolver solver = cache == null ? base : new CachingSolver(base, cache);
+            if (statistics) {
+                solver.enableStatistics();
+            }
+            final long start = System.nanoTime();
+            solved = solver.solve();
+            final long micros = (System.nanoTime() - start) / 1000;
+            line = name + "\t" + (solved ? "solved" : "unsolvable")
+                    + "\t" + (solved ? solution(puzzle.getGrid()) : "-")
+                    + "\t" + solver.getNodes() + "\t" + micros
+                    + (statistics ? "\t" + solver.getStatistics().toColumns() : "");
+        } catch (IOException | RuntimeException e) {
+            line = name + "\terror\t" + e + "\t0\t0";
+        }
+        synchronized (printer) {
+            printer.println(line);
+        }
+        return solved;
+    }
+
+    /**
+     * Formats the digits of a grid as rows separated by {@code /}.
+     * Digits within a row are separated by {@code ,} if some digit of the
+     * layout has two decimal digits.
+     *
+     * @param grid the grid
+     * @return the formatted digits
+     */
+    static String solution(final SujikoGrid grid) {
+        final String separator = grid.getLayout().getMaxDigit() > 9 ? "," : "";
+        final StringBuilder sb = new StringBuilder();
+        grid.getCells().forEach(row -> {
+            if (sb.length() > 0) {
+                sb.append('/');
+            }
+            String before = "";
+            for (DigitCell cell : row) {
+                sb.append(before).append(cell.getDigit());
+                before = separator;
+            }
+        });
+        return sb.toString();
+    }
+
+    /**
+     * Expands command-line arguments into puzzle files.
+     *
+     * @param arguments directories, files or globs
+     * @return the puzzle files, sorted per argument
+     * @throws IOException  if a directory cannot be read
+     */
+    public static List<Path> expand(final List<String> arguments) throws IOException {
+        final List<Path> result = new ArrayList<>();
+        for (String argument : arguments) {
+            final int glob = indexOfGlob(argument);
+            final Path base;
+            final PathMatcher matcher;
+            if (glob >= 0) {
+                final int slash = argument.lastIndexOf('/', glob);
+                base = Paths.get(slash < 0 ? "." : argument.substring(0, slash + 1));
+                matcher = base.getFileSystem().getPathMatcher("glob:"
+                        + (slash < 0 ? argument : argument.substring(slash + 1)));
+            } else if (Files.isDirectory(Paths.get(argument))) {
+                base = Paths.get(argument);
+                matcher = base.getFileSystem().getPathMatcher("glob:**.zgr");
+            } else {
+                result.add(Paths.get(argument));
+                continue;
+            }
+            try (Stream<Path> paths = Files.walk(base)) {
+                paths.filter(path -> Files.isRegularFile(path)
+                        && matcher.matches(base.relativize(path)))
+                        .sorted().forEach(result::add);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the first glob special character in an argument.
+     *
+     * @param argument the argument
+     * @return index of the first wildcard, bracket or brace, or -1 if none
+     */
+    private static int indexOfGlob(final String argument) {
+        for (int i = 0; i < argument.length(); i++) {
+            if ("*?[{".indexOf(argument.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Runs the batch solver from the command line.
+     * Invalid options print the usage and exit with status 2.
+     *
+     * @param args the command line arguments, see class description
+     * @throws IOException  if puzzles cannot be listed or output cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        BatchOptions options = null;
+        try {
+            options = BatchOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            usage();
+        }
+        new BatchSolver(options.factory(), options.threads, options.statistics,
+                openCache(options.cacheFile))
+                .run(expand(options.arguments), options.output, options.cacheFile);
+    }
+
+    /**
+     * Prints the usage and exits with status 2.
+     */
+    private static void usage() {
+        System.err.println("Usage: BatchSolver [-t threads] [-s "
+                + String.join("|", BatchOptions.SOLVERS)
+                + "] [-c cellOrder] [-d digitOrder] [-S] [-C cacheFile] [-K catalogueFile]"
+                + " [-o file]"
+                + " (directory | file | glob)...");
+        System.exit(2);
+    }
+
+    /**
+     * Opens the cache for option {@code -C}.
+     *
+     * @param cacheFile the cache file, or {@code null} for no cache
+     * @return the cache, holding the entries of the file if it exists;
+     *     null for no cache
+     * @throws IOException  if the file exists but cannot be read
+     */
+    private static SolveCache openCache(final String cacheFile) throws IOException {
+        return cacheFile == null ? null
+                : SolveCache.open(Paths.get(cacheFile), SolveCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Solves puzzle files for {@link #main}, reports the number solved
+     * and saves the cache.
+     *
+     * @param files the puzzle files
+     * @param output the output file name, or {@code null} for standard output
+     * @param cacheFile the cache file, used if there is a cache
+     * @throws IOException  if the output or the cache cannot be written
+     */
+    private void run(final List<Path> files, final String output, final String cacheFile)
+            throws IOException {
+        try (Writer out = open(output)) {
+            final int solved = solveAll(files, out);
+            System.err.println("Solved " + solved + " of " + files.size() + " puzzles");
+        }
+        if (cache != null) {
+            cache.save(Paths.get(cacheFile));
+            System.err.println("Cache: " + cache);
+        }
+    }
+
+    /**
+     * Opens the output for result lines.
+     *
+     * @param output the output file name, or {@code null} for standard output
+     * @return the writer
+     * @throws IOException  if the output file cannot be created
+     */
+    private static Writer open(final String output) throws IOException {
+        if (output == null) {
+            return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        }
+        return Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8);
+    }
+}
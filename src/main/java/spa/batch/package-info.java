@@ -0,0 +1,5 @@
+/**
+ * Package holding headless tools that process many puzzles at once.
+ *
+ */
+package spa.batch;
@@ -0,0 +1,417 @@
+package spa.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import spa.model.Canonicalizer;
+import spa.model.SujikoGrid;
+
+/**
+ * Bounded cache of solve results, evicting the least recently used entry.
+ * <p>
+ * A puzzle is identified by its key, an {@code int} array with the shape
+ * of the layout and the digits and sums of the puzzle's canonical form
+ * (see {@link Canonicalizer#key(SujikoGrid)}), and the cache is indexed
+ * by a 64-bit fingerprint of the key.  Every entry keeps its key, so a lookup only
+ * hits if the key is equal: fingerprint collisions cost a miss, never a
+ * wrong solution.  An entry holds the solution in the orientation of the
+ * canonical form, or records that there is none, and the nodes and time
+ * the solver spent.  Since puzzles that are equivalent under a
+ * {@link spa.model.Symmetry} have the same canonical form, they share
+ * an entry; {@link #lookUp(SujikoGrid)} maps the solution back to the
+ * orientation of the grid.
+ * <p>
+ * All methods are synchronized, so one cache can serve many solver
+ * threads; a lookup takes far less time than a solve.
+ * {@link #save(Path)} writes the entries, least recently used first, and
+ * {@link #load(Path)} reads them back, in big-endian:
+ * {@link #MAGIC}, {@link #VERSION}, the number of entries and, per entry,
+ * the length and the {@code int}s of the key, the length (0 if unsolvable)
+ * and the digits of the solution, the nodes and the nanoseconds.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public final class SolveCache {
+
+    /** First {@code int} of a saved cache. */
+    public static final int MAGIC = 0x534A4B53;
+
+    /** Version of the saved cache. */
+    public static final int VERSION = 1;
+
+    /** Default number of entries. */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** Multiplier of the fingerprint, the 64-bit golden ratio. */
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /** Maximum number of entries. */
+    private final int capacity;
+
+    /** The entries by fingerprint, least recently used first. */
+    private final LinkedHashMap<Long, Entry> entries;
+
+    /** Number of lookups that found an entry. */
+    private long hits;
+
+    /** Number of lookups that found no entry. */
+    private long misses;
+
+    /** Number of entries evicted to respect the capacity. */
+    private long evictions;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param capacity the maximum number of entries
+     * @throws IllegalArgumentException  if {@code capacity < 1}
+     * @pre {@code capacity >= 1}
+     */
+    public SolveCache(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + "().pre failed: capacity " + capacity + " < 1");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, Entry> eldest) {
+                if (size() > SolveCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The result of solving one puzzle.  Entries are immutable.
+     */
+    public static final class Entry {
+
+        /** The key of the puzzle. */
+        private final int[] key;
+
+        /** The digits of the solution in row-major order; null if unsolvable. */
+        private final int[] solution;
+
+        /** Nodes visited by the solver. */
+        private final long nodes;
+
+        /** Time spent by the solver. */
+        private final long nanos;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param key the key of the puzzle, not copied
+         * @param solution the digits of the solution, or null; not copied
+         * @param nodes the nodes visited
+         * @param nanos the time spent in nanoseconds
+         */
+        Entry(final int[] key, final int[] solution, final long nodes, final long nanos) {
+            this.key = key;
+            this.solution = solution;
+            this.nodes = nodes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Determines whether the puzzle has a solution.
+         *
+         * @return whether there is a solution
+         */
+        public boolean isSolvable() {
+            return solution != null;
+        }
+
+        /**
+         * Gets a digit of the solution.
+         *
+         * @param cell the row-major cell index
+         * @return the digit
+         * @pre {@code isSolvable()}
+         */
+        public int getDigit(final int cell) {
+            return solution[cell];
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of a key.
+     *
+     * @param key the key
+     * @return the fingerprint
+     */
+    public static long fingerprint(final int[] key) {
+        long h = key.length;
+        for (int value : key) {
+            h = (h ^ value) * GOLDEN;
+            h ^= h >>> 29;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ h >>> 33;
+    }
+
+    /**
+     * Looks up the result of a puzzle, counting a hit or a miss.
+     *
+     * @param key the key of the puzzle, as computed by
+     *     {@link Canonicalizer#key(SujikoGrid)}
+     * @return the entry, or null if the puzzle is not in the cache
+     */
+    public synchronized Entry get(final int[] key) {
+        final Entry entry = entries.get(fingerprint(key));
+        if (entry == null || !Arrays.equals(entry.key, key)) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry;
+    }
+
+    /**
+     * Looks up the result of the puzzle in a grid, or of an equivalent
+     * puzzle, counting a hit or a miss.
+     *
+     * @param grid the grid
+     * @return the lookup, through which the result can also be stored
+     */
+    public Lookup lookUp(final SujikoGrid grid) {
+        final Canonicalizer canonicalizer = Canonicalizer.of(grid.getLayout());
+        final int symmetry = canonicalizer.canonicalSymmetry(grid);
+        final int[] key = canonicalizer.key(grid, symmetry);
+        return new Lookup(key, canonicalizer.getCellMap(symmetry), get(key));
+    }
+
+    /**
+     * The outcome of looking a grid up, in the orientation of the grid.
+     */
+    public final class Lookup {
+
+        /** The key of the puzzle. */
+        private final int[] key;
+
+        /** The image of every cell of the grid in the canonical form. */
+        private final int[] cellMap;
+
+        /** The entry found; null on a miss. */
+        private final Entry entry;
+
+        /**
+         * Constructs a lookup.
+         *
+         * @param key the key of the puzzle
+         * @param cellMap the image of every cell in the canonical form
+         * @param entry the entry found, or null
+         */
+        Lookup(final int[] key, final int[] cellMap, final Entry entry) {
+            this.key = key;
+            this.cellMap = cellMap;
+            this.entry = entry;
+        }
+
+        /**
+         * Determines whether the puzzle was found.
+         *
+         * @return whether the cache was hit
+         */
+        public boolean isHit() {
+            return entry != null;
+        }
+
+        /**
+         * Gets the entry found, in the orientation of the canonical form.
+         *
+         * @return the entry, or null on a miss
+         */
+        public Entry getEntry() {
+            return entry;
+        }
+
+        /**
+         * Gets a digit of the cached solution.
+         *
+         * @param cell the row-major index of a cell of the grid looked up
+         * @return the digit of the cell in the solution
+         * @pre {@code isHit() && getEntry().isSolvable()}
+         */
+        public int getDigit(final int cell) {
+            return entry.getDigit(cellMap[cell]);
+        }
+
+        /**
+         * Stores the result of solving the grid looked up.
+         *
+         * @param solved the grid holding the solution, or null if there is none
+         * @param nodes the nodes visited by the solver
+         * @param nanos the time spent by the solver in nanoseconds
+         */
+        public void put(final SujikoGrid solved, final long nodes, final long nanos) {
+            int[] solution = null;
+            if (solved != null) {
+                solution = new int[cellMap.length];
+                for (int cell = 0; cell < cellMap.length; cell++) {
+                    solution[cellMap[cell]] = solved.getCell(cell).getDigit();
+                }
+            }
+            SolveCache.this.put(key, solution, nodes, nanos);
+        }
+    }
+
+    /**
+     * Stores the result of a puzzle, replacing an entry with the same
+     * fingerprint and evicting the least recently used entry if the
+     * cache is full.
+     *
+     * @param key the key of the puzzle, not copied
+     * @param solution the digits of the solution in row-major order, or
+     *     null if the puzzle has none; not copied
+     * @param nodes the nodes visited by the solver
+     * @param nanos the time spent by the solver in nanoseconds
+     */
+    public synchronized void put(final int[] key, final int[] solution, final long nodes,
+            final long nanos) {
+        entries.put(fingerprint(key), new Entry(key, solution, nodes, nanos));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "hits " + hits + ", misses " + misses + ", evictions " + evictions
+                + ", entries " + entries.size() + "/" + capacity;
+    }
+
+    /**
+     * Creates a cache holding the entries saved in a file, if it exists.
+     *
+     * @param file the file
+     * @param capacity the maximum number of entries
+     * @return the cache
+     * @throws IOException  if the file exists but cannot be read or is not
+     *     a saved cache of this version
+     */
+    public static SolveCache open(final Path file, final int capacity) throws IOException {
+        final SolveCache cache = new SolveCache(capacity);
+        if (Files.exists(file)) {
+            cache.load(file);
+        }
+        return cache;
+    }
+
+    /**
+     * Writes the entries, least recently used first.
+     *
+     * @param file the file, replaced if it exists
+     * @throws IOException  if the file cannot be written
+     */
+    public synchronized void save(final Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                writeInts(out, entry.key);
+                writeInts(out, entry.solution == null ? new int[0] : entry.solution);
+                out.writeLong(entry.nodes);
+                out.writeLong(entry.nanos);
+            }
+        }
+    }
+
+    /**
+     * Adds the entries written by {@link #save(Path)}, as if they were
+     * stored in the order written.  The counters are not changed, except
+     * for evictions if the entries do not fit.
+     *
+     * @param file the file
+     * @throws IOException  if the file cannot be read or is not a saved
+     *     cache of this version
+     */
+    public synchronized void load(final Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(file + " is not a Sujiko solve cache, version "
+                        + VERSION);
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final int[] key = readInts(in);
+                final int[] solution = readInts(in);
+                put(key, solution.length == 0 ? null : solution, in.readLong(), in.readLong());
+            }
+        }
+    }
+
+    /**
+     * Writes an array preceded by its length.
+     *
+     * @param out the stream
+     * @param values the array
+     * @throws IOException  if the stream cannot be written
+     */
+    private static void writeInts(final DataOutputStream out, final int[] values)
+            throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * Reads an array written by {@link #writeInts}.
+     *
+     * @param in the stream
+     * @return the array
+     * @throws IOException  if the stream cannot be read or is malformed
+     */
+    private static int[] readInts(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0 || length > 1 << 16) {
+            throw new IOException("bad array length " + length);
+        }
+        final int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Package holding the cache of solve results shared between solvers.
+ *
+ */
+package spa.cache;
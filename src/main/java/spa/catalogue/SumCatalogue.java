@@ -0,0 +1,361 @@
+package spa.catalogue;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import spa.model.CircleLayout;
+import spa.model.SumCell;
+
+/**
+ * Catalogue of all 9! fillings of the classic 3 by 3 grid, grouped by
+ * their circle sums.
+ * The four sums of a filling form its key; for every key the catalogue
+ * holds the fillings with those sums, so solving a classic puzzle comes
+ * down to looking up its key and picking the fillings that agree with
+ * its givens.
+ * <p>
+ * A filling is packed in an {@code int}: the digit of cell {@code c}
+ * (row-major) for {@code c < 8} is nibble {@code c}, and the digit of the
+ * last cell is 45 minus the others.  Within a key the fillings are in
+ * lexicographic order.
+ * <p>
+ * The binary index written by {@link #write(Path)} is, in big-endian
+ * {@code int}s: {@link #MAGIC}, {@link #VERSION}, the number of fillings,
+ * the offset of every key (plus a final offset) and the packed fillings;
+ * about 2.2 MB.
+ * Catalogues are immutable and can be shared between threads.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public final class SumCatalogue {
+
+    /** First {@code int} of the binary index. */
+    public static final int MAGIC = 0x534A4B43;
+
+    /** Version of the binary index. */
+    public static final int VERSION = 1;
+
+    /** Smallest circle sum, 1 + 2 + 3 + 4. */
+    public static final int MIN_SUM = 10;
+
+    /** Largest circle sum, 6 + 7 + 8 + 9. */
+    public static final int MAX_SUM = 30;
+
+    /** Number of different keys. */
+    public static final int KEYS = pow(MAX_SUM - MIN_SUM + 1, 4);
+
+    /** Number of cells. */
+    private static final int CELLS = 9;
+
+    /** Sum of the digits 1..9. */
+    private static final int TOTAL = 45;
+
+    /** Number of fillings, 9!. */
+    private static final int FILLINGS = 362_880;
+
+    /** For every key, the index of its first filling; one extra at the end. */
+    private final int[] offsets;
+
+    /** The packed fillings, grouped by key. */
+    private final int[] fillings;
+
+    /**
+     * Constructs a catalogue from its arrays.
+     *
+     * @param offsets the offsets, not copied
+     * @param fillings the packed fillings, not copied
+     */
+    private SumCatalogue(final int[] offsets, final int[] fillings) {
+        this.offsets = offsets;
+        this.fillings = fillings;
+    }
+
+    /** Holder of the shared catalogue, built on first use. */
+    private static final class Shared {
+        /** The shared catalogue. */
+        static final SumCatalogue INSTANCE = build();
+    }
+
+    /**
+     * Gets a shared catalogue, built in memory on first use.
+     *
+     * @return the catalogue
+     */
+    public static SumCatalogue classic() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Computes a power.
+     *
+     * @param base the base
+     * @param exponent the exponent
+     * @return {@code base} to the power {@code exponent}
+     */
+    private static int pow(final int base, final int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+
+    /**
+     * Builds the catalogue by enumerating all fillings.
+     *
+     * @return the catalogue
+     */
+    public static SumCatalogue build() {
+        final int[] offsets = new int[KEYS + 1];
+        final int[] keys = new int[FILLINGS];
+        final int[] packed = new int[FILLINGS];
+        final int[] digits = {1, 2, 3, 4, 5, 6, 7, 8, 9};
+        int count = 0;
+        do {
+            keys[count] = key(digits);
+            packed[count] = pack(digits);
+            offsets[keys[count] + 1]++;
+            count++;
+        } while (nextPermutation(digits));
+        for (int key = 0; key < KEYS; key++) {
+            offsets[key + 1] += offsets[key];
+        }
+        final int[] fillings = new int[FILLINGS];
+        final int[] next = offsets.clone();
+        for (int i = 0; i < FILLINGS; i++) {
+            fillings[next[keys[i]]++] = packed[i];
+        }
+        return new SumCatalogue(offsets, fillings);
+    }
+
+    /**
+     * Rearranges digits into the lexicographically next permutation.
+     *
+     * @param digits the digits, modified
+     * @return whether there was a next permutation
+     */
+    private static boolean nextPermutation(final int[] digits) {
+        int i = digits.length - 2;
+        while (i >= 0 && digits[i] > digits[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        int j = digits.length - 1;
+        while (digits[j] < digits[i]) {
+            j--;
+        }
+        swap(digits, i, j);
+        for (int left = i + 1, right = digits.length - 1; left < right; left++, right--) {
+            swap(digits, left, right);
+        }
+        return true;
+    }
+
+    /**
+     * Swaps two elements of an array.
+     *
+     * @param values the array
+     * @param i the index of one element
+     * @param j the index of the other element
+     */
+    private static void swap(final int[] values, final int i, final int j) {
+        final int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    /**
+     * Computes the key of a filling.
+     *
+     * @param digits the digits in row-major order
+     * @return the key
+     */
+    private static int key(final int[] digits) {
+        final CircleLayout layout = CircleLayout.CLASSIC;
+        int key = 0;
+        for (int circle = 0; circle < layout.getCircleCount(); circle++) {
+            int sum = 0;
+            for (int cell : layout.getCircleCells(circle)) {
+                sum += digits[cell];
+            }
+            key = key * (MAX_SUM - MIN_SUM + 1) + sum - MIN_SUM;
+        }
+        return key;
+    }
+
+    /**
+     * Computes the key of four circle sums.
+     *
+     * @param sumCells the sum cells of a classic grid
+     * @return the key, or -1 if some sum is out of range (so that no
+     *     filling has these sums)
+     */
+    public static int key(final List<SumCell> sumCells) {
+        int key = 0;
+        for (SumCell sumCell : sumCells) {
+            final int sum = sumCell.getSum();
+            if (sum < MIN_SUM || sum > MAX_SUM) {
+                return -1;
+            }
+            key = key * (MAX_SUM - MIN_SUM + 1) + sum - MIN_SUM;
+        }
+        return key;
+    }
+
+    /**
+     * Packs a filling.
+     *
+     * @param digits the digits in row-major order
+     * @return the packed filling
+     */
+    private static int pack(final int[] digits) {
+        int packed = 0;
+        for (int cell = CELLS - 2; cell >= 0; cell--) {
+            packed = packed << 4 | digits[cell];
+        }
+        return packed;
+    }
+
+    /**
+     * Gets a digit of a packed filling.
+     *
+     * @param packed the packed filling
+     * @param cell the row-major cell index
+     * @return the digit of the cell
+     */
+    public static int digit(final int packed, final int cell) {
+        if (cell < CELLS - 1) {
+            return packed >>> (4 * cell) & 0xF;
+        }
+        int rest = TOTAL;
+        for (int c = 0; c < CELLS - 1; c++) {
+            rest -= packed >>> (4 * c) & 0xF;
+        }
+        return rest;
+    }
+
+    /**
+     * Gets the number of fillings with a key.
+     *
+     * @param key the key, or -1
+     * @return the number of fillings, 0 for -1
+     */
+    public int size(final int key) {
+        return key < 0 ? 0 : offsets[key + 1] - offsets[key];
+    }
+
+    /**
+     * Gets a filling with a key.
+     *
+     * @param key the key
+     * @param i the number of the filling
+     * @return the packed filling
+     * @pre {@code 0 <= i < size(key)}
+     */
+    public int filling(final int key, final int i) {
+        return fillings[offsets[key] + i];
+    }
+
+    /**
+     * Gets the number of keys with at least one filling.
+     *
+     * @return the number of keys
+     */
+    public int keyCount() {
+        int count = 0;
+        for (int key = 0; key < KEYS; key++) {
+            if (offsets[key + 1] != offsets[key]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the largest number of fillings with the same key, which bounds
+     * the work of a lookup.
+     *
+     * @return the largest number of fillings
+     */
+    public int maxSize() {
+        int max = 0;
+        for (int key = 0; key < KEYS; key++) {
+            max = Math.max(max, offsets[key + 1] - offsets[key]);
+        }
+        return max;
+    }
+
+    /**
+     * Writes the binary index.
+     *
+     * @param file the file
+     * @throws IOException  if the file cannot be written
+     */
+    public void write(final Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(fillings.length);
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            for (int filling : fillings) {
+                out.writeInt(filling);
+            }
+        }
+    }
+
+    /**
+     * Reads a binary index written by {@link #write(Path)}.
+     *
+     * @param file the file
+     * @return the catalogue
+     * @throws IOException  if the file cannot be read or is not a
+     *     catalogue of this version
+     */
+    public static SumCatalogue read(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            final int expected = (3 + KEYS + 1 + FILLINGS) * Integer.BYTES;
+            if (buffer.remaining() != expected || buffer.getInt() != MAGIC
+                    || buffer.getInt() != VERSION || buffer.getInt() != FILLINGS) {
+                throw new IOException(file + " is not a Sujiko catalogue, version " + VERSION);
+            }
+            final int[] offsets = new int[KEYS + 1];
+            final int[] fillings = new int[FILLINGS];
+            buffer.asIntBuffer().get(offsets).get(fillings);
+            return new SumCatalogue(offsets, fillings);
+        }
+    }
+
+    /**
+     * Builds the catalogue and writes its binary index.
+     *
+     * @param args the name of the index file
+     * @throws IOException  if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: SumCatalogue file");
+            System.exit(2);
+        }
+        final long start = System.nanoTime();
+        final SumCatalogue catalogue = build();
+        final Path file = Paths.get(args[0]);
+        catalogue.write(file);
+        System.err.println("Wrote " + catalogue.keyCount() + " sum quadruples, at most "
+                + catalogue.maxSize() + " fillings each, " + Files.size(file) + " bytes in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Package holding precomputed catalogues of classic Sujiko puzzles.
+ *
+ */
+package spa.catalogue;
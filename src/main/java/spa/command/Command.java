@@ -1,9 +1,7 @@
 package spa.command;
 
 
-import java.util.Collection;
-import java.util.HashSet;
-import spa.model.DigitCell;
+import spa.model.CellSet;
 
 /**
  * Abstract base class to represent an executable and revertible command,
@@ -18,6 +16,9 @@ import spa.model.DigitCell;
  */
 public abstract class Command {
 
+    /** Rough number of bytes taken on the heap by a command object. */
+    static final long OBJECT_BYTES = 32;
+
     /** Execution state. */
     private boolean executed;
 
@@ -74,12 +75,36 @@ public abstract class Command {
     }
 
     /**
-     * Gets all the cells involved in this command.  Must be overridden.
+     * Gets all the cells involved in this command,
+     * as collected by {@link #addCells(CellSet)}.
+     *
+     * @return set of all cells involved in this command
+     */
+    public CellSet getCells() {
+        final CellSet result = new CellSet();
+        addCells(result);
+        return result;
+    }
+
+    /**
+     * Adds the cells involved in this command to a set.  Must be overridden
+     * by commands that involve cells.
+     *
+     * @param cells  the set to add to
+     * @modifies {@code cells}
+     */
+    protected void addCells(final CellSet cells) {
+        // no cells
+    }
+
+    /**
+     * Estimates the number of bytes this command takes on the heap,
+     * for bounding the history of {@link UndoRedo}.
      *
-     * @return collection of all cells involved in this command
+     * @return the estimate
      */
-    public Collection<DigitCell> getCells() {
-        return new HashSet<>();
+    long footprint() {
+        return OBJECT_BYTES;
     }
 
 }
@@ -0,0 +1,164 @@
+package spa.command;
+
+import java.util.ArrayDeque;
+
+/**
+ * A stack of history entries of {@link UndoRedo} whose bottom entry can
+ * also be dropped.  An entry is a packed set-command, kept as a
+ * nonnegative {@code int}, or a command object, kept as {@link #OBJECT}
+ * with the object itself in a deque in the same order.
+ * The codes are kept in a circular array whose length is a power of 2,
+ * so pushing, popping and dropping take amortized constant time.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+final class CommandStack {
+
+    /** Code of an entry that is a command object. */
+    static final int OBJECT = -1;
+
+    /** Initial capacity of the array of codes; capacities are powers of 2. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The codes, from {@link #bottom} on, wrapping around. */
+    private int[] codes = new int[INITIAL_CAPACITY];
+
+    /** Position in {@link #codes} of the bottom entry. */
+    private int bottom;
+
+    /** Number of entries. */
+    private int size;
+
+    /** The command objects of the entries, from bottom to top. */
+    private final ArrayDeque<Command> objects = new ArrayDeque<>();
+
+    /* Rep. invariant:
+     *  0 <= size <= codes.length && 0 <= bottom < codes.length
+     *  objects.size() == number of entries with code OBJECT
+     */
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Determines whether there are no entries.
+     *
+     * @return whether the stack is empty
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Pushes an entry.
+     *
+     * @param code the packed set-command, or {@link #OBJECT}
+     * @param command the command object if {@code code == OBJECT}, else ignored
+     */
+    void push(final int code, final Command command) {
+        if (size == codes.length) {
+            final int[] grown = new int[2 * codes.length];
+            for (int i = 0; i < size; i++) {
+                grown[i] = codes[(bottom + i) & (codes.length - 1)];
+            }
+            codes = grown;
+            bottom = 0;
+        }
+        codes[(bottom + size) & (codes.length - 1)] = code;
+        size++;
+        if (code == OBJECT) {
+            objects.addLast(command);
+        }
+    }
+
+    /**
+     * Gets the code of the top entry.
+     *
+     * @return the code
+     * @pre {@code !isEmpty()}
+     */
+    int peek() {
+        return codes[(bottom + size - 1) & (codes.length - 1)];
+    }
+
+    /**
+     * Gets the command object of the top entry.
+     *
+     * @return the command
+     * @pre {@code peek() == OBJECT}
+     */
+    Command peekCommand() {
+        return objects.peekLast();
+    }
+
+    /**
+     * Replaces the code of the top entry.
+     *
+     * @param code the new packed set-command
+     * @pre {@code peek() != OBJECT && code != OBJECT}
+     */
+    void replace(final int code) {
+        codes[(bottom + size - 1) & (codes.length - 1)] = code;
+    }
+
+    /**
+     * Removes the top entry.
+     *
+     * @pre {@code !isEmpty()}
+     */
+    void pop() {
+        if (peek() == OBJECT) {
+            objects.removeLast();
+        }
+        size--;
+    }
+
+    /**
+     * Gets the code of the bottom entry.
+     *
+     * @return the code
+     * @pre {@code !isEmpty()}
+     */
+    int peekBottom() {
+        return codes[bottom];
+    }
+
+    /**
+     * Gets the command object of the bottom entry.
+     *
+     * @return the command
+     * @pre {@code peekBottom() == OBJECT}
+     */
+    Command peekBottomCommand() {
+        return objects.peekFirst();
+    }
+
+    /**
+     * Removes the bottom entry.
+     *
+     * @pre {@code !isEmpty()}
+     */
+    void removeBottom() {
+        if (peekBottom() == OBJECT) {
+            objects.removeFirst();
+        }
+        bottom = (bottom + 1) & (codes.length - 1);
+        size--;
+    }
+
+    /**
+     * Removes all entries, releasing their storage.
+     */
+    void clear() {
+        codes = new int[INITIAL_CAPACITY];
+        bottom = 0;
+        size = 0;
+        objects.clear();
+    }
+}
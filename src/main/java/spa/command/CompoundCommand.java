@@ -2,9 +2,8 @@ package spa.command;
 
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import spa.model.DigitCell;
+import spa.model.CellSet;
 
 /**
  * A compound command consists of a sequence of commands.
@@ -93,6 +92,15 @@ public class CompoundCommand extends Command {
         return sequence.size();
     }
 
+    /**
+     * Gets the commands in this command.
+     *
+     * @return the commands, in order; not to be modified
+     */
+    List<Command> getCommands() {
+        return sequence;
+    }
+
     @Override
     public void execute() {
         if (size() != 0) {
@@ -116,17 +124,31 @@ public class CompoundCommand extends Command {
     }
 
     /**
-     * Gets all the cells involved in the commands of this.
+     * Adds the cells involved in the commands of this, without
+     * collecting them per command.
+     *
+     * @param cells  the set to add to
+     */
+    @Override
+    protected void addCells(final CellSet cells) {
+        for (final Command command : sequence) {
+            command.addCells(cells);
+        }
+    }
+
+    /**
+     * Estimates the number of bytes this command takes on the heap:
+     * itself, its list and the commands in it.
      *
-     * @return collection of cells involved in this command
+     * @return the estimate
      */
     @Override
-    public Collection<DigitCell> getCells() {
-        final Collection<DigitCell> result = super.getCells();
+    long footprint() {
+        long bytes = 3 * OBJECT_BYTES + (long) Integer.BYTES * sequence.size();
         for (final Command command : sequence) {
-            result.addAll(command.getCells());
+            bytes += command.footprint();
         }
-        return result;
+        return bytes;
     }
 
     @Override
@@ -26,7 +26,20 @@ public class GenericCommand<R> extends Command {
      * @throws NullPointerException  if {@code receiver == null}
      */
     public GenericCommand(final R receiver) throws NullPointerException {
-        super(false);
+        this(receiver, false);
+    }
+
+    /**
+     * Constructs a command for a given receiver and initial execution state.
+     *
+     * @param receiver  the given receiver
+     * @param executed  initial execution state
+     * @pre {@code receiver != null}
+     * @throws NullPointerException  if {@code receiver == null}
+     */
+    protected GenericCommand(final R receiver, final boolean executed)
+            throws NullPointerException {
+        super(executed);
         if (receiver == null) {
             throw new NullPointerException(getClass().getSimpleName()
                     + "(receiver).pre failed: receiver == null");
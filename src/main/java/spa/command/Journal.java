@@ -0,0 +1,616 @@
+package spa.command;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import spa.model.SujikoGrid;
+
+/**
+ * Append-only journal of an {@link UndoRedo} session, from which the
+ * session can be reconstructed after a crash by {@link #replay}.
+ * <p>
+ * A session starts with {@link #begin(SujikoGrid)}, which records the
+ * puzzle and discards the previous session; after that, every
+ * {@code did}, {@code undo}, {@code redo}, {@code jump} and {@code clear} of an
+ * {@code UndoRedo} with this journal (see {@link UndoRedo#setJournal})
+ * appends a compact binary record.  Commands must consist of
+ * {@link SetCommand}s on cells of the grid: a set-command takes 5 bytes,
+ * a compound command 5 bytes plus 4 per set-command, a jump 5, an undo or
+ * redo 1.
+ * <p>
+ * Records are appended to a buffer in memory, so the thread doing the
+ * commands (the event dispatch thread) never waits for the disk.  A
+ * background thread writes whatever is buffered to a {@link FileChannel}
+ * and then forces it to the device, once per batch: records appended
+ * while it does so are committed together in the next batch.
+ * {@link #flush()} waits until every record appended is durable.
+ * Once writing has failed, or the journal is closed, records are dropped.
+ * <p>
+ * File format (big-endian): {@link #MAGIC}, {@link #VERSION}, then the
+ * records, each a type byte followed by its data.  A record cut short
+ * by a crash ends the journal.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public final class Journal implements Closeable {
+
+    /** First bytes of a journal: {@code SJNL}. */
+    public static final int MAGIC = 0x534A4E4C;
+
+    /** Version of the format. */
+    public static final int VERSION = 1;
+
+    /** Record: start of a session; the length and UTF-8 text of the puzzle follow. */
+    private static final byte BEGIN = 'B';
+
+    /** Record: a set-command done; one packed set follows. */
+    private static final byte SET = 'S';
+
+    /** Record: a compound command done; the count and the packed sets follow. */
+    private static final byte COMPOUND = 'C';
+
+    /** Record: an undo that can be redone. */
+    private static final byte UNDO = 'U';
+
+    /** Record: an undo that cannot be redone. */
+    private static final byte UNDO_FORGET = 'u';
+
+    /** Record: a redo. */
+    private static final byte REDO = 'R';
+
+    /** Record: a jump in the history; the position follows. */
+    private static final byte JUMP = 'J';
+
+    /** Record: the history was cleared. */
+    private static final byte CLEAR = 'X';
+
+    /** Position of the cell index in a packed set; the digit is below it. */
+    private static final int CELL_SHIFT = 8;
+
+    /** Mask of the digit in a packed set. */
+    private static final int DIGIT_MASK = 0xFF;
+
+    /** Initial capacity of the buffers. */
+    private static final int BUFFER_BYTES = 1 << 12;
+
+    /** The file. */
+    private final FileChannel channel;
+
+    /** The thread writing batches to the file. */
+    private final Thread writer;
+
+    /** Records appended but not yet taken by the writer. */
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_BYTES);
+
+    /** Buffer for the next batch; null while the writer uses it. */
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_BYTES);
+
+    /** Whether the file is to be emptied before the pending records are written. */
+    private boolean reset;
+
+    /** Whether the writer is writing a batch. */
+    private boolean writing;
+
+    /** Whether the writer waits for records. */
+    private boolean idle;
+
+    /** Whether the journal is closed. */
+    private boolean closed;
+
+    /** Number of batches forced to the device. */
+    private long commits;
+
+    /** The error that stopped the writer; null if none. */
+    private IOException failure;
+
+    /**
+     * Constructs a journal writing to an open channel.
+     *
+     * @param channel the channel, positioned after the last complete record
+     */
+    private Journal(final FileChannel channel) {
+        this.channel = channel;
+        writer = new Thread(this::write, "journal " + channel);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Opens a journal, to append to the session in it, if any.
+     * A record cut short at its end is discarded.
+     *
+     * @param file the file; created if absent
+     * @return the journal
+     * @throws IOException  if the file cannot be opened
+     */
+    public static Journal open(final Path file) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+        while (content.hasRemaining() && channel.read(content) >= 0) {
+            // read all
+        }
+        content.flip();
+        final long end = new Replay(null).run(content);
+        channel.truncate(end);
+        channel.position(end);
+        return new Journal(channel);
+    }
+
+    /**
+     * Starts a new session, discarding the previous one.
+     *
+     * @param grid the puzzle at the start of the session
+     */
+    public synchronized void begin(final SujikoGrid grid) {
+        if (!isAccepting()) {
+            return;
+        }
+        final byte[] text = grid.toString().getBytes(StandardCharsets.UTF_8);
+        pending.clear();
+        reset = true;
+        reserve(2 * Integer.BYTES + 1 + Integer.BYTES + text.length);
+        pending.putInt(MAGIC).putInt(VERSION);
+        pending.put(BEGIN).putInt(text.length).put(text);
+        wake();
+    }
+
+    /**
+     * Records a command done.
+     *
+     * @param command the command, made of set-commands on cells of the grid
+     * @throws IllegalArgumentException  if the command has other parts
+     */
+    synchronized void did(final Command command) {
+        final boolean set = command instanceof SetCommand;
+        final int code = set ? pack((SetCommand) command) : count(command);
+        if (!isAccepting()) {
+            return;
+        }
+        if (set) {
+            reserve(1 + Integer.BYTES);
+            pending.put(SET).putInt(code);
+        } else {
+            final int count = code;
+            reserve(1 + Integer.BYTES * (1 + count));
+            pending.put(COMPOUND).putInt(count);
+            putSets(command);
+        }
+        wake();
+    }
+
+    /**
+     * Records an undo.
+     *
+     * @param redoable whether the command undone can be redone
+     */
+    synchronized void undone(final boolean redoable) {
+        append(redoable ? UNDO : UNDO_FORGET);
+    }
+
+    /**
+     * Records a redo.
+     */
+    synchronized void redone() {
+        append(REDO);
+    }
+
+    /**
+     * Records a jump in the history.
+     *
+     * @param position the number of entries that can be undone after the jump
+     */
+    synchronized void jumped(final int position) {
+        if (!isAccepting()) {
+            return;
+        }
+        reserve(1 + Integer.BYTES);
+        pending.put(JUMP).putInt(position);
+        wake();
+    }
+
+    /**
+     * Records the clearing of the history.
+     */
+    synchronized void cleared() {
+        append(CLEAR);
+    }
+
+    /**
+     * Appends a record without data.
+     *
+     * @param type the type of the record
+     */
+    private void append(final byte type) {
+        if (!isAccepting()) {
+            return;
+        }
+        reserve(1);
+        pending.put(type);
+        wake();
+    }
+
+    /**
+     * Determines whether records are still appended.
+     *
+     * @return whether the journal is open and writing has not failed
+     */
+    private boolean isAccepting() {
+        return failure == null && !closed;
+    }
+
+    /**
+     * Wakes the writer if it waits for records.
+     */
+    private void wake() {
+        if (idle) {
+            idle = false;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Makes room in the pending buffer.
+     *
+     * @param bytes the number of bytes needed
+     */
+    private void reserve(final int bytes) {
+        if (pending.remaining() < bytes) {
+            final ByteBuffer grown = ByteBuffer.allocate(
+                    Math.max(2 * pending.capacity(), pending.position() + bytes));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+    }
+
+    /**
+     * Packs a set-command.
+     *
+     * @param command the set-command
+     * @return the cell index and the new digit
+     * @throws IllegalArgumentException  if the cell is not in a grid
+     */
+    private static int pack(final SetCommand command) {
+        final int index = command.receiver.getIndex();
+        if (index < 0) {
+            throw new IllegalArgumentException("Journal.did().pre failed: cell "
+                    + command.receiver.getLocation() + " not in a grid");
+        }
+        return index << CELL_SHIFT | command.getNewState();
+    }
+
+    /**
+     * Counts the set-commands of a command.
+     *
+     * @param command the command
+     * @return the number of set-commands
+     * @throws IllegalArgumentException  if the command has other parts
+     */
+    private static int count(final Command command) {
+        if (command instanceof SetCommand) {
+            return 1;
+        }
+        if (!(command instanceof CompoundCommand)) {
+            throw new IllegalArgumentException("Journal.did().pre failed: cannot record "
+                    + command.getClass().getSimpleName());
+        }
+        int count = 0;
+        for (Command part : ((CompoundCommand) command).getCommands()) {
+            count += count(part);
+        }
+        return count;
+    }
+
+    /**
+     * Appends the packed set-commands of a command, in order.
+     *
+     * @param command the command, made of set-commands
+     */
+    private void putSets(final Command command) {
+        if (command instanceof SetCommand) {
+            pending.putInt(pack((SetCommand) command));
+        } else {
+            for (Command part : ((CompoundCommand) command).getCommands()) {
+                putSets(part);
+            }
+        }
+    }
+
+    /**
+     * Waits until every record appended so far is durable.
+     *
+     * @throws IOException  if the journal cannot be written
+     * @throws InterruptedException  if interrupted while waiting
+     */
+    public synchronized void flush() throws IOException, InterruptedException {
+        while (failure == null && (pending.position() > 0 || writing) && writer.isAlive()) {
+            wait();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Gets the number of batches forced to the device so far.
+     *
+     * @return the number of commits
+     */
+    public synchronized long getCommits() {
+        return commits;
+    }
+
+    /**
+     * Writes the pending records and closes the file.
+     *
+     * @throws IOException  if the journal cannot be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (this) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Runs the writer: commits batches until closed.
+     */
+    private void write() {
+        try {
+            ByteBuffer batch = take();
+            while (batch != null) {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+                synchronized (this) {
+                    batch.clear();
+                    spare = batch;
+                    writing = false;
+                    commits++;
+                    notifyAll();
+                }
+                batch = take();
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+                writing = false;
+                pending = ByteBuffer.allocate(0);
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits for pending records and takes them as the next batch, emptying
+     * the file first after {@link #begin}.
+     *
+     * @return the batch, or null if the journal is closed and all is written
+     * @throws IOException  if the file cannot be emptied
+     */
+    private ByteBuffer take() throws IOException {
+        final boolean truncate;
+        final ByteBuffer batch;
+        synchronized (this) {
+            while (pending.position() == 0 && !closed) {
+                try {
+                    idle = true;
+                    wait();
+                } catch (InterruptedException e) {
+                    closed = true;
+                }
+            }
+            if (pending.position() == 0) {
+                notifyAll();
+                return null;
+            }
+            batch = pending;
+            pending = spare;
+            spare = null;
+            truncate = reset;
+            reset = false;
+            writing = true;
+        }
+        if (truncate) {
+            channel.truncate(0);
+            channel.position(0);
+        }
+        return batch;
+    }
+
+    /**
+     * Reconstructs the session of a journal: returns its puzzle and
+     * repeats its history on an undo-redo facility.
+     * Replay stops at a record cut short, that comes before the start of a
+     * session, or that cannot be repeated.
+     *
+     * @param file the journal
+     * @param undoRedo the undo-redo facility, without journal; cleared first
+     * @return the puzzle in its state at the end of the session, or null if
+     *     the file holds no session or only its start, so there is nothing
+     *     to recover
+     * @throws IOException  if the file cannot be read
+     * @modifies {@code undoRedo}
+     */
+    public static SujikoGrid replay(final Path file, final UndoRedo undoRedo)
+            throws IOException {
+        undoRedo.clear();
+        if (!Files.exists(file)) {
+            return null;
+        }
+        final Replay replay = new Replay(undoRedo);
+        replay.run(ByteBuffer.wrap(Files.readAllBytes(file)));
+        return replay.steps > 0 ? replay.grid : null;
+    }
+
+    /**
+     * Reads the records of a journal, optionally repeating them.
+     */
+    private static final class Replay {
+
+        /** The undo-redo facility repeating the history; null to only read. */
+        private final UndoRedo undoRedo;
+
+        /** The puzzle of the session; null before its start. */
+        private SujikoGrid grid;
+
+        /** Whether the start of a session has been read. */
+        private boolean begun;
+
+        /** Number of records repeated since the start of the session. */
+        private int steps;
+
+        /**
+         * Constructs a replay.
+         *
+         * @param undoRedo the undo-redo facility, or null to only read
+         */
+        Replay(final UndoRedo undoRedo) {
+            this.undoRedo = undoRedo;
+        }
+
+        /**
+         * Reads the records.
+         *
+         * @param in the content of the journal
+         * @return the length of the complete records that could be repeated,
+         *     including the header; 0 if there is no valid header
+         */
+        long run(final ByteBuffer in) {
+            if (in.remaining() < 2 * Integer.BYTES
+                    || in.getInt() != MAGIC || in.getInt() != VERSION) {
+                return 0;
+            }
+            long end = in.position();
+            try {
+                while (in.hasRemaining() && record(in)) {
+                    end = in.position();
+                    steps++;
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException
+                    | IllegalStateException | IndexOutOfBoundsException e) {
+                // cut short or inconsistent: the journal ends here
+            }
+            return end;
+        }
+
+        /**
+         * Reads one record and repeats it.
+         *
+         * @param in the content, positioned at the record
+         * @return whether the record is known and follows the start of a
+         *     session
+         */
+        private boolean record(final ByteBuffer in) {
+            final byte type = in.get();
+            if (type != BEGIN && !begun) {
+                return false;
+            }
+            switch (type) {
+                case BEGIN:
+                    final byte[] text = new byte[in.getInt()];
+                    in.get(text);
+                    begun = true;
+                    steps = -1;
+                    if (undoRedo != null) {
+                        grid = SujikoGrid.read(ByteBuffer.wrap(text));
+                        undoRedo.clear();
+                    }
+                    return true;
+                case SET:
+                    final int set = in.getInt();
+                    if (undoRedo != null) {
+                        undoRedo.did(unpack(set));
+                    }
+                    return true;
+                case COMPOUND:
+                    compound(in);
+                    return true;
+                case JUMP:
+                    final int position = in.getInt();
+                    if (undoRedo != null) {
+                        undoRedo.jump(position);
+                    }
+                    return true;
+                default:
+                    return step(type);
+            }
+        }
+
+        /**
+         * Reads a compound command and repeats it.
+         *
+         * @param in the content, positioned after the type of the record
+         */
+        private void compound(final ByteBuffer in) {
+            final int count = in.getInt();
+            if (count < 0 || count > in.remaining() / Integer.BYTES) {
+                throw new BufferUnderflowException();
+            }
+            final CompoundCommand command = new CompoundCommand();
+            for (int i = 0; i < count; i++) {
+                final int set = in.getInt();
+                if (undoRedo != null) {
+                    command.add(unpack(set));
+                }
+            }
+            if (undoRedo != null) {
+                undoRedo.did(command);
+            }
+        }
+
+        /**
+         * Repeats a record without data.
+         *
+         * @param type the type of the record
+         * @return whether the type is known
+         */
+        private boolean step(final byte type) {
+            if (type != UNDO && type != UNDO_FORGET && type != REDO && type != CLEAR) {
+                return false;
+            }
+            if (undoRedo == null) {
+                return true;
+            }
+            if (type == REDO) {
+                undoRedo.redo();
+            } else if (type == CLEAR) {
+                undoRedo.clear();
+            } else {
+                undoRedo.undo(type == UNDO);
+            }
+            return true;
+        }
+
+        /**
+         * Creates the set-command of a packed set.
+         *
+         * @param set the cell index and the new digit
+         * @return the set-command, not executed
+         */
+        private SetCommand unpack(final int set) {
+            return new SetCommand(grid.getCell(set >>> CELL_SHIFT), set & DIGIT_MASK);
+        }
+    }
+}
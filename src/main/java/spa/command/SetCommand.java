@@ -1,7 +1,7 @@
 package spa.command;
 
 
-import java.util.Collection;
+import spa.model.CellSet;
 import spa.model.DigitCell;
 
 /**
@@ -32,6 +32,38 @@ public class SetCommand extends GenericCommand<DigitCell> {
 //
     }
 
+    /**
+     * Constructs an executed set command for a given receiver,
+     * new state and previous state, as recorded by {@link UndoRedo}.
+     *
+     * @param receiver  the given receiver
+     * @param newState  the new state
+     * @param oldState  the state before execution
+     */
+    SetCommand(final DigitCell receiver, final int newState, final int oldState) {
+        super(receiver, true);
+        this.newState = newState;
+        this.oldState = oldState;
+    }
+
+    /**
+     * Gets the new state.
+     *
+     * @return the new state
+     */
+    int getNewState() {
+        return newState;
+    }
+
+    /**
+     * Gets the previous state of the receiver.
+     *
+     * @return the state before the last execution
+     */
+    int getOldState() {
+        return oldState;
+    }
+
 // Operations
     @Override
     public void execute() {
@@ -47,10 +79,8 @@ public class SetCommand extends GenericCommand<DigitCell> {
     }
 
     @Override
-    public Collection<DigitCell> getCells() {
-        Collection<DigitCell> result = super.getCells();
-        result.add(receiver);
-        return result;
+    protected void addCells(final CellSet cells) {
+        cells.add(receiver);
     }
 //
 
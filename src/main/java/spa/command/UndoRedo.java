@@ -1,18 +1,139 @@
 package spa.command; // <<<<< TODO: Comment this line out when submitting to Momotor!
 
-import java.util.Stack;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
 
 /**
- * TODO add javadoc.
+ * Undo-redo facility: a history of the commands done, which can be undone,
+ * and of the commands undone, which can be redone.
+ * <p>
+ * Commands of exactly class {@link SetCommand} on a cell of a grid are
+ * kept packed in one {@code int}: the index of the cell, the digit before
+ * and the digit after.  For such an entry, {@link #lastDone()} and
+ * {@link #lastUndone()} return an equivalent new {@code SetCommand};
+ * other commands are kept, and returned, as they are.
+ * With coalescing, a packed set-command on the same cell as the packed
+ * set-command done last is merged into it, so that one undo reverts both;
+ * if together they change nothing, the entry is dropped.
+ * <p>
+ * The history is bounded in entries and in (estimated) bytes; when
+ * {@link #did(Command)} exceeds a bound, the oldest entries done are
+ * forgotten.  By default it is unbounded and coalesces.
+ * <p>
+ * {@link #jump(int)} moves to any point in the history at once: the
+ * packed entries passed are moved between the histories as codes, and
+ * each cell they touch is set once, to its digit at that point, instead
+ * of undoing or redoing the entries one by one.
+ * <p>
+ * With a {@link Journal}, every change of the history is also recorded
+ * in it, so that the history can be replayed after a crash.
  * @author vladandra22
  */
 public class UndoRedo {
 
+    /** Bytes taken by a packed set-command. */
+    public static final int PACKED_BYTES = Integer.BYTES;
+
+    /** Bytes taken by an entry for a command object, besides the object. */
+    private static final int OBJECT_ENTRY_BYTES = Integer.BYTES + Long.BYTES;
+
+    /** Mask of a digit in a packed set-command. */
+    private static final int DIGIT_MASK = 0x1F;
+
+    /** Position of the digit before in a packed set-command; the digit after is at 0. */
+    private static final int OLD_SHIFT = 5;
+
+    /** Position of the cell index in a packed set-command. */
+    private static final int CELL_SHIFT = 10;
+
+    /** Maximum number of entries. */
+    private final int maxEntries;
+
+    /** Maximum number of bytes of the entries. */
+    private final long maxBytes;
+
+    /** Whether set-commands on the same cell are merged. */
+    private final boolean coalescing;
+
+    /** The journal recording the history; null if none. */
+    private Journal journal;
+
 //# BEGIN TODO: Representation in terms of instance variables, incl. rep. inv.
-    Stack<Command> canUndoStack = new Stack<>();
-    Stack<Command> canRedoStack = new Stack<>();
+    /** Entries that can be undone, the last done on top. */
+    private final CommandStack canUndoStack = new CommandStack();
+
+    /** Entries that can be redone, the last undone on top. */
+    private final CommandStack canRedoStack = new CommandStack();
+
+    /** Bytes of the entries that can be undone. */
+    private long undoBytes;
+
+    /** Bytes of the entries that can be redone. */
+    private long redoBytes;
+
+    /** The grid of the cells of the packed entries; null if not yet known. */
+    private SujikoGrid grid;
+
+    /* Rep. invariant:
+     *  canUndoStack.size() + canRedoStack.size() <= maxEntries, and
+     *  undoBytes + redoBytes <= maxBytes, unless only the entry done last
+     *  exceeds them
+     */
 //# END TODO
 
+    /**
+     * Constructs an unbounded, coalescing undo-redo facility.
+     */
+    public UndoRedo() {
+        this(Integer.MAX_VALUE, Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Constructs an undo-redo facility with a bounded history.
+     *
+     * @param maxEntries maximum number of entries, done and undone
+     * @param maxBytes maximum estimated number of bytes of the entries
+     * @param coalescing whether to merge set-commands on the same cell
+     * @throws IllegalArgumentException  if a bound is not positive
+     * @pre {@code maxEntries > 0 && maxBytes > 0}
+     */
+    public UndoRedo(final int maxEntries, final long maxBytes, final boolean coalescing) {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + "().pre failed: maxEntries == " + maxEntries + ", maxBytes == " + maxBytes);
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.coalescing = coalescing;
+    }
+
+    /**
+     * Gets the number of entries, done and undone.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return canUndoStack.size() + canRedoStack.size();
+    }
+
+    /**
+     * Gets the current point in the history.
+     *
+     * @return the number of entries that can be undone
+     */
+    public int getPosition() {
+        return canUndoStack.size();
+    }
+
+    /**
+     * Gets the estimated number of bytes of the entries, done and undone.
+     *
+     * @return the number of bytes
+     */
+    public long getBytes() {
+        return undoBytes + redoBytes;
+    }
+
     /**
      * Returns whether an {@code undo} is possible.
      *
@@ -53,7 +174,11 @@ public class UndoRedo {
         if (!canUndo()) {
             throw new IllegalStateException("Undo not possible.");
         }
-        return canUndoStack.peek();
+        final int code = canUndoStack.peek();
+        if (code == CommandStack.OBJECT) {
+            return canUndoStack.peekCommand();
+        }
+        return new SetCommand(cell(code), code & DIGIT_MASK, code >>> OLD_SHIFT & DIGIT_MASK);
 //# END TODO
     }
 
@@ -69,10 +194,24 @@ public class UndoRedo {
         if (!canRedo()) {
             throw new IllegalStateException("Redo not possible.");
         }
-        return canRedoStack.peek();
+        final int code = canRedoStack.peek();
+        if (code == CommandStack.OBJECT) {
+            return canRedoStack.peekCommand();
+        }
+        return new SetCommand(cell(code), code & DIGIT_MASK);
 //# END TODO
     }
 
+    /**
+     * Sets the journal that records the changes of the history from now on.
+     *
+     * @param journal the journal, or null to stop recording
+     * @modifies {@code this}
+     */
+    public void setJournal(final Journal journal) {
+        this.journal = journal;
+    }
+
     /**
      * Clears all undo-redo history.
      *
@@ -82,14 +221,23 @@ public class UndoRedo {
 //# BEGIN TODO: Implementation of clear
         canUndoStack.clear();
         canRedoStack.clear();
+        undoBytes = 0;
+        redoBytes = 0;
+        grid = null;
+        if (journal != null) {
+            journal.cleared();
+        }
 //# END TODO
     }
 
     /**
      * Adds given command to the do-history.
      * If the command was not yet executed, then it is first executed.
+     * If a bound is then exceeded, the oldest entries done are forgotten.
      *
      * @param command the command to incorporate
+     * @throws IllegalArgumentException  if there is a journal and it cannot
+     *     record the command; the command is then executed but not incorporated
      * @modifies {@code this}
      */
     public void did(final Command command) {
@@ -97,11 +245,102 @@ public class UndoRedo {
         if  (!command.isExecuted()) {
             command.execute();
         }
-        canUndoStack.push(command);
+        if (journal != null) {
+            journal.did(command);
+        }
         canRedoStack.clear();
+        redoBytes = 0;
+        final int code = pack(command);
+        if (code == CommandStack.OBJECT || !coalesce(code)) {
+            canUndoStack.push(code, command);
+            undoBytes += bytes(code, command);
+        }
+        trim();
 //# END TODO
     }
 
+    /**
+     * Packs a command done, if it is a set-command on a cell of the grid.
+     *
+     * @param command the command
+     * @return the packed set-command, or {@link CommandStack#OBJECT} if the
+     *     command cannot be packed
+     */
+    private int pack(final Command command) {
+        if (command.getClass() != SetCommand.class) {
+            return CommandStack.OBJECT;
+        }
+        final SetCommand set = (SetCommand) command;
+        final DigitCell cell = set.receiver;
+        if (cell.getIndex() < 0 || ((set.getOldState() | set.getNewState()) & ~DIGIT_MASK) != 0) {
+            return CommandStack.OBJECT;
+        }
+        if (grid == null || canUndoStack.isEmpty()) {
+            grid = cell.getGrid();
+        }
+        if (cell.getGrid() != grid) {
+            return CommandStack.OBJECT;
+        }
+        return cell.getIndex() << CELL_SHIFT | set.getOldState() << OLD_SHIFT | set.getNewState();
+    }
+
+    /**
+     * Merges a packed set-command into the entry done last, if coalescing
+     * and that entry is a packed set-command on the same cell.
+     *
+     * @param code the packed set-command
+     * @return whether it was merged
+     */
+    private boolean coalesce(final int code) {
+        if (!coalescing || canUndoStack.isEmpty()
+                || canUndoStack.peek() >>> CELL_SHIFT != code >>> CELL_SHIFT) {
+            return false;
+        }
+        final int merged = canUndoStack.peek() & ~DIGIT_MASK | code & DIGIT_MASK;
+        if ((merged >>> OLD_SHIFT & DIGIT_MASK) == (merged & DIGIT_MASK)) {
+            canUndoStack.pop();
+            undoBytes -= PACKED_BYTES;
+        } else {
+            canUndoStack.replace(merged);
+        }
+        return true;
+    }
+
+    /**
+     * Forgets the oldest entries done while a bound is exceeded,
+     * keeping at least the entry done last.
+     */
+    private void trim() {
+        while (canUndoStack.size() > 1
+                && (size() > maxEntries || getBytes() > maxBytes)) {
+            final int code = canUndoStack.peekBottom();
+            undoBytes -= bytes(code, canUndoStack.peekBottomCommand());
+            canUndoStack.removeBottom();
+        }
+    }
+
+    /**
+     * Estimates the bytes of an entry.
+     *
+     * @param code the packed set-command, or {@link CommandStack#OBJECT}
+     * @param command the command object of the entry, if any
+     * @return the estimated number of bytes
+     */
+    private static long bytes(final int code, final Command command) {
+        return code == CommandStack.OBJECT
+                ? OBJECT_ENTRY_BYTES + command.footprint() : PACKED_BYTES;
+    }
+
+    /**
+     * Gets the cell of a packed set-command.
+     *
+     * @param code the packed set-command
+     * @return the cell of the grid
+     */
+    private DigitCell cell(final int code) {
+        return grid.getCell(code >>> CELL_SHIFT);
+    }
+
     /**
      * Undo the most recently done command, optionally allowing it to be redone.
      *
@@ -115,10 +354,22 @@ public class UndoRedo {
         if (!canUndo()) {
             throw new IllegalStateException("Undo not possible.");
         }
-        Command command = canUndoStack.pop();
-        command.revert();
+        final int code = canUndoStack.peek();
+        final Command command = code == CommandStack.OBJECT ? canUndoStack.peekCommand() : null;
+        final long bytes = bytes(code, command);
+        canUndoStack.pop();
+        undoBytes -= bytes;
+        if (command != null) {
+            command.revert();
+        } else {
+            cell(code).setDigit(code >>> OLD_SHIFT & DIGIT_MASK);
+        }
         if (redoable) {
-            canRedoStack.push(command);
+            canRedoStack.push(code, command);
+            redoBytes += bytes;
+        }
+        if (journal != null) {
+            journal.undone(redoable);
         }
 //# END TODO
     }
@@ -135,9 +386,21 @@ public class UndoRedo {
         if (!canRedo()) {
             throw new IllegalStateException("Redo not possible.");
         }
-        Command command = canRedoStack.pop();
-        command.execute();
-        canUndoStack.push(command);
+        final int code = canRedoStack.peek();
+        final Command command = code == CommandStack.OBJECT ? canRedoStack.peekCommand() : null;
+        final long bytes = bytes(code, command);
+        canRedoStack.pop();
+        redoBytes -= bytes;
+        if (command != null) {
+            command.execute();
+        } else {
+            cell(code).setDigit(code & DIGIT_MASK);
+        }
+        canUndoStack.push(code, command);
+        undoBytes += bytes;
+        if (journal != null) {
+            journal.redone();
+        }
 //# END TODO
     }
 
@@ -149,6 +412,10 @@ public class UndoRedo {
      */
     public void undoAll(final boolean redoable) {
 //# BEGIN TODO: Implementation of undoAll
+        if (redoable) {
+            jump(0);
+            return;
+        }
         while (!canUndoStack.isEmpty()) {
             undo(redoable);
         }
@@ -162,23 +429,110 @@ public class UndoRedo {
      */
     public void redoAll() {
 //# BEGIN TODO: Implementation of redoAll
-        while (!canRedoStack.isEmpty()) {
-            redo();
-        }
+        jump(size());
 //# END TODO
     }
 
     /**
-     * Returns canRedoStack.
+     * Moves to a point in the history, undoing or redoing (redoable) the
+     * entries in between.  Packed entries are not undone or redone one by
+     * one: every cell they touch is set once, so the time is dominated by
+     * moving one {@code int} per entry.
+     *
+     * @param position the number of entries that can be undone afterwards
+     * @throws IllegalArgumentException  if the position is not in the history
+     * @pre {@code 0 <= position <= size()}
+     * @post {@code getPosition() == position}
+     * @modifies {@code this}
+     */
+    public void jump(final int position) throws IllegalArgumentException {
+        if (position < 0 || position > size()) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + ".jump().pre failed: position " + position + " not in 0.." + size());
+        }
+        if (position == getPosition()) {
+            return;
+        }
+        final Journal recording = journal;
+        journal = null;
+        try {
+            final int[] digits = new int[grid == null ? 0 : grid.getLayout().getCellCount()];
+            setDigits(digits, position < getPosition()
+                    ? undoTo(position, digits) : redoTo(position, digits));
+        } finally {
+            journal = recording;
+        }
+        if (journal != null) {
+            journal.jumped(position);
+        }
+    }
+
+    /**
+     * Moves entries from the undo history to the redo history down to a
+     * position, collecting the digits to restore of the packed entries.
+     *
+     * @param position the number of entries that can be undone afterwards
+     * @param digits the digit to set per cell, filled in for touched cells
+     * @return bitmask of the cells touched and not yet set (cell i is bit i)
+     */
+    private int undoTo(final int position, final int[] digits) {
+        int touched = 0;
+        while (canUndoStack.size() > position) {
+            final int code = canUndoStack.peek();
+            if (code == CommandStack.OBJECT) {
+                setDigits(digits, touched);
+                touched = 0;
+                undo(true);
+            } else {
+                canUndoStack.pop();
+                canRedoStack.push(code, null);
+                undoBytes -= PACKED_BYTES;
+                redoBytes += PACKED_BYTES;
+                digits[code >>> CELL_SHIFT] = code >>> OLD_SHIFT & DIGIT_MASK;
+                touched |= 1 << (code >>> CELL_SHIFT);
+            }
+        }
+        return touched;
+    }
+
+    /**
+     * Moves entries from the redo history to the undo history up to a
+     * position, collecting the digits to set of the packed entries.
+     *
+     * @param position the number of entries that can be undone afterwards
+     * @param digits the digit to set per cell, filled in for touched cells
+     * @return bitmask of the cells touched and not yet set (cell i is bit i)
      */
-    public Stack<Command> getRedoStack() {
-        return canRedoStack;
+    private int redoTo(final int position, final int[] digits) {
+        int touched = 0;
+        while (canUndoStack.size() < position) {
+            final int code = canRedoStack.peek();
+            if (code == CommandStack.OBJECT) {
+                setDigits(digits, touched);
+                touched = 0;
+                redo();
+            } else {
+                canRedoStack.pop();
+                canUndoStack.push(code, null);
+                redoBytes -= PACKED_BYTES;
+                undoBytes += PACKED_BYTES;
+                digits[code >>> CELL_SHIFT] = code & DIGIT_MASK;
+                touched |= 1 << (code >>> CELL_SHIFT);
+            }
+        }
+        return touched;
     }
-    
+
     /**
-     * Returns canUndoStack.
+     * Sets the digits collected for touched cells of the grid.
+     *
+     * @param digits the digit per cell
+     * @param touched bitmask of the cells to set (cell i is bit i)
      */
-    public Stack<Command> getUndoStack() {
-        return canUndoStack;
+    private void setDigits(final int[] digits, final int touched) {
+        for (int left = touched; left != 0; left &= left - 1) {
+            final int index = Integer.numberOfTrailingZeros(left);
+            grid.getCell(index).setDigit(digits[index]);
+        }
     }
 }
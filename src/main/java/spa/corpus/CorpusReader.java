@@ -0,0 +1,113 @@
+package spa.corpus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import spa.model.SujikoGrid;
+
+/**
+ * Reads a binary corpus file written by {@link CorpusWriter}.
+ * The whole file is memory-mapped, in segments of at most
+ * {@code 2^27} records (1 GiB), and records are read straight from the
+ * mapping: {@link #get(long)} allocates nothing, and the fields of a
+ * record are decoded by {@link PuzzleRecord}.
+ * A reader may be used by several threads at the same time.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public class CorpusReader implements Closeable {
+
+    /** Bits of the record number within a segment. */
+    private static final int SEGMENT_BITS = 27;
+
+    /** Mask of the record number within a segment. */
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    /** The file. */
+    private final FileChannel channel;
+
+    /** Mapped segments of records. */
+    private final ByteBuffer[] segments;
+
+    /** Number of records. */
+    private final long size;
+
+    /**
+     * Opens and maps a corpus file.
+     *
+     * @param file the file
+     * @throws IOException  if the file cannot be read or is not a corpus
+     *     of this version
+     */
+    public CorpusReader(final Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            final ByteBuffer header = ByteBuffer.allocate(CorpusWriter.HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            final long records = (channel.size() - CorpusWriter.HEADER_BYTES) / Long.BYTES;
+            if (header.remaining() != CorpusWriter.HEADER_BYTES
+                    || header.getInt() != CorpusWriter.MAGIC
+                    || header.getInt() != CorpusWriter.VERSION || header.getLong() != records) {
+                throw new IOException(file + " is not a corpus, version "
+                        + CorpusWriter.VERSION);
+            }
+            size = records;
+            segments = new ByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                final long first = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        CorpusWriter.HEADER_BYTES + first * Long.BYTES,
+                        Math.min(size - first, SEGMENT_MASK + 1) * Long.BYTES);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of records.
+     *
+     * @return the number of records
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets a record.
+     *
+     * @param index the number of the record
+     * @return the record
+     * @pre {@code 0 <= index < size()}
+     */
+    public long get(final long index) {
+        return segments[(int) (index >>> SEGMENT_BITS)]
+                .getLong((int) (index & SEGMENT_MASK) * Long.BYTES);
+    }
+
+    /**
+     * Decodes a record into a new grid.
+     *
+     * @param index the number of the record
+     * @return the grid
+     * @pre {@code 0 <= index < size()}
+     */
+    public SujikoGrid getGrid(final long index) {
+        return PuzzleRecord.decode(get(index));
+    }
+
+    /**
+     * Closes the file; the mappings stay valid until they are collected.
+     *
+     * @throws IOException  if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
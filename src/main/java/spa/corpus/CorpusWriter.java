@@ -0,0 +1,118 @@
+package spa.corpus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import spa.model.SujikoGrid;
+
+/**
+ * Writes a binary corpus file: a header followed by one
+ * {@link PuzzleRecord} per puzzle.
+ * The header holds, in big-endian order, the {@code int}s
+ * {@link #MAGIC} and {@link #VERSION} and the number of records as
+ * {@code long}, which is filled in by {@link #close()}.
+ * Records are buffered and written in large blocks.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public class CorpusWriter implements Closeable {
+
+    /** First {@code int} of a corpus file. */
+    public static final int MAGIC = 0x534A4B42;
+
+    /** Version of the corpus format. */
+    public static final int VERSION = 1;
+
+    /** Size of the header in bytes. */
+    public static final int HEADER_BYTES = 16;
+
+    /** Position of the record count in the header. */
+    private static final int COUNT_POSITION = 8;
+
+    /** Size of the buffer in bytes. */
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /** The file. */
+    private final FileChannel channel;
+
+    /** Records not yet written. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    /** Number of records added. */
+    private long count;
+
+    /**
+     * Creates a corpus file, replacing an existing one.
+     *
+     * @param file the file
+     * @throws IOException  if the file cannot be created
+     */
+    public CorpusWriter(final Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(0L);
+    }
+
+    /**
+     * Adds a record.
+     *
+     * @param record the record
+     * @throws IOException  if the file cannot be written
+     */
+    public void add(final long record) throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            flush();
+        }
+        buffer.putLong(record);
+        count++;
+    }
+
+    /**
+     * Adds a classic grid.
+     *
+     * @param grid the grid
+     * @throws IOException  if the file cannot be written
+     * @throws IllegalArgumentException  if the grid cannot be encoded
+     */
+    public void add(final SujikoGrid grid) throws IOException {
+        add(PuzzleRecord.encode(grid));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the buffered records.
+     *
+     * @throws IOException  if the file cannot be written
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the remaining records and the record count, and closes the file.
+     *
+     * @throws IOException  if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            buffer.putLong(count).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, COUNT_POSITION + buffer.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
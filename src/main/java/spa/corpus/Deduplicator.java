@@ -0,0 +1,156 @@
+package spa.corpus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import spa.batch.BatchSolver;
+import spa.model.Canonicalizer;
+import spa.model.SujikoGrid;
+import spa.model.ZgrParser;
+
+/**
+ * Removes puzzles that are equivalent under a {@link spa.model.Symmetry}
+ * from a collection of {@code .zgr} files.
+ * <p>
+ * Usage:
+ * <pre>
+ *   java spa.corpus.Deduplicator [-o directory] (directory | file | glob)...
+ * </pre>
+ * Every puzzle of every file, in the order of
+ * {@link BatchSolver#expand(List)}, is kept unless an equivalent puzzle
+ * came before it.  The numbers of puzzles read and kept are reported; with
+ * option {@code -o} the puzzles kept are written, as given, as
+ * {@code unique_000000001.zgr} and so on.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public class Deduplicator {
+
+    /** Keys of the canonical forms of the puzzles kept. */
+    private final Set<IntBuffer> seen = new HashSet<>();
+
+    /** The puzzles kept; null if they are not remembered. */
+    private final List<SujikoGrid> kept;
+
+    /** Number of puzzles offered. */
+    private long count;
+
+    /**
+     * Constructs a deduplicator.
+     *
+     * @param keep whether to remember the puzzles kept
+     */
+    public Deduplicator(final boolean keep) {
+        kept = keep ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Offers a puzzle.
+     *
+     * @param grid the puzzle
+     * @return whether it is kept, that is, no equivalent puzzle was kept
+     */
+    public boolean add(final SujikoGrid grid) {
+        count++;
+        final int[] key = Canonicalizer.of(grid.getLayout()).key(grid);
+        final boolean added = seen.add(IntBuffer.wrap(key));
+        if (added && kept != null) {
+            kept.add(grid);
+        }
+        return added;
+    }
+
+    /**
+     * Offers every puzzle of {@code .zgr} files.
+     *
+     * @param files the files
+     * @throws IOException  if a file cannot be read
+     * @throws spa.model.ZgrFormatException  if a puzzle is malformed
+     */
+    public void addAll(final List<Path> files) throws IOException {
+        for (Path file : files) {
+            try (InputStream in = Files.newInputStream(file)) {
+                final ZgrParser parser = new ZgrParser(in);
+                while (parser.hasNext()) {
+                    add(parser.next());
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of puzzles offered.
+     *
+     * @return the number of puzzles
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of puzzles kept.
+     *
+     * @return the number of different puzzles up to symmetry
+     */
+    public int getUnique() {
+        return seen.size();
+    }
+
+    /**
+     * Gets the puzzles kept.
+     *
+     * @return the puzzles, in the order offered
+     * @throws IllegalStateException  if the puzzles are not remembered
+     */
+    public List<SujikoGrid> getKept() {
+        if (kept == null) {
+            throw new IllegalStateException(this.getClass().getSimpleName()
+                    + ".getKept().pre failed: puzzles not remembered");
+        }
+        return kept;
+    }
+
+    /**
+     * Deduplicates files from the command line.
+     *
+     * @param args the command-line arguments
+     * @throws IOException  if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        final boolean write = args.length > 1 && "-o".equals(args[0]);
+        final List<String> arguments = Arrays.asList(args).subList(write ? 2 : 0, args.length);
+        if (arguments.isEmpty()) {
+            System.err.println("Usage: Deduplicator [-o directory] (directory | file | glob)...");
+            System.exit(2);
+        }
+        final long start = System.nanoTime();
+        final Deduplicator deduplicator = new Deduplicator(write);
+        deduplicator.addAll(BatchSolver.expand(arguments));
+        if (write) {
+            final Path directory = Paths.get(args[1]);
+            Files.createDirectories(directory);
+            int number = 0;
+            for (SujikoGrid grid : deduplicator.getKept()) {
+                final String name = String.format(Locale.ROOT, "unique_%09d.zgr", ++number);
+                Files.write(directory.resolve(name),
+                        grid.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        final long count = deduplicator.getCount();
+        System.err.println("Kept " + deduplicator.getUnique() + " of " + count
+                + " puzzles (" + String.format(Locale.ROOT, "%.1f",
+                        count == 0 ? 0.0 : 100.0 * (count - deduplicator.getUnique()) / count)
+                + "% duplicates up to symmetry) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,166 @@
+package spa.corpus;
+
+import java.util.List;
+import spa.model.CircleLayout;
+import spa.model.SujikoGrid;
+import spa.model.SumCell;
+import spa.model.SumCombinations;
+import spa.model.ZgrParser;
+
+/**
+ * Fixed-width binary encoding of a classic Sujiko puzzle in one
+ * {@code long}.
+ * Bits {@code 4c..4c+3} hold the digit of cell {@code c} (row-major,
+ * 0 for empty) and bits {@code 36+7k..36+7k+6} hold the sum of
+ * circle {@code k}, so that 9 nibbles of digits and 4 sums of up to 127
+ * fill the 64 bits exactly.
+ * The accessors decode single fields and allocate nothing.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public final class PuzzleRecord {
+
+    /** Number of cells. */
+    public static final int CELLS = 9;
+
+    /** Number of circles. */
+    public static final int CIRCLES = 4;
+
+    /** Largest sum that can be encoded. */
+    public static final int MAX_SUM = 127;
+
+    /** Bits of a sum. */
+    private static final int SUM_BITS = 7;
+
+    /** Position of the first sum. */
+    private static final int SUMS_SHIFT = 4 * CELLS;
+
+    private PuzzleRecord() {
+    }
+
+    /**
+     * Encodes a classic grid.
+     *
+     * @param grid the grid
+     * @return the record
+     * @throws IllegalArgumentException  if the grid is not classic, has a
+     *     digit outside {@code 0..9} or a sum outside {@code 0..MAX_SUM}
+     */
+    public static long encode(final SujikoGrid grid) {
+        checkLayout(grid.getLayout());
+        long record = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            record |= digitField(cell, grid.getCell(cell).getDigit());
+        }
+        final List<SumCell> sumCells = grid.getSumCells();
+        for (int circle = 0; circle < CIRCLES; circle++) {
+            record |= sumField(circle, sumCells.get(circle).getSum());
+        }
+        return record;
+    }
+
+    /**
+     * Encodes the puzzle last parsed by a parser, without building a grid.
+     *
+     * @param parser the parser, after {@link ZgrParser#parse()}
+     * @return the record
+     * @throws IllegalArgumentException  if the puzzle is not classic or
+     *     has a sum outside {@code 0..MAX_SUM}
+     */
+    public static long encode(final ZgrParser parser) {
+        checkLayout(parser.getLayout());
+        long record = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            record |= digitField(cell, parser.getDigit(cell));
+        }
+        for (int circle = 0; circle < CIRCLES; circle++) {
+            record |= sumField(circle, parser.getSum(circle));
+        }
+        return record;
+    }
+
+    /**
+     * Checks that a layout is classic.
+     *
+     * @param layout the layout
+     * @throws IllegalArgumentException  if it is not
+     */
+    private static void checkLayout(final CircleLayout layout) {
+        if (!CircleLayout.CLASSIC.equals(layout)) {
+            throw new IllegalArgumentException("PuzzleRecord.encode().pre failed: "
+                    + "layout is not classic");
+        }
+    }
+
+    /**
+     * Places a digit in its field.
+     *
+     * @param cell the row-major cell index
+     * @param digit the digit
+     * @return the field
+     * @throws IllegalArgumentException  if the digit is out of range
+     */
+    private static long digitField(final int cell, final int digit) {
+        if (digit < 0 || digit > SumCombinations.MAX_DIGIT) {
+            throw new IllegalArgumentException("PuzzleRecord.encode().pre failed: "
+                    + "digit " + digit + " out of range");
+        }
+        return (long) digit << (4 * cell);
+    }
+
+    /**
+     * Places a sum in its field.
+     *
+     * @param circle the circle index
+     * @param sum the sum
+     * @return the field
+     * @throws IllegalArgumentException  if the sum is out of range
+     */
+    private static long sumField(final int circle, final int sum) {
+        if (sum < 0 || sum > MAX_SUM) {
+            throw new IllegalArgumentException("PuzzleRecord.encode().pre failed: "
+                    + "sum " + sum + " out of range");
+        }
+        return (long) sum << (SUMS_SHIFT + SUM_BITS * circle);
+    }
+
+    /**
+     * Gets the digit of a cell.
+     *
+     * @param record the record
+     * @param cell the row-major cell index
+     * @return the digit, 0 for empty
+     */
+    public static int digit(final long record, final int cell) {
+        return (int) (record >>> (4 * cell)) & 0xF;
+    }
+
+    /**
+     * Gets the sum of a circle.
+     *
+     * @param record the record
+     * @param circle the circle index
+     * @return the sum
+     */
+    public static int sum(final long record, final int circle) {
+        return (int) (record >>> (SUMS_SHIFT + SUM_BITS * circle)) & MAX_SUM;
+    }
+
+    /**
+     * Decodes a record into a new grid.
+     *
+     * @param record the record
+     * @return the grid, with the nonzero digits as givens
+     */
+    public static SujikoGrid decode(final long record) {
+        final int[] digits = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            digits[cell] = digit(record, cell);
+        }
+        final int[] sums = new int[CIRCLES];
+        for (int circle = 0; circle < CIRCLES; circle++) {
+            sums[circle] = sum(record, circle);
+        }
+        return SujikoGrid.of(CircleLayout.CLASSIC, digits, sums);
+    }
+}
@@ -0,0 +1,104 @@
+package spa.corpus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import spa.batch.BatchSolver;
+import spa.model.ZgrParser;
+
+/**
+ * Converts between {@code .zgr} files and binary corpus files.
+ * <p>
+ * Usage:
+ * <pre>
+ *   java spa.corpus.ZgrConverter -b corpus (directory | file | glob)...
+ *   java spa.corpus.ZgrConverter -z corpus directory
+ * </pre>
+ * Option {@code -b} writes the puzzles of the given {@code .zgr} files, in the order of
+ * {@link BatchSolver#expand(List)}, into a binary corpus; option
+ * {@code -z} writes every record of a corpus as a {@code .zgr} file
+ * named {@code puzzle_000000001.zgr} and so on.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public final class ZgrConverter {
+
+    private ZgrConverter() {
+    }
+
+    /**
+     * Writes {@code .zgr} files into a binary corpus, every puzzle of
+     * every file in order.
+     *
+     * @param files the {@code .zgr} files, all classic
+     * @param corpus the corpus file, replaced if it exists
+     * @return the number of records written
+     * @throws IOException  if a file cannot be read or written
+     * @throws IllegalArgumentException  if a puzzle cannot be encoded
+     *     (a {@link spa.model.ZgrFormatException} if it is malformed)
+     */
+    public static long toBinary(final List<Path> files, final Path corpus) throws IOException {
+        try (CorpusWriter writer = new CorpusWriter(corpus)) {
+            for (Path file : files) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    final ZgrParser parser = new ZgrParser(in);
+                    while (parser.hasNext()) {
+                        parser.parse();
+                        writer.add(PuzzleRecord.encode(parser));
+                    }
+                }
+            }
+            return writer.getCount();
+        }
+    }
+
+    /**
+     * Writes every record of a binary corpus as a {@code .zgr} file.
+     *
+     * @param corpus the corpus file
+     * @param directory the directory, created if needed
+     * @return the number of files written
+     * @throws IOException  if a file cannot be read or written
+     */
+    public static long toZgr(final Path corpus, final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (CorpusReader reader = new CorpusReader(corpus)) {
+            for (long i = 0; i < reader.size(); i++) {
+                final String name = String.format(Locale.ROOT, "puzzle_%09d.zgr", i + 1);
+                Files.write(directory.resolve(name),
+                        reader.getGrid(i).toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return reader.size();
+        }
+    }
+
+    /**
+     * Converts files from the command line.
+     *
+     * @param args the command-line arguments
+     * @throws IOException  if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || !("-b".equals(args[0]) || "-z".equals(args[0]))) {
+            System.err.println("Usage: ZgrConverter -b corpus (directory | file | glob)...\n"
+                    + "       ZgrConverter -z corpus directory");
+            System.exit(2);
+        }
+        final long start = System.nanoTime();
+        final long count;
+        if ("-b".equals(args[0])) {
+            count = toBinary(BatchSolver.expand(Arrays.asList(args).subList(2, args.length)),
+                    Paths.get(args[1]));
+        } else {
+            count = toZgr(Paths.get(args[1]), Paths.get(args[2]));
+        }
+        System.err.println("Converted " + count + " puzzles in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
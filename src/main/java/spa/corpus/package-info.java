@@ -0,0 +1,5 @@
+/**
+ * Package holding the compact binary format for large puzzle corpora.
+ *
+ */
+package spa.corpus;
@@ -0,0 +1,70 @@
+package spa.generator;
+
+/**
+ * Difficulty of a puzzle, measured by the search effort needed to prove
+ * that its solution is unique: the number of search nodes that
+ * {@link spa.solvers.BitboardSujikoSolver} visits when counting up to
+ * two solutions (see {@link SujikoGenerator#effort}).
+ * A puzzle that can be filled in one forced step after another has an
+ * effort of one node per empty cell plus one.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public enum Difficulty {
+
+    /** Every difficulty. */
+    ANY(0, Long.MAX_VALUE),
+
+    /** Little or no guessing. */
+    EASY(0, 12),
+
+    /** Some guessing. */
+    MEDIUM(13, 30),
+
+    /** Much guessing. */
+    HARD(31, Long.MAX_VALUE);
+
+    /** Smallest effort, in search nodes. */
+    private final long lowest;
+
+    /** Largest effort, in search nodes. */
+    private final long highest;
+
+    Difficulty(final long lowest, final long highest) {
+        this.lowest = lowest;
+        this.highest = highest;
+    }
+
+    public long getLowest() {
+        return lowest;
+    }
+
+    public long getHighest() {
+        return highest;
+    }
+
+    /**
+     * Determines whether an effort lies in the range of this difficulty.
+     *
+     * @param effort the effort, in search nodes
+     * @return whether {@code lowest <= effort <= highest}
+     */
+    public boolean contains(final long effort) {
+        return lowest <= effort && effort <= highest;
+    }
+
+    /**
+     * Gets the difficulty of an effort.
+     *
+     * @param effort the effort, in search nodes
+     * @return the first difficulty other than {@link #ANY} containing it
+     */
+    public static Difficulty of(final long effort) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty != ANY && difficulty.contains(effort)) {
+                return difficulty;
+            }
+        }
+        return ANY;
+    }
+}
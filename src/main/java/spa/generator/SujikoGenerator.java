@@ -0,0 +1,252 @@
+package spa.generator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import spa.model.CircleLayout;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+import spa.solvers.BitboardSujikoSolver;
+import spa.solvers.SolverStatistics;
+
+/**
+ * Generator of Sujiko puzzles with a unique solution.
+ * A puzzle is made from a random filling of the grid: the sums of the
+ * circles are derived from it, and then the givens are removed one by
+ * one in random order, keeping each removal only if the solution stays
+ * unique and the {@link Difficulty} does not exceed the target.
+ * The result is minimal for its difficulty: removing any further given
+ * makes the solution ambiguous or the puzzle too hard.
+ * If it is too easy for the target, another filling is tried.
+ * <p>
+ * A generator is seeded, so it produces the same puzzles every run, and
+ * is not thread-safe; use one generator per thread.
+ * <p>
+ * Usage:
+ * <pre>
+ *   java spa.generator.SujikoGenerator [-n count] [-d any|easy|medium|hard]
+ *       [-l rows columns maxDigit] [-r seed] [-o directory]
+ * </pre>
+ * writes {@code count} puzzles (by default 10) as {@code .zgr} files
+ * into the directory (by default the current one).
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public class SujikoGenerator {
+
+    /** Number of fillings tried for one puzzle before giving up. */
+    public static final int MAX_ATTEMPTS = 10_000;
+
+    /** The shape of the puzzles. */
+    private final CircleLayout layout;
+
+    /** The source of randomness. */
+    private final SplittableRandom random;
+
+    /** All digits 1..maxDigit, shuffled in place. */
+    private final int[] digits;
+
+    /** All cell indices, shuffled in place. */
+    private final int[] cells;
+
+    /**
+     * Constructs a generator.
+     *
+     * @param layout the shape of the puzzles
+     * @param seed the seed of the random numbers
+     */
+    public SujikoGenerator(final CircleLayout layout, final long seed) {
+        this.layout = layout;
+        this.random = new SplittableRandom(seed);
+        digits = new int[layout.getMaxDigit()];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = i + 1;
+        }
+        cells = new int[layout.getCellCount()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+    }
+
+    public CircleLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Makes a random filling of the grid with distinct digits.
+     *
+     * @return the digits in row-major order
+     */
+    public int[] filling() {
+        shuffle(digits, cells.length);
+        final int[] result = new int[cells.length];
+        System.arraycopy(digits, 0, result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * Computes the sums of the circles of a filling.
+     *
+     * @param filling the digits in row-major order
+     * @return the sum of every circle
+     */
+    public int[] sums(final int[] filling) {
+        final int[] result = new int[layout.getCircleCount()];
+        for (int circle = 0; circle < result.length; circle++) {
+            for (int cell : layout.getCircleCells(circle)) {
+                result[circle] += filling[cell];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Generates a puzzle of any difficulty.
+     *
+     * @return the puzzle, with a unique solution
+     */
+    public SujikoGrid generate() {
+        return generate(Difficulty.ANY);
+    }
+
+    /**
+     * Generates a puzzle of a given difficulty.
+     *
+     * @param difficulty the difficulty
+     * @return the puzzle, with a unique solution and an {@link #effort}
+     *     in the range of {@code difficulty}
+     * @throws IllegalStateException  if no such puzzle was found in
+     *     {@link #MAX_ATTEMPTS} fillings
+     */
+    public SujikoGrid generate(final Difficulty difficulty) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            final SujikoGrid grid = attempt(difficulty);
+            if (grid != null) {
+                return grid;
+            }
+        }
+        throw new IllegalStateException(this.getClass().getSimpleName()
+                + ".generate(): no " + difficulty + " puzzle in " + MAX_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * Makes a puzzle from one random filling.
+     *
+     * @param difficulty the difficulty
+     * @return the puzzle, or {@code null} if it is too easy
+     */
+    private SujikoGrid attempt(final Difficulty difficulty) {
+        final int[] filling = filling();
+        final SujikoGrid grid = SujikoGrid.of(layout, filling, sums(filling));
+        long effort = effort(grid);
+        shuffle(cells, cells.length);
+        for (int index : cells) {
+            final DigitCell cell = grid.getCell(index);
+            cell.clear();
+            final long reduced = effort(grid);
+            if (reduced < 0 || reduced > difficulty.getHighest()) {
+                cell.setDigit(filling[index]);
+            } else {
+                cell.setBlocked(false);
+                effort = reduced;
+            }
+        }
+        return effort < difficulty.getLowest() ? null : grid;
+    }
+
+    /**
+     * Measures the difficulty of a puzzle: the number of search nodes
+     * needed to find its solution and prove that there is no other.
+     *
+     * @param grid the puzzle
+     * @return the number of nodes, or -1 if the puzzle does not have
+     *     exactly one solution
+     */
+    public static long effort(final SujikoGrid grid) {
+        final BitboardSujikoSolver solver = new BitboardSujikoSolver(grid, null);
+        final SolverStatistics statistics = solver.enableStatistics();
+        return solver.countSolutions(2) == 1 ? statistics.getNodes() : -1;
+    }
+
+    /**
+     * Shuffles the start of an array: afterwards it holds a uniformly
+     * random selection, in random order, of the elements of the array.
+     *
+     * @param values the array
+     * @param count the number of elements to select
+     */
+    private void shuffle(final int[] values, final int count) {
+        for (int i = 0; i < count; i++) {
+            final int j = i + random.nextInt(values.length - i);
+            final int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /**
+     * Writes puzzles as {@code .zgr} files named {@code generated_00001.zgr}
+     * and so on.
+     *
+     * @param count the number of puzzles
+     * @param difficulty the difficulty
+     * @param directory the directory, created if needed
+     * @throws IOException  if a file cannot be written
+     */
+    public void write(final int count, final Difficulty difficulty, final Path directory)
+            throws IOException {
+        Files.createDirectories(directory);
+        for (int i = 1; i <= count; i++) {
+            final String name = String.format(Locale.ROOT, "generated_%05d.zgr", i);
+            Files.write(directory.resolve(name),
+                    generate(difficulty).toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Generates puzzles from the command line.
+     *
+     * @param args the command-line arguments
+     * @throws IOException  if a file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int count = 10;
+        Difficulty difficulty = Difficulty.ANY;
+        CircleLayout layout = CircleLayout.CLASSIC;
+        long seed = System.nanoTime();
+        String output = ".";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n":
+                    count = Integer.parseInt(args[++i]);
+                    break;
+                case "-d":
+                    difficulty = Difficulty.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                    break;
+                case "-l":
+                    layout = CircleLayout.blocks(Integer.parseInt(args[++i]),
+                            Integer.parseInt(args[++i]), Integer.parseInt(args[++i]));
+                    break;
+                case "-r":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "-o":
+                    output = args[++i];
+                    break;
+                default:
+                    System.err.println("Usage: SujikoGenerator [-n count]"
+                            + " [-d any|easy|medium|hard] [-l rows columns maxDigit]"
+                            + " [-r seed] [-o directory]");
+                    System.exit(2);
+            }
+        }
+        final long start = System.nanoTime();
+        new SujikoGenerator(layout, seed).write(count, difficulty, Paths.get(output));
+        System.err.println("Generated " + count + " puzzles in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Package holding the generation of new puzzles.
+ *
+ */
+package spa.generator;
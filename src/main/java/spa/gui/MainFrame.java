@@ -2,9 +2,13 @@ package spa.gui;
 
 import spa.command.Command;
 import spa.command.CompoundCommand;
+import spa.command.Journal;
 import spa.command.UndoRedo;
+import spa.reasoning.CompoundReasoner;
+import spa.reasoning.FixpointReasoner;
+import spa.reasoning.HiddenSingleReasoner;
+import spa.reasoning.NakedSingleReasoner;
 import spa.reasoning.Reasoner;
-import spa.solvers.AbstractSolver;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -12,16 +16,26 @@ import java.awt.*;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Scanner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import spa.model.CellSet;
 import spa.command.SetCommand;
 import spa.model.DigitCell;
 import spa.model.SujikoGrid;
 import spa.model.SujikoPuzzle;
-import spa.solvers.ConcreteSujikoSolver;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import spa.cache.SolveCache;
+import spa.solvers.SearchStatus;
+import spa.solvers.SolveTask;
 
 /**
  * Main frame for Sujiko Puzzle Assistant,
@@ -85,7 +99,7 @@ public class MainFrame extends javax.swing.JFrame {
         jMenuItemHelp = new javax.swing.JMenuItem();
         jMenuItemAbout = new javax.swing.JMenuItem();
 
-        setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(javax.swing.WindowConstants.DO_NOTHING_ON_CLOSE);
 
         jTextArea.setEditable(false);
         jTextArea.setColumns(20);
@@ -384,11 +398,7 @@ public class MainFrame extends javax.swing.JFrame {
     }//GEN-LAST:event_jMenuItemSaveAsActionPerformed
 
     private void jMenuItemQuitActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemQuitActionPerformed
-        if (! confirmDiscard()) {
-            return;
-        }
-        // Maybe do some finalization first
-        System.exit(0);
+        quit();
     }//GEN-LAST:event_jMenuItemQuitActionPerformed
 
     private void jMenuItemOpenActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemOpenActionPerformed
@@ -401,19 +411,23 @@ public class MainFrame extends javax.swing.JFrame {
             return; // canceled or error
         }
         File puzzleFile = puzzleChooser.getSelectedFile();
-        final Scanner scanner;
-        try {
-            scanner = new Scanner(puzzleFile);
-        } catch (FileNotFoundException e) {
+        final SujikoGrid loaded;
+        try (InputStream in = new FileInputStream(puzzleFile)) {
+            loaded = SujikoGrid.read(in);
+        } catch (IOException e) {
             jTextArea.append("File not found:\n");
             jTextArea.append("  " + puzzleFile.getName() + "\n");
             jTextArea.append(e + "\n");
             return;
+        } catch (IllegalArgumentException e) {
+            jTextArea.append("File does not contain a puzzle description:\n");
+            jTextArea.append("  " + puzzleFile.getName() + "\n");
+            jTextArea.append(e + "\n");
+            return;
         }
         try {
-            if(grid != null) grid.clearInstance();
-            puzzle = new SujikoPuzzle(scanner, puzzleFile.getName());
-            grid = SujikoGrid.getInstance();
+            puzzle = new SujikoPuzzle(loaded, puzzleFile.getName());
+            grid = puzzle.getGrid();
             this.setTitle("Sujiko Puzzle Assistant: " + puzzle.getName());
             jTextArea.append("Loaded puzzle from file " +
                     puzzle.getName() + "\n");
@@ -424,6 +438,7 @@ public class MainFrame extends javax.swing.JFrame {
                 undoRedo.clear();
 //
             }
+            beginJournal();
             unsavedModifications = false;
             updateModeRadioButtons(SujikoPuzzle.Mode.SOLVE);
             updateFrame();
@@ -481,7 +496,7 @@ public class MainFrame extends javax.swing.JFrame {
         // convert key typed to new state
         final char c = evt.getKeyChar();
         final int state;
-        if ('1' <= c && c <= '9') {
+        if ('1' <= c && c <= '9' && c - '0' <= grid.getLayout().getMaxDigit()) {
             state = c - '0';
         } else if (c == '0' | c == ' ') {
             state = 0;
@@ -527,6 +542,7 @@ public class MainFrame extends javax.swing.JFrame {
             undoRedo.clear();
 //
         }
+        beginJournal();
         updateFrame();
     }//GEN-LAST:event_jMenuItemClearActionPerformed
 
@@ -621,57 +637,55 @@ public class MainFrame extends javax.swing.JFrame {
     }//GEN-LAST:event_jCheckBoxMenuItemHighlightItemStateChanged
 
     private void jMenuItemApplyReasoningActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemApplyReasoningActionPerformed
-        String message;
-        Reasoner reasoner = null;
-        if (reasoner == null) {
-            message = "Apply Reasoning is not yet implemented.";
-        } else {
-            if (! jCheckBoxMenuItemStopAtFirstChange.isSelected()) {
-                //reasoner = new FixpointReasoner(puzzle, reasoner);
-            }
-            CompoundCommand command = reasoner.apply();
-            if (command == null) {
-                message = "Puzzle is not solvable.";
-            } else if (command.size() > 0) {
-                this.undoRedo.did(command);
-                message = "Reasoning determined " + command.getCells().size() + " cells.";
-            } else {
-                message = "Reasoning did not help.";
-            }
+        if (puzzle == null || background != null) {
+            return;
         }
-        jTextArea.append(message + "\n");
-        updateFrame();
+        // reason on a copy, off the event dispatch thread
+        final SujikoGrid copy = grid.copy();
+        Reasoner copyReasoner = new CompoundReasoner(copy)
+                .add(new NakedSingleReasoner(copy))
+                .add(new HiddenSingleReasoner(copy));
+        if (! jCheckBoxMenuItemStopAtFirstChange.isSelected()) {
+            copyReasoner = new FixpointReasoner(copy, copyReasoner);
+        }
+        final Reasoner reasoner = copyReasoner;
+        runInBackground("Reasoning", () -> "", () -> { },
+                () -> reasoner.apply() != null,
+                solvable -> {
+                    if (! solvable) {
+                        return "Puzzle is not solvable.";
+                    }
+                    final CompoundCommand command = SolveTask.changes(grid, copy);
+                    if (command.size() == 0) {
+                        return "Reasoning did not help.";
+                    }
+                    apply(command);
+                    return "Reasoning determined " + command.getCells().size() + " cells.";
+                });
     }//GEN-LAST:event_jMenuItemApplyReasoningActionPerformed
 
     private void jMenuItemSolveActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItemSolveActionPerformed
-        if (puzzle == null) {
+        if (puzzle == null || background != null) {
             return;
         }
         // puzzle != null
 
-        String message;
-        Reasoner reasoner = null;
-        AbstractSolver solver = null;
-        solver = new ConcreteSujikoSolver(grid, reasoner);
-        if (solver == null) {
-            message = "Solve is not yet implemented.";
-        } else if (solver.solve()) {
-            message = "Puzzle solved";
-            // handle result of solver
-            final Collection<Command> commands = solver.getCommands();
-            message = message + ": " + commands.size() + " steps";
-            for (final Command command : commands) {
-                if (command instanceof CompoundCommand &&
-                        ((CompoundCommand) command).size() == 0) {
-                    continue;
-                }
-                undoRedo.did(command);
-            }
-        } else {
-            message = "Puzzle not solvable";
-        }
-        jTextArea.append(message + "\n");
-        updateFrame();
+        // solve a copy, off the event dispatch thread
+        final SolveTask task = new SolveTask(grid, solveCache);
+        runInBackground("Solving", () -> task.getNodes() + " nodes, ", task::cancel,
+                task::run,
+                status -> {
+                    final String message;
+                    if (status == SearchStatus.SOLVED) {
+                        final CompoundCommand command = task.getChanges();
+                        apply(command);
+                        message = "Puzzle solved" + (task.isHit() ? " from cache" : "")
+                                + ": " + command.size() + " steps";
+                    } else {
+                        message = "Puzzle not solvable";
+                    }
+                    return message + "\n  " + task.getStatistics();
+                });
     }//GEN-LAST:event_jMenuItemSolveActionPerformed
 
     private void jCheckBoxMenuItemStopAtFirstChangeActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jCheckBoxMenuItemStopAtFirstChangeActionPerformed
@@ -773,11 +787,54 @@ public class MainFrame extends javax.swing.JFrame {
     /** Whether there are unsaved modifications to the puzzle. */
     private boolean unsavedModifications = false;
 
+    /** Maximum number of undo-redo entries kept in this session. */
+    private static final int HISTORY_ENTRIES = 100_000;
+
+    /** Maximum estimated size of the undo-redo entries kept in this session. */
+    private static final long HISTORY_BYTES = 16L << 20;
+
 // Undo-redo facility (via composition)
     /** Undo-redo facility. */
-    private final UndoRedo undoRedo = new UndoRedo();
+    private final UndoRedo undoRedo = new UndoRedo(HISTORY_ENTRIES, HISTORY_BYTES, true);
 //
 
+    /**
+     * System property with the file of the journal of the session;
+     * if empty, there is no journal.
+     */
+    public static final String JOURNAL_PROPERTY = "spa.journal";
+
+    /** Default file of the journal of the session. */
+    public static final Path DEFAULT_JOURNAL =
+            Paths.get(System.getProperty("user.home"), ".sujiko", "session.journal");
+
+    /** The file of the journal, or null if there is no journal. */
+    private Path journalFile = null;
+
+    /** The journal of the session, recording the undo-redo history; null if none. */
+    private Journal journal = null;
+
+    /** Menu item that opens {@link #jumpInHistory()}. */
+    private final JMenuItem jMenuItemJump = new JMenuItem("Jump in History...");
+
+    /** Delay before the progress of background work is shown. */
+    private static final int PROGRESS_DELAY_MILLIS = 300;
+
+    /** Interval between updates of the progress of background work. */
+    private static final int PROGRESS_INTERVAL_MILLIS = 100;
+
+    /** Maximum number of solutions remembered in this session. */
+    private static final int SOLVE_CACHE_CAPACITY = 1024;
+
+    /** Label of the button that cancels background work. */
+    private static final String CANCEL = "Cancel";
+
+    /** Solutions of the puzzles solved in this session. */
+    private final SolveCache solveCache = new SolveCache(SOLVE_CACHE_CAPACITY);
+
+    /** The solving or reasoning running in the background, or null if none. */
+    private SwingWorker<?, ?> background = null;
+
     /**
      * Completes initialization of this frame.
      */
@@ -789,15 +846,147 @@ public class MainFrame extends javax.swing.JFrame {
         puzzleChooser.setFileFilter(filter);
         this.setTitle("Sujiko Puzzle Assistant: No puzzle loaded");
         this.jTextArea.append("Open a puzzle file to start.\n");
+        jMenuItemJump.addActionListener(evt -> jumpInHistory());
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(final java.awt.event.WindowEvent evt) {
+                quit();
+            }
+        });
+        jMenuEdit.insert(jMenuItemJump,
+                jMenuEdit.getPopupMenu().getComponentIndex(jMenuItemRedoAll) + 1);
+        openJournal();
         updateFrame();
     }
 
+    /**
+     * Quits, from the menu or by closing the window, unless the user wants
+     * to keep unsaved modifications; the journal is closed and deleted.
+     */
+    private void quit() {
+        if (! confirmDiscard()) {
+            return;
+        }
+        closeJournal();
+        System.exit(0);
+    }
+
+    /**
+     * Shows a slider over the undo-redo history; moving it jumps to that
+     * point at once and shows the puzzle there.  Cancel jumps back.
+     * Not while solving or reasoning in the background, whose result would
+     * change the history under the slider.
+     */
+    private void jumpInHistory() {
+        if (background != null) {
+            return;
+        }
+        final int start = undoRedo.getPosition();
+        final JSlider slider = new JSlider(0, undoRedo.size(), start);
+        slider.addChangeListener(evt -> {
+            undoRedo.jump(slider.getValue());
+            updateFrame();
+        });
+        final int response = JOptionPane.showConfirmDialog(this, slider,
+                "Jump in History", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (response != JOptionPane.OK_OPTION) {
+            undoRedo.jump(start);
+        } else if (undoRedo.getPosition() != start) {
+            unsavedModifications = true;
+        }
+        jTextArea.append("At step " + undoRedo.getPosition() + " of " + undoRedo.size() + ".\n");
+        updateFrame();
+    }
+
+    /**
+     * Opens the journal of this session, after offering to recover the
+     * session of a previous run that did not quit normally.
+     * The journal is disabled if {@link #JOURNAL_PROPERTY} is empty or the
+     * file cannot be opened.
+     */
+    private void openJournal() {
+        final String file = System.getProperty(JOURNAL_PROPERTY, DEFAULT_JOURNAL.toString());
+        if (file.isEmpty()) {
+            return;
+        }
+        journalFile = Paths.get(file).toAbsolutePath();
+        try {
+            Files.createDirectories(journalFile.getParent());
+            recoverSession();
+            journal = Journal.open(journalFile);
+            undoRedo.setJournal(journal);
+        } catch (IOException e) {
+            jTextArea.append("Journal disabled: " + e + "\n");
+            journalFile = null;
+        }
+    }
+
+    /**
+     * Offers to recover the session in the journal, if it holds more than
+     * the start of a session, replaying its puzzle and undo-redo history;
+     * if there is nothing to recover or it is declined, the journal is deleted.
+     *
+     * @throws IOException  if the journal cannot be read or deleted
+     */
+    private void recoverSession() throws IOException {
+        final long start = System.nanoTime();
+        final SujikoGrid recovered = Journal.replay(journalFile, undoRedo);
+        if (recovered == null) {
+            Files.deleteIfExists(journalFile);
+            return;
+        }
+        final int response = JOptionPane.showConfirmDialog(this,
+                "The previous session did not quit normally.\nRecover its puzzle and history?",
+                "Recover Session", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (response != JOptionPane.YES_OPTION) {
+            undoRedo.clear();
+            Files.delete(journalFile);
+            return;
+        }
+        puzzle = new SujikoPuzzle(recovered, "Recovered session");
+        grid = puzzle.getGrid();
+        this.setTitle("Sujiko Puzzle Assistant: " + puzzle.getName());
+        jTextArea.append("Recovered session with " + undoRedo.size() + " undoable entries in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms\n");
+        puzzlePanel.setGrid(grid);
+        unsavedModifications = true;
+        updateModeRadioButtons(SujikoPuzzle.Mode.SOLVE);
+    }
+
+    /**
+     * Starts a new session in the journal, if any, with the current puzzle.
+     */
+    private void beginJournal() {
+        if (journal != null) {
+            journal.begin(grid);
+        }
+    }
+
+    /**
+     * Closes and deletes the journal, if any, as the session quits normally.
+     */
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        undoRedo.setJournal(null);
+        try {
+            journal.close();
+            Files.deleteIfExists(journalFile);
+        } catch (IOException e) {
+            System.err.println("Journal not closed: " + e);
+        }
+        journal = null;
+    }
+
     /**
      * Updates this frame, that is, the visual state of controller,
      * and repaints the view.
      */
     private void updateFrame() {
         jMenuItemSaveAs.setEnabled(puzzle != null);
+        jMenuItemSolve.setEnabled(background == null);
+        jMenuItemApplyStrategies.setEnabled(background == null);
 
         if (UNDO) {
 // Conditionally enable undo/redo menu items
@@ -805,14 +994,16 @@ public class MainFrame extends javax.swing.JFrame {
             jMenuItemRedo.setEnabled(undoRedo.canRedo());
             jMenuItemUndoAll.setEnabled(undoRedo.canUndo());
             jMenuItemRedoAll.setEnabled(undoRedo.canRedo());
+            jMenuItemJump.setEnabled(background == null && undoRedo.size() > 0);
 //
 
-            final Collection<DigitCell> markedCells = new HashSet<>();
+            final CellSet markedCells = new CellSet();
 // If available, set markedCells to cells involved in last command
             if (undoRedo.canUndo()) {
                 final Command command = undoRedo.lastDone();
                 markedCells.addAll(command.getCells());
             }
+            puzzlePanel.setMarked(markedCells);
 //
         }
 
@@ -820,6 +1011,102 @@ public class MainFrame extends javax.swing.JFrame {
         repaint();
     }
 
+    /**
+     * Runs work on a background thread, so that the frame stays responsive.
+     * While it runs, Solve and Apply Reasoning are disabled and, after
+     * {@link #PROGRESS_DELAY_MILLIS}, a dialog shows its progress and
+     * elapsed time, with a Cancel button.  When the work ends, its result
+     * is handled on the event dispatch thread, unless the work was
+     * cancelled or the puzzle was changed meanwhile.
+     *
+     * @param <T>  the type of the result
+     * @param activity  the name of the work
+     * @param progress  describes the progress; called on the event dispatch thread
+     * @param cancel  asks the work to stop early; called on the event dispatch thread
+     * @param work  the work; called on a background thread
+     * @param finish  handles the result and returns the message to show;
+     *     called on the event dispatch thread
+     */
+    private <T> void runInBackground(final String activity,
+            final Supplier<String> progress, final Runnable cancel,
+            final Callable<T> work, final Function<T, String> finish) {
+        final SujikoGrid target = grid;
+        final String before = grid.toString();
+        final long start = System.nanoTime();
+        final JLabel note = new JLabel(" ");
+        final JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        final JOptionPane pane = new JOptionPane(
+                new Object[] {activity + " " + puzzle.getName(), bar, note},
+                JOptionPane.INFORMATION_MESSAGE, JOptionPane.DEFAULT_OPTION,
+                null, new Object[] {CANCEL});
+        final JDialog dialog = pane.createDialog(this, activity);
+        dialog.setModal(false);
+        final Supplier<String> status = () -> progress.get()
+                + (System.nanoTime() - start) / 1_000_000 + " ms";
+        final Timer timer = new Timer(PROGRESS_INTERVAL_MILLIS, null);
+        final SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return work.call();
+            }
+
+            @Override
+            protected void done() {
+                timer.stop();
+                dialog.dispose();
+                background = null;
+                String message;
+                if (isCancelled()) {
+                    message = activity + " cancelled after " + status.get() + ".";
+                } else if (grid != target || ! before.equals(grid.toString())) {
+                    message = "Puzzle changed during " + activity.toLowerCase()
+                            + "; result discarded.";
+                } else {
+                    try {
+                        message = finish.apply(get());
+                    } catch (InterruptedException | ExecutionException e) {
+                        message = activity + " failed: " + e.getCause();
+                    }
+                }
+                jTextArea.append(message + "\n");
+                updateFrame();
+            }
+        };
+        timer.addActionListener(e -> {
+            note.setText(status.get());
+            if (! worker.isDone() && ! dialog.isVisible()
+                    && System.nanoTime() - start >= PROGRESS_DELAY_MILLIS * 1_000_000L) {
+                dialog.setVisible(true);
+            }
+        });
+        // Cancel button or closing the dialog
+        pane.addPropertyChangeListener(JOptionPane.VALUE_PROPERTY, e -> {
+            if (e.getNewValue() != JOptionPane.UNINITIALIZED_VALUE && ! worker.isDone()) {
+                cancel.run();
+                worker.cancel(false);
+            }
+        });
+        background = worker;
+        updateFrame();
+        timer.start();
+        worker.execute();
+    }
+
+    /**
+     * Applies changes computed in the background as one undoable step.
+     * No changes leave the history alone, so the redo entries are kept.
+     *
+     * @param command  the changes, not yet executed
+     */
+    private void apply(final CompoundCommand command) {
+        if (command.size() == 0) {
+            return;
+        }
+        undoRedo.did(command);
+        unsavedModifications = true;
+    }
+
     /**
      * Confirms whether the unsaved modifications can be discarded.
      *
@@ -4,6 +4,7 @@ package spa.gui;
 import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.util.List;
+import spa.model.CellSet;
 import spa.model.Location;
 import spa.model.DigitCell;
 import spa.model.SujikoGrid;
@@ -61,6 +62,12 @@ public class PuzzlePanel extends javax.swing.JPanel {
     /** Selected cell, affected by keystrokes. */
     private DigitCell selected;
 
+    /** Cells involved in the last command, shown highlighted. */
+    private CellSet marked = new CellSet();
+
+    /** Background of marked cells. */
+    private static final Color MARKED = new Color(255, 250, 205);
+
     /**
      * Initializes this panel.
      */
@@ -76,6 +83,16 @@ public class PuzzlePanel extends javax.swing.JPanel {
     public void setGrid(final SujikoGrid grid) {
         this.grid = grid;
         this.selected = null;
+        this.marked = new CellSet();
+    }
+
+    /**
+     * Sets the cells to highlight.
+     *
+     * @param cells  the cells, of the puzzle
+     */
+    public void setMarked(final CellSet cells) {
+        this.marked = cells;
     }
 
     /**
@@ -107,30 +124,34 @@ public class PuzzlePanel extends javax.swing.JPanel {
         int circleOffset = radius / 2;
         g.setFont(new Font("Lucida Sans Typewriter", Font.BOLD, 12));
 
-        int k = 0; 
-        for (int r = 1; r <= 2; ++r) {
-            for (int c = 1; c <= 2; ++c) {
-                int x = c * cellSize + offsetX - circleOffset;
-                int y = r * cellSize + offsetY - circleOffset;
-
-                // Draw the circle
-                g.setColor(Color.WHITE);
-                g.fillOval(x, y, radius, radius);
-                g.setColor(Color.BLACK);
-                g.drawOval(x, y, radius, radius);
-
-                SumCell sum = sumCells.get(k);
-                k++;
-                if (sum.getSum() != 0) {
-                    FontMetrics fm = g.getFontMetrics();
-                    int textWidth = fm.stringWidth(sum.toString());
-                    int textHeight = fm.getAscent();
-
-                    int textX = x + (radius - textWidth) / 2;
-                    int textY = y + (radius - textHeight) / 2 + fm.getAscent();
-
-                    g.drawString(sum.toString(), textX, textY);
-                }
+        // each circle is centred on the average centre of its cells
+        for (int k = 0; k < sumCells.size(); ++k) {
+            List<Location> locations = sumCells.get(k).getLocations();
+            double row = 0.5;
+            double col = 0.5;
+            for (Location location : locations) {
+                row += (double) location.getRow() / locations.size();
+                col += (double) location.getColumn() / locations.size();
+            }
+            int x = (int) Math.round(col * cellSize) + offsetX - circleOffset;
+            int y = (int) Math.round(row * cellSize) + offsetY - circleOffset;
+
+            // Draw the circle
+            g.setColor(Color.WHITE);
+            g.fillOval(x, y, radius, radius);
+            g.setColor(Color.BLACK);
+            g.drawOval(x, y, radius, radius);
+
+            SumCell sum = sumCells.get(k);
+            if (sum.getSum() != 0) {
+                FontMetrics fm = g.getFontMetrics();
+                int textWidth = fm.stringWidth(sum.toString());
+                int textHeight = fm.getAscent();
+
+                int textX = x + (radius - textWidth) / 2;
+                int textY = y + (radius - textHeight) / 2 + fm.getAscent();
+
+                g.drawString(sum.toString(), textX, textY);
             }
         }
     }
@@ -154,6 +175,9 @@ public class PuzzlePanel extends javax.swing.JPanel {
         if(cell == selected) {
             g.setColor(Color.LIGHT_GRAY);
         }
+        else if (marked.contains(cell)) {
+            g.setColor(MARKED);
+        }
         else {
             g.setColor(Color.WHITE);
         }
@@ -186,21 +210,22 @@ public class PuzzlePanel extends javax.swing.JPanel {
             return;
         }
         // puzzle != null
-        final int WIDTH = cellSize * 3;
-        final int HEIGHT = cellSize * 3;
+        final int rows = grid.getLayout().getRows();
+        final int columns = grid.getLayout().getColumns();
+        final int WIDTH = cellSize * columns;
+        final int HEIGHT = cellSize * rows;
         // WIDTH, HEIGHT includes top, left border for showing coordinates
 
         g.setColor(Color.WHITE);
         g.fillRect(cellSize, cellSize, WIDTH, HEIGHT);
         g.setColor(java.awt.Color.BLACK);
         // draw cell background and contents
-        for (int r = 0; r != 3; ++ r) {
+        for (int r = 0; r != rows; ++ r) {
             final int y = r * cellSize + offsetY;
-            for (int c = 0; c != 3; ++ c) {
+            for (int c = 0; c != columns; ++ c) {
                 final int x = c * cellSize + offsetX;
                 // x, y = coordinate of bottom-left corner
-                Location location = new Location(r, c);
-                final DigitCell cell = grid.getCell(location);
+                final DigitCell cell = grid.getCell(grid.getLayout().index(r, c));
                 paintCell(g, cell, x, y);
             }
         }
@@ -221,8 +246,7 @@ public class PuzzlePanel extends javax.swing.JPanel {
         final int row = (evt.getY() - offsetY) / cellSize;
         final int col = (evt.getX() - offsetX) / cellSize;
         if (grid.has(row, col)) {
-            Location location = new Location(row, col);
-            return grid.getCell(location);
+            return grid.getCell(grid.getLayout().index(row, col));
         } else {
             return null;
         }
@@ -0,0 +1,341 @@
+package spa.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps puzzles of a layout to a canonical representative under the
+ * symmetries of the layout: the {@link Symmetry symmetries} that map the
+ * grid onto itself and every circle onto a circle (all eight for
+ * {@link CircleLayout#CLASSIC}).  A symmetry moves the digits with their
+ * cells and the sums with their circles.  Two puzzles are equivalent if
+ * a symmetry maps one onto the other; equivalent puzzles have the same
+ * canonical form and, up to the symmetry, the same solutions.
+ * <p>
+ * The canonical form is the image that is least when its sums (in circle
+ * order) and then its digits (in row-major order) are compared
+ * lexicographically.  The maps of the symmetries are precomputed, so
+ * finding the canonical symmetry of a puzzle allocates nothing.
+ * Canonicalizers are immutable and can be shared between threads.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public final class Canonicalizer {
+
+    /** Canonicalizers of the layouts used so far. */
+    private static final Map<CircleLayout, Canonicalizer> SHARED = new ConcurrentHashMap<>();
+
+    /** Value of the fourth key element for layouts of 2 by 2 blocks. */
+    private static final int BLOCKS = -1;
+
+    /** The layout. */
+    private final CircleLayout layout;
+
+    /** The symmetries of the layout, starting with the identity. */
+    private final List<Symmetry> symmetries;
+
+    /** Per symmetry, the image of every cell. */
+    private final int[][] cellMaps;
+
+    /** Per symmetry, the image of every circle. */
+    private final int[][] circleMaps;
+
+    /** Per symmetry, the cell mapped to every cell. */
+    private final int[][] cellSources;
+
+    /** Per symmetry, the circle mapped to every circle. */
+    private final int[][] circleSources;
+
+    /**
+     * Constructs the canonicalizer of a layout.
+     *
+     * @param layout the layout
+     */
+    public Canonicalizer(final CircleLayout layout) {
+        this.layout = layout;
+        final List<Symmetry> found = new ArrayList<>();
+        final List<int[]> cells = new ArrayList<>();
+        final List<int[]> circles = new ArrayList<>();
+        for (Symmetry symmetry : Symmetry.values()) {
+            if (symmetry.transposes() && layout.getRows() != layout.getColumns()) {
+                continue;
+            }
+            final int[] cellMap = new int[layout.getCellCount()];
+            for (int cell = 0; cell < cellMap.length; cell++) {
+                cellMap[cell] = symmetry.map(layout, cell);
+            }
+            final int[] circleMap = circleMap(cellMap);
+            if (circleMap != null) {
+                found.add(symmetry);
+                cells.add(cellMap);
+                circles.add(circleMap);
+            }
+        }
+        symmetries = Collections.unmodifiableList(found);
+        cellMaps = cells.toArray(new int[0][]);
+        circleMaps = circles.toArray(new int[0][]);
+        cellSources = new int[cellMaps.length][];
+        circleSources = new int[cellMaps.length][];
+        for (int s = 0; s < cellMaps.length; s++) {
+            cellSources[s] = inverse(cellMaps[s]);
+            circleSources[s] = inverse(circleMaps[s]);
+        }
+    }
+
+    /**
+     * Gets the shared canonicalizer of a layout.
+     *
+     * @param layout the layout
+     * @return the canonicalizer
+     */
+    public static Canonicalizer of(final CircleLayout layout) {
+        return SHARED.computeIfAbsent(layout, Canonicalizer::new);
+    }
+
+    /**
+     * Computes the circle mapped to by every circle, given the map of the
+     * cells.
+     *
+     * @param cellMap the image of every cell
+     * @return the image of every circle, or null if some circle is not
+     *     mapped onto a circle
+     */
+    private int[] circleMap(final int[] cellMap) {
+        final int count = layout.getCircleCount();
+        final long[] masks = new long[count];
+        for (int circle = 0; circle < count; circle++) {
+            for (int cell : layout.getCircleCells(circle)) {
+                masks[circle] |= 1L << cell;
+            }
+        }
+        final int[] circleMap = new int[count];
+        for (int circle = 0; circle < count; circle++) {
+            long image = 0;
+            for (int cell : layout.getCircleCells(circle)) {
+                image |= 1L << cellMap[cell];
+            }
+            circleMap[circle] = indexOf(masks, image);
+            if (circleMap[circle] < 0) {
+                return null;
+            }
+        }
+        return circleMap;
+    }
+
+    /**
+     * Finds a value in an array.
+     *
+     * @param values the array
+     * @param value the value
+     * @return the first index of the value, or -1 if absent
+     */
+    private static int indexOf(final long[] values, final long value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Inverts a permutation.
+     *
+     * @param map the permutation
+     * @return the inverse permutation
+     */
+    private static int[] inverse(final int[] map) {
+        final int[] inverse = new int[map.length];
+        for (int i = 0; i < map.length; i++) {
+            inverse[map[i]] = i;
+        }
+        return inverse;
+    }
+
+    public CircleLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Gets the symmetries of the layout.
+     *
+     * @return unmodifiable list of symmetries, starting with the identity
+     */
+    public List<Symmetry> getSymmetries() {
+        return symmetries;
+    }
+
+    /**
+     * Gets the map of the cells under a symmetry.
+     *
+     * @param symmetry the number of the symmetry in {@link #getSymmetries()}
+     * @return the image of every cell; must not be modified
+     */
+    public int[] getCellMap(final int symmetry) {
+        return cellMaps[symmetry];
+    }
+
+    /**
+     * Gets the map of the circles under a symmetry.
+     *
+     * @param symmetry the number of the symmetry in {@link #getSymmetries()}
+     * @return the image of every circle; must not be modified
+     */
+    public int[] getCircleMap(final int symmetry) {
+        return circleMaps[symmetry];
+    }
+
+    /**
+     * Finds the symmetry that maps a puzzle to its canonical form;
+     * the first one if several do.
+     *
+     * @param grid the puzzle, of the layout of this canonicalizer
+     * @return the number of the symmetry in {@link #getSymmetries()}
+     */
+    public int canonicalSymmetry(final SujikoGrid grid) {
+        int best = 0;
+        for (int s = 1; s < cellMaps.length; s++) {
+            if (compare(grid, s, best) < 0) {
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Compares the images of a puzzle under two symmetries.
+     *
+     * @param grid the puzzle
+     * @param a the number of one symmetry
+     * @param b the number of the other symmetry
+     * @return negative, zero or positive as the image under {@code a} is
+     *     less than, equal to or greater than the image under {@code b}
+     */
+    private int compare(final SujikoGrid grid, final int a, final int b) {
+        final List<SumCell> sums = grid.getSumCells();
+        for (int circle = 0; circle < circleSources[a].length; circle++) {
+            final int result = Integer.compare(sums.get(circleSources[a][circle]).getSum(),
+                    sums.get(circleSources[b][circle]).getSum());
+            if (result != 0) {
+                return result;
+            }
+        }
+        for (int cell = 0; cell < cellSources[a].length; cell++) {
+            final int result = Integer.compare(grid.getCell(cellSources[a][cell]).getDigit(),
+                    grid.getCell(cellSources[b][cell]).getDigit());
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Computes the digits of the image of a puzzle under a symmetry.
+     *
+     * @param grid the puzzle
+     * @param symmetry the number of the symmetry
+     * @return the digits of the image in row-major order
+     */
+    public int[] digits(final SujikoGrid grid, final int symmetry) {
+        final int[] digits = new int[cellSources[symmetry].length];
+        for (int cell = 0; cell < digits.length; cell++) {
+            digits[cell] = grid.getCell(cellSources[symmetry][cell]).getDigit();
+        }
+        return digits;
+    }
+
+    /**
+     * Computes the sums of the image of a puzzle under a symmetry.
+     *
+     * @param grid the puzzle
+     * @param symmetry the number of the symmetry
+     * @return the sums of the image in circle order
+     */
+    public int[] sums(final SujikoGrid grid, final int symmetry) {
+        final int[] sums = new int[circleSources[symmetry].length];
+        for (int circle = 0; circle < sums.length; circle++) {
+            sums[circle] = grid.getSumCells().get(circleSources[symmetry][circle]).getSum();
+        }
+        return sums;
+    }
+
+    /**
+     * Computes the key of a puzzle, which identifies its equivalence class: the rows, columns and
+     * largest digit of the layout, {@code -1} for a layout of 2 by 2
+     * blocks or else the number of circles followed by the size and the
+     * cells of every circle, then the digits and the sums of the
+     * canonical form of the puzzle.
+     *
+     * @param grid the puzzle, of the layout of this canonicalizer
+     * @return the key
+     */
+    public int[] key(final SujikoGrid grid) {
+        return key(grid, canonicalSymmetry(grid));
+    }
+
+    /**
+     * Computes the key of the image of a puzzle under a symmetry.
+     *
+     * @param grid the puzzle, of the layout of this canonicalizer
+     * @param symmetry the number of the symmetry
+     * @return the key
+     */
+    public int[] key(final SujikoGrid grid, final int symmetry) {
+        int length = 4 + layout.getCellCount() + layout.getCircleCount();
+        if (!layout.isBlocks()) {
+            for (int circle = 0; circle < layout.getCircleCount(); circle++) {
+                length += 1 + layout.getCircleCells(circle).length;
+            }
+        }
+        final int[] key = new int[length];
+        int i = 0;
+        key[i++] = layout.getRows();
+        key[i++] = layout.getColumns();
+        key[i++] = layout.getMaxDigit();
+        key[i++] = layout.isBlocks() ? BLOCKS : layout.getCircleCount();
+        if (!layout.isBlocks()) {
+            for (int circle = 0; circle < layout.getCircleCount(); circle++) {
+                final int[] cells = layout.getCircleCells(circle);
+                key[i++] = cells.length;
+                System.arraycopy(cells, 0, key, i, cells.length);
+                i += cells.length;
+            }
+        }
+        final int[] cellMap = cellMaps[symmetry];
+        for (int cell = 0; cell < cellMap.length; cell++) {
+            key[i + cellMap[cell]] = grid.getCell(cell).getDigit();
+        }
+        i += cellMap.length;
+        final int[] circleMap = circleMaps[symmetry];
+        for (int circle = 0; circle < circleMap.length; circle++) {
+            key[i + circleMap[circle]] = grid.getSumCells().get(circle).getSum();
+        }
+        return key;
+    }
+
+    /**
+     * Creates the image of a puzzle under a symmetry; its nonzero digits
+     * are givens.
+     *
+     * @param grid the puzzle
+     * @param symmetry the number of the symmetry
+     * @return the image
+     */
+    public SujikoGrid transform(final SujikoGrid grid, final int symmetry) {
+        return SujikoGrid.of(layout, digits(grid, symmetry), sums(grid, symmetry));
+    }
+
+    /**
+     * Creates the canonical form of a puzzle; its nonzero digits are givens.
+     *
+     * @param grid the puzzle
+     * @return the canonical form
+     */
+    public SujikoGrid canonical(final SujikoGrid grid) {
+        return transform(grid, canonicalSymmetry(grid));
+    }
+}
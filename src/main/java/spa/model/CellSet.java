@@ -0,0 +1,187 @@
+package spa.model;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of digit cells, such as the cells involved in a command.
+ * Cells of a grid are kept as a bitmask over their row-major indices
+ * (see {@link DigitCell#getIndex()}), so adding a cell, testing
+ * membership and merging two sets of the same grid take constant time;
+ * iteration gives those cells in row-major order.  Cells that do not
+ * belong to that grid are kept in a list after them.
+ * Cells are compared by identity, not by {@link DigitCell#equals},
+ * which depends on their digit.
+ * <p>
+ * Cells can be added but not removed, except all at once by {@link #clear()}.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public final class CellSet extends AbstractSet<DigitCell> {
+
+    /** The grid of the cells in {@link #mask}; null until a cell of a grid is added. */
+    private SujikoGrid grid;
+
+    /** The cells of {@link #grid} in this set (cell i is bit i). */
+    private int mask;
+
+    /** The other cells in this set, in the order added; null if none. */
+    private List<DigitCell> others;
+
+    /**
+     * Constructs an empty set.
+     */
+    public CellSet() {
+        // empty
+    }
+
+    /**
+     * Gets the cells of the grid in this set.
+     *
+     * @return bitmask of the row-major indices of the cells (cell i is bit i);
+     *     0 if none
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Determines whether a cell is kept in {@link #mask}, adopting its
+     * grid if this set has none yet.
+     *
+     * @param cell the cell
+     * @return whether the cell belongs to the grid of this set
+     */
+    private boolean inGrid(final DigitCell cell) {
+        if (cell.getIndex() < 0) {
+            return false;
+        }
+        if (grid == null) {
+            grid = cell.getGrid();
+        }
+        return cell.getGrid() == grid;
+    }
+
+    /**
+     * Determines whether a cell is one of {@link #others}.
+     *
+     * @param cell the cell
+     * @return whether the cell is in the list, by identity
+     */
+    private boolean isOther(final DigitCell cell) {
+        if (others != null) {
+            for (DigitCell other : others) {
+                if (other == cell) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean add(final DigitCell cell) {
+        if (inGrid(cell)) {
+            final int bit = 1 << cell.getIndex();
+            final boolean added = (mask & bit) == 0;
+            mask |= bit;
+            return added;
+        }
+        if (isOther(cell)) {
+            return false;
+        }
+        if (others == null) {
+            others = new ArrayList<>();
+        }
+        return others.add(cell);
+    }
+
+    /**
+     * Adds the cells of a collection; if it is a {@code CellSet} of the
+     * same grid (or either has no cells of a grid), in constant time
+     * plus the time to add its other cells.
+     *
+     * @param cells the cells
+     * @return whether this set changed
+     */
+    @Override
+    public boolean addAll(final Collection<? extends DigitCell> cells) {
+        if (!(cells instanceof CellSet)) {
+            return super.addAll(cells);
+        }
+        final CellSet set = (CellSet) cells;
+        boolean changed = false;
+        if (set.mask != 0 && (grid == null || grid == set.grid)) {
+            grid = set.grid;
+            changed = (set.mask & ~mask) != 0;
+            mask |= set.mask;
+        } else if (set.mask != 0) {
+            for (int left = set.mask; left != 0; left &= left - 1) {
+                changed |= add(set.grid.getCell(Integer.numberOfTrailingZeros(left)));
+            }
+        }
+        if (set.others != null) {
+            for (DigitCell cell : set.others) {
+                changed |= add(cell);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean contains(final Object obj) {
+        if (!(obj instanceof DigitCell)) {
+            return false;
+        }
+        final DigitCell cell = (DigitCell) obj;
+        if (grid != null && cell.getGrid() == grid && cell.getIndex() >= 0) {
+            return (mask & (1 << cell.getIndex())) != 0;
+        }
+        return isOther(cell);
+    }
+
+    @Override
+    public int size() {
+        return Integer.bitCount(mask) + (others == null ? 0 : others.size());
+    }
+
+    @Override
+    public void clear() {
+        mask = 0;
+        others = null;
+    }
+
+    @Override
+    public Iterator<DigitCell> iterator() {
+        return new Iterator<DigitCell>() {
+
+            /** The cells of the grid still to be returned. */
+            private int left = mask;
+
+            /** The position in {@link #others} of the next other cell. */
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return left != 0 || others != null && next < others.size();
+            }
+
+            @Override
+            public DigitCell next() {
+                if (left != 0) {
+                    final int index = Integer.numberOfTrailingZeros(left);
+                    left &= left - 1;
+                    return grid.getCell(index);
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return others.get(next++);
+            }
+        };
+    }
+}
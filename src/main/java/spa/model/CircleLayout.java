@@ -0,0 +1,329 @@
+package spa.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The shape of a Sujiko grid: its dimensions, the range of digits and
+ * which cells each circle covers.
+ * Cells are numbered by their row-major index {@code row * columns + column};
+ * circles are numbered from 0 and belong to the sum cell of group
+ * {@code circle + 1}.
+ * Both directions of the cell-circle relation are precomputed, as index
+ * arrays and as bitmasks, so looking them up allocates nothing.
+ * Layouts are immutable; the arrays and lists they return must not be modified.
+ * <p>
+ * The classic Sujiko is {@link #CLASSIC}: 3 by 3 cells, digits 1..9 and
+ * a circle on each of the four 2 by 2 blocks.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public final class CircleLayout {
+
+    /** Largest supported digit, so that sets of digits fit in an {@code int}. */
+    public static final int MAX_DIGIT_LIMIT = 31;
+
+    /** Largest supported number of circles, so that sets of circles fit in a {@code long}. */
+    public static final int MAX_CIRCLE_LIMIT = 64;
+
+    /** The classic 3 by 3 Sujiko. */
+    public static final CircleLayout CLASSIC = blocks(3, 3, 9);
+
+    /** Number of rows. */
+    private final int rows;
+
+    /** Number of columns. */
+    private final int columns;
+
+    /** Largest digit; digits range over 1..maxDigit. */
+    private final int maxDigit;
+
+    /** Cells (row-major index) covered by each circle. */
+    private final int[][] circleCells;
+
+    /** Circles through each cell. */
+    private final int[][] cellCircles;
+
+    /** Cells covered by each circle, as a bitmask (cell i is bit i). */
+    private final int[] circleCellMasks;
+
+    /** Circles through each cell, as a bitmask (circle i is bit i). */
+    private final long[] cellCircleMasks;
+
+    /** Location of each cell. */
+    private final Location[] cellLocations;
+
+    /** Locations of the cells covered by each circle. */
+    private final List<List<Location>> circleLocations;
+
+    /**
+     * Constructs a layout.
+     *
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param maxDigit largest digit
+     * @param circleCells cells (row-major index) covered by each circle;
+     *     copied
+     * @throws IllegalArgumentException  if the dimensions are not positive,
+     *     if there are more cells than digits, if {@code maxDigit} exceeds
+     *     {@link #MAX_DIGIT_LIMIT}, if there are more than
+     *     {@link #MAX_CIRCLE_LIMIT} circles, or if a circle is empty, has a
+     *     cell outside the grid or has a cell twice
+     */
+    public CircleLayout(final int rows, final int columns, final int maxDigit,
+            final int[][] circleCells) {
+        checkSize(rows, columns, maxDigit, circleCells.length);
+        this.rows = rows;
+        this.columns = columns;
+        this.maxDigit = maxDigit;
+        this.circleCells = new int[circleCells.length][];
+        circleCellMasks = new int[circleCells.length];
+        cellCircleMasks = new long[rows * columns];
+        final int[] counts = new int[rows * columns];
+        for (int circle = 0; circle < circleCells.length; circle++) {
+            this.circleCells[circle] = checkCircle(circle, circleCells[circle]);
+            for (int cell : circleCells[circle]) {
+                counts[cell]++;
+                circleCellMasks[circle] |= 1 << cell;
+                cellCircleMasks[cell] |= 1L << circle;
+            }
+        }
+        cellCircles = new int[counts.length][];
+        for (int cell = 0; cell < counts.length; cell++) {
+            cellCircles[cell] = new int[counts[cell]];
+            counts[cell] = 0;
+        }
+        cellLocations = new Location[rows * columns];
+        for (int cell = 0; cell < cellLocations.length; cell++) {
+            cellLocations[cell] = Location.of(cell / columns, cell % columns);
+        }
+        final List<List<Location>> locations = new ArrayList<>(circleCells.length);
+        for (int circle = 0; circle < circleCells.length; circle++) {
+            final List<Location> circleLocation = new ArrayList<>();
+            for (int cell : this.circleCells[circle]) {
+                cellCircles[cell][counts[cell]++] = circle;
+                circleLocation.add(cellLocations[cell]);
+            }
+            locations.add(Collections.unmodifiableList(circleLocation));
+        }
+        circleLocations = Collections.unmodifiableList(locations);
+    }
+
+    /**
+     * Checks the dimensions, the range of digits and the number of circles.
+     *
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param maxDigit largest digit
+     * @param circles number of circles
+     * @throws IllegalArgumentException  if the sizes are invalid
+     */
+    private void checkSize(final int rows, final int columns, final int maxDigit,
+            final int circles) {
+        if (rows < 1 || columns < 1 || rows * columns > maxDigit
+                || maxDigit > MAX_DIGIT_LIMIT) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + "().pre failed: " + rows + " by " + columns + " cells with digits 1.."
+                    + maxDigit);
+        }
+        if (circles > MAX_CIRCLE_LIMIT) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + "().pre failed: " + circles + " circles");
+        }
+    }
+
+    /**
+     * Checks the cells of a circle.
+     *
+     * @param circle the circle index
+     * @param cells the cells of the circle
+     * @return a copy of the cells
+     * @throws IllegalArgumentException  if the cells are invalid
+     */
+    private int[] checkCircle(final int circle, final int[] cells) {
+        long seen = 0;
+        for (int cell : cells) {
+            if (cell < 0 || cell >= rows * columns || (seen & (1L << cell)) != 0) {
+                throw new IllegalArgumentException(this.getClass().getSimpleName()
+                        + "().pre failed: circle " + circle + " has invalid cell " + cell);
+            }
+            seen |= 1L << cell;
+        }
+        if (cells.length == 0) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + "().pre failed: circle " + circle + " is empty");
+        }
+        return cells.clone();
+    }
+
+    /**
+     * Creates a layout with a circle on every 2 by 2 block of cells,
+     * in row-major order of the blocks' top-left cells.
+     *
+     * @param rows number of rows, at least 2
+     * @param columns number of columns, at least 2
+     * @param maxDigit largest digit
+     * @return the layout
+     * @throws IllegalArgumentException  if the layout is invalid
+     */
+    public static CircleLayout blocks(final int rows, final int columns, final int maxDigit) {
+        final int[][] circles = new int[Math.max(0, (rows - 1) * (columns - 1))][];
+        int circle = 0;
+        for (int row = 0; row + 1 < rows; row++) {
+            for (int column = 0; column + 1 < columns; column++) {
+                final int top = row * columns + column;
+                circles[circle++] = new int[] {top, top + 1, top + columns, top + columns + 1};
+            }
+        }
+        return new CircleLayout(rows, columns, maxDigit, circles);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getCellCount() {
+        return rows * columns;
+    }
+
+    public int getMaxDigit() {
+        return maxDigit;
+    }
+
+    /**
+     * Gets the set of all digits.
+     *
+     * @return bitmask with the bits of digits 1..maxDigit set
+     *     (digit d is bit d - 1)
+     */
+    public int getAllDigits() {
+        return (int) ((1L << maxDigit) - 1);
+    }
+
+    public int getCircleCount() {
+        return circleCells.length;
+    }
+
+    /**
+     * Gets the cells covered by a circle.
+     *
+     * @param circle the circle index
+     * @return the row-major indices of the cells; not to be modified
+     */
+    public int[] getCircleCells(final int circle) {
+        return circleCells[circle];
+    }
+
+    /**
+     * Gets the circles through a cell.
+     *
+     * @param cell the row-major index of the cell
+     * @return the circle indices, ascending; not to be modified
+     */
+    public int[] getCellCircles(final int cell) {
+        return cellCircles[cell];
+    }
+
+    /**
+     * Gets the cells covered by a circle as a set.
+     *
+     * @param circle the circle index
+     * @return bitmask of the cells (cell i is bit i)
+     */
+    public int getCircleCellMask(final int circle) {
+        return circleCellMasks[circle];
+    }
+
+    /**
+     * Gets the circles through a cell as a set.
+     *
+     * @param cell the row-major index of the cell
+     * @return bitmask of the circles (circle i is bit i)
+     */
+    public long getCellCircleMask(final int cell) {
+        return cellCircleMasks[cell];
+    }
+
+    /**
+     * Gets the locations of the cells covered by a circle.
+     *
+     * @param circle the circle index
+     * @return unmodifiable list of locations
+     */
+    public List<Location> getLocations(final int circle) {
+        return circleLocations.get(circle);
+    }
+
+    /**
+     * Gets the location of a cell.
+     *
+     * @param cell the row-major index of the cell
+     * @return the shared location, as given by {@link Location#of(int, int)}
+     */
+    public Location getLocation(final int cell) {
+        return cellLocations[cell];
+    }
+
+    /**
+     * Gets the row-major index of a cell.
+     *
+     * @param row the row
+     * @param column the column
+     * @return the index
+     */
+    public int index(final int row, final int column) {
+        return row * columns + column;
+    }
+
+    /**
+     * Gets the row-major index of a cell.
+     *
+     * @param location the location of the cell
+     * @return the index
+     */
+    public int index(final Location location) {
+        return location.getRow() * columns + location.getColumn();
+    }
+
+    /**
+     * Checks if a row and column are within the bounds of the grid.
+     *
+     * @param row the row
+     * @param column the column
+     * @return whether there is a cell at that row and column
+     */
+    public boolean has(final int row, final int column) {
+        return 0 <= row && row < rows && 0 <= column && column < columns;
+    }
+
+    /**
+     * Determines whether this layout has a circle on every 2 by 2 block,
+     * as made by {@link #blocks(int, int, int)}.
+     *
+     * @return whether the circles are the blocks
+     */
+    public boolean isBlocks() {
+        return equals(blocks(rows, columns, maxDigit));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final CircleLayout other = (CircleLayout) obj;
+        return rows == other.rows && columns == other.columns && maxDigit == other.maxDigit
+                && Arrays.deepEquals(circleCells, other.circleCells);
+    }
+
+    @Override
+    public int hashCode() {
+        return ((rows * 31 + columns) * 31 + maxDigit) * 31 + Arrays.deepHashCode(circleCells);
+    }
+}
@@ -2,6 +2,8 @@
 package spa.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Represents a cell in the Sujiko puzzle grid containing a digit value.
@@ -11,7 +13,14 @@ import java.util.ArrayList;
 public class DigitCell extends SujikoCell {
     private Location location;
     private int digit;
-    private ArrayList<Integer> groups;
+    /** The groups of this cell; null until first determined. */
+    private List<Integer> groups;
+    /** The circles through this cell; null until known. */
+    private int[] circles;
+    /** The grid that keeps count of this cell's digit; null if none. */
+    private SujikoGrid grid;
+    /** The row-major index of this cell in {@link #grid}; -1 if none. */
+    private int index = -1;
     
     /**
      * Constructs a DigitCell with the specified location and digit value.
@@ -24,6 +33,20 @@ public class DigitCell extends SujikoCell {
         this.digit = digit;
     }
     
+    /**
+     * Constructs a DigitCell of a grid with the specified location, digit value
+     * and circles.
+     *
+     * @param location The location of the DigitCell.
+     * @param digit    The digit value to be stored in the DigitCell.
+     * @param circles  The circles through the DigitCell, as given by the
+     *                 layout of the grid; not copied.
+     */
+    public DigitCell(Location location, int digit, int[] circles) {
+        this(location, digit);
+        this.circles = circles;
+    }
+    
     /**
      * Gets the digit value stored in the DigitCell.
      *
@@ -35,12 +58,34 @@ public class DigitCell extends SujikoCell {
     
     /**
      * Sets the digit value for the DigitCell.
+     * If the cell belongs to a grid, the grid's counts are updated.
      *
      * @param digit The new digit value to be set.
+     * @throws IllegalArgumentException  if the digit is negative or, for a
+     *     cell of a grid, greater than the largest digit of its layout
+     * @pre {@code 0 <= digit <= maxDigit} of the grid's layout, if any
      */
     public void setDigit(int digit) {
+        if (digit < 0 || grid != null && digit > grid.getLayout().getMaxDigit()) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + ".setDigit().pre failed: digit " + digit + " out of range");
+        }
+        if (grid != null) {
+            grid.update(index, this.digit, digit);
+        }
         this.digit = digit;
     }
+
+    /**
+     * Makes this cell report changes of its digit to a grid.
+     *
+     * @param grid  The grid, or null to stop reporting.
+     * @param index The row-major index of this cell in the grid; -1 if none.
+     */
+    void attach(SujikoGrid grid, int index) {
+        this.grid = grid;
+        this.index = index;
+    }
     
     /**
      * Clears the digit value in the DigitCell, setting it to 0.
@@ -59,87 +104,72 @@ public class DigitCell extends SujikoCell {
     } 
     
     /**
-     * Checks if the DigitCell is empty (digit value is 0).
+     * Gets the row-major index of the DigitCell in its grid, which gives
+     * the cell back by {@link SujikoGrid#getCell(int)}.
      *
-     * @return true if the DigitCell is empty, false otherwise.
+     * @return The index, or -1 if the cell does not belong to a grid.
      */
-    public boolean isEmpty() {
-        return this.digit == 0;
+    public int getIndex() {
+        return this.index;
     }
     
     /**
-     * Converts the DigitCell's digit value to a string.
+     * Gets the grid this DigitCell belongs to.
      *
-     * @return The string representation of the digit value.
+     * @return The grid, or null if none.
      */
-    public String toString() {
-        return String.valueOf(this.digit);
+    public SujikoGrid getGrid() {
+        return this.grid;
     }
     
     /**
-     * Checks if the DigitCell belongs to group 1.
-     *
-     * @return true if in group 1, false otherwise.
-     */
-    private boolean checkGroup1() {
-        int row = this.location.getRow();
-        int col = this.location.getColumn();
-        return row <= 1 && col <= 1;
-    }
-    
-    /**
-     * Checks if the DigitCell belongs to group 2.
+     * Checks if the DigitCell is empty (digit value is 0).
      *
-     * @return true if in group 2, false otherwise.
+     * @return true if the DigitCell is empty, false otherwise.
      */
-    private boolean checkGroup2() {
-        int row = this.location.getRow();
-        int col = this.location.getColumn();
-        return row <= 1 && (col >= 1 && col <= 2);
+    public boolean isEmpty() {
+        return this.digit == 0;
     }
     
     /**
-     * Checks if the DigitCell belongs to group 3.
+     * Converts the DigitCell's digit value to a string.
      *
-     * @return true if in group 3, false otherwise.
+     * @return The string representation of the digit value.
      */
-    private boolean checkGroup3() {
-        int row = this.location.getRow();
-        int col = this.location.getColumn();
-        return (row >= 1 && row <= 2) && col <= 1;
+    public String toString() {
+        return String.valueOf(this.digit);
     }
     
     /**
-     * Checks if the DigitCell belongs to group 4.
+     * Determines the groups to which the DigitCell belongs based on its circles.
+     * The groups are determined once; later calls allocate nothing.
      *
-     * @return true if in group 4, false otherwise.
+     * @return unmodifiable list of group numbers to which the DigitCell belongs.
      */
-    private boolean checkGroup4() {
-        int row = this.location.getRow();
-        int col = this.location.getColumn();
-        return (row >= 1 && row <= 2) && (col >= 1 && col <= 2);
+    public List<Integer> determineGroup() {
+        if (groups == null) {
+            final List<Integer> determined = new ArrayList<>();
+            for (int circle : getCircles()) {
+                determined.add(circle + 1);
+            }
+            groups = Collections.unmodifiableList(determined);
+        }
+        return groups;
     }
     
     /**
-     * Determines the groups to which the DigitCell belongs based on its location.
+     * Gets the circles through this cell, as given by the layout of its grid.
+     * Cells not made by a grid are taken to be in a classic grid.
      *
-     * @return ArrayList of group numbers to which the DigitCell belongs.
+     * @return the circle indices (group - 1); not to be modified
      */
-    public ArrayList<Integer> determineGroup() {
-        this.groups = new ArrayList<>();
-        if (checkGroup1()) {
-            groups.add(1);
-        }
-        if (checkGroup2()) {
-            groups.add(2);
-        }
-        if (checkGroup3()) {
-            groups.add(3);
+    public int[] getCircles() {
+        if (circles == null) {
+            final CircleLayout classic = CircleLayout.CLASSIC;
+            circles = classic.has(location.getRow(), location.getColumn())
+                    ? classic.getCellCircles(classic.index(location)) : new int[0];
         }
-        if (checkGroup4()) {
-            groups.add(4);
-        }
-        return groups;
+        return circles;
     }
     
     @Override
@@ -152,4 +182,16 @@ public class DigitCell extends SujikoCell {
                 && this.getLocation().getRow() == cell.getLocation().getRow()
                 && this.getLocation().getColumn() == cell.getLocation().getColumn();
     }
+    
+    /**
+     * Gets a hash code that depends only on the location, which does not
+     * change, so a cell keeps its place in hash-based collections when its
+     * digit changes.
+     *
+     * @return The hash code of the location.
+     */
+    @Override
+    public int hashCode() {
+        return this.location.hashCode();
+    }
 }
@@ -0,0 +1,188 @@
+package spa.model;
+
+/**
+ * An immutable snapshot of the digits of a {@link SujikoGrid}, as taken by
+ * {@link SujikoGrid#snapshot()} and restored by
+ * {@link SujikoGrid#restore(GridSnapshot)}.
+ * <p>
+ * A layout has at most {@link CircleLayout#MAX_DIGIT_LIMIT} cells and
+ * digits, so the digits fit in three {@code long}s, five bits per cell
+ * in row-major order; the grid keeps these words up to date, so taking a
+ * snapshot copies three words, independent of the size of the puzzle or
+ * of the history that led to it.  Snapshots share their layout with the
+ * grid and each other, and {@link #with(int, int)} derives a snapshot
+ * that differs in one cell without changing this one.  The sums and
+ * blocked cells are not part of a snapshot: they do not change while a
+ * puzzle is solved.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public final class GridSnapshot {
+
+    /** Bits per digit. */
+    static final int DIGIT_BITS = 5;
+
+    /** Digits per word. */
+    static final int WORD_DIGITS = Long.SIZE / DIGIT_BITS;
+
+    /** Number of words, enough for {@link CircleLayout#MAX_DIGIT_LIMIT} cells. */
+    static final int WORDS = 3;
+
+    /** Mask of one digit. */
+    private static final long DIGIT_MASK = (1L << DIGIT_BITS) - 1;
+
+    /** The layout of the grid. */
+    private final CircleLayout layout;
+
+    /** Digits of cells 0 to 11. */
+    private final long first;
+
+    /** Digits of cells 12 to 23. */
+    private final long second;
+
+    /** Digits of cells 24 and up. */
+    private final long third;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param layout the layout of the grid
+     * @param first the digits of cells 0 to 11
+     * @param second the digits of cells 12 to 23
+     * @param third the digits of cells 24 and up
+     */
+    GridSnapshot(final CircleLayout layout, final long first, final long second,
+            final long third) {
+        this.layout = layout;
+        this.first = first;
+        this.second = second;
+        this.third = third;
+    }
+
+    /**
+     * Gets the layout of the grid.
+     *
+     * @return the layout
+     */
+    public CircleLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Gets a word of digits.
+     *
+     * @param word the word: 0, 1 or 2
+     * @return the digits of that word
+     */
+    long getWord(final int word) {
+        return word == 0 ? first : word == 1 ? second : third;
+    }
+
+    /**
+     * Gets the digit of a cell.
+     *
+     * @param index the row-major index of the cell
+     * @return the digit, 0 if empty
+     * @throws IndexOutOfBoundsException  if there is no such cell
+     */
+    public int getDigit(final int index) {
+        checkIndex(index);
+        return (int) (getWord(index / WORD_DIGITS) >>> shift(index) & DIGIT_MASK);
+    }
+
+    /**
+     * Derives a snapshot in which one cell has another digit.
+     *
+     * @param index the row-major index of the cell
+     * @param digit the digit, 0 if empty
+     * @return the snapshot, sharing the layout of this one
+     * @throws IndexOutOfBoundsException  if there is no such cell
+     * @throws IllegalArgumentException  if the digit is out of range
+     */
+    public GridSnapshot with(final int index, final int digit) {
+        checkIndex(index);
+        if (digit < 0 || digit > layout.getMaxDigit()) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + ".with().pre failed: digit " + digit);
+        }
+        final long change = (long) (getDigit(index) ^ digit) << shift(index);
+        final int word = index / WORD_DIGITS;
+        return new GridSnapshot(layout, word == 0 ? first ^ change : first,
+                word == 1 ? second ^ change : second, word == 2 ? third ^ change : third);
+    }
+
+    /**
+     * Determines the cells in which this snapshot differs from another one.
+     *
+     * @param other the other snapshot, of the same layout
+     * @return bitmask of the row-major indices of the cells (cell i is bit i)
+     * @throws IllegalArgumentException  if the layouts differ
+     */
+    public int diff(final GridSnapshot other) {
+        if (!layout.equals(other.layout)) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + ".diff().pre failed: different layouts");
+        }
+        int cells = 0;
+        for (int word = 0; word < WORDS; word++) {
+            long change = getWord(word) ^ other.getWord(word);
+            while (change != 0) {
+                final int digit = Long.numberOfTrailingZeros(change) / DIGIT_BITS;
+                cells |= 1 << (word * WORD_DIGITS + digit);
+                change &= ~(DIGIT_MASK << (digit * DIGIT_BITS));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Gets the position of the digit of a cell in its word.
+     *
+     * @param index the row-major index of the cell
+     * @return the number of bits below the digit
+     */
+    static int shift(final int index) {
+        return index % WORD_DIGITS * DIGIT_BITS;
+    }
+
+    /**
+     * Checks the index of a cell.
+     *
+     * @param index the row-major index
+     * @throws IndexOutOfBoundsException  if there is no such cell
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= layout.getCellCount()) {
+            throw new IndexOutOfBoundsException(this.getClass().getSimpleName()
+                    + ": cell " + index);
+        }
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof GridSnapshot)) {
+            return false;
+        }
+        final GridSnapshot other = (GridSnapshot) obj;
+        return first == other.first && second == other.second && third == other.third
+                && layout.equals(other.layout);
+    }
+
+    @Override
+    public int hashCode() {
+        return (Long.hashCode(first) * 31 + Long.hashCode(second)) * 31 + Long.hashCode(third);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder s = new StringBuilder();
+        for (int index = 0; index < layout.getCellCount(); index++) {
+            s.append(getDigit(index))
+                    .append((index + 1) % layout.getColumns() == 0 ? '\n' : ' ');
+        }
+        return s.toString();
+    }
+}
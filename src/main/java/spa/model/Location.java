@@ -5,6 +5,11 @@ import java.util.regex.Pattern;
 
 /**
  * Location in the Sujiko puzzle grid (immutable).
+ * <p>
+ * Locations are values: equal locations have equal hash codes.  The
+ * locations of every grid that fits a {@link CircleLayout} are shared
+ * flyweights, obtained by {@link #of(int, int)} without allocation;
+ * a {@link CircleLayout} also gives them by dense cell index.
  *
  * @inv NonNegative: {@code 0 <= getRow() && 0 <= getColumn()}
  *
@@ -12,6 +17,18 @@ import java.util.regex.Pattern;
 public class Location {
     // TODO: consider implementation by extending EnumMap
 
+    /** Number of rows and of columns of pooled locations. */
+    private static final int POOL_SIZE = CircleLayout.MAX_DIGIT_LIMIT;
+
+    /** The pooled locations, in row-major order. */
+    private static final Location[] POOL = new Location[POOL_SIZE * POOL_SIZE];
+
+    static {
+        for (int i = 0; i < POOL.length; i++) {
+            POOL[i] = new Location(i / POOL_SIZE, i % POOL_SIZE);
+        }
+    }
+
     /** The row coordinate. */
     private final int row;
 
@@ -37,6 +54,22 @@ public class Location {
         this.column = column;
     }
 
+    /**
+     * Gets the location with given row and column; a shared instance if
+     * both are less than {@link CircleLayout#MAX_DIGIT_LIMIT}, as in every grid.
+     *
+     * @param row  the given row coordinate
+     * @param column  the given column coordinate
+     * @return the location
+     * @throws IllegalArgumentException  if {@code row < 0 || column < 0}
+     */
+    public static Location of(final int row, final int column) {
+        if (0 <= row && row < POOL_SIZE && 0 <= column && column < POOL_SIZE) {
+            return POOL[row * POOL_SIZE + column];
+        }
+        return new Location(row, column);
+    }
+
     /** Constructs a new location from a given scanner.
      *
      * @param scanner  the given scanner
@@ -77,4 +110,9 @@ public class Location {
                 && this.getRow() == location.getRow();
     }
 
+    @Override
+    public int hashCode() {
+        return row * 31 + column;
+    }
+
 }
@@ -1,9 +1,8 @@
 
 package spa.model;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Arrays;
 
 /**
  * Represents an abstract cell in the Sujiko puzzle grid.
@@ -67,34 +66,17 @@ public abstract class SujikoCell {
     }
     
     /**
-    * Determines positions used by certain group.
-    */
+     * Determines positions used by certain group, in a classic grid.
+     *
+     * @return unmodifiable list of locations; empty if the group is not
+     *     one of the four circles
+     */
     public List<Location> getLocations() {
-        switch (group) {
-            case 1:
-                return new ArrayList<>(Arrays.asList(new Location(0, 0), 
-                        new Location(0, 1),
-                        new Location(1, 0),
-                        new Location(1, 1)));
-            case 2:
-                return new ArrayList<>(Arrays.asList(new Location(0, 1), 
-                        new Location(0, 2),
-                        new Location(1, 1),
-                        new Location(1, 2)));
-            case 3:
-                return new ArrayList<>(Arrays.asList(new Location(1, 0), 
-                        new Location(1, 1),
-                        new Location(2, 0),
-                        new Location(2, 1)));
-            case 4:
-                return new ArrayList<>(Arrays.asList(new Location(1, 1), 
-                        new Location(1, 2),
-                        new Location(2, 1),
-                        new Location(2, 2)));
-            default:
-                // TODO add throw error here.
-                return new ArrayList<>(); 
+        final CircleLayout classic = CircleLayout.CLASSIC;
+        if (group < 1 || group > classic.getCircleCount()) {
+            return Collections.emptyList();
         }
+        return classic.getLocations(group - 1);
     }
     
     public abstract boolean isEmpty();
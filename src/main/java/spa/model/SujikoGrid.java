@@ -1,16 +1,48 @@
 
 package spa.model;
 
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 
 /**
- * Implement SujikoGrid using Singleton Design pattern.
+ * The grid of a Sujiko puzzle: the digit cells and the sum cells.
+ * Every puzzle has its own grid, so independent puzzles can be
+ * loaded and solved at the same time (on different threads).
+ * The dimensions, the digit range and the circles are given by the
+ * grid's {@link CircleLayout}.
+ * <p>
+ * A classic puzzle is read as three rows of three digits followed by
+ * a row with the four sums.  Other layouts start with a header line
+ * {@code size rows columns maxDigit}, optionally followed by one line
+ * {@code circle row column row column ...} per circle (by default there
+ * is a circle on every 2 by 2 block), and then the rows and the sums.
+ * Empty cells are 0.
+ * <p>
+ * The grid keeps running counts of its digits: per circle the sum of its
+ * digits and its number of empty cells, and per digit the number of cells
+ * holding it.  Its cells report every change of their digit, also by a
+ * {@link spa.command.SetCommand}, so the counts are updated in constant
+ * time and feasibility and completion checks need not rescan the cells.
+ * It also keeps its digits packed, so {@link #snapshot()} takes constant
+ * time, and {@link #restore(GridSnapshot)} only changes the cells that
+ * differ.
  * @author Andra, Rares, Dimitrie, Mihnea
  */
 public class SujikoGrid {
-    private static SujikoGrid instance = null;
+    
+    /** Keyword of the header line of non-classic layouts. */
+    static final String SIZE = "size";
+    
+    /** Keyword of a circle line of non-classic layouts. */
+    static final String CIRCLE = "circle";
+    
+    /** The shape of the grid. */
+    private CircleLayout layout;
     
     /** The grid of cells as a list of rows. */
     private List<List<DigitCell>> matrix;
@@ -18,56 +50,226 @@ public class SujikoGrid {
     /** The sum cells. */
     private List<SumCell> sumCells;
     
+    /** Sum of the digits in each circle. */
+    private int[] circleSums = new int[0];
+    
+    /** Number of empty cells in each circle. */
+    private int[] emptyCounts = new int[0];
+    
+    /** Number of cells holding each digit; index 0 counts the empty cells. */
+    private int[] digitCounts = new int[1];
+    
+    /** The digits held by some cell (digit d is bit d - 1). */
+    private int usedDigits;
+    
+    /** The digits of the cells, packed as in {@link GridSnapshot}. */
+    private final long[] digitWords = new long[GridSnapshot.WORDS];
     
-    private SujikoGrid() {
+    /**
+     * Constructs an empty grid, to be filled by {@link #readGrid}.
+     */
+    public SujikoGrid() {
+        layout = CircleLayout.CLASSIC;
         matrix = new ArrayList<>();
         sumCells = new ArrayList<>();
     }
     
     /**
-     * Retrieves the singleton instance of the SujikoGrid class.
+     * Creates a new grid read from the given scanner.
      *
-     * @return The singleton instance of SujikoGrid.
+     * @param scanner The Scanner used to read the puzzle grid.
+     * @return The grid read.
      */
-    public static SujikoGrid getInstance() {
-        if (instance == null) {
-            instance = new SujikoGrid();
-        }
-        return instance;
+    public static SujikoGrid read(final Scanner scanner) {
+        final SujikoGrid grid = new SujikoGrid();
+        grid.readGrid(scanner);
+        return grid;
     }
     
     /**
-     * Clears the singleton instance of the SujikoGrid class.
+     * Creates a new grid from the first puzzle in a buffer.
+     *
+     * @param input the {@code .zgr} content; its position is advanced
+     *     past the puzzle
+     * @return the grid read
+     * @throws ZgrFormatException  if the content is malformed
      */
-    public void clearInstance() {
-        instance = null;
+    public static SujikoGrid read(final ByteBuffer input) {
+        return new ZgrParser(input).parseGrid();
     }
-    
+
     /**
-     * Reads the Sujiko puzzle grid from the given scanner.
+     * Creates a new grid from the first puzzle in a stream.
      *
-     * @param scanner The Scanner used to read the puzzle grid.
+     * @param input the {@code .zgr} content
+     * @return the grid read
+     * @throws ZgrFormatException  if the content is malformed
+     * @throws java.io.UncheckedIOException  if the stream cannot be read
      */
-    public void readGrid(final Scanner scanner) {
-        for (int i = 0; i < 3; i++) {
-            String[] digitValues = scanner.nextLine().split(" ");
-            List<DigitCell> row = new ArrayList<>();
-            for (int j = 0; j < 3; j++) {
-                int digitValue = Integer.parseInt(digitValues[j]);
-                Location cellLocation = new Location(i, j);
-                DigitCell cell = new DigitCell(cellLocation, digitValue);
+    public static SujikoGrid read(final InputStream input) {
+        return new ZgrParser(input).parseGrid();
+    }
+
+    /**
+     * Creates a new grid from its digits and sums.
+     * The nonzero digits are givens: their cells are blocked.
+     *
+     * @param layout the shape of the grid
+     * @param digits the digits in row-major order, 0 for empty cells
+     * @param sums the sum of every circle
+     * @return the grid
+     * @throws IllegalArgumentException  if the lengths do not match the layout
+     * @pre {@code digits.length == layout.getCellCount()
+     *     && sums.length == layout.getCircleCount()}
+     */
+    public static SujikoGrid of(final CircleLayout layout, final int[] digits,
+            final int[] sums) {
+        if (digits.length != layout.getCellCount() || sums.length != layout.getCircleCount()) {
+            throw new IllegalArgumentException("SujikoGrid.of().pre failed: "
+                    + digits.length + " digits and " + sums.length + " sums");
+        }
+        final SujikoGrid grid = new SujikoGrid();
+        grid.layout = layout;
+        for (int i = 0; i < layout.getRows(); i++) {
+            final List<DigitCell> row = new ArrayList<>(layout.getColumns());
+            for (int j = 0; j < layout.getColumns(); j++) {
+                final int index = layout.index(i, j);
+                final DigitCell cell = new DigitCell(layout.getLocation(index), digits[index],
+                        layout.getCellCircles(index));
                 cell.setBlocked(!cell.isEmpty());
                 row.add(cell);
             }
-            matrix.add(row);
+            grid.matrix.add(row);
         }
-        String[] sums = scanner.nextLine().split(" ");
-        for (int i = 0; i < 4; i++) {
-            int sumValue = Integer.parseInt(sums[i]);
-            SumCell sumCell = new SumCell(i + 1, sumValue);
-            sumCells.add(sumCell);
+        for (int i = 0; i < sums.length; i++) {
+            grid.sumCells.add(new SumCell(i + 1, sums[i], layout));
         }
+        grid.attach();
+        return grid;
+    }
+
+    /**
+     * Creates an independent copy of this grid, with the same layout,
+     * digits, blocked cells and sums.
+     *
+     * @return the copy
+     */
+    public SujikoGrid copy() {
+        final SujikoGrid copy = new SujikoGrid();
+        copy.layout = layout;
+        for (List<DigitCell> row : matrix) {
+            final List<DigitCell> copyRow = new ArrayList<>(row.size());
+            for (DigitCell cell : row) {
+                final DigitCell copyCell = new DigitCell(cell.getLocation(), cell.getDigit(),
+                        cell.getCircles());
+                copyCell.setBlocked(cell.getBlocked());
+                copyRow.add(copyCell);
+            }
+            copy.matrix.add(copyRow);
+        }
+        for (SumCell sumCell : sumCells) {
+            copy.sumCells.add(new SumCell(sumCell.getGroup(), sumCell.getSum(), layout));
+        }
+        copy.attach();
+        return copy;
+    }
+
+    /**
+     * Attaches every cell to this grid and recounts the digits.
+     */
+    private void attach() {
+        circleSums = new int[layout.getCircleCount()];
+        emptyCounts = new int[layout.getCircleCount()];
+        for (int circle = 0; circle < emptyCounts.length; circle++) {
+            emptyCounts[circle] = layout.getCircleCells(circle).length;
+        }
+        digitCounts = new int[layout.getMaxDigit() + 1];
+        digitCounts[0] = layout.getCellCount();
+        usedDigits = 0;
+        Arrays.fill(digitWords, 0);
+        for (List<DigitCell> row : matrix) {
+            for (DigitCell cell : row) {
+                final int index = layout.index(cell.getLocation());
+                cell.attach(this, index);
+                update(index, 0, cell.getDigit());
+            }
+        }
+    }
+
+    /**
+     * Updates the counts for a change of the digit of a cell.
+     *
+     * @param index the row-major index of the cell
+     * @param oldDigit the digit before the change, 0 if empty
+     * @param newDigit the digit after the change, 0 if empty
+     */
+    void update(final int index, final int oldDigit, final int newDigit) {
+        if (oldDigit == newDigit) {
+            return;
+        }
+        for (int circle : layout.getCellCircles(index)) {
+            circleSums[circle] += newDigit - oldDigit;
+            if (oldDigit == 0) {
+                emptyCounts[circle]--;
+            } else if (newDigit == 0) {
+                emptyCounts[circle]++;
+            }
+        }
+        if (--digitCounts[oldDigit] == 0 && oldDigit != 0) {
+            usedDigits &= ~(1 << (oldDigit - 1));
+        }
+        if (digitCounts[newDigit]++ == 0 && newDigit != 0) {
+            usedDigits |= 1 << (newDigit - 1);
+        }
+        digitWords[index / GridSnapshot.WORD_DIGITS] ^=
+                (long) (oldDigit ^ newDigit) << GridSnapshot.shift(index);
+    }
+
+    /**
+     * Takes a snapshot of the digits of this grid, in constant time.
+     *
+     * @return the snapshot
+     */
+    public GridSnapshot snapshot() {
+        return new GridSnapshot(layout, digitWords[0], digitWords[1], digitWords[2]);
+    }
+
+    /**
+     * Restores the digits of a snapshot, setting only the cells that differ.
+     *
+     * @param snapshot the snapshot, of a grid with the same layout
+     * @return bitmask of the row-major indices of the cells changed
+     *     (cell i is bit i)
+     * @throws IllegalArgumentException  if the layouts differ
+     * @modifies {@code this}
+     */
+    public int restore(final GridSnapshot snapshot) {
+        final int changed = snapshot().diff(snapshot);
+        for (int left = changed; left != 0; left &= left - 1) {
+            final int index = Integer.numberOfTrailingZeros(left);
+            getCell(index).setDigit(snapshot.getDigit(index));
+        }
+        return changed;
+    }
+
+    /**
+     * Reads the Sujiko puzzle grid from the given scanner,
+     * replacing the current contents of this grid.
+     * The rest of the scanner's input is handed to a {@link ZgrParser},
+     * and the scanner is closed.
+     *
+     * @param scanner The Scanner used to read the puzzle grid.
+     * @throws ZgrFormatException  if the content is malformed
+     */
+    public void readGrid(final Scanner scanner) {
+        scanner.useDelimiter("\\A");
+        final String text = scanner.hasNext() ? scanner.next() : "";
         scanner.close();
+        final SujikoGrid grid = read(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+        layout = grid.layout;
+        matrix = grid.matrix;
+        sumCells = grid.sumCells;
+        attach();
     }
     
     /**
@@ -77,24 +279,49 @@ public class SujikoGrid {
      * contained in the object. Each row of the matrix is represented as a space-separated
      * sequence of digits, and each sum cell is represented as its sum value.
      * The rows are separated by newline characters.
+     * For layouts other than {@link CircleLayout#CLASSIC} the header
+     * lines are included, so the result can be read back.
      *
      * @return A string representation of the matrix and sum cells.
      */
     @Override
     public String toString() {
-        String s = "";
+        StringBuilder s = new StringBuilder();
+        if (!layout.equals(CircleLayout.CLASSIC)) {
+            s.append(SIZE).append(' ').append(layout.getRows()).append(' ')
+                    .append(layout.getColumns()).append(' ').append(layout.getMaxDigit())
+                    .append('\n');
+            if (!layout.isBlocks()) {
+                for (int circle = 0; circle < layout.getCircleCount(); circle++) {
+                    s.append(CIRCLE);
+                    for (Location location : layout.getLocations(circle)) {
+                        s.append(' ').append(location.getRow())
+                                .append(' ').append(location.getColumn());
+                    }
+                    s.append('\n');
+                }
+            }
+        }
         for (List<DigitCell> row : this.matrix) {
             for (DigitCell cell : row) {
-                s += String.valueOf(cell.getDigit()) + " ";
+                s.append(cell.getDigit()).append(' ');
             }
-            s += "\n";
+            s.append('\n');
         }
-        System.out.println("");
         for (SumCell sumCell : this.sumCells) {
-            s += String.valueOf(sumCell.getSum()) + " ";
+            s.append(sumCell.getSum()).append(' ');
         }
-        s += "\n";
-        return s;
+        s.append('\n');
+        return s.toString();
+    }
+    
+    /**
+     * Gets the shape of this grid.
+     *
+     * @return the layout
+     */
+    public CircleLayout getLayout() {
+        return layout;
     }
     
     /**
@@ -102,13 +329,22 @@ public class SujikoGrid {
      *
      * @param location The location of the cell to be set.
      * @param digit    The digit value to be set.
+     * @throws IllegalArgumentException  if the digit is not in 0..maxDigit
      */
     public void setCell(Location location, int digit) {
+        if (digit < 0 || digit > layout.getMaxDigit()) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + ".setCell().pre failed: digit " + digit + " out of range");
+        }
         int row = location.getRow();
         int col = location.getColumn();
         List<DigitCell> targetRow = matrix.get(row);
-        DigitCell newCell = new DigitCell(location, digit);
-        targetRow.set(col, newCell);
+        final int index = layout.index(row, col);
+        DigitCell newCell = new DigitCell(location, digit, layout.getCellCircles(index));
+        DigitCell oldCell = targetRow.set(col, newCell);
+        oldCell.attach(null, -1);
+        newCell.attach(this, index);
+        update(index, oldCell.getDigit(), digit);
     }
     
     /**
@@ -124,6 +360,17 @@ public class SujikoGrid {
         return targetRow.get(col);
     }
     
+    /**
+     * Retrieves the DigitCell with the specified row-major index.
+     *
+     * @param index The index, {@code row * columns + column}.
+     * @return The DigitCell with that index.
+     */
+    public DigitCell getCell(int index) {
+        final int columns = layout.getColumns();
+        return matrix.get(index / columns).get(index % columns);
+    }
+    
     public List<List<DigitCell>> getCells() {
         return matrix;
     }
@@ -132,6 +379,45 @@ public class SujikoGrid {
         return sumCells;
     }
     
+    /**
+     * Gets the sum of the digits in a circle, kept up to date.
+     *
+     * @param circle the circle index
+     * @return the sum of the digits of the cells of the circle
+     */
+    public int getCircleSum(int circle) {
+        return circleSums[circle];
+    }
+    
+    /**
+     * Gets the number of empty cells in a circle, kept up to date.
+     *
+     * @param circle the circle index
+     * @return the number of empty cells of the circle
+     */
+    public int getEmptyCount(int circle) {
+        return emptyCounts[circle];
+    }
+    
+    /**
+     * Gets the number of cells holding a digit, kept up to date.
+     *
+     * @param digit the digit, or 0 for the empty cells
+     * @return the number of cells holding the digit
+     */
+    public int getDigitCount(int digit) {
+        return digitCounts[digit];
+    }
+    
+    /**
+     * Gets the digits held by some cell, kept up to date.
+     *
+     * @return bitmask of used digits (digit d is bit d - 1)
+     */
+    public int getUsedDigits() {
+        return usedDigits;
+    }
+    
     /**
      * Checks if the specified indices are within the bounds of the grid.
      *
@@ -140,8 +426,7 @@ public class SujikoGrid {
      * @return true if the indices are within bounds, false otherwise.
      */
     public boolean has(int rowIndex, int columnIndex) {
-        return 0 <= rowIndex && rowIndex < 3
-                && 0 <= columnIndex && columnIndex < 3;
+        return layout.has(rowIndex, columnIndex);
     }
        
     /**
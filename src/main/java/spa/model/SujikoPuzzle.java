@@ -37,8 +37,19 @@ public class SujikoPuzzle {
     public SujikoPuzzle(final Scanner scanner, final String name) {
         this.name = name;
         this.mode = Mode.VIEW;
-        this.grid = SujikoGrid.getInstance();
-        grid.readGrid(scanner);
+        this.grid = SujikoGrid.read(scanner);
+    }
+
+    /**
+     * Constructs a SujikoPuzzle with the given grid and name.
+     *
+     * @param grid The puzzle grid, for instance read by a {@link ZgrParser}.
+     * @param name The name of the puzzle.
+     */
+    public SujikoPuzzle(final SujikoGrid grid, final String name) {
+        this.name = name;
+        this.mode = Mode.VIEW;
+        this.grid = grid;
     }
     
     public String getName() {
@@ -1,6 +1,7 @@
 
 package spa.model;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -12,6 +13,9 @@ import java.util.List;
 public class SumCell extends SujikoCell {
     private int sum = 0;
     
+    /** The layout of the grid, which gives the cells of the group. */
+    private final CircleLayout layout;
+    
     /**
      * Constructs a SumCell with the specified group and sum value.
      *
@@ -19,8 +23,36 @@ public class SumCell extends SujikoCell {
      * @param sum   The sum value to be stored in the SumCell.
      */
     public SumCell(int group, int sum) {
+        this(group, sum, CircleLayout.CLASSIC);
+    }
+    
+    /**
+     * Constructs a SumCell of a grid with the specified layout.
+     *
+     * @param group  The group to which the SumCell belongs (circle index + 1).
+     * @param sum    The sum value to be stored in the SumCell.
+     * @param layout The layout of the grid.
+     */
+    public SumCell(int group, int sum, CircleLayout layout) {
         super(group);
         this.sum = sum;
+        this.layout = layout;
+    }
+    
+    /**
+     * Gets the locations of the cells of this SumCell's group,
+     * as given by the layout of its grid.
+     *
+     * @return unmodifiable list of locations; empty if the group is not
+     *     a circle of the layout
+     */
+    @Override
+    public List<Location> getLocations() {
+        final int circle = getGroup() - 1;
+        if (circle < 0 || circle >= layout.getCircleCount()) {
+            return Collections.emptyList();
+        }
+        return layout.getLocations(circle);
     }
     
     /**
@@ -61,56 +93,72 @@ public class SumCell extends SujikoCell {
     }
     
     /**
-     * Determines if a given number can be placed in the SumCell's group such that 
-     * the sum condition is satisfied.
+     * Determines if the SumCell's group can still satisfy the sum condition
+     * with the digits now in the grid: either it is full and has the sum,
+     * or its empty cells can be filled with distinct digits not yet used
+     * anywhere in the grid.
+     *
+     * @param grid   The SujikoGrid containing the puzzle.
+     * @return true if the sum condition can be satisfied, false otherwise.
+     */
+    public boolean canAchieveSum(SujikoGrid grid) {
+        return possibleDigits(grid) != 0 || isComplete(grid);
+    }
+
+    /**
+     * Determines if a given number, already placed in the grid, lets the
+     * SumCell's group satisfy the sum condition.
      *
-     * @param number The number to be checked.
+     * @param number ignored; the digits placed are read from the grid
      * @param grid   The SujikoGrid containing the puzzle.
-     * @return true if the number can be placed to satisfy the sum condition, false otherwise.
+     * @return {@code canAchieveSum(grid)}
+     * @deprecated the number is not needed, use {@link #canAchieveSum(SujikoGrid)}
      */
+    @Deprecated
     public boolean canAchieveSum(int number, SujikoGrid grid) {
-        int currSum = 0;
-        int emptyCells = 0;
-        boolean[] used = new boolean[10];
-        List<Location> locations = this.getLocations();
-        for (Location location : locations) {
-            DigitCell cell = grid.getCell(location);
-            if (cell.isEmpty()) {
-                emptyCells++;
-            } else {
-                int digit = cell.getDigit();
-                currSum += digit;
-                used[digit] = true;
-            }
-        }
-        
-        int cpyEmptyCells = emptyCells;
-        int minSum = 0;
-        int maxSum = 0;
-        for (int i = 1; i <= 9; i++) {
-            if (!used[i]) {
-                if (emptyCells > 0) {
-                    minSum += i;
-                    emptyCells--;
-                } else {
-                    break;
-                }
-            }
-        }
-       
-        emptyCells = cpyEmptyCells;
-        for (int i = 9; i >= 1; i--) {
-            if (!used[i]) {
-                if (emptyCells > 0) {
-                    maxSum += i;
-                    emptyCells--;
-                } else {
-                    break;
-                }
-            }
+        return canAchieveSum(grid);
+    }
+
+    /**
+     * Gets the digits that can still go in the empty cells of this SumCell's group,
+     * using {@link SumCombinations}.
+     * The sum and the number of empty cells of the group, and the digits
+     * used, are the running counts of the grid, so this takes constant time.
+     *
+     * @param grid   The SujikoGrid containing the puzzle.
+     * @return bitmask of possible digits (digit d is bit d - 1);
+     *     0 if the group cannot be completed or has no empty cells
+     */
+    public int possibleDigits(SujikoGrid grid) {
+        final int circle = circle();
+        final int currSum = circle < 0 ? 0 : grid.getCircleSum(circle);
+        final int emptyCells = circle < 0 ? 0 : grid.getEmptyCount(circle);
+        return SumCombinations.candidates(this.sum - currSum, emptyCells, grid.getUsedDigits(),
+                grid.getLayout().getMaxDigit());
+    }
+
+    /**
+     * Checks whether the group is full and has the required sum.
+     *
+     * @param grid   The SujikoGrid containing the puzzle.
+     * @return true if no cell of the group is empty and the digits add up to the sum
+     */
+    private boolean isComplete(SujikoGrid grid) {
+        final int circle = circle();
+        if (circle < 0) {
+            return this.sum == 0;
         }
-        
-        return currSum + minSum <= this.sum && this.sum <= currSum + maxSum;
+        return grid.getEmptyCount(circle) == 0 && grid.getCircleSum(circle) == this.sum;
+    }
+
+    /**
+     * Gets the circle of this SumCell's group.
+     *
+     * @return the circle index; -1 if the group is not a circle of the layout
+     */
+    private int circle() {
+        final int circle = getGroup() - 1;
+        return circle >= 0 && circle < layout.getCircleCount() ? circle : -1;
     }
     
     @Override
@@ -0,0 +1,229 @@
+package spa.model;
+
+/**
+ * Precomputed, immutable table of the ways to fill (part of) a circle
+ * with distinct digits 1..9, with a fallback for larger digit ranges.
+ * For a remaining sum, a number of empty cells (at most four) and a mask
+ * of digits that may no longer be used, the table holds the set of digits
+ * that occur in at least one combination of distinct unused digits
+ * filling exactly those empty cells with exactly that sum.
+ * All queries are O(1) and allocation-free.
+ * <p>
+ * Digit sets are bitmasks in which digit {@code d} is bit {@code d - 1}.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public final class SumCombinations {
+
+    /** Largest digit. */
+    public static final int MAX_DIGIT = 9;
+
+    /** Number of cells in a circle. */
+    public static final int CELLS = 4;
+
+    /** Mask with the bits of all digits set. */
+    public static final int ALL_DIGITS = (1 << MAX_DIGIT) - 1;
+
+    /** Largest sum of {@link #CELLS} distinct digits. */
+    public static final int MAX_SUM = 9 + 8 + 7 + 6;
+
+    /**
+     * Possible digits, indexed by {@link #index(int, int, int)};
+     * 0 if there is no combination.
+     */
+    private static final short[] TABLE =
+            new short[(CELLS + 1) * (MAX_SUM + 1) * (ALL_DIGITS + 1)];
+
+    /** Combinations of {@link #CELLS} distinct digits, grouped by sum. */
+    private static final short[][] COMBINATIONS = new short[MAX_SUM + 1][];
+
+    static {
+        final int[] counts = new int[MAX_SUM + 1];
+        for (int subset = 1; subset <= ALL_DIGITS; subset++) {
+            final int size = Integer.bitCount(subset);
+            if (size > CELLS) {
+                continue;
+            }
+            final int sum = sumOf(subset);
+            if (size == CELLS) {
+                counts[sum]++;
+            }
+            // every used-digit mask disjoint from subset admits it
+            final int others = ALL_DIGITS & ~subset;
+            for (int used = others;; used = (used - 1) & others) {
+                TABLE[index(sum, size, used)] |= (short) subset;
+                if (used == 0) {
+                    break;
+                }
+            }
+        }
+        for (int sum = 0; sum <= MAX_SUM; sum++) {
+            COMBINATIONS[sum] = new short[counts[sum]];
+            counts[sum] = 0;
+        }
+        for (int subset = 1; subset <= ALL_DIGITS; subset++) {
+            if (Integer.bitCount(subset) == CELLS) {
+                final int sum = sumOf(subset);
+                COMBINATIONS[sum][counts[sum]++] = (short) subset;
+            }
+        }
+    }
+
+    private SumCombinations() {
+    }
+
+    /**
+     * Computes the index in {@link #TABLE}.
+     *
+     * @param remaining the remaining sum, in range
+     * @param empty the number of empty cells, in range
+     * @param used the digits that may not be used
+     * @return the index
+     */
+    private static int index(final int remaining, final int empty, final int used) {
+        return ((empty * (MAX_SUM + 1)) + remaining) * (ALL_DIGITS + 1) + used;
+    }
+
+    /**
+     * Sums the digits in a set.
+     *
+     * @param digits the set of digits
+     * @return the sum of the digits
+     */
+    public static int sumOf(final int digits) {
+        int sum = 0;
+        for (int rest = digits; rest != 0; rest &= rest - 1) {
+            sum += Integer.numberOfTrailingZeros(rest) + 1;
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the digits that can go in the empty cells of a circle.
+     *
+     * @param remaining the sum still to be reached by the empty cells
+     * @param empty the number of empty cells
+     * @param used the digits that may not be used (for instance,
+     *     all digits already in the grid)
+     * @return the digits occurring in some combination of {@code empty}
+     *     distinct digits outside {@code used} summing to {@code remaining};
+     *     0 if there is none, or if {@code empty == 0}
+     */
+    public static int candidates(final int remaining, final int empty, final int used) {
+        if (remaining < 0 || remaining > MAX_SUM || empty < 0 || empty > CELLS) {
+            return 0;
+        }
+        return TABLE[index(remaining, empty, used & ALL_DIGITS)];
+    }
+
+    /**
+     * Gets the digits that can go in the empty cells of a circle,
+     * for digits 1..maxDigit and circles of any size.
+     * For the classic digits 1..9 and at most four empty cells the answer
+     * is looked up in the table and exact.
+     * Otherwise a digit is kept if the remaining sum lies between the
+     * smallest and the largest sum of the other empty cells; this never
+     * drops a digit that occurs in a combination, but may keep digits
+     * that do not (it is exact for a single empty cell).
+     *
+     * @param remaining the sum still to be reached by the empty cells
+     * @param empty the number of empty cells
+     * @param used the digits that may not be used
+     * @param maxDigit the largest digit, at most 31
+     * @return bitmask of the possible digits; 0 if there is none,
+     *     or if {@code empty == 0}
+     */
+    public static int candidates(final int remaining, final int empty, final int used,
+            final int maxDigit) {
+        if (maxDigit == MAX_DIGIT && empty <= CELLS) {
+            return candidates(remaining, empty, used);
+        }
+        final int available = (int) ((1L << maxDigit) - 1) & ~used;
+        if (empty <= 0 || remaining <= 0 || Integer.bitCount(available) < empty) {
+            return 0;
+        }
+        int result = 0;
+        for (int rest = available; rest != 0; rest &= rest - 1) {
+            final int bit = rest & -rest;
+            final int others = available & ~bit;
+            final int left = remaining - Integer.numberOfTrailingZeros(bit) - 1;
+            if (smallest(others, empty - 1) <= left && left <= largest(others, empty - 1)) {
+                result |= bit;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sums the smallest digits of a set.
+     *
+     * @param digits the set of digits, with at least {@code count} digits
+     * @param count how many digits to sum
+     * @return the sum of the {@code count} smallest digits
+     */
+    private static int smallest(final int digits, final int count) {
+        int sum = 0;
+        int rest = digits;
+        for (int i = 0; i < count; i++) {
+            sum += Integer.numberOfTrailingZeros(rest) + 1;
+            rest &= rest - 1;
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the largest digits of a set.
+     *
+     * @param digits the set of digits, with at least {@code count} digits
+     * @param count how many digits to sum
+     * @return the sum of the {@code count} largest digits
+     */
+    private static int largest(final int digits, final int count) {
+        int sum = 0;
+        int rest = digits;
+        for (int i = 0; i < count; i++) {
+            final int high = Integer.highestOneBit(rest);
+            sum += Integer.numberOfTrailingZeros(high) + 1;
+            rest &= ~high;
+        }
+        return sum;
+    }
+
+    /**
+     * Determines whether the empty cells of a circle can still be filled.
+     *
+     * @param remaining the sum still to be reached by the empty cells
+     * @param empty the number of empty cells
+     * @param used the digits that may not be used
+     * @return whether some combination of {@code empty} distinct digits
+     *     outside {@code used} sums to {@code remaining}
+     */
+    public static boolean isFeasible(final int remaining, final int empty, final int used) {
+        if (empty == 0) {
+            return remaining == 0;
+        }
+        return candidates(remaining, empty, used) != 0;
+    }
+
+    /**
+     * Gets the number of combinations of four distinct digits with a given sum.
+     *
+     * @param sum the sum
+     * @return the number of combinations
+     */
+    public static int combinationCount(final int sum) {
+        return sum < 0 || sum > MAX_SUM ? 0 : COMBINATIONS[sum].length;
+    }
+
+    /**
+     * Gets a combination of four distinct digits with a given sum.
+     *
+     * @param sum the sum
+     * @param i the number of the combination
+     * @return the set of digits of the combination
+     * @pre {@code 0 <= i < combinationCount(sum)}
+     */
+    public static int combination(final int sum, final int i) {
+        return COMBINATIONS[sum][i];
+    }
+}
@@ -0,0 +1,87 @@
+package spa.model;
+
+/**
+ * The eight symmetries of a square (the dihedral group D4), as maps of
+ * the cells of a grid.
+ * Every symmetry first optionally flips the rows (top to bottom) and the
+ * columns (left to right), and then optionally transposes the grid.
+ * A symmetry that transposes only maps a grid onto itself if the grid is
+ * square; {@link Canonicalizer} keeps the symmetries that also map the
+ * circles of a layout onto circles.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public enum Symmetry {
+
+    /** Leaves every cell in place. */
+    IDENTITY(false, false, false),
+
+    /** Rotates a quarter turn clockwise. */
+    ROTATE_90(true, true, false),
+
+    /** Rotates a half turn. */
+    ROTATE_180(false, true, true),
+
+    /** Rotates a quarter turn anticlockwise. */
+    ROTATE_270(true, false, true),
+
+    /** Mirrors top to bottom. */
+    FLIP_ROWS(false, true, false),
+
+    /** Mirrors left to right. */
+    FLIP_COLUMNS(false, false, true),
+
+    /** Mirrors in the main diagonal. */
+    TRANSPOSE(true, false, false),
+
+    /** Mirrors in the anti-diagonal. */
+    ANTI_TRANSPOSE(true, true, true);
+
+    /** Whether rows and columns are swapped. */
+    private final boolean transposes;
+
+    /** Whether the order of the rows is reversed. */
+    private final boolean flipsRows;
+
+    /** Whether the order of the columns is reversed. */
+    private final boolean flipsColumns;
+
+    /**
+     * Constructs a symmetry.
+     *
+     * @param transposes whether rows and columns are swapped, after flipping
+     * @param flipsRows whether the order of the rows is reversed
+     * @param flipsColumns whether the order of the columns is reversed
+     */
+    Symmetry(final boolean transposes, final boolean flipsRows, final boolean flipsColumns) {
+        this.transposes = transposes;
+        this.flipsRows = flipsRows;
+        this.flipsColumns = flipsColumns;
+    }
+
+    /**
+     * Determines whether this symmetry swaps rows and columns, so that
+     * it only applies to square grids.
+     *
+     * @return whether the grid is transposed
+     */
+    public boolean transposes() {
+        return transposes;
+    }
+
+    /**
+     * Maps a cell of a grid of some layout.
+     *
+     * @param layout the layout
+     * @param cell the row-major index of the cell
+     * @return the row-major index of the image of the cell
+     * @pre {@code !transposes() || layout.getRows() == layout.getColumns()}
+     */
+    public int map(final CircleLayout layout, final int cell) {
+        final int rows = layout.getRows();
+        final int columns = layout.getColumns();
+        final int row = flipsRows ? rows - 1 - cell / columns : cell / columns;
+        final int column = flipsColumns ? columns - 1 - cell % columns : cell % columns;
+        return transposes ? column * rows + row : row * columns + column;
+    }
+}
@@ -0,0 +1,50 @@
+package spa.model;
+
+/**
+ * Thrown when {@code .zgr} content is malformed.
+ * The position is that of the offending byte (or of the end of the
+ * input), counting lines and columns from 1 and bytes from 0.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public class ZgrFormatException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Line of the error, from 1. */
+    private final int line;
+
+    /** Column of the error, from 1. */
+    private final int column;
+
+    /** Byte offset of the error in the input, from 0. */
+    private final long offset;
+
+    /**
+     * Constructs an exception.
+     *
+     * @param message what is wrong
+     * @param line line of the error, from 1
+     * @param column column of the error, from 1
+     * @param offset byte offset of the error, from 0
+     */
+    public ZgrFormatException(final String message, final int line, final int column,
+            final long offset) {
+        super("line " + line + ", column " + column + ": " + message);
+        this.line = line;
+        this.column = column;
+        this.offset = offset;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,452 @@
+package spa.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Byte-level parser of {@code .zgr} content, in the format described at
+ * {@link SujikoGrid}.
+ * The input is a {@link ByteBuffer} (read from its position to its limit)
+ * or an {@link InputStream} (read through an internal buffer), and may
+ * hold many puzzles one after another; blank lines between puzzles are
+ * skipped.
+ * <p>
+ * {@link #parse()} reads the next puzzle into arrays that are reused
+ * from puzzle to puzzle, so parsing allocates nothing per cell; only a
+ * header line allocates its layout.  {@link #next()} builds a grid from
+ * them.  Malformed content raises a {@link ZgrFormatException} with the
+ * line, column and byte offset of the error.
+ * Errors reading a stream are raised as {@link UncheckedIOException}.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public class ZgrParser {
+
+    /** Size of the buffer for stream input. */
+    private static final int BUFFER_BYTES = 1 << 13;
+
+    /** Result of {@link #peek()} at the end of the input. */
+    private static final int EOF = -1;
+
+    /** Largest number accepted. */
+    private static final int MAX_NUMBER = 1_000_000;
+
+    /** Longest keyword. */
+    private static final int MAX_WORD = 8;
+
+    /** Keyword of the header line. */
+    private static final byte[] SIZE = SujikoGrid.SIZE.getBytes(StandardCharsets.US_ASCII);
+
+    /** Keyword of a circle line. */
+    private static final byte[] CIRCLE = SujikoGrid.CIRCLE.getBytes(StandardCharsets.US_ASCII);
+
+    /** The bytes not yet read. */
+    private final ByteBuffer input;
+
+    /** The stream refilling {@link #input}; null for buffer input. */
+    private final InputStream stream;
+
+    /** Byte offset of the next byte. */
+    private long offset;
+
+    /** Line of the next byte. */
+    private int line = 1;
+
+    /** Column of the next byte. */
+    private int column = 1;
+
+    /** Line of the start of the last token. */
+    private int markLine;
+
+    /** Column of the start of the last token. */
+    private int markColumn;
+
+    /** Byte offset of the start of the last token. */
+    private long markOffset;
+
+    /** The last keyword read. */
+    private final byte[] word = new byte[MAX_WORD];
+
+    /** Length of the last keyword read. */
+    private int wordLength;
+
+    /** Layout of the last puzzle parsed. */
+    private CircleLayout layout = CircleLayout.CLASSIC;
+
+    /** Digits of the last puzzle parsed, in row-major order. */
+    private int[] digits = new int[CircleLayout.CLASSIC.getCellCount()];
+
+    /** Sums of the last puzzle parsed. */
+    private int[] sums = new int[CircleLayout.CLASSIC.getCircleCount()];
+
+    /**
+     * Constructs a parser of the remaining bytes of a buffer.
+     * Parsing advances the position of the buffer.
+     *
+     * @param input the buffer
+     */
+    public ZgrParser(final ByteBuffer input) {
+        this.input = input;
+        this.stream = null;
+    }
+
+    /**
+     * Constructs a parser of a stream.
+     * The parser reads ahead, so the stream should not be used otherwise.
+     *
+     * @param stream the stream
+     */
+    public ZgrParser(final InputStream stream) {
+        this.input = ByteBuffer.allocate(BUFFER_BYTES);
+        this.input.limit(0);
+        this.stream = stream;
+    }
+
+    /**
+     * Determines whether there is another puzzle, skipping blank lines.
+     *
+     * @return whether there is more content than white space
+     */
+    public boolean hasNext() {
+        skipWhitespace();
+        return peek() != EOF;
+    }
+
+    /**
+     * Parses the next puzzle into a new grid, in which the nonzero digits
+     * are givens.
+     *
+     * @return the grid
+     * @throws NoSuchElementException  if there is no next puzzle
+     * @throws ZgrFormatException  if the puzzle is malformed
+     */
+    public SujikoGrid next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("no more puzzles at line " + line);
+        }
+        return parseGrid();
+    }
+
+    /**
+     * Parses the next puzzle into a new grid.
+     *
+     * @return the grid
+     * @throws ZgrFormatException  if there is no next puzzle or it is malformed
+     */
+    SujikoGrid parseGrid() {
+        parse();
+        return SujikoGrid.of(layout, digits, sums);
+    }
+
+    /**
+     * Parses the next puzzle; its contents are then available through
+     * {@link #getLayout()}, {@link #getDigit(int)} and {@link #getSum(int)}.
+     *
+     * @return the layout of the puzzle
+     * @throws ZgrFormatException  if there is no next puzzle or it is malformed
+     */
+    public CircleLayout parse() {
+        skipWhitespace();
+        mark();
+        if (peek() == EOF) {
+            throw error("puzzle expected");
+        }
+        if (isLetter(peek())) {
+            header();
+        } else {
+            setLayout(CircleLayout.CLASSIC);
+        }
+        final int maxDigit = layout.getMaxDigit();
+        int cell = 0;
+        for (int row = 0; row < layout.getRows(); row++) {
+            for (int col = 0; col < layout.getColumns(); col++) {
+                final int digit = number();
+                if (digit > maxDigit) {
+                    throw error("digit " + digit + " out of range 0.." + maxDigit);
+                }
+                digits[cell++] = digit;
+            }
+            endOfLine();
+        }
+        for (int circle = 0; circle < sums.length; circle++) {
+            sums[circle] = number();
+        }
+        endOfLine();
+        return layout;
+    }
+
+    public CircleLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Gets a digit of the last puzzle parsed.
+     *
+     * @param cell the row-major cell index
+     * @return the digit, 0 for empty
+     */
+    public int getDigit(final int cell) {
+        return digits[cell];
+    }
+
+    /**
+     * Gets a sum of the last puzzle parsed.
+     *
+     * @param circle the circle index
+     * @return the sum
+     */
+    public int getSum(final int circle) {
+        return sums[circle];
+    }
+
+    /**
+     * Gets the line of the next byte; after {@link #parse()}, the line
+     * following the puzzle.
+     *
+     * @return the line, from 1
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Parses the header lines and sets the layout.
+     */
+    private void header() {
+        if (!keyword(SIZE)) {
+            throw error("'size' expected");
+        }
+        final int headerLine = markLine;
+        final int headerColumn = markColumn;
+        final long headerOffset = markOffset;
+        final int rows = number();
+        final int columns = number();
+        final int maxDigit = number();
+        endOfLine();
+        final List<int[]> circles = new ArrayList<>();
+        while (isLetter(peek())) {
+            circles.add(circle(rows, columns));
+        }
+        try {
+            setLayout(circles.isEmpty() ? CircleLayout.blocks(rows, columns, maxDigit)
+                    : new CircleLayout(rows, columns, maxDigit, circles.toArray(new int[0][])));
+        } catch (IllegalArgumentException e) {
+            throw new ZgrFormatException(e.getMessage(), headerLine, headerColumn,
+                    headerOffset);
+        }
+    }
+
+    /**
+     * Parses a circle line.
+     *
+     * @param rows number of rows of the grid
+     * @param columns number of columns of the grid
+     * @return the row-major indices of the cells of the circle
+     */
+    private int[] circle(final int rows, final int columns) {
+        mark();
+        if (!keyword(CIRCLE)) {
+            throw error("'circle' expected");
+        }
+        int[] cells = new int[4];
+        int count = 0;
+        skipBlanks();
+        while (peek() != '\n' && peek() != EOF) {
+            final int row = number();
+            final int rowColumn = markColumn;
+            final long rowOffset = markOffset;
+            final int col = number();
+            if (row >= rows || col >= columns) {
+                markColumn = rowColumn;
+                markOffset = rowOffset;
+                throw error("cell " + row + " " + col + " outside the grid");
+            }
+            if (count == cells.length) {
+                cells = Arrays.copyOf(cells, 2 * count);
+            }
+            cells[count++] = row * columns + col;
+            skipBlanks();
+        }
+        endOfLine();
+        return Arrays.copyOf(cells, count);
+    }
+
+    /**
+     * Sets the layout, reusing the current one if equal, and sizes the
+     * arrays for it.
+     *
+     * @param parsed the layout of the puzzle
+     */
+    private void setLayout(final CircleLayout parsed) {
+        if (!parsed.equals(layout)) {
+            layout = parsed;
+            digits = new int[layout.getCellCount()];
+            sums = new int[layout.getCircleCount()];
+        }
+    }
+
+    /**
+     * Reads a keyword.
+     *
+     * @param expected the expected keyword
+     * @return whether the keyword read equals {@code expected}
+     */
+    private boolean keyword(final byte[] expected) {
+        wordLength = 0;
+        while (isLetter(peek())) {
+            if (wordLength == MAX_WORD) {
+                return false;
+            }
+            word[wordLength++] = (byte) advance();
+        }
+        return Arrays.equals(word, 0, wordLength, expected, 0, expected.length);
+    }
+
+    /**
+     * Reads a decimal number, after optional blanks.
+     *
+     * @return the number
+     */
+    private int number() {
+        skipBlanks();
+        mark();
+        int b = peek();
+        if (b < '0' || b > '9') {
+            throw error(b == '\n' || b == EOF ? "number expected before end of line"
+                    : "number expected");
+        }
+        int value = 0;
+        do {
+            value = value * 10 + advance() - '0';
+            if (value > MAX_NUMBER) {
+                throw error("number too large");
+            }
+            b = peek();
+        } while (b >= '0' && b <= '9');
+        if (isLetter(b)) {
+            mark();
+            throw error("number expected");
+        }
+        return value;
+    }
+
+    /**
+     * Reads the end of a line, after optional blanks.
+     */
+    private void endOfLine() {
+        skipBlanks();
+        mark();
+        final int b = peek();
+        if (b == '\n') {
+            advance();
+        } else if (b != EOF) {
+            throw error("end of line expected");
+        }
+    }
+
+    /**
+     * Skips spaces, tabs and carriage returns.
+     */
+    private void skipBlanks() {
+        int b = peek();
+        while (b == ' ' || b == '\t' || b == '\r') {
+            advance();
+            b = peek();
+        }
+    }
+
+    /**
+     * Skips blanks and line ends.
+     */
+    private void skipWhitespace() {
+        skipBlanks();
+        while (peek() == '\n') {
+            advance();
+            skipBlanks();
+        }
+    }
+
+    /**
+     * Determines whether a byte is an ASCII letter.
+     *
+     * @param b the byte, or {@link #EOF}
+     * @return whether it is a letter
+     */
+    private static boolean isLetter(final int b) {
+        return 'a' <= (b | 0x20) && (b | 0x20) <= 'z';
+    }
+
+    /**
+     * Gets the next byte without reading it.
+     *
+     * @return the byte, or {@link #EOF} at the end of the input
+     */
+    private int peek() {
+        if (!input.hasRemaining() && !fill()) {
+            return EOF;
+        }
+        return input.get(input.position()) & 0xFF;
+    }
+
+    /**
+     * Reads the next byte, which must exist.
+     *
+     * @return the byte
+     */
+    private int advance() {
+        final int b = input.get() & 0xFF;
+        offset++;
+        if (b == '\n') {
+            line++;
+            column = 1;
+        } else {
+            column++;
+        }
+        return b;
+    }
+
+    /**
+     * Refills the buffer from the stream.
+     *
+     * @return whether any bytes were read
+     */
+    private boolean fill() {
+        if (stream == null) {
+            return false;
+        }
+        try {
+            final int count = stream.read(input.array(), 0, input.capacity());
+            input.position(0);
+            input.limit(Math.max(count, 0));
+            return count > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Remembers the position of the next byte as the start of a token.
+     */
+    private void mark() {
+        markLine = line;
+        markColumn = column;
+        markOffset = offset;
+    }
+
+    /**
+     * Creates an exception at the start of the last token.
+     *
+     * @param message what is wrong
+     * @return the exception
+     */
+    private ZgrFormatException error(final String message) {
+        return new ZgrFormatException(message, markLine, markColumn, markOffset);
+    }
+}
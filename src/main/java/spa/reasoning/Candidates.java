@@ -0,0 +1,243 @@
+package spa.reasoning;
+
+import java.util.Arrays;
+import java.util.List;
+import spa.model.CircleLayout;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+import spa.model.SumCell;
+import spa.model.SumCombinations;
+
+/**
+ * Candidate digits of the cells of a grid, derived from the circle sums
+ * and the constraint that all digits in the grid are different.
+ * Digit sets are bitmasks in which digit {@code d} is bit {@code d - 1}.
+ * <p>
+ * The candidates of an empty cell start as the unused digits allowed by
+ * {@link SumCombinations} for every circle through the cell.
+ * They are then narrowed per circle, keeping only digits that occur in
+ * some assignment of distinct candidates to the empty cells of the circle
+ * with exactly the circle's sum, until nothing changes.
+ *
+ */
+public final class Candidates {
+
+    /** Largest number of empty cells for which all naked subsets are examined. */
+    private static final int SUBSET_CELLS = 12;
+
+    private Candidates() {
+    }
+
+    /**
+     * Gets the digits used anywhere in the grid, as kept up to date by the grid.
+     *
+     * @param grid the grid
+     * @return bitmask of used digits
+     */
+    public static int used(final SujikoGrid grid) {
+        return grid.getUsedDigits();
+    }
+
+    /**
+     * Gets the candidate digits of an empty cell.
+     *
+     * @param grid the grid
+     * @param cell an empty cell of the grid
+     * @return bitmask of candidate digits; 0 means the grid cannot be completed
+     */
+    public static int of(final SujikoGrid grid, final DigitCell cell) {
+        return all(grid)[grid.getLayout().index(cell.getLocation())];
+    }
+
+    /**
+     * Gets the candidate digits of all cells.
+     *
+     * @param grid the grid
+     * @return bitmask of candidate digits per cell, in row-major order;
+     *     0 for filled cells
+     */
+    public static int[] all(final SujikoGrid grid) {
+        final CircleLayout layout = grid.getLayout();
+        final int[] result = new int[layout.getCellCount()];
+        final int unused = layout.getAllDigits() & ~used(grid);
+        for (int cell = 0; cell < result.length; cell++) {
+            if (grid.getCell(cell).isEmpty()) {
+                result[cell] = unused;
+            }
+        }
+        final List<SumCell> sumCells = grid.getSumCells();
+        for (int circle = 0; circle < layout.getCircleCount(); circle++) {
+            final int possible = sumCells.get(circle).possibleDigits(grid);
+            for (int cell : layout.getCircleCells(circle)) {
+                result[cell] &= possible;
+            }
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int circle = 0; circle < layout.getCircleCount(); circle++) {
+                changed |= narrow(grid, circle, result);
+            }
+            changed |= separate(result);
+        }
+        return result;
+    }
+
+    /**
+     * Updates candidates computed by {@link #all} after a digit was placed in
+     * one of the empty cells: the cell gets no candidates, the digit is
+     * removed from the other cells, and the circles through the cell are
+     * narrowed again.  The result may keep more candidates than
+     * recomputing them with {@link #all}, but never fewer.
+     *
+     * @param grid the grid, holding the digit placed
+     * @param candidates the candidates per cell, updated in place
+     * @param cell the row-major index of the cell
+     */
+    public static void place(final SujikoGrid grid, final int[] candidates, final int cell) {
+        final int bit = 1 << (grid.getCell(cell).getDigit() - 1);
+        candidates[cell] = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] &= ~bit;
+        }
+        for (int circle : grid.getLayout().getCellCircles(cell)) {
+            narrow(grid, circle, candidates);
+        }
+    }
+
+    /**
+     * Applies the all-different constraint to the empty cells (naked subsets):
+     * if some empty cells together have exactly as many candidates as there
+     * are cells, those digits are removed from all other cells.
+     * If they have fewer, no cell keeps any candidate.
+     * With more than {@link #SUBSET_CELLS} empty cells only single cells
+     * are considered, since the number of subsets grows exponentially.
+     *
+     * @param candidates the candidates per cell, narrowed in place
+     * @return whether some candidates were removed
+     */
+    private static boolean separate(final int[] candidates) {
+        int emptyCells = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            if (candidates[i] != 0) {
+                emptyCells |= 1 << i;
+            }
+        }
+        boolean changed = false;
+        if (Integer.bitCount(emptyCells) > SUBSET_CELLS) {
+            for (int rest = emptyCells; rest != 0; rest &= rest - 1) {
+                final int cell = Integer.numberOfTrailingZeros(rest);
+                if (Integer.bitCount(candidates[cell]) == 1) {
+                    changed |= remove(candidates, emptyCells & ~(1 << cell), candidates[cell]);
+                }
+            }
+            return changed;
+        }
+        for (int subset = emptyCells; subset != 0; subset = (subset - 1) & emptyCells) {
+            int union = 0;
+            for (int rest = subset; rest != 0; rest &= rest - 1) {
+                union |= candidates[Integer.numberOfTrailingZeros(rest)];
+            }
+            final int size = Integer.bitCount(union);
+            if (size < Integer.bitCount(subset)) {
+                Arrays.fill(candidates, 0);
+                return true;
+            }
+            if (size == Integer.bitCount(subset)) {
+                changed |= remove(candidates, emptyCells & ~subset, union);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Removes digits from the candidates of some cells.
+     *
+     * @param candidates the candidates per cell, narrowed in place
+     * @param cells the cells to narrow, as bitmask of indices
+     * @param digits the digits to remove
+     * @return whether some candidates were removed
+     */
+    private static boolean remove(final int[] candidates, final int cells, final int digits) {
+        boolean changed = false;
+        for (int rest = cells; rest != 0; rest &= rest - 1) {
+            final int i = Integer.numberOfTrailingZeros(rest);
+            if ((candidates[i] & digits) != 0) {
+                candidates[i] &= ~digits;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Narrows the candidates of the empty cells of a circle to digits
+     * that occur in some assignment reaching the circle's sum.
+     *
+     * @param grid the grid
+     * @param circle the circle index
+     * @param candidates the candidates per cell, narrowed in place
+     * @return whether some candidates were removed
+     */
+    private static boolean narrow(final SujikoGrid grid, final int circle,
+            final int[] candidates) {
+        final int[] circleCells = grid.getLayout().getCircleCells(circle);
+        final int[] cells = new int[circleCells.length];
+        int empty = 0;
+        int remaining = grid.getSumCells().get(circle).getSum();
+        for (int cell : circleCells) {
+            final int digit = grid.getCell(cell).getDigit();
+            if (digit == 0) {
+                cells[empty++] = cell;
+            } else {
+                remaining -= digit;
+            }
+        }
+        final int[] masks = new int[empty];
+        for (int i = 0; i < empty; i++) {
+            masks[i] = candidates[cells[i]];
+        }
+        final int[] support = new int[empty];
+        supports(masks, 0, remaining, 0, new int[empty], support);
+        boolean changed = false;
+        for (int i = 0; i < empty; i++) {
+            if (candidates[cells[i]] != support[i]) {
+                candidates[cells[i]] = support[i];
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Enumerates assignments of distinct candidates to the cells from
+     * {@code position} on, adding the digits of every assignment that
+     * reaches the remaining sum to {@code support}.
+     *
+     * @param masks the candidates of the cells
+     * @param position the first cell without a digit chosen
+     * @param remaining the sum still to be reached
+     * @param taken the digits chosen so far, as bitmask
+     * @param chosen the digit chosen per cell so far, as bit
+     * @param support the digits per cell occurring in some assignment
+     */
+    private static void supports(final int[] masks, final int position, final int remaining,
+            final int taken, final int[] chosen, final int[] support) {
+        if (position == masks.length) {
+            if (remaining == 0) {
+                for (int i = 0; i < masks.length; i++) {
+                    support[i] |= chosen[i];
+                }
+            }
+            return;
+        }
+        for (int rest = masks[position] & ~taken; rest != 0; rest &= rest - 1) {
+            final int bit = rest & -rest;
+            final int digit = Integer.numberOfTrailingZeros(bit) + 1;
+            if (digit <= remaining) {
+                chosen[position] = bit;
+                supports(masks, position + 1, remaining - digit, taken | bit, chosen, support);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package spa.reasoning;
+
+import java.util.ArrayList;
+import java.util.List;
+import spa.command.CompoundCommand;
+import spa.model.SujikoGrid;
+
+/**
+ * Reasoner that applies a sequence of reasoners, each once, in order.
+ * In case of a contradiction, all changes are reverted and
+ * {@code null} is returned.
+ *
+ */
+public class CompoundReasoner extends Reasoner {
+
+    /** The reasoners to apply. */
+    private final List<Reasoner> reasoners;
+
+    /**
+     * Constructs an empty compound reasoner for a given puzzle.
+     *
+     * @param puzzle  the puzzle
+     * @throws IllegalArgumentException  if {@code puzzle == null}
+     * @pre {@code puzzle != null}
+     */
+    public CompoundReasoner(final SujikoGrid puzzle) {
+        super(puzzle);
+        reasoners = new ArrayList<>();
+    }
+
+    /**
+     * Adds a reasoner at the end of the sequence.
+     *
+     * @param reasoner  the reasoner to add
+     * @return this, for chaining
+     */
+    public CompoundReasoner add(final Reasoner reasoner) {
+        reasoners.add(reasoner);
+        return this;
+    }
+
+    @Override
+    public CompoundCommand apply() {
+        final CompoundCommand result = new CompoundCommand(true);
+        for (Reasoner reasoner : reasoners) {
+            final CompoundCommand step = reasoner.apply();
+            if (step == null) {
+                result.revert();
+                return null;
+            }
+            result.addAll(step);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the standard reasoner: naked and hidden singles until
+     * nothing changes, then probing, repeated until nothing changes.
+     *
+     * @param puzzle  the puzzle
+     * @return the standard reasoner
+     */
+    public static Reasoner standard(final SujikoGrid puzzle) {
+        return new FixpointReasoner(puzzle, new CompoundReasoner(puzzle)
+                .add(new FixpointReasoner(puzzle, new CompoundReasoner(puzzle)
+                        .add(new NakedSingleReasoner(puzzle))
+                        .add(new HiddenSingleReasoner(puzzle))))
+                .add(new ProbingReasoner(puzzle)));
+    }
+}
@@ -0,0 +1,65 @@
+package spa.reasoning;
+
+import java.util.List;
+import spa.command.Command;
+import spa.command.CompoundCommand;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+
+/**
+ * Reasoner that visits every empty cell once and applies a hook to it
+ * (Template Method pattern).
+ * Commands returned by the hook are executed immediately,
+ * so later cells see their effect.
+ *
+ */
+public abstract class EmptyCellReasoner extends Reasoner {
+
+    /**
+     * Constructs a reasoner for a given puzzle.
+     *
+     * @param puzzle  the puzzle
+     * @throws IllegalArgumentException  if {@code puzzle == null}
+     * @pre {@code puzzle != null}
+     */
+    public EmptyCellReasoner(final SujikoGrid puzzle) {
+        super(puzzle);
+    }
+
+    @Override
+    public CompoundCommand apply() {
+        final CompoundCommand result = new CompoundCommand(true);
+        for (List<DigitCell> row : puzzle.getCells()) {
+            for (DigitCell cell : row) {
+                if (!cell.isEmpty()) {
+                    continue;
+                }
+                final Command command = applyToCell(cell);
+                if (command == null) {
+                    result.revert();
+                    return null;
+                }
+                if (command instanceof CompoundCommand
+                        && ((CompoundCommand) command).size() == 0) {
+                    continue;
+                }
+                if (!command.isExecuted()) {
+                    command.execute();
+                }
+                result.add(command);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies reasoning to one empty cell.
+     *
+     * @param cell the empty cell
+     * @return command forced for the cell (possibly an empty
+     *     {@code CompoundCommand} if nothing is forced),
+     *     or {@code null} if the cell shows a contradiction
+     * @pre {@code cell.isEmpty()}
+     */
+    protected abstract Command applyToCell(DigitCell cell);
+}
@@ -0,0 +1,43 @@
+package spa.reasoning;
+
+import spa.command.CompoundCommand;
+import spa.model.GridSnapshot;
+import spa.model.SujikoGrid;
+
+/**
+ * Reasoner that applies the decorated reasoner repeatedly,
+ * until it no longer changes the puzzle or finds a contradiction.
+ * In case of a contradiction, the puzzle is restored from a snapshot taken
+ * before the first step and {@code null} is returned.
+ *
+ */
+public class FixpointReasoner extends ReasonerDecorator {
+
+    /**
+     * Constructs a fixpoint reasoner for a given reasoner on a given puzzle.
+     *
+     * @param puzzle  the puzzle
+     * @param reasoner  the reasoner to repeat
+     * @throws IllegalArgumentException  if a parameter is {@code null}
+     * @pre {@code puzzle != null && reasoner != null}
+     */
+    public FixpointReasoner(final SujikoGrid puzzle, final Reasoner reasoner) {
+        super(puzzle, reasoner);
+    }
+
+    @Override
+    public CompoundCommand apply() {
+        final GridSnapshot checkpoint = puzzle.snapshot();
+        final CompoundCommand result = new CompoundCommand(true);
+        CompoundCommand step = reasoner.apply();
+        while (step != null && step.size() > 0) {
+            result.addAll(step);
+            step = reasoner.apply();
+        }
+        if (step == null) {
+            puzzle.restore(checkpoint);
+            return null;
+        }
+        return result;
+    }
+}
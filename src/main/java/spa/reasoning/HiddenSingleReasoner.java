@@ -0,0 +1,99 @@
+package spa.reasoning;
+
+import java.util.ArrayList;
+import java.util.List;
+import spa.command.CompoundCommand;
+import spa.command.SetCommand;
+import spa.model.CircleLayout;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+
+/**
+ * Reasoner that places every unused digit that is a candidate
+ * of exactly one empty cell.
+ * Since each of the digits occurs exactly once in the grid,
+ * such a digit must go in that cell; an unused digit that is a
+ * candidate of no empty cell is a contradiction.
+ * In layouts with more digits than cells some digits stay unused,
+ * so there the reasoner finds nothing.
+ *
+ */
+public class HiddenSingleReasoner extends Reasoner {
+
+    /** Result of {@link #onlyCell} when no cell has the digit. */
+    private static final int NONE = -1;
+
+    /** Result of {@link #onlyCell} when several cells have the digit. */
+    private static final int SEVERAL = -2;
+
+    /**
+     * Constructs a reasoner for a given puzzle.
+     *
+     * @param puzzle  the puzzle
+     * @throws IllegalArgumentException  if {@code puzzle == null}
+     * @pre {@code puzzle != null}
+     */
+    public HiddenSingleReasoner(final SujikoGrid puzzle) {
+        super(puzzle);
+    }
+
+    @Override
+    public CompoundCommand apply() {
+        final CircleLayout layout = puzzle.getLayout();
+        if (layout.getCellCount() < layout.getMaxDigit()) {
+            return new CompoundCommand(true);
+        }
+        final List<DigitCell> cells = new ArrayList<>();
+        final List<Integer> candidates = new ArrayList<>();
+        final int[] all = Candidates.all(puzzle);
+        int index = 0;
+        for (List<DigitCell> row : puzzle.getCells()) {
+            for (DigitCell cell : row) {
+                if (cell.isEmpty()) {
+                    cells.add(cell);
+                    candidates.add(all[index]);
+                }
+                index++;
+            }
+        }
+        final int unused = layout.getAllDigits() & ~Candidates.used(puzzle);
+        final CompoundCommand result = new CompoundCommand(true);
+        for (int rest = unused; rest != 0; rest &= rest - 1) {
+            final int bit = rest & -rest;
+            final int found = onlyCell(candidates, bit);
+            if (found == NONE || found >= 0 && !cells.get(found).isEmpty()) {
+                // no place for the digit, or its only place is already taken
+                result.revert();
+                return null;
+            }
+            if (found >= 0) {
+                final SetCommand command = new SetCommand(cells.get(found),
+                        Integer.numberOfTrailingZeros(bit) + 1);
+                command.execute();
+                result.add(command);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the only cell having a digit as candidate.
+     *
+     * @param candidates the candidates of the empty cells
+     * @param bit the digit, as bitmask
+     * @return index of the only cell with the digit as candidate,
+     *     {@link #NONE} if there is none, or {@link #SEVERAL}
+     */
+    private static int onlyCell(final List<Integer> candidates, final int bit) {
+        int found = NONE;
+        for (int i = 0; i < candidates.size(); i++) {
+            if ((candidates.get(i) & bit) != 0) {
+                if (found != NONE) {
+                    return SEVERAL;
+                }
+                found = i;
+            }
+        }
+        return found;
+    }
+}
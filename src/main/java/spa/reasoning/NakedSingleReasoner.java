@@ -0,0 +1,59 @@
+package spa.reasoning;
+
+import spa.command.Command;
+import spa.command.CompoundCommand;
+import spa.command.SetCommand;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+
+/**
+ * Reasoner that fills every empty cell that has exactly one candidate,
+ * and reports a contradiction for an empty cell without candidates.
+ * The candidates are computed once per pass and updated as singles are
+ * placed (see {@link Candidates#place}), so a pass may find fewer singles
+ * than recomputing them per cell would; a {@link FixpointReasoner} finds
+ * the rest in the next pass.
+ *
+ */
+public class NakedSingleReasoner extends EmptyCellReasoner {
+
+    /** The candidates per cell during a pass; null between passes. */
+    private int[] candidates;
+
+    /**
+     * Constructs a reasoner for a given puzzle.
+     *
+     * @param puzzle  the puzzle
+     * @throws IllegalArgumentException  if {@code puzzle == null}
+     * @pre {@code puzzle != null}
+     */
+    public NakedSingleReasoner(final SujikoGrid puzzle) {
+        super(puzzle);
+    }
+
+    @Override
+    public CompoundCommand apply() {
+        candidates = Candidates.all(puzzle);
+        try {
+            return super.apply();
+        } finally {
+            candidates = null;
+        }
+    }
+
+    @Override
+    protected Command applyToCell(final DigitCell cell) {
+        final int index = cell.getIndex();
+        final int digits = candidates[index];
+        if (digits == 0) {
+            return null;
+        }
+        if (Integer.bitCount(digits) == 1) {
+            final Command command = new SetCommand(cell, Integer.numberOfTrailingZeros(digits) + 1);
+            command.execute();
+            Candidates.place(puzzle, candidates, index);
+            return command;
+        }
+        return new CompoundCommand(true);
+    }
+}
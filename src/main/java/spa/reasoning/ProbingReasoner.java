@@ -0,0 +1,73 @@
+package spa.reasoning;
+
+import spa.command.Command;
+import spa.command.CompoundCommand;
+import spa.command.SetCommand;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+
+/**
+ * Reasoner that tries every candidate of an empty cell in turn and drops
+ * it if the {@link Candidates} of the grid then leave some other empty
+ * cell without candidates (failed-literal probing).
+ * It fills the cell if exactly one candidate survives, and reports a
+ * contradiction if none does.
+ * Every probe computes all candidates again, so this reasoner is far more
+ * expensive than {@link NakedSingleReasoner} and {@link HiddenSingleReasoner}
+ * and is best applied once they find nothing more.
+ *
+ */
+public class ProbingReasoner extends EmptyCellReasoner {
+
+    /**
+     * Constructs a reasoner for a given puzzle.
+     *
+     * @param puzzle  the puzzle
+     * @throws IllegalArgumentException  if {@code puzzle == null}
+     * @pre {@code puzzle != null}
+     */
+    public ProbingReasoner(final SujikoGrid puzzle) {
+        super(puzzle);
+    }
+
+    @Override
+    protected Command applyToCell(final DigitCell cell) {
+        int survivors = 0;
+        for (int rest = Candidates.of(puzzle, cell); rest != 0; rest &= rest - 1) {
+            final int bit = rest & -rest;
+            if (consistent(cell, Integer.numberOfTrailingZeros(bit) + 1)) {
+                survivors |= bit;
+            }
+        }
+        if (survivors == 0) {
+            return null;
+        }
+        if (Integer.bitCount(survivors) == 1) {
+            return new SetCommand(cell, Integer.numberOfTrailingZeros(survivors) + 1);
+        }
+        return new CompoundCommand(true);
+    }
+
+    /**
+     * Determines whether every empty cell keeps a candidate with a digit
+     * placed in a cell; the cell is empty again afterwards.
+     *
+     * @param cell the empty cell
+     * @param digit the digit to probe
+     * @return whether no empty cell is left without candidates
+     */
+    private boolean consistent(final DigitCell cell, final int digit) {
+        cell.setDigit(digit);
+        try {
+            final int[] candidates = Candidates.all(puzzle);
+            for (int index = 0; index < candidates.length; index++) {
+                if (candidates[index] == 0 && puzzle.getCell(index).isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            cell.setDigit(0);
+        }
+    }
+}
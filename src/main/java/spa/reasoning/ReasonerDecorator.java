@@ -0,0 +1,38 @@
+package spa.reasoning;
+
+import spa.command.CompoundCommand;
+import spa.model.SujikoGrid;
+
+/**
+ * Base class for reasoners that decorate another reasoner
+ * (Decorator pattern).
+ * The base class applies the decorated reasoner unchanged.
+ *
+ */
+public class ReasonerDecorator extends Reasoner {
+
+    /** The decorated reasoner. */
+    protected final Reasoner reasoner;
+
+    /**
+     * Constructs a decorator for a given reasoner on a given puzzle.
+     *
+     * @param puzzle  the puzzle
+     * @param reasoner  the reasoner to decorate
+     * @throws IllegalArgumentException  if a parameter is {@code null}
+     * @pre {@code puzzle != null && reasoner != null}
+     */
+    public ReasonerDecorator(final SujikoGrid puzzle, final Reasoner reasoner) {
+        super(puzzle);
+        if (reasoner == null) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + "().pre failed: reasoner == null");
+        }
+        this.reasoner = reasoner;
+    }
+
+    @Override
+    public CompoundCommand apply() {
+        return reasoner.apply();
+    }
+}
@@ -2,8 +2,9 @@ package spa.solvers;
 
 import spa.command.Command;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Stack;
+import java.util.List;
 import spa.model.SujikoGrid;
 
 /**
@@ -16,8 +17,14 @@ public abstract class AbstractSolver {
     /** The puzzle being solved. */
     protected SujikoGrid grid;
 
-    /** Commands executed. */
-    protected Stack<Command> commands;
+    /** Commands executed, in order. */
+    protected List<Command> commands;
+
+    /** Number of search nodes visited by {@link #solve()}. */
+    protected long nodes;
+
+    /** Statistics of the search; null if not enabled. */
+    protected SolverStatistics statistics;
 
     /**
      * Constructs a reasoner for a given puzzle.
@@ -32,7 +39,7 @@ public abstract class AbstractSolver {
                     + "().pre failed: puzzle == null");
         }
         this.grid = grid;
-        commands = new Stack<>();
+        commands = new ArrayList<>();
     }
 
     /**
@@ -44,6 +51,57 @@ public abstract class AbstractSolver {
         return commands;
     }
 
+    /**
+     * Gets the number of search nodes visited by {@link #solve()},
+     * accumulated over all calls.
+     *
+     * @return number of nodes visited
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Starts recording statistics of the search, if not already started.
+     *
+     * @return the statistics, updated by later calls of {@link #solve()}
+     *     and {@link #countSolutions(int)}
+     */
+    public SolverStatistics enableStatistics() {
+        if (statistics == null) {
+            statistics = new SolverStatistics();
+        }
+        return statistics;
+    }
+
+    /**
+     * Gets the statistics of the search.
+     *
+     * @return the statistics, or {@code null} if not enabled
+     */
+    public SolverStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Starts timing a call of {@link #solve()} or {@link #countSolutions(int)},
+     * if statistics are enabled.
+     */
+    protected void startTiming() {
+        if (statistics != null) {
+            statistics.start();
+        }
+    }
+
+    /**
+     * Stops timing a call started by {@link #startTiming()}.
+     */
+    protected void stopTiming() {
+        if (statistics != null) {
+            statistics.stop();
+        }
+    }
+
     /**
      * Either finds one solution of the puzzle from its current state,
      * if solvable, or leaves the puzzle unchanged.
@@ -56,4 +114,26 @@ public abstract class AbstractSolver {
      */
     public abstract boolean solve();
 
+    /**
+     * Counts the solutions of the puzzle from its current state,
+     * stopping as soon as {@code limit} solutions have been found.
+     *
+     * @param limit the maximum number of solutions to count
+     * @return the number of solutions, at most {@code limit}
+     * @pre {@code puzzle != null}
+     * @post {@code puzzle unchanged}
+     */
+    public abstract int countSolutions(int limit);
+
+    /**
+     * Determines whether the puzzle has exactly one solution from its
+     * current state.  Stops searching as soon as a second solution is found.
+     *
+     * @return whether there is exactly one solution
+     * @post {@code puzzle unchanged}
+     */
+    public boolean hasUniqueSolution() {
+        return countSolutions(2) == 1;
+    }
+
 }
@@ -2,14 +2,16 @@ package spa.solvers;
 
 import java.util.List;
 import spa.command.Command;
+import spa.command.CompoundCommand;
 import spa.command.SetCommand;
 import spa.model.DigitCell;
+import spa.model.GridSnapshot;
 import spa.model.Location;
 import spa.model.SujikoGrid;
 import spa.reasoning.Reasoner;
 
 /**
- * A simple recursive backtracking solver for Kakuro Puzzles.
+ * A backtracking solver for Sujiko Puzzles.
  * It uses puzzle.getMinNumber() and puzzle.getMaxNumber()
  * to obtain the range of `digits' to try in an empty cell.
  * <p>
@@ -18,6 +20,29 @@ import spa.reasoning.Reasoner;
  before looking for an empty cell and trying all possible `digits'.
  <p>
  * It makes sense for client code to supply a fixpoint strategy.
+ * <p>
+ * The cell to branch on and the order of the digits tried in it are
+ * chosen by a {@link CellOrder} and a {@link DigitOrder}, also injected
+ * via the constructor; by default the first empty cell and ascending digits.
+ * <p>
+ * The search is iterative: instead of recursing per filled cell, it keeps
+ * a trail of preallocated arrays with, per depth, the cell branched on,
+ * the position of its digit in the digit order, and the forced commands.
+ * Digits are placed directly in the cells during the search; only for the
+ * solution found are {@link SetCommand}s created, so {@link #getCommands()}
+ * holds the same commands as a recursive search would.
+ * Before applying the reasoner, a node takes a {@link GridSnapshot} of the
+ * puzzle, in constant time; backtracking out of it restores that snapshot,
+ * which resets only the cells that differ, instead of reverting the forced
+ * commands one by one.
+ * Via {@link #solve(long)} the search can be run in slices of a given
+ * number of nodes, paused (also from another thread) and resumed.
+ * <p>
+ * Besides finding one solution, the same search can count solutions
+ * (up to a limit) via {@link #countSolutions(int)}.
+ * With statistics enabled, every node visited and every contradiction
+ * found by the reasoner is recorded; subclasses record the digits tried
+ * and why they were rejected in {@link #isValidMove(DigitCell)}.
  *
  * @author Tom Verhoeff (Eindhoven University of Technology)
  */
@@ -26,6 +51,45 @@ public abstract class BacktrackSolverTemplate extends AbstractSolver {
     /** The strategy to apply before speculating; null if no reasoner. */
     protected Reasoner reasoner;
 
+    /** Chooses the cell to branch on. */
+    protected final CellOrder cellOrder;
+
+    /** Chooses the order of the digits tried. */
+    protected final DigitOrder digitOrder;
+
+    /** Forced commands when there is no reasoner; executed and empty. */
+    private static final CompoundCommand NO_COMMANDS = new CompoundCommand(true);
+
+    /** Forced commands of the node at each depth; null if none or not entered. */
+    private final CompoundCommand[] forcedTrail;
+
+    /** The puzzle before the reasoner was applied at each depth; null if not needed. */
+    private final GridSnapshot[] checkpoints;
+
+    /** Cell branched on at each depth; null if none. */
+    private final DigitCell[] branchCells;
+
+    /** Order of the digits tried in the cell branched on at each depth. */
+    private final int[][] branchDigits;
+
+    /** Position in {@link #branchDigits} of the next digit to try at each depth. */
+    private final int[] branchNext;
+
+    /** Depth of the current node; -1 if no search is in progress. */
+    private int depth = -1;
+
+    /** Whether the node at the current depth still has to be entered. */
+    private boolean expand;
+
+    /** Number of solutions after which the search stops. */
+    private int wanted;
+
+    /** Number of solutions found by the current search. */
+    private int found;
+
+    /** Whether a pause was requested by {@link #pause()}. */
+    private volatile boolean pauseRequested;
+
     /* Rep. invariant:
      *  reasoner != null ==> reasoner.puzzle == this.puzzle
      */
@@ -38,26 +102,52 @@ public abstract class BacktrackSolverTemplate extends AbstractSolver {
      * @pre {@code puzzle != null}
      */
     public BacktrackSolverTemplate(SujikoGrid grid, final Reasoner reasoner) {
+        this(grid, reasoner, CellOrders.FIRST_EMPTY, DigitOrders.ASCENDING);
+    }
+
+    /**
+     * Constructs a backtracking solver for a given puzzle
+     * with given ordering strategies.
+     *
+     * @param grid the puzzle
+     * @param reasoner the reasoner, or {@code null} if none
+     * @param cellOrder chooses the cell to branch on
+     * @param digitOrder chooses the order of the digits tried
+     * @throws IllegalArgumentException  if {@code puzzle == null},
+     *     {@code cellOrder == null} or {@code digitOrder == null}
+     * @pre {@code puzzle != null && cellOrder != null && digitOrder != null}
+     */
+    public BacktrackSolverTemplate(SujikoGrid grid, final Reasoner reasoner,
+            final CellOrder cellOrder, final DigitOrder digitOrder) {
         super(grid);
+        if (cellOrder == null || digitOrder == null) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + "().pre failed: ordering strategy == null");
+        }
         this.reasoner = reasoner;
+        this.cellOrder = cellOrder;
+        this.digitOrder = digitOrder;
+        int cells = 0;
+        for (List<DigitCell> row : grid.getCells()) {
+            cells += row.size();
+        }
+        // every level of the search fills at least one cell
+        forcedTrail = new CompoundCommand[cells + 1];
+        checkpoints = new GridSnapshot[cells + 1];
+        branchCells = new DigitCell[cells + 1];
+        branchDigits = new int[cells + 1][];
+        branchNext = new int[cells + 1];
     }
 
 // Auxiliary methods
     /**
-     * Returns first empty cell, or null if no empty cells.
-     * TODO: Could look for "better" empty cell.
+     * Returns the empty cell to branch on, as chosen by the cell order,
+     * or null if no empty cells.
      *
-     * @return first empty cell, or null if no empty cells
+     * @return an empty cell, or null if no empty cells
      */
     protected DigitCell getEmptyCell() {
-        for (final List<DigitCell> row : grid.getCells()) {
-            for (final DigitCell cell : row) {
-                if (cell.isEmpty()) {
-                    return cell;
-                }
-            }
-        }
-        return null;
+        return cellOrder.select(grid);
     }
     
      /*
@@ -71,26 +161,280 @@ public abstract class BacktrackSolverTemplate extends AbstractSolver {
       
     @Override
     public boolean solve() {
-        DigitCell cell = getEmptyCell();
+        if (depth < 0) {
+            begin(1);
+        }
+        startTiming();
+        final SearchStatus status = run(Long.MAX_VALUE, false);
+        stopTiming();
+        return finish(status);
+    }
+
+    /**
+     * Runs the search for one solution for at most a given number of nodes.
+     * If no search is in progress, a new one is started; otherwise the
+     * paused search is resumed.
+     * The search also pauses, before its next node, after {@link #pause()},
+     * even if that was called before this slice started; the request is
+     * cleared when the slice ends.
+     *
+     * @param steps the maximum number of nodes to visit
+     * @return {@link SearchStatus#SOLVED} if a solution was found, which is
+     *     then in the puzzle and {@link #getCommands()} as for {@link #solve()};
+     *     {@link SearchStatus#UNSOLVABLE} if there is none, with the puzzle
+     *     unchanged; otherwise {@link SearchStatus#PAUSED}, with the puzzle
+     *     holding the partial assignment of the search
+     * @modifies {@code puzzle}
+     */
+    public SearchStatus solve(final long steps) {
+        if (depth < 0) {
+            begin(1);
+        }
+        startTiming();
+        final SearchStatus status = run(steps, true);
+        pauseRequested = false;
+        stopTiming();
+        finish(status);
+        return status;
+    }
+
+    /**
+     * Requests the search run by {@link #solve(long)} to pause before its
+     * next node, or the next slice to pause at once if none is running.
+     * May be called from any thread.
+     */
+    public void pause() {
+        pauseRequested = true;
+    }
+
+    /**
+     * Determines whether a paused search is in progress.
+     *
+     * @return whether a search is in progress
+     */
+    public boolean isSearching() {
+        return depth >= 0;
+    }
+
+    /**
+     * Abandons a paused search, restoring the puzzle to its state before
+     * the search.  Does nothing if no search is in progress.
+     */
+    public void abandon() {
+        unwind();
+    }
+
+    @Override
+    public int countSolutions(final int limit) {
+        if (depth >= 0) {
+            throw new IllegalStateException(this.getClass().getSimpleName()
+                    + ".countSolutions().pre failed: search in progress");
+        }
+        if (limit <= 0) {
+            return 0;
+        }
+        begin(limit);
+        startTiming();
+        final SearchStatus status = run(Long.MAX_VALUE, false);
+        stopTiming();
+        if (status == SearchStatus.SOLVED) {
+            unwind();
+        }
+        return found;
+    }
+
+    /**
+     * Starts a new search at the root.
+     *
+     * @param wanted number of solutions after which to stop
+     */
+    private void begin(final int wanted) {
+        this.wanted = wanted;
+        found = 0;
+        depth = 0;
+        expand = true;
+        forcedTrail[0] = null;
+        branchCells[0] = null;
+    }
+
+    /**
+     * Runs the search loop.
+     * At every moment the trail holds, for each depth up to {@link #depth},
+     * the forced commands of that node and the cell being branched on,
+     * with the position of the digit it currently holds.
+     *
+     * @param steps the maximum number of nodes to visit
+     * @param pausable whether {@link #pause()} is honoured
+     * @return the status of the search
+     */
+    private SearchStatus run(final long steps, final boolean pausable) {
+        long left = steps;
+        while (depth >= 0) {
+            if (!expand) {
+                if (advance()) {
+                    depth++;
+                    forcedTrail[depth] = null;
+                    branchCells[depth] = null;
+                    expand = true;
+                } else {
+                    backtrack();
+                }
+            } else if (left == 0 || pausable && pauseRequested) {
+                return SearchStatus.PAUSED;
+            } else {
+                left--;
+                expand = false;
+                if (enter() && ++found >= wanted) {
+                    return SearchStatus.SOLVED;
+                }
+            }
+        }
+        return SearchStatus.UNSOLVABLE;
+    }
+
+    /**
+     * Enters the node at the current depth: applies the reasoner and
+     * selects the cell to branch on.
+     *
+     * @return whether the node is a solution
+     */
+    private boolean enter() {
+        visit(depth);
+        checkpoints[depth] = reasoner == null ? null : grid.snapshot();
+        final CompoundCommand forced = applyReasoner();
+        forcedTrail[depth] = forced;
+        if (forced == null) {
+            return false;
+        }
+        final DigitCell cell = getEmptyCell();
         if (cell == null) {
             return this.isSolved();
-        } else {
-            if (cell.isEmpty()) {
-                for (int state = 1; state <= 9; state++) {
-                    final Command command = new SetCommand(cell, state);
-                    command.execute();     
-                    if (this.isValidMove(cell)) {
-                        commands.push(command);
-                        if (solve()) {
-                            return true;
-                        }
-                        commands.pop();
-                    }  
-                    command.revert();
-                }
-                return false;
+        }
+        branchCells[depth] = cell;
+        branchDigits[depth] = digitOrder.digits(grid, cell);
+        branchNext[depth] = 0;
+        return false;
+    }
+
+    /**
+     * Puts the next valid digit in the cell branched on at the current depth.
+     *
+     * @return whether there was a next valid digit; if not, the cell is empty
+     */
+    private boolean advance() {
+        final DigitCell cell = branchCells[depth];
+        if (cell == null) {
+            return false;
+        }
+        final int[] digits = branchDigits[depth];
+        while (branchNext[depth] < digits.length) {
+            cell.setDigit(digits[branchNext[depth]++]);
+            if (isValid(cell)) {
+                return true;
+            }
+        }
+        cell.setDigit(0);
+        return false;
+    }
+
+    /**
+     * Leaves the node at the current depth, restoring the puzzle from before
+     * its forced commands.
+     */
+    private void backtrack() {
+        if (forcedTrail[depth] != null && forcedTrail[depth].size() > 0) {
+            grid.restore(checkpoints[depth]);
+        }
+        forcedTrail[depth] = null;
+        checkpoints[depth] = null;
+        branchCells[depth] = null;
+        depth--;
+    }
+
+    /**
+     * Backtracks out of all nodes, restoring the puzzle.
+     */
+    private void unwind() {
+        while (depth >= 0) {
+            if (branchCells[depth] != null) {
+                branchCells[depth].setDigit(0);
             }
+            backtrack();
+        }
+    }
+
+    /**
+     * Ends the search if it found a solution, recording the commands
+     * that lead from the initial puzzle to the solution:
+     * per depth, the forced commands (if any) and then the digit branched on.
+     *
+     * @param status the status of the search
+     * @return whether a solution was found
+     */
+    private boolean finish(final SearchStatus status) {
+        if (status != SearchStatus.SOLVED) {
+            return false;
         }
+        for (int d = 0; d <= depth; d++) {
+            if (forcedTrail[d].size() > 0) {
+                commands.add(forcedTrail[d]);
+            }
+            final DigitCell cell = branchCells[d];
+            if (cell != null) {
+                final int digit = cell.getDigit();
+                cell.setDigit(0);
+                final Command command = new SetCommand(cell, digit);
+                command.execute();
+                commands.add(command);
+            }
+            forcedTrail[d] = null;
+            checkpoints[d] = null;
+            branchCells[d] = null;
+        }
+        depth = -1;
         return true;
     }
+
+    /**
+     * Checks a digit tried in an empty cell, recording it if statistics
+     * are enabled.
+     *
+     * @param cell the cell holding the digit tried
+     * @return whether the move is valid
+     */
+    private boolean isValid(final DigitCell cell) {
+        if (statistics != null) {
+            statistics.tried(1);
+        }
+        return this.isValidMove(cell);
+    }
+
+    /**
+     * Records a visited search node.
+     *
+     * @param depth the depth of the node
+     */
+    private void visit(final int depth) {
+        nodes++;
+        if (statistics != null) {
+            statistics.node(depth);
+        }
+    }
+
+    /**
+     * Applies the reasoner, if any.
+     *
+     * @return the executed forced commands (empty if there is no reasoner),
+     *     or {@code null} if the reasoner found a contradiction
+     */
+    protected CompoundCommand applyReasoner() {
+        if (reasoner == null) {
+            return NO_COMMANDS;
+        }
+        final CompoundCommand forced = reasoner.apply();
+        if (forced == null && statistics != null) {
+            statistics.contradiction();
+        }
+        return forced;
+    }
 }
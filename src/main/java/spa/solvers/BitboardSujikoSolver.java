@@ -0,0 +1,464 @@
+package spa.solvers;
+
+import java.util.Arrays;
+import java.util.List;
+import spa.command.SetCommand;
+import spa.model.CircleLayout;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+import spa.model.SumCell;
+import spa.model.SumCombinations;
+import spa.reasoning.Reasoner;
+
+/**
+ * Sujiko solver that searches on a bitboard: the cells holding a digit
+ * and the digits in use are {@code int} bitmasks, and every empty cell has
+ * a bitmask of its candidate digits, kept up to date as digits are placed.
+ * The circles are running partial sums and empty counts, using the index
+ * arrays and cell masks of the grid's {@link CircleLayout}.  The placed
+ * digits exist only on the search stack, packed with their cells.
+ * The search itself allocates nothing; only the final assignment is
+ * converted into {@link SetCommand}s, which are executed on the grid
+ * and made available through {@link #getCommands()}.
+ * <p>
+ * The candidates of an empty cell are the unused digits that keep every
+ * circle through that cell achievable, as given by {@link SumCombinations};
+ * placing a digit narrows them, and taking it back restores the masks
+ * saved for that depth.  At every node the empty cell with the fewest
+ * candidates is chosen.
+ * This built-in ordering replaces the {@link CellOrder} and
+ * {@link DigitOrder} of {@link BacktrackSolverTemplate}.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public class BitboardSujikoSolver extends BacktrackSolverTemplate {
+
+    /** Result of {@link #select()} when there are no empty cells. */
+    private static final long COMPLETE = -1L;
+
+    /** Bits of the cell index in the result of {@link #select()} and on the stack. */
+    private static final int CELL_BITS = 8;
+
+    /** Mask of the cell index in the result of {@link #select()} and on the stack. */
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+
+    /** The shape of the grid. */
+    private final CircleLayout layout;
+
+    /** Mask with the bits of all digits set (digit d is bit d - 1). */
+    private final int allDigits;
+
+    /** Mask with the bits of all cells set (cell i is bit i). */
+    private final int allCells;
+
+    /** Cells holding a digit, as bitmask. */
+    private int filled;
+
+    /** Digits currently placed in the grid, as bitmask. */
+    private int used;
+
+    /** Candidate digits of each empty cell, as bitmask; stale for filled cells. */
+    private final int[] candidates;
+
+    /** The candidates before the placement at each depth, one row per depth. */
+    private final int[] saved;
+
+    /** Digit and cell placed at each depth, as {@code digit << CELL_BITS | cell}. */
+    private final int[] placed;
+
+    /** Number of digits placed in the completion found by the search. */
+    private int placements;
+
+    /** Required sum of each circle. */
+    private final int[] target;
+
+    /** Sum of the digits currently placed in each circle. */
+    private final int[] partial;
+
+    /** Number of empty cells in each circle. */
+    private final int[] empty;
+
+    /**
+     * Constructs a solver for a given puzzle.
+     *
+     * @param grid the puzzle
+     * @param reasoner the reasoner applied by {@link #solve(long)}, or null;
+     *     {@link #solve()} and {@link #countSolutions(int)} do not apply it
+     * @throws IllegalArgumentException  if {@code grid == null}
+     * @pre {@code grid != null}
+     */
+    public BitboardSujikoSolver(SujikoGrid grid, final Reasoner reasoner) {
+        super(grid, reasoner);
+        layout = grid.getLayout();
+        allDigits = layout.getAllDigits();
+        final int cells = layout.getCellCount();
+        allCells = (int) ((1L << cells) - 1);
+        candidates = new int[cells];
+        saved = new int[cells * cells];
+        placed = new int[cells];
+        target = new int[layout.getCircleCount()];
+        partial = new int[layout.getCircleCount()];
+        empty = new int[layout.getCircleCount()];
+    }
+
+    /**
+     * Solves the puzzle by the search on the bitboard.
+     * The reasoner is not applied: choosing the cell with the fewest
+     * candidates already places every naked single first.  So the nodes
+     * counted differ from those of {@link #solve(long)}, which applies it.
+     *
+     * @return whether a solution was found
+     * @modifies {@code puzzle}
+     */
+    @Override
+    public boolean solve() {
+        if (!load()) {
+            return false;
+        }
+        startTiming();
+        final boolean solved = search(0);
+        stopTiming();
+        if (solved) {
+            store();
+        }
+        return solved;
+    }
+
+    /**
+     * Runs the search of {@link BacktrackSolverTemplate} for at most a given
+     * number of nodes, on the grid rather than the bitboard, so that it can
+     * pause; unlike {@link #solve()} it applies the reasoner, if any, at
+     * every node, and so counts other nodes.
+     *
+     * @param steps the maximum number of nodes to visit
+     * @return the status of the search, as for the template
+     * @modifies {@code puzzle}
+     */
+    @Override
+    public SearchStatus solve(final long steps) {
+        return super.solve(steps);
+    }
+
+    /**
+     * Checks the digit just placed in a cell, in time proportional to the
+     * number of circles through the cell: it must be unique in the grid,
+     * and every circle through the cell must still be achievable.
+     *
+     * @param cell the cell of the grid holding the digit
+     * @return whether the move is valid
+     */
+    @Override
+    protected boolean isValidMove(DigitCell cell) {
+        if (grid.getDigitCount(cell.getDigit()) > 1) {
+            if (statistics != null) {
+                statistics.duplicate(1);
+            }
+            return false;
+        }
+        for (int circle : layout.getCellCircles(cell.getIndex())) {
+            if (!isAchievable(circle)) {
+                if (statistics != null) {
+                    statistics.circle(1);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the grid is solved, in time proportional to the number
+     * of circles: no digit occurs twice, and every circle is full and has
+     * its sum.
+     *
+     * @return whether the grid is solved
+     */
+    @Override
+    protected boolean isSolved() {
+        if (Integer.bitCount(grid.getUsedDigits())
+                != layout.getCellCount() - grid.getDigitCount(0)) {
+            return false;
+        }
+        final List<SumCell> sumCells = grid.getSumCells();
+        for (int circle = 0; circle < target.length; circle++) {
+            if (grid.getEmptyCount(circle) != 0
+                    || grid.getCircleSum(circle) != sumCells.get(circle).getSum()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines from the running counts of the grid whether a circle can
+     * still reach its sum.
+     *
+     * @param circle the circle index
+     * @return whether the empty cells of the circle can be completed
+     */
+    private boolean isAchievable(final int circle) {
+        final int remaining = grid.getSumCells().get(circle).getSum() - grid.getCircleSum(circle);
+        final int emptyCells = grid.getEmptyCount(circle);
+        if (emptyCells == 0) {
+            return remaining == 0;
+        }
+        return SumCombinations.candidates(remaining, emptyCells, grid.getUsedDigits(),
+                layout.getMaxDigit()) != 0;
+    }
+
+    /**
+     * Reads the grid into the bitboard and computes the candidates of the
+     * empty cells.
+     *
+     * @return whether the grid contains no duplicate digits and every
+     *     circle can still be completed
+     */
+    private boolean load() {
+        filled = 0;
+        used = 0;
+        for (int index = 0; index < candidates.length; index++) {
+            final int digit = grid.getCell(index).getDigit();
+            if (digit != 0) {
+                final int bit = 1 << (digit - 1);
+                if ((used & bit) != 0) {
+                    return false;
+                }
+                used |= bit;
+                filled |= 1 << index;
+            }
+        }
+        final List<SumCell> sumCells = grid.getSumCells();
+        for (int circle = 0; circle < target.length; circle++) {
+            target[circle] = sumCells.get(circle).getSum();
+            partial[circle] = grid.getCircleSum(circle);
+            empty[circle] = grid.getEmptyCount(circle);
+        }
+        Arrays.fill(candidates, allDigits & ~used);
+        return narrow();
+    }
+
+    /**
+     * Narrows the candidates of the empty cells of every circle to the
+     * digits that can still complete it.
+     *
+     * @return whether every circle can still be completed
+     */
+    private boolean narrow() {
+        boolean achievable = true;
+        for (int circle = 0; circle < target.length; circle++) {
+            if (empty[circle] == 0) {
+                achievable &= partial[circle] == target[circle];
+                continue;
+            }
+            final int possible = circleCandidates(circle);
+            achievable &= possible != 0;
+            for (int rest = layout.getCircleCellMask(circle) & ~filled; rest != 0;
+                    rest &= rest - 1) {
+                candidates[Integer.numberOfTrailingZeros(rest)] &= possible;
+            }
+        }
+        return achievable;
+    }
+
+    /**
+     * Writes the digits found by the search into the grid,
+     * one executed {@link SetCommand} per cell that was empty.
+     */
+    private void store() {
+        for (int depth = 0; depth < placements; depth++) {
+            final SetCommand command = new SetCommand(grid.getCell(placed[depth] & CELL_MASK),
+                    placed[depth] >>> CELL_BITS);
+            command.execute();
+            commands.add(command);
+        }
+    }
+
+    /**
+     * Counts the solutions by the search on the bitboard, up to a limit;
+     * the reasoner is not applied, as for {@link #solve()}.
+     *
+     * @param limit the maximum number of solutions to count
+     * @return the number of solutions, at most {@code limit}
+     */
+    @Override
+    public int countSolutions(final int limit) {
+        if (limit <= 0 || !load()) {
+            return 0;
+        }
+        startTiming();
+        final int found = count(limit, 0);
+        stopTiming();
+        return found;
+    }
+
+    /**
+     * Searches for a completion of the bitboard.
+     *
+     * @param depth the depth of the current node, 0 for the root
+     * @return whether a completion was found; if so, its digits are on
+     *     the stack, otherwise the state is unchanged
+     */
+    private boolean search(final int depth) {
+        final long selected = visit(depth);
+        if (selected == COMPLETE) {
+            placements = depth;
+            return true;
+        }
+        final int cell = cellOf(selected);
+        for (int digits = candidatesOf(selected); digits != 0; digits &= digits - 1) {
+            final int digit = Integer.numberOfTrailingZeros(digits) + 1;
+            place(depth, cell, digit);
+            if (search(depth + 1)) {
+                return true;
+            }
+            remove(depth, cell, digit);
+        }
+        return false;
+    }
+
+    /**
+     * Counts the completions of the bitboard, up to a limit.
+     *
+     * @param limit the maximum number of completions to count, positive
+     * @param depth the depth of the current node, 0 for the root
+     * @return the number of completions, at most {@code limit};
+     *     the state is unchanged
+     */
+    private int count(final int limit, final int depth) {
+        final long selected = visit(depth);
+        if (selected == COMPLETE) {
+            return 1;
+        }
+        final int cell = cellOf(selected);
+        int found = 0;
+        for (int digits = candidatesOf(selected); digits != 0 && found < limit;
+                digits &= digits - 1) {
+            final int digit = Integer.numberOfTrailingZeros(digits) + 1;
+            place(depth, cell, digit);
+            found += count(limit - found, depth + 1);
+            remove(depth, cell, digit);
+        }
+        return found;
+    }
+
+    /**
+     * Visits a search node: counts it and selects the cell to branch on.
+     * With statistics enabled, all digits count as tried for the selected
+     * cell, and those that are not its candidates count as pruned, either
+     * because they are already used or because a circle through the cell
+     * excludes them, as the template counts the digits it rejects.
+     *
+     * @param depth the depth of the node
+     * @return the result of {@link #select()}
+     */
+    private long visit(final int depth) {
+        nodes++;
+        final long selected = select();
+        if (statistics != null) {
+            statistics.node(depth);
+            if (selected != COMPLETE) {
+                statistics.tried(Integer.bitCount(allDigits));
+                statistics.duplicate(Integer.bitCount(used));
+                statistics.circle(Integer.bitCount(allDigits & ~used & ~candidatesOf(selected)));
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Selects the empty cell with the fewest candidates.
+     *
+     * @return {@link #COMPLETE} if there are no empty cells, otherwise
+     *     the cell index in the low {@link #CELL_BITS} bits and its candidates
+     *     above them; no candidates means that the state cannot be completed
+     */
+    private long select() {
+        long best = COMPLETE;
+        int bestCount = Integer.MAX_VALUE;
+        for (int rest = allCells & ~filled; rest != 0; rest &= rest - 1) {
+            final int cell = Integer.numberOfTrailingZeros(rest);
+            final int count = Integer.bitCount(candidates[cell]);
+            if (count < bestCount) {
+                best = (long) candidates[cell] << CELL_BITS | cell;
+                bestCount = count;
+                if (count == 0) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the cell from a result of {@link #select()}.
+     *
+     * @param selected the result, not {@link #COMPLETE}
+     * @return the cell index
+     */
+    private static int cellOf(final long selected) {
+        return (int) selected & CELL_MASK;
+    }
+
+    /**
+     * Gets the candidates from a result of {@link #select()}.
+     *
+     * @param selected the result, not {@link #COMPLETE}
+     * @return bitmask of candidate digits
+     */
+    private static int candidatesOf(final long selected) {
+        return (int) (selected >>> CELL_BITS);
+    }
+
+    /**
+     * Places a digit in an empty cell of the bitboard, saving the
+     * candidates and narrowing them.
+     *
+     * @param depth the depth of the node placing the digit
+     * @param cell the cell index
+     * @param digit the digit, a candidate of the cell
+     */
+    private void place(final int depth, final int cell, final int digit) {
+        System.arraycopy(candidates, 0, saved, depth * candidates.length, candidates.length);
+        placed[depth] = digit << CELL_BITS | cell;
+        filled |= 1 << cell;
+        used |= 1 << (digit - 1);
+        for (int circle : layout.getCellCircles(cell)) {
+            partial[circle] += digit;
+            empty[circle]--;
+        }
+        for (int rest = allCells & ~filled; rest != 0; rest &= rest - 1) {
+            candidates[Integer.numberOfTrailingZeros(rest)] &= ~used;
+        }
+        narrow();
+    }
+
+    /**
+     * Takes back the digit placed by {@link #place} at a depth, restoring
+     * the candidates.
+     *
+     * @param depth the depth of the node that placed the digit
+     * @param cell the cell index
+     * @param digit the digit
+     */
+    private void remove(final int depth, final int cell, final int digit) {
+        System.arraycopy(saved, depth * candidates.length, candidates, 0, candidates.length);
+        filled &= ~(1 << cell);
+        used &= ~(1 << (digit - 1));
+        for (int circle : layout.getCellCircles(cell)) {
+            partial[circle] -= digit;
+            empty[circle]++;
+        }
+    }
+
+    /**
+     * Computes the unused digits that can go in some empty cell of a circle,
+     * such that the remaining empty cells can still reach the circle's sum.
+     *
+     * @param circle the circle index
+     * @return bitmask of candidate digits
+     */
+    private int circleCandidates(final int circle) {
+        return SumCombinations.candidates(target[circle] - partial[circle], empty[circle], used,
+                layout.getMaxDigit());
+    }
+}
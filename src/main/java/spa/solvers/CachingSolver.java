@@ -0,0 +1,104 @@
+package spa.solvers;
+
+import spa.cache.SolveCache;
+import spa.command.SetCommand;
+import spa.model.DigitCell;
+
+/**
+ * Sujiko solver that looks the puzzle up in a {@link SolveCache} before
+ * asking another solver to solve it, and stores the result.
+ * Puzzles equivalent under a {@link spa.model.Symmetry} share their entry.
+ * On a hit no nodes are visited: the cached solution is put in the empty
+ * cells with one {@link SetCommand} each.  On a miss the commands, nodes
+ * and statistics are those of the other solver.
+ * Counting solutions is always left to the other solver.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public class CachingSolver extends AbstractSolver {
+
+    /** The solver used on a miss. */
+    private final AbstractSolver solver;
+
+    /** The cache. */
+    private final SolveCache cache;
+
+    /** Whether the last call of {@link #solve()} hit the cache. */
+    private boolean hit;
+
+    /**
+     * Constructs a caching solver of the puzzle of another solver.
+     *
+     * @param solver the solver used on a miss
+     * @param cache the cache, possibly shared with other solvers
+     */
+    public CachingSolver(final AbstractSolver solver, final SolveCache cache) {
+        super(solver.grid);
+        this.solver = solver;
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean solve() {
+        final SolveCache.Lookup lookup = cache.lookUp(grid);
+        hit = lookup.isHit();
+        if (hit) {
+            return apply(lookup);
+        }
+        final long start = System.nanoTime();
+        final boolean solved = solver.solve();
+        final long nanos = System.nanoTime() - start;
+        nodes = solver.getNodes();
+        commands.addAll(solver.getCommands());
+        lookup.put(solved ? grid : null, nodes, nanos);
+        return solved;
+    }
+
+    /**
+     * Puts a cached solution in the empty cells.
+     *
+     * @param lookup the lookup of the puzzle, a hit
+     * @return whether the puzzle has a solution
+     */
+    private boolean apply(final SolveCache.Lookup lookup) {
+        if (!lookup.getEntry().isSolvable()) {
+            return false;
+        }
+        for (int cell = 0; cell < grid.getLayout().getCellCount(); cell++) {
+            final DigitCell digitCell = grid.getCell(cell);
+            if (digitCell.isEmpty()) {
+                final SetCommand command = new SetCommand(digitCell, lookup.getDigit(cell));
+                command.execute();
+                commands.add(command);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int countSolutions(final int limit) {
+        final int count = solver.countSolutions(limit);
+        nodes = solver.getNodes();
+        return count;
+    }
+
+    @Override
+    public SolverStatistics enableStatistics() {
+        return solver.enableStatistics();
+    }
+
+    @Override
+    public SolverStatistics getStatistics() {
+        return solver.getStatistics();
+    }
+
+    /**
+     * Determines whether the last call of {@link #solve()} found the
+     * puzzle in the cache.
+     *
+     * @return whether the cache was hit
+     */
+    public boolean isHit() {
+        return hit;
+    }
+}
@@ -0,0 +1,143 @@
+package spa.solvers;
+
+import spa.catalogue.SumCatalogue;
+import spa.command.SetCommand;
+import spa.model.CircleLayout;
+import spa.model.SujikoGrid;
+import spa.reasoning.Reasoner;
+
+/**
+ * Sujiko solver that looks puzzles up in a {@link SumCatalogue}.
+ * The sums of the puzzle select the fillings with those sums, and the
+ * solutions are the fillings that agree with the digits in the grid.
+ * No search is needed: the work is bounded by
+ * {@link SumCatalogue#maxSize()} comparisons, each counted as a node.
+ * Only classic 3 by 3 puzzles are supported.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public class CatalogueSolver extends AbstractSolver {
+
+    /** Number of cells packed in the nibbles of a filling. */
+    private static final int PACKED_CELLS = 8;
+
+    /** Index of the cell that is not packed in the nibbles. */
+    private static final int LAST_CELL = 8;
+
+    /** The catalogue. */
+    private final SumCatalogue catalogue;
+
+    /** Nibbles of the packed cells that hold a digit in the grid. */
+    private int mask;
+
+    /** Digits of the packed cells in the grid. */
+    private int digits;
+
+    /**
+     * Constructs a catalogue solver using the shared catalogue.
+     *
+     * @param grid the puzzle
+     * @param reasoner ignored; accepted for compatibility with other solvers
+     * @throws IllegalArgumentException  if {@code grid == null} or if the
+     *     grid is not classic
+     * @pre {@code grid != null && grid.getLayout().equals(CircleLayout.CLASSIC)}
+     */
+    public CatalogueSolver(SujikoGrid grid, final Reasoner reasoner) {
+        this(grid, reasoner, SumCatalogue.classic());
+    }
+
+    /**
+     * Constructs a catalogue solver.
+     *
+     * @param grid the puzzle
+     * @param reasoner ignored; accepted for compatibility with other solvers
+     * @param catalogue the catalogue
+     * @throws IllegalArgumentException  if {@code grid == null} or if the
+     *     grid is not classic
+     * @pre {@code grid != null && grid.getLayout().equals(CircleLayout.CLASSIC)}
+     */
+    public CatalogueSolver(SujikoGrid grid, final Reasoner reasoner,
+            final SumCatalogue catalogue) {
+        super(grid);
+        if (!CircleLayout.CLASSIC.equals(grid.getLayout())) {
+            throw new IllegalArgumentException(this.getClass().getSimpleName()
+                    + "().pre failed: layout is not classic");
+        }
+        this.catalogue = catalogue;
+    }
+
+    @Override
+    public boolean solve() {
+        startTiming();
+        final int key = SumCatalogue.key(grid.getSumCells());
+        final int found = find(key, 0);
+        stopTiming();
+        if (found < 0) {
+            return false;
+        }
+        final int filling = catalogue.filling(key, found);
+        for (int cell = 0; cell <= LAST_CELL; cell++) {
+            if (grid.getCell(cell).isEmpty()) {
+                final SetCommand command = new SetCommand(grid.getCell(cell),
+                        SumCatalogue.digit(filling, cell));
+                command.execute();
+                commands.add(command);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int countSolutions(final int limit) {
+        startTiming();
+        final int key = SumCatalogue.key(grid.getSumCells());
+        int count = 0;
+        for (int found = find(key, 0); found >= 0 && count < limit;
+                found = find(key, found + 1)) {
+            count++;
+        }
+        stopTiming();
+        return count;
+    }
+
+    /**
+     * Finds the next filling that agrees with the digits in the grid.
+     *
+     * @param key the key of the sums of the grid, or -1
+     * @param start the number of the first filling to consider
+     * @return the number of the filling, or -1 if there is none
+     */
+    private int find(final int key, final int start) {
+        if (start == 0) {
+            load();
+        }
+        final int last = grid.getCell(LAST_CELL).getDigit();
+        for (int i = start; i < catalogue.size(key); i++) {
+            nodes++;
+            if (statistics != null) {
+                statistics.node(0);
+            }
+            final int filling = catalogue.filling(key, i);
+            if ((filling & mask) == digits
+                    && (last == 0 || SumCatalogue.digit(filling, LAST_CELL) == last)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Packs the digits of the grid into {@link #mask} and {@link #digits}.
+     */
+    private void load() {
+        mask = 0;
+        digits = 0;
+        for (int cell = 0; cell < PACKED_CELLS; cell++) {
+            final int digit = grid.getCell(cell).getDigit();
+            if (digit != 0) {
+                mask |= 0xF << (4 * cell);
+                digits |= digit << (4 * cell);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package spa.solvers;
+
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+
+/**
+ * Variable-ordering strategy of a backtracking solver: chooses the empty
+ * cell to branch on next.
+ * Common strategies are the constants of {@link CellOrders}.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public interface CellOrder {
+
+    /**
+     * Chooses the empty cell to branch on.
+     *
+     * @param grid the grid being solved
+     * @return an empty cell of the grid, or {@code null} if there is none
+     * @post {@code grid unchanged}
+     */
+    DigitCell select(SujikoGrid grid);
+}
@@ -0,0 +1,152 @@
+package spa.solvers;
+
+import java.util.List;
+import spa.model.CircleLayout;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+import spa.reasoning.Candidates;
+
+/**
+ * Standard variable-ordering strategies.
+ * Remaining ties are broken in row-major order.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public enum CellOrders implements CellOrder {
+
+    /** The first empty cell in row-major order. */
+    FIRST_EMPTY {
+        @Override
+        public DigitCell select(final SujikoGrid grid) {
+            return firstEmpty(grid);
+        }
+    },
+
+    /**
+     * Minimum remaining values: the empty cell with the fewest
+     * {@link Candidates}, so that dead ends are found as early as possible.
+     * Ties are broken as by {@link #MOST_CIRCLES}.
+     */
+    MINIMUM_REMAINING_VALUES {
+        @Override
+        public DigitCell select(final SujikoGrid grid) {
+            return fewestCandidates(grid);
+        }
+    },
+
+    /**
+     * The empty cell in the most circles; among those, the one whose
+     * circles have the most filled cells.
+     */
+    MOST_CIRCLES {
+        @Override
+        public DigitCell select(final SujikoGrid grid) {
+            return mostCircles(grid);
+        }
+    },
+
+    /**
+     * The centre cell, which is in all four circles, if it is empty;
+     * otherwise the first empty cell.
+     */
+    CENTRE_FIRST {
+        @Override
+        public DigitCell select(final SujikoGrid grid) {
+            final List<List<DigitCell>> rows = grid.getCells();
+            final List<DigitCell> middle = rows.get(rows.size() / 2);
+            final DigitCell centre = middle.get(middle.size() / 2);
+            return centre.isEmpty() ? centre : firstEmpty(grid);
+        }
+    };
+
+    /**
+     * Finds the first empty cell in row-major order.
+     *
+     * @param grid the grid
+     * @return the first empty cell, or {@code null} if there is none
+     */
+    static DigitCell firstEmpty(final SujikoGrid grid) {
+        for (List<DigitCell> row : grid.getCells()) {
+            for (DigitCell cell : row) {
+                if (cell.isEmpty()) {
+                    return cell;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the empty cell with the fewest candidates, preferring
+     * the best {@link #score} among those.
+     *
+     * @param grid the grid
+     * @return the cell, or {@code null} if there is no empty cell
+     */
+    private static DigitCell fewestCandidates(final SujikoGrid grid) {
+        final int[] candidates = Candidates.all(grid);
+        DigitCell best = null;
+        int bestCount = Integer.MAX_VALUE;
+        int bestScore = 0;
+        for (int index = 0; index < candidates.length; index++) {
+            final DigitCell cell = grid.getCell(index);
+            final int count = Integer.bitCount(candidates[index]);
+            if (cell.isEmpty() && count <= bestCount) {
+                final int score = score(grid, cell);
+                if (count < bestCount || score > bestScore) {
+                    best = cell;
+                    bestCount = count;
+                    bestScore = score;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the empty cell in the most circles, preferring circles
+     * with more filled cells.
+     *
+     * @param grid the grid
+     * @return the cell, or {@code null} if there is no empty cell
+     */
+    private static DigitCell mostCircles(final SujikoGrid grid) {
+        DigitCell best = null;
+        int bestScore = -1;
+        for (List<DigitCell> row : grid.getCells()) {
+            for (DigitCell cell : row) {
+                if (cell.isEmpty()) {
+                    final int score = score(grid, cell);
+                    if (score > bestScore) {
+                        best = cell;
+                        bestScore = score;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Scores a cell by the number of circles through it and, second,
+     * the number of filled cells in those circles.
+     *
+     * @param grid the grid
+     * @param cell the cell
+     * @return the score, higher is better
+     */
+    private static int score(final SujikoGrid grid, final DigitCell cell) {
+        final CircleLayout layout = grid.getLayout();
+        final int[] circles = cell.getCircles();
+        int filled = 0;
+        for (int circle : circles) {
+            for (int other : layout.getCircleCells(circle)) {
+                if (!grid.getCell(other).isEmpty()) {
+                    filled++;
+                }
+            }
+        }
+        // filled < cells * circles, so the number of circles comes first
+        return circles.length * layout.getCellCount() * (layout.getCircleCount() + 1) + filled;
+    }
+}
@@ -1,10 +1,9 @@
 
 package spa.solvers;
 
-import java.util.ArrayList;
 import java.util.List;
+import spa.model.CircleLayout;
 import spa.model.DigitCell;
-import spa.model.Location;
 import spa.model.SujikoGrid;
 import spa.model.SumCell;
 import spa.reasoning.Reasoner;
@@ -26,6 +25,20 @@ public class ConcreteSujikoSolver extends BacktrackSolverTemplate {
     public ConcreteSujikoSolver(SujikoGrid grid, Reasoner reasoner) {
         super(grid, reasoner);
     }
+
+    /**
+     * Constructs a ConcreteSujikoSolver with the given SujikoGrid, Reasoner
+     * and ordering strategies.
+     *
+     * @param grid       The SujikoGrid to be solved.
+     * @param reasoner   The reasoner to be used for solving.
+     * @param cellOrder  Chooses the cell to branch on.
+     * @param digitOrder Chooses the order of the digits tried.
+     */
+    public ConcreteSujikoSolver(SujikoGrid grid, Reasoner reasoner,
+            CellOrder cellOrder, DigitOrder digitOrder) {
+        super(grid, reasoner, cellOrder, digitOrder);
+    }
     
     /**
      * Checks if placing a digit in the specified cell is a valid move.
@@ -36,27 +49,32 @@ public class ConcreteSujikoSolver extends BacktrackSolverTemplate {
     @Override
     protected boolean isValidMove(DigitCell cell) {
         if (!isUniqueInGrid(cell)) {
+            if (statistics != null) {
+                statistics.duplicate(1);
+            }
+            return false;
+        }
+        if (!satisfiesCircles(cell)) {
+            if (statistics != null) {
+                statistics.circle(1);
+            }
             return false;
         }
-        return satisfiesCircles(cell);
+        return true;
     }
     
     /**
      * Checks if the Sujiko puzzle is solved.
+     * The sum of each circle is the running count of the grid,
+     * so the check takes constant time per circle.
      *
      * @return true if the puzzle is solved, false otherwise.
      */
     @Override
     protected boolean isSolved() {
-        for (SumCell sumCell : this.grid.getSumCells()) {
-            int sumForCell = 0;
-            List<Location> locations = sumCell.getLocations();
-            for (Location location : locations) {
-                DigitCell cell = grid.getCell(location);
-                int digit = cell.getDigit();
-                sumForCell += digit;
-            }
-            if (sumForCell != sumCell.getSum()) {
+        final List<SumCell> sumCells = grid.getSumCells();
+        for (int circle = 0; circle < sumCells.size(); circle++) {
+            if (grid.getCircleSum(circle) != sumCells.get(circle).getSum()) {
                 return false;
             }
         }
@@ -65,36 +83,33 @@ public class ConcreteSujikoSolver extends BacktrackSolverTemplate {
      
     /**
      * Checks if placing a digit in the specified cell makes it unique in the grid.
+     * The number of cells holding the digit is the running count of the grid,
+     * so the check takes constant time.
      *
-     * @param cell The DigitCell to be checked.
+     * @param cell The DigitCell of the grid to be checked.
      * @return true if the digit is unique in the grid, false otherwise.
      */
     protected boolean isUniqueInGrid(DigitCell cell) {
-        int digit = cell.getDigit();
-        for (List<DigitCell> row : grid.getCells()) {
-            for (DigitCell matrixCell : row) {
-                if (matrixCell.getLocation() != cell.getLocation() 
-                        && matrixCell.getDigit() == digit) {
-                    return false; 
-                }
-            }
-        }
-        return true;
+        return grid.getDigitCount(cell.getDigit()) <= 1;
     }
     
     /**
      * Checks if placing a digit in the specified cell satisfies the circles condition.
+     * The circles through the cell are taken from the bitmask of the layout
+     * of the grid, so the check allocates nothing.
      *
      * @param cell The DigitCell to be checked.
      * @return true if the circles condition is satisfied, false otherwise.
      */
     protected boolean satisfiesCircles(DigitCell cell) {
-        ArrayList<Integer> groupsCell = cell.determineGroup();
-        for (SumCell sumCell : grid.getSumCells()) { 
-            if (groupsCell.contains(sumCell.getGroup())) {
-                if (!sumCell.canAchieveSum(cell.getDigit(), grid)) {
-                    return false;
-                }
+        final CircleLayout layout = grid.getLayout();
+        final List<SumCell> sumCells = grid.getSumCells();
+        long circles = layout.getCellCircleMask(layout.index(cell.getLocation()));
+        while (circles != 0) {
+            final int circle = Long.numberOfTrailingZeros(circles);
+            circles &= circles - 1;
+            if (!sumCells.get(circle).canAchieveSum(grid)) {
+                return false;
             }
         }
         return true;
@@ -0,0 +1,28 @@
+package spa.solvers;
+
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+
+/**
+ * Value-ordering strategy of a backtracking solver: chooses the order
+ * in which the digits are tried in an empty cell.
+ * Common strategies are the constants of {@link DigitOrders}.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public interface DigitOrder {
+
+    /**
+     * Orders the digits to try in an empty cell.
+     *
+     * @param grid the grid being solved
+     * @param cell the empty cell
+     * @return digits of 1..maxDigit of the grid's layout, each at most once,
+     *     in the order to try them; possibly not all digits, or none, but
+     *     including every digit that can still lead to a solution, so
+     *     callers must not rely on getting all digits;
+     *     the caller does not modify the array
+     * @post {@code grid unchanged}
+     */
+    int[] digits(SujikoGrid grid, DigitCell cell);
+}
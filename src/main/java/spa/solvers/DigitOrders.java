@@ -0,0 +1,100 @@
+package spa.solvers;
+
+import spa.model.CircleLayout;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+import spa.reasoning.Candidates;
+
+/**
+ * Standard value-ordering strategies.
+ * {@link #ASCENDING} and {@link #DESCENDING} try all digits; the other
+ * strategies try only the {@link Candidates} of the cell, since no other
+ * digit can complete the grid.  So the order only affects how soon a
+ * solution is found, never whether it is found.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public enum DigitOrders implements DigitOrder {
+
+    /** Digits 1 up to the largest digit. */
+    ASCENDING {
+        @Override
+        public int[] digits(final SujikoGrid grid, final DigitCell cell) {
+            return UP[grid.getLayout().getMaxDigit()];
+        }
+    },
+
+    /** Digits from the largest digit down to 1. */
+    DESCENDING {
+        @Override
+        public int[] digits(final SujikoGrid grid, final DigitCell cell) {
+            return DOWN[grid.getLayout().getMaxDigit()];
+        }
+    },
+
+    /** The {@link Candidates} of the cell, ascending. */
+    CANDIDATES_FIRST {
+        @Override
+        public int[] digits(final SujikoGrid grid, final DigitCell cell) {
+            return order(Candidates.of(grid, cell), new int[grid.getLayout().getMaxDigit() + 1]);
+        }
+    },
+
+    /**
+     * Least constraining value: the candidates of the cell, those that are
+     * candidates of the fewest other empty cells first.
+     */
+    LEAST_CONSTRAINING {
+        @Override
+        public int[] digits(final SujikoGrid grid, final DigitCell cell) {
+            final int[] candidates = Candidates.all(grid);
+            final int self = grid.getLayout().index(cell.getLocation());
+            final int[] peers = new int[grid.getLayout().getMaxDigit() + 1];
+            for (int i = 0; i < candidates.length; i++) {
+                for (int rest = i == self ? 0 : candidates[i]; rest != 0; rest &= rest - 1) {
+                    peers[Integer.numberOfTrailingZeros(rest) + 1]++;
+                }
+            }
+            return order(candidates[self], peers);
+        }
+    };
+
+    /** Digits 1..m in ascending order, indexed by m. */
+    private static final int[][] UP = new int[CircleLayout.MAX_DIGIT_LIMIT + 1][];
+
+    /** Digits 1..m in descending order, indexed by m. */
+    private static final int[][] DOWN = new int[CircleLayout.MAX_DIGIT_LIMIT + 1][];
+
+    static {
+        for (int max = 0; max <= CircleLayout.MAX_DIGIT_LIMIT; max++) {
+            UP[max] = new int[max];
+            DOWN[max] = new int[max];
+            for (int i = 0; i < max; i++) {
+                UP[max][i] = i + 1;
+                DOWN[max][i] = max - i;
+            }
+        }
+    }
+
+    /**
+     * Orders the candidate digits by increasing rank.  Equal ranks keep
+     * ascending order.
+     *
+     * @param candidates the digits to try, as bitmask
+     * @param rank the rank of each digit, indexed by digit
+     * @return the digits in order
+     */
+    private static int[] order(final int candidates, final int[] rank) {
+        final int[] result = new int[Integer.bitCount(candidates)];
+        int size = 0;
+        for (int rest = candidates; rest != 0; rest &= rest - 1) {
+            final int digit = Integer.numberOfTrailingZeros(rest) + 1;
+            int i = size++;
+            for (; i > 0 && rank[result[i - 1]] > rank[digit]; i--) {
+                result[i] = result[i - 1];
+            }
+            result[i] = digit;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,23 @@
+package spa.solvers;
+
+/**
+ * Outcome of running a step-limited search with
+ * {@link BacktrackSolverTemplate#solve(long)}.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public enum SearchStatus {
+
+    /**
+     * The step limit was reached or a pause was requested;
+     * the grid holds the partial assignment of the search,
+     * which can be resumed or abandoned.
+     */
+    PAUSED,
+
+    /** A solution was found; the grid holds it. */
+    SOLVED,
+
+    /** The search is exhausted without a solution; the grid is unchanged. */
+    UNSOLVABLE
+}
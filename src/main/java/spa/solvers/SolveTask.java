@@ -0,0 +1,242 @@
+package spa.solvers;
+
+import spa.cache.SolveCache;
+import spa.command.CompoundCommand;
+import spa.command.SetCommand;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+import spa.reasoning.CompoundReasoner;
+
+/**
+ * A search for a solution that runs on a copy of a grid, so that it can
+ * run on a background thread while the grid itself stays with its owner
+ * (for instance, the Swing event dispatch thread).
+ * <p>
+ * {@link #run()} searches in slices of {@link #SLICE} nodes; between
+ * slices the progress is published for {@link #getNodes()} and
+ * {@link #getElapsedNanos()}, which may be called from any thread.
+ * {@link #cancel()}, also from any thread, pauses the search before its
+ * next node and makes {@link #run()} give up.  Once the search is over,
+ * the owner of the grid applies the solution with {@link #getChanges()}.
+ * With a {@link SolveCache}, a puzzle found in the cache is not searched,
+ * and the result of a search that was not cancelled is stored in it.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public class SolveTask {
+
+    /** Number of nodes searched between publications of the progress. */
+    public static final long SLICE = 10_000;
+
+    /** The grid to solve, not modified. */
+    private final SujikoGrid grid;
+
+    /** The copy of the grid searched. */
+    private final SujikoGrid copy;
+
+    /** The solver of the copy. */
+    private final BacktrackSolverTemplate solver;
+
+    /** The cache of solve results; null if none. */
+    private final SolveCache cache;
+
+    /** Whether {@link #run()} found the puzzle in the cache. */
+    private volatile boolean hit;
+
+    /** Whether {@link #cancel()} was called. */
+    private volatile boolean cancelled;
+
+    /** Nodes visited so far, published between slices. */
+    private volatile long nodes;
+
+    /** {@link System#nanoTime()} at the start of {@link #run()}; 0 before. */
+    private volatile long start;
+
+    /** Duration of {@link #run()} once it returned; 0 before. */
+    private volatile long elapsed;
+
+    /** Outcome of {@link #run()}; null before it returned. */
+    private volatile SearchStatus status;
+
+    /**
+     * Constructs a task solving a grid with the standard reasoner,
+     * most-constrained cells first and candidate digits first.
+     *
+     * @param grid the grid to solve
+     */
+    public SolveTask(final SujikoGrid grid) {
+        this(grid, null);
+    }
+
+    /**
+     * Constructs a task solving a grid as {@link #SolveTask(SujikoGrid)},
+     * looking it up in a cache first.
+     *
+     * @param grid the grid to solve
+     * @param cache the cache, possibly shared; null for none
+     */
+    public SolveTask(final SujikoGrid grid, final SolveCache cache) {
+        this.grid = grid;
+        this.cache = cache;
+        this.copy = grid.copy();
+        this.solver = new ConcreteSujikoSolver(copy, CompoundReasoner.standard(copy),
+                CellOrders.MINIMUM_REMAINING_VALUES, DigitOrders.CANDIDATES_FIRST);
+        solver.enableStatistics();
+    }
+
+    /**
+     * Runs the search on the calling thread until it ends or is cancelled.
+     *
+     * @return {@link SearchStatus#SOLVED} or {@link SearchStatus#UNSOLVABLE}
+     *     if the search ended, {@link SearchStatus#PAUSED} if it was cancelled
+     * @throws IllegalStateException  if the task has already run
+     */
+    public SearchStatus run() {
+        if (start != 0) {
+            throw new IllegalStateException(this.getClass().getSimpleName()
+                    + ".run().pre failed: already run");
+        }
+        start = System.nanoTime();
+        final SolveCache.Lookup lookup = cache == null ? null : cache.lookUp(copy);
+        hit = lookup != null && lookup.isHit();
+        final SearchStatus result = hit ? apply(lookup) : search();
+        elapsed = System.nanoTime() - start;
+        if (lookup != null && !hit && result != SearchStatus.PAUSED) {
+            lookup.put(result == SearchStatus.SOLVED ? copy : null, nodes, elapsed);
+        }
+        status = result;
+        return result;
+    }
+
+    /**
+     * Searches in slices until the search ends or is cancelled.
+     *
+     * @return the outcome of the search
+     */
+    private SearchStatus search() {
+        SearchStatus result = SearchStatus.PAUSED;
+        while (result == SearchStatus.PAUSED && !cancelled) {
+            result = solver.solve(SLICE);
+            nodes = solver.getNodes();
+        }
+        if (result == SearchStatus.PAUSED) {
+            solver.abandon();
+        }
+        return result;
+    }
+
+    /**
+     * Puts a cached solution in the copy.
+     *
+     * @param lookup the lookup of the puzzle, a hit
+     * @return the outcome of the search that computed the entry
+     */
+    private SearchStatus apply(final SolveCache.Lookup lookup) {
+        if (!lookup.getEntry().isSolvable()) {
+            return SearchStatus.UNSOLVABLE;
+        }
+        for (int index = 0; index < copy.getLayout().getCellCount(); index++) {
+            copy.getCell(index).setDigit(lookup.getDigit(index));
+        }
+        return SearchStatus.SOLVED;
+    }
+
+    /**
+     * Requests the search to stop before its next node.
+     * May be called from any thread, also before {@link #run()}.
+     */
+    public void cancel() {
+        cancelled = true;
+        solver.pause();
+    }
+
+    /**
+     * Determines whether {@link #cancel()} was called.
+     *
+     * @return whether the task was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Determines whether {@link #run()} found the puzzle in the cache, in
+     * which case no nodes were visited.
+     *
+     * @return whether the cache was hit
+     */
+    public boolean isHit() {
+        return hit;
+    }
+
+    /**
+     * Gets the number of nodes visited, as published at the end of the
+     * last slice.
+     *
+     * @return the number of nodes
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the time spent searching.
+     *
+     * @return the duration of {@link #run()} in nanoseconds so far, or in
+     *     total once it returned; 0 if it has not started
+     */
+    public long getElapsedNanos() {
+        final long begin = start;
+        if (begin == 0) {
+            return 0;
+        }
+        final long total = elapsed;
+        return total != 0 ? total : System.nanoTime() - begin;
+    }
+
+    /**
+     * Gets the statistics of the search; to be read after {@link #run()}.
+     *
+     * @return the statistics
+     */
+    public SolverStatistics getStatistics() {
+        return solver.getStatistics();
+    }
+
+    /**
+     * Gets the commands that put the solution found in the grid.
+     * The commands are not executed.
+     *
+     * @return one set command per empty cell of the grid, as a single
+     *     compound command
+     * @throws IllegalStateException  if no solution was found
+     */
+    public CompoundCommand getChanges() {
+        if (status != SearchStatus.SOLVED) {
+            throw new IllegalStateException(this.getClass().getSimpleName()
+                    + ".getChanges().pre failed: status " + status);
+        }
+        return changes(grid, copy);
+    }
+
+    /**
+     * Computes the commands that make the digits of a grid equal to those
+     * of a copy of it.  The commands are not executed.
+     *
+     * @param grid the grid
+     * @param copy the copy, with the same layout
+     * @return one set command per cell whose digit differs, as a single
+     *     compound command
+     */
+    public static CompoundCommand changes(final SujikoGrid grid, final SujikoGrid copy) {
+        final CompoundCommand changes = new CompoundCommand();
+        for (int index = 0; index < grid.getLayout().getCellCount(); index++) {
+            final DigitCell cell = grid.getCell(index);
+            final int digit = copy.getCell(index).getDigit();
+            if (cell.getDigit() != digit) {
+                changes.add(new SetCommand(cell, digit));
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,223 @@
+package spa.solvers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counters describing the work done by a solver.
+ * A solver only records statistics after
+ * {@link AbstractSolver#enableStatistics()}; until then it holds no
+ * statistics object and pays a single null check per search node.
+ * <p>
+ * The counters accumulate over all calls of {@link AbstractSolver#solve()}
+ * and {@link AbstractSolver#countSolutions(int)} until {@link #reset()}.
+ * The digits considered for the cell a node branches on count as tried,
+ * and those rejected because they already occur in the grid or because a
+ * circle through the cell excludes them count as pruned; a solver that
+ * excludes digits before placing them counts them at the node, so the
+ * counters of different solvers count the same events.
+ * Times are measured on the thread running the solver.  The CPU time is
+ * only measured if the virtual machine already measures thread CPU time;
+ * recording statistics does not change that setting.
+ *
+ * @author Andra, Rares, Dimitrie, Mihnea
+ */
+public class SolverStatistics {
+
+    /** Names of the columns written by {@link #toColumns()}. */
+    public static final String COLUMNS =
+            "nodes\ttried\tduplicate\tcircle\treasoner\tdepth\twall_us\tcpu_us";
+
+    /** Thread management, for CPU time; null if not supported. */
+    private static final ThreadMXBean THREADS = threads();
+
+    /** Number of search nodes visited. */
+    private long nodes;
+
+    /** Number of digits considered for empty cells, including the rejected ones. */
+    private long digitsTried;
+
+    /** Number of digits rejected because they already occur in the grid. */
+    private long duplicatePrunes;
+
+    /** Number of digits rejected because a circle could no longer be completed. */
+    private long circlePrunes;
+
+    /** Number of nodes where the reasoner found a contradiction. */
+    private long reasonerPrunes;
+
+    /** Largest search depth reached; the root is at depth 0. */
+    private int maxDepth;
+
+    /** Wall-clock time spent, in nanoseconds. */
+    private long wallNanos;
+
+    /** CPU time spent, in nanoseconds. */
+    private long cpuNanos;
+
+    /** Wall-clock time at {@link #start()}. */
+    private long wallStart;
+
+    /** CPU time at {@link #start()}. */
+    private long cpuStart;
+
+    /**
+     * Gets the thread management bean, if it can measure CPU time.
+     *
+     * @return the bean, or {@code null} if thread CPU time is not supported
+     */
+    private static ThreadMXBean threads() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean.isCurrentThreadCpuTimeSupported() ? bean : null;
+    }
+
+    /**
+     * Gets the CPU time of the current thread, if the virtual machine
+     * measures it.
+     *
+     * @return CPU time in nanoseconds, -1 if not supported or not enabled
+     */
+    private static long cpuTime() {
+        if (THREADS == null || !THREADS.isThreadCpuTimeEnabled()) {
+            return -1L;
+        }
+        return THREADS.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * Starts timing a call of the solver.
+     */
+    void start() {
+        wallStart = System.nanoTime();
+        cpuStart = cpuTime();
+    }
+
+    /**
+     * Stops timing a call of the solver, adding the time since {@link #start()}.
+     */
+    void stop() {
+        wallNanos += System.nanoTime() - wallStart;
+        final long cpuEnd = cpuTime();
+        if (cpuStart >= 0 && cpuEnd >= 0) {
+            cpuNanos += cpuEnd - cpuStart;
+        }
+    }
+
+    /**
+     * Records a visited search node.
+     *
+     * @param depth the depth of the node
+     */
+    void node(final int depth) {
+        nodes++;
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    /**
+     * Records digits considered for an empty cell.
+     *
+     * @param count the number of digits
+     */
+    void tried(final int count) {
+        digitsTried += count;
+    }
+
+    /**
+     * Records digits rejected because they already occur in the grid.
+     *
+     * @param count the number of digits
+     */
+    void duplicate(final int count) {
+        duplicatePrunes += count;
+    }
+
+    /**
+     * Records digits rejected because a circle could no longer be completed.
+     *
+     * @param count the number of digits
+     */
+    void circle(final int count) {
+        circlePrunes += count;
+    }
+
+    /**
+     * Records a contradiction found by the reasoner.
+     */
+    void contradiction() {
+        reasonerPrunes++;
+    }
+
+    /**
+     * Sets all counters and times back to 0.
+     */
+    public void reset() {
+        nodes = 0;
+        digitsTried = 0;
+        duplicatePrunes = 0;
+        circlePrunes = 0;
+        reasonerPrunes = 0;
+        maxDepth = 0;
+        wallNanos = 0;
+        cpuNanos = 0;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getDigitsTried() {
+        return digitsTried;
+    }
+
+    public long getDuplicatePrunes() {
+        return duplicatePrunes;
+    }
+
+    public long getCirclePrunes() {
+        return circlePrunes;
+    }
+
+    public long getReasonerPrunes() {
+        return reasonerPrunes;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Gets the CPU time spent.
+     *
+     * @return CPU time in nanoseconds, 0 if the platform cannot measure it
+     *     or does not measure it
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * Formats the counters as tab-separated columns, in the order of
+     * {@link #COLUMNS}, with times in microseconds.
+     *
+     * @return the counters as columns
+     */
+    public String toColumns() {
+        return nodes + "\t" + digitsTried + "\t" + duplicatePrunes + "\t" + circlePrunes
+                + "\t" + reasonerPrunes + "\t" + maxDepth
+                + "\t" + wallNanos / 1000 + "\t" + cpuNanos / 1000;
+    }
+
+    @Override
+    public String toString() {
+        return "nodes " + nodes + ", digits tried " + digitsTried
+                + ", pruned " + duplicatePrunes + " duplicate / " + circlePrunes + " circle / "
+                + reasonerPrunes + " reasoner, max depth " + maxDepth
+                + ", wall " + wallNanos / 1000 + " us, CPU " + cpuNanos / 1000 + " us";
+    }
+}
@@ -0,0 +1,89 @@
+package spa.batch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.catalogue.SumCatalogue;
+import spa.model.SujikoGrid;
+import spa.solvers.AbstractSolver;
+import spa.solvers.CatalogueSolver;
+import spa.solvers.CellOrders;
+import spa.solvers.DigitOrders;
+
+/**
+ * Test cases for {@link BatchOptions}.
+ *
+ */
+public class BatchOptionsTest {
+
+    /** Temporary directory for the catalogue index. */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test of parse method, of class BatchOptions, with valid options.
+     */
+    @Test
+    public void testParse() {
+        System.out.println("parse");
+        final BatchOptions options = BatchOptions.parse(new String[] {
+            "-t", "2", "-s", "bitboard", "-c", "most_circles", "-d", "DESCENDING", "-S",
+            "-o", "out.txt", "puzzles", "more/*.zgr"});
+        assertAll(
+                () -> assertEquals(2, options.threads, "threads"),
+                () -> assertEquals("bitboard", options.solver, "solver"),
+                () -> assertEquals(CellOrders.MOST_CIRCLES, options.cellOrder, "cell order"),
+                () -> assertEquals(DigitOrders.DESCENDING, options.digitOrder, "digit order"),
+                () -> assertTrue(options.statistics, "statistics"),
+                () -> assertEquals("out.txt", options.output, "output"),
+                () -> assertNull(options.cacheFile, "no cache"),
+                () -> assertEquals(2, options.arguments.size(), "puzzles"),
+                () -> assertNotNull(options.factory(), "factory")
+        );
+    }
+
+    /**
+     * Test of parse method, of class BatchOptions, with missing and invalid
+     * values: all are reported as IllegalArgumentException.
+     */
+    @Test
+    public void testInvalid() {
+        System.out.println("parse invalid");
+        final String[][] invalid = {
+            {}, {"-t"}, {"-t", "x", "puzzles"}, {"-t", "0", "puzzles"},
+            {"-s", "bitbord", "puzzles"}, {"-c", "foo", "puzzles"}, {"puzzles", "-d"},
+            {"-o"}, {"-C"}, {"-K"}, {"-K", "catalogue.idx", "puzzles"}
+        };
+        for (String[] args : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse(args),
+                    String.join(" ", args));
+        }
+    }
+
+    /**
+     * Test of factory method, of class BatchOptions, for the catalogue
+     * solver with a binary index.
+     *
+     * @throws IOException  if the index cannot be written or read
+     */
+    @Test
+    public void testCatalogueIndex() throws IOException {
+        System.out.println("catalogue index");
+        final Path index = directory.resolve("catalogue.idx");
+        SumCatalogue.classic().write(index);
+        final BatchOptions options = BatchOptions.parse(new String[] {
+            "-s", "catalogue", "-K", index.toString(), "puzzles"});
+        final SujikoGrid grid = SujikoGrid.read(new Scanner("0 4 0\n0 0 2\n3 0 0\n18 18 19 26"));
+        final AbstractSolver solver = options.factory().apply(grid, null);
+        assertAll(
+                () -> assertTrue(solver instanceof CatalogueSolver, "catalogue solver"),
+                () -> assertTrue(solver.solve(), "solved"),
+                () -> assertEquals("6 4 5 \n1 7 2 \n3 8 9 \n18 18 19 26 \n", grid.toString(),
+                        "solution")
+        );
+    }
+}
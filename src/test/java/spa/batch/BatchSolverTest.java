@@ -0,0 +1,104 @@
+package spa.batch;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.solvers.BitboardSujikoSolver;
+import spa.solvers.ConcreteSujikoSolver;
+import spa.solvers.SolverStatistics;
+
+/**
+ * Test cases for {@link BatchSolver}.
+ *
+ */
+public class BatchSolverTest {
+
+    /** Directory holding the puzzle files. */
+    @TempDir
+    Path directory;
+
+    /**
+     * Writes the test puzzles into {@link #directory}.
+     *
+     * @throws IOException  if a file cannot be written
+     */
+    private void writePuzzles() throws IOException {
+        Files.writeString(directory.resolve("a.zgr"), "0 4 0\n0 0 2\n3 0 0\n18 18 19 26");
+        Files.writeString(directory.resolve("b.zgr"), "1 0 0\n0 0 0\n0 0 0\n10 10 10 10");
+        Files.writeString(directory.resolve("c.zgr"), "not a puzzle");
+        Files.writeString(directory.resolve("notes.txt"), "ignored");
+    }
+
+    /**
+     * Test of solveAll method, of class BatchSolver.
+     *
+     * @throws IOException  if a file cannot be written
+     */
+    @Test
+    public void testSolveAll() throws IOException {
+        System.out.println("solveAll");
+        writePuzzles();
+        final List<Path> files = BatchSolver.expand(Arrays.asList(directory.toString()));
+        final StringWriter out = new StringWriter();
+        final int solved = new BatchSolver(ConcreteSujikoSolver::new, 4).solveAll(files, out);
+        final List<String> lines = Arrays.asList(out.toString().split("\\R"));
+        assertAll(
+                () -> assertEquals(3, files.size(), "files"),
+                () -> assertEquals(1, solved, "solved"),
+                () -> assertEquals(3, lines.size(), "lines"),
+                () -> assertTrue(lines.stream().anyMatch(
+                        line -> line.startsWith("a.zgr\tsolved\t645/172/389\t")), "a.zgr"),
+                () -> assertTrue(lines.stream().anyMatch(
+                        line -> line.startsWith("b.zgr\tunsolvable\t-\t")), "b.zgr"),
+                () -> assertTrue(lines.stream().anyMatch(
+                        line -> line.startsWith("c.zgr\terror\t")), "c.zgr")
+        );
+    }
+
+    /**
+     * Test of expand method, of class BatchSolver, with a glob.
+     *
+     * @throws IOException  if a file cannot be written
+     */
+    @Test
+    public void testExpandGlob() throws IOException {
+        System.out.println("expand glob");
+        writePuzzles();
+        final List<Path> files = BatchSolver.expand(
+                Arrays.asList(directory.toString() + "/[ab].zgr"));
+        final StringWriter out = new StringWriter();
+        final int solved = new BatchSolver(BitboardSujikoSolver::new, 2).solveAll(files, out);
+        assertAll(
+                () -> assertEquals(Arrays.asList(directory.resolve("a.zgr"),
+                        directory.resolve("b.zgr")), files, "files"),
+                () -> assertEquals(1, solved, "solved")
+        );
+    }
+
+    /**
+     * Test of solveAll method, of class BatchSolver, with statistics.
+     *
+     * @throws IOException  if a file cannot be written
+     */
+    @Test
+    public void testSolveAllStatistics() throws IOException {
+        System.out.println("solveAll statistics");
+        writePuzzles();
+        final List<Path> files = Arrays.asList(directory.resolve("a.zgr"));
+        final StringWriter out = new StringWriter();
+        new BatchSolver(ConcreteSujikoSolver::new, 1, true).solveAll(files, out);
+        final String[] columns = out.toString().trim().split("\t");
+        assertAll(
+                () -> assertEquals(5 + SolverStatistics.COLUMNS.split("\t").length,
+                        columns.length, "columns"),
+                () -> assertEquals(columns[3], columns[5], "nodes")
+        );
+    }
+}
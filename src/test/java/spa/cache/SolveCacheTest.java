@@ -0,0 +1,126 @@
+package spa.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.model.Canonicalizer;
+import spa.model.SujikoGrid;
+
+/**
+ * Test cases for {@link SolveCache}.
+ *
+ */
+public class SolveCacheTest {
+
+    /** A classic puzzle. */
+    private static final String CLASSIC = "0 4 0\n0 0 2\n3 0 0\n18 18 19 26";
+
+    /** A 2 by 2 puzzle with its own circles. */
+    private static final String CIRCLES = "size 2 2 4\ncircle 0 0 0 1\ncircle 1 0 1 1\n"
+            + "0 0\n0 0\n3 7\n";
+
+    /** Temporary directory for saved caches. */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test of fingerprint, on the keys of the canonicalizer.
+     */
+    @Test
+    public void testFingerprint() {
+        System.out.println("cache fingerprint");
+        final int[] classic = key(SujikoGrid.read(new Scanner(CLASSIC)));
+        final int[] same = key(SujikoGrid.read(new Scanner(CLASSIC)));
+        final SujikoGrid entered = SujikoGrid.read(new Scanner(CLASSIC));
+        entered.getCell(0).setDigit(1);
+        final int[] circles = key(SujikoGrid.read(new Scanner(CIRCLES)));
+        final int[] blocks = key(SujikoGrid.read(new Scanner(
+                "size 2 2 4\n0 0\n0 0\n10\n")));
+        assertAll(
+                () -> assertEquals(SolveCache.fingerprint(classic),
+                        SolveCache.fingerprint(same), "equal fingerprints"),
+                () -> assertNotEquals(SolveCache.fingerprint(classic),
+                        SolveCache.fingerprint(key(entered)), "entered digit"),
+                () -> assertNotEquals(SolveCache.fingerprint(circles),
+                        SolveCache.fingerprint(blocks), "layouts")
+        );
+    }
+
+    /**
+     * Computes the key of a puzzle with the canonicalizer of its layout.
+     *
+     * @param grid the puzzle
+     * @return the key
+     */
+    private static int[] key(final SujikoGrid grid) {
+        return Canonicalizer.of(grid.getLayout()).key(grid);
+    }
+
+    /**
+     * Test of get, put and the counters, with eviction of the least
+     * recently used entry.
+     */
+    @Test
+    public void testLeastRecentlyUsed() {
+        System.out.println("cache least recently used");
+        final SolveCache cache = new SolveCache(2);
+        final int[] a = {1};
+        final int[] b = {2};
+        final int[] c = {3};
+        cache.put(a, new int[] {9}, 5, 50);
+        cache.put(b, null, 6, 60);
+        assertNotNull(cache.get(a), "a");
+        cache.put(c, new int[] {7}, 7, 70);
+        assertAll(
+                () -> assertNull(cache.get(b), "b evicted"),
+                () -> assertEquals(9, cache.get(a).getDigit(0), "a kept"),
+                () -> assertEquals(7, cache.get(c).getNodes(), "c"),
+                () -> assertEquals(1, cache.getEvictions(), "evictions"),
+                () -> assertEquals(2, cache.size(), "size"),
+                () -> assertThrows(IllegalArgumentException.class, () -> new SolveCache(0),
+                        "capacity")
+        );
+        assertAll(
+                () -> assertEquals(3, cache.getHits(), "hits"),
+                () -> assertEquals(1, cache.getMisses(), "misses"),
+                () -> assertNull(cache.get(new int[] {1, 0}), "other key")
+        );
+    }
+
+    /**
+     * Test of save, load and open.
+     *
+     * @throws IOException  if the cache cannot be saved or loaded
+     */
+    @Test
+    public void testSaveLoad() throws IOException {
+        System.out.println("cache save and load");
+        final Path file = directory.resolve("solves.bin");
+        final SolveCache cache = new SolveCache(10);
+        cache.put(new int[] {1, 2}, new int[] {3, 4}, 5, 6);
+        cache.put(new int[] {7}, null, 8, 9);
+        cache.get(new int[] {1, 2});
+        cache.save(file);
+        final SolveCache loaded = SolveCache.open(file, 1);
+        final SolveCache.Entry entry = loaded.get(new int[] {1, 2});
+        assertAll(
+                () -> assertEquals(1, loaded.size(), "most recent kept"),
+                () -> assertEquals(1, loaded.getEvictions(), "evictions"),
+                () -> assertEquals(4, entry.getDigit(1), "digit"),
+                () -> assertEquals(5, entry.getNodes(), "nodes"),
+                () -> assertEquals(6, entry.getNanos(), "nanos"),
+                () -> assertEquals(0, SolveCache.open(directory.resolve("none"), 1).size(),
+                        "missing file")
+        );
+        final SolveCache all = new SolveCache(10);
+        all.load(file);
+        assertFalse(all.get(new int[] {7}).isSolvable(), "unsolvable");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> all.load(file), "not a cache");
+    }
+}
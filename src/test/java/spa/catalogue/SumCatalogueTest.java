@@ -0,0 +1,79 @@
+package spa.catalogue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.model.SujikoGrid;
+
+/**
+ * Test cases for {@link SumCatalogue}.
+ *
+ */
+public class SumCatalogueTest {
+
+    /** Directory for the index file. */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that the catalogue holds every filling once, under its own key.
+     */
+    @Test
+    public void testBuild() {
+        System.out.println("build");
+        final SumCatalogue instance = SumCatalogue.classic();
+        int total = 0;
+        for (int key = 0; key < SumCatalogue.KEYS; key++) {
+            total += instance.size(key);
+        }
+        final int fillings = total;
+        final SujikoGrid grid = SujikoGrid.read(new Scanner("0 4 0\n0 0 2\n3 0 0\n18 18 19 26"));
+        final int key = SumCatalogue.key(grid.getSumCells());
+        final int filling = instance.filling(key, 0);
+        int sum = 0;
+        int used = 0;
+        for (int cell : new int[] {0, 1, 3, 4}) {
+            sum += SumCatalogue.digit(filling, cell);
+        }
+        for (int cell = 0; cell < 9; cell++) {
+            used |= 1 << SumCatalogue.digit(filling, cell);
+        }
+        final int first = sum;
+        final int digits = used;
+        assertAll(
+                () -> assertEquals(362_880, fillings, "9!"),
+                () -> assertEquals(63_517, instance.keyCount(), "keys"),
+                () -> assertEquals(64, instance.maxSize(), "largest key"),
+                () -> assertEquals(18, first, "first sum"),
+                () -> assertEquals(0x3FE, digits, "digits 1..9"),
+                () -> assertEquals(0, instance.size(-1), "no key")
+        );
+    }
+
+    /**
+     * Test that the binary index reads back as the catalogue.
+     *
+     * @throws IOException  if the file cannot be read or written
+     */
+    @Test
+    public void testWriteRead() throws IOException {
+        System.out.println("write and read");
+        final SumCatalogue instance = SumCatalogue.classic();
+        final Path file = directory.resolve("catalogue.bin");
+        instance.write(file);
+        final SumCatalogue result = SumCatalogue.read(file);
+        for (int key = 0; key < SumCatalogue.KEYS; key++) {
+            assertEquals(instance.size(key), result.size(key), "size");
+            for (int i = 0; i < instance.size(key); i++) {
+                assertEquals(instance.filling(key, i), result.filling(key, i), "filling");
+            }
+        }
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> SumCatalogue.read(file), "not a catalogue");
+    }
+}
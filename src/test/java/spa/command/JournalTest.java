@@ -0,0 +1,185 @@
+package spa.command;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.model.DigitCell;
+import spa.model.Location;
+import spa.model.SujikoGrid;
+
+/**
+ * Test cases for {@link Journal}.
+ *
+ */
+public class JournalTest {
+
+    /** Temporary directory for journals. */
+    @TempDir
+    Path directory;
+
+    /**
+     * Reads the puzzle used in the tests.
+     *
+     * @return the puzzle
+     */
+    private static SujikoGrid puzzle() {
+        return SujikoGrid.read(new Scanner("0 4 0\n0 0 2\n3 0 0\n18 18 19 26\n"));
+    }
+
+    /**
+     * Test of replaying a session of commands, undos, redos and a clear.
+     *
+     * @throws Exception  if the journal cannot be written or read
+     */
+    @Test
+    public void testReplay() throws Exception {
+        System.out.println("replay");
+        final Path file = directory.resolve("session.journal");
+        final SujikoGrid grid = puzzle();
+        final UndoRedo undoRedo = new UndoRedo();
+        try (Journal journal = Journal.open(file)) {
+            journal.begin(grid);
+            undoRedo.setJournal(journal);
+            undoRedo.did(new SetCommand(grid.getCell(0), 1));
+            undoRedo.clear();
+            undoRedo.did(new SetCommand(grid.getCell(2), 5));
+            final CompoundCommand compound = new CompoundCommand();
+            compound.add(new SetCommand(grid.getCell(3), 6));
+            compound.add(new SetCommand(grid.getCell(4), 7));
+            undoRedo.did(compound);
+            undoRedo.did(new SetCommand(grid.getCell(6), 8));
+            undoRedo.undo(true);
+            undoRedo.undo(true);
+            undoRedo.redo();
+            undoRedo.undo(false);
+            journal.flush();
+            assertTrue(journal.getCommits() >= 1, "committed");
+        }
+        final UndoRedo replayed = new UndoRedo();
+        final SujikoGrid recovered = Journal.replay(file, replayed);
+        assertAll(
+                () -> assertEquals(grid.toString(), recovered.toString(), "state"),
+                () -> assertTrue(replayed.canRedo(), "redo kept"),
+                () -> assertEquals(undoRedo.size(), replayed.size(), "size")
+        );
+        replayed.undo(true);
+        assertAll(
+                () -> assertEquals(0, recovered.getCell(2).getDigit(), "undo replayed"),
+                () -> assertEquals(1, recovered.getCell(0).getDigit(), "before clear"),
+                () -> assertFalse(replayed.canUndo(), "cleared")
+        );
+    }
+
+    /**
+     * Test of a journal cut short: replay and appending stop at the last
+     * complete record, and a new session discards the old one.
+     *
+     * @throws Exception  if the journal cannot be written or read
+     */
+    @Test
+    public void testTorn() throws Exception {
+        System.out.println("torn");
+        final Path file = directory.resolve("torn.journal");
+        final SujikoGrid grid = puzzle();
+        final UndoRedo undoRedo = new UndoRedo();
+        try (Journal journal = Journal.open(file)) {
+            journal.begin(grid);
+            undoRedo.setJournal(journal);
+            undoRedo.did(new SetCommand(grid.getCell(0), 1));
+            undoRedo.did(new SetCommand(grid.getCell(2), 5));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 2);
+        }
+        final SujikoGrid torn = Journal.replay(file, new UndoRedo());
+        try (Journal journal = Journal.open(file)) {
+            undoRedo.setJournal(journal);
+            undoRedo.did(new SetCommand(grid.getCell(4), 9));
+        }
+        final SujikoGrid appended = Journal.replay(file, new UndoRedo());
+        try (Journal journal = Journal.open(file)) {
+            journal.begin(puzzle());
+        }
+        final UndoRedo fresh = new UndoRedo();
+        final SujikoGrid restarted = Journal.replay(file, fresh);
+        try (Journal journal = Journal.open(file)) {
+            undoRedo.setJournal(journal);
+            undoRedo.did(new SetCommand(grid.getCell(5), 3));
+        }
+        final SujikoGrid stepped = Journal.replay(file, fresh);
+        assertAll(
+                () -> assertEquals(1, torn.getCell(0).getDigit(), "complete record"),
+                () -> assertEquals(0, torn.getCell(2).getDigit(), "torn record"),
+                () -> assertEquals(9, appended.getCell(4).getDigit(), "appended"),
+                () -> assertEquals(0, appended.getCell(2).getDigit(), "torn record dropped"),
+                () -> assertNull(restarted, "only the start of a session"),
+                () -> assertEquals(3, stepped.getCell(5).getDigit(), "new session"),
+                () -> assertEquals(1, fresh.size(), "history of new session"),
+                () -> assertNull(Journal.replay(directory.resolve("none"), new UndoRedo()),
+                        "no journal")
+        );
+    }
+
+    /**
+     * Test of a journal whose commands come before the start of a session:
+     * replay stops there, and a new session can still be started.
+     *
+     * @throws IOException  if the journal cannot be written or read
+     */
+    @Test
+    public void testHeadless() throws IOException {
+        System.out.println("headless");
+        final Path file = directory.resolve("headless.journal");
+        final ByteBuffer content = ByteBuffer.allocate(32).putInt(Journal.MAGIC)
+                .putInt(Journal.VERSION).put((byte) 'S').putInt(1 << 8 | 5)
+                .put((byte) 'C').putInt(1).putInt(2 << 8 | 3);
+        Files.write(file, Arrays.copyOf(content.array(), content.position()));
+        final UndoRedo undoRedo = new UndoRedo();
+        final SujikoGrid headless = Journal.replay(file, undoRedo);
+        final int history = undoRedo.size();
+        final SujikoGrid grid = puzzle();
+        try (Journal journal = Journal.open(file)) {
+            journal.begin(grid);
+            undoRedo.setJournal(journal);
+            undoRedo.did(new SetCommand(grid.getCell(0), 1));
+        }
+        final SujikoGrid begun = Journal.replay(file, new UndoRedo());
+        assertAll(
+                () -> assertNull(headless, "nothing to recover"),
+                () -> assertEquals(0, history, "no history"),
+                () -> assertEquals(1, begun.getCell(0).getDigit(), "new session")
+        );
+    }
+
+    /**
+     * Test of commands that cannot be recorded.
+     *
+     * @throws IOException  if the journal cannot be written
+     */
+    @Test
+    public void testInvalid() throws IOException {
+        System.out.println("invalid");
+        try (Journal journal = Journal.open(directory.resolve("invalid.journal"))) {
+            final SujikoGrid grid = puzzle();
+            journal.begin(grid);
+            final DigitCell loose = new DigitCell(new Location(0, 0), 0);
+            assertAll(
+                    () -> assertThrows(IllegalArgumentException.class,
+                            () -> journal.did(new SetCommand(loose, 1)), "cell not in grid"),
+                    () -> assertThrows(IllegalArgumentException.class,
+                            () -> journal.did(new GenericCommand<>(grid.getCell(0))),
+                            "other command")
+            );
+        }
+        assertTrue(Files.size(directory.resolve("invalid.journal")) > 0, "begun");
+    }
+}
@@ -4,8 +4,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.Scanner;
 import spa.model.DigitCell;
 import spa.model.Location;
+import spa.model.SujikoGrid;
 
 /**
  * Tests for class UndoRedo.
@@ -379,6 +381,119 @@ public class UndoRedoTest {
         assertEquals(expResult, trace.toString(), "Trace after redoAll");
     }
 
+    /**
+     * Creates an empty classic grid.
+     *
+     * @return the grid
+     */
+    private static SujikoGrid emptyGrid() {
+        return SujikoGrid.read(new Scanner("0 0 0\n0 0 0\n0 0 0\n10 10 10 10\n"));
+    }
+
+    /**
+     * Test of packed set-commands on the cells of a grid.
+     */
+    @Test
+    public void testPacked() {
+        System.out.println("packed set-commands");
+        final SujikoGrid grid = emptyGrid();
+        instance.did(new SetCommand(grid.getCell(4), 7));
+        instance.did(new SetCommand(grid.getCell(2), 3));
+        final Command last = instance.lastDone();
+        instance.undo(true);
+        final Command undone = instance.lastUndone();
+        final int undoneDigit = grid.getCell(2).getDigit();
+        instance.redo();
+        assertAll(
+                () -> assertTrue(last instanceof SetCommand && last.isExecuted(), "lastDone"),
+                () -> assertTrue(last.getCells().contains(grid.getCell(2)), "lastDone cell"),
+                () -> assertFalse(undone.isExecuted(), "lastUndone"),
+                () -> assertEquals(0, undoneDigit, "undone"),
+                () -> assertEquals(3, grid.getCell(2).getDigit(), "redone"),
+                () -> assertEquals(2, instance.size(), "size"),
+                () -> assertEquals(2 * UndoRedo.PACKED_BYTES, instance.getBytes(), "bytes")
+        );
+    }
+
+    /**
+     * Test of coalescing set-commands on the same cell.
+     */
+    @Test
+    public void testCoalescing() {
+        System.out.println("coalescing");
+        final SujikoGrid grid = emptyGrid();
+        instance.did(new SetCommand(grid.getCell(0), 1));
+        instance.did(new SetCommand(grid.getCell(4), 5));
+        instance.did(new SetCommand(grid.getCell(4), 6));
+        final int merged = instance.size();
+        instance.did(new SetCommand(grid.getCell(4), 0));
+        final int dropped = instance.size();
+        instance.did(new SetCommand(grid.getCell(8), 2));
+        instance.did(new SetCommand(grid.getCell(8), 9));
+        instance.undo(true);
+        assertAll(
+                () -> assertEquals(2, merged, "merged"),
+                () -> assertEquals(1, dropped, "no change"),
+                () -> assertEquals(0, grid.getCell(8).getDigit(), "undo both"),
+                () -> assertEquals(1, grid.getCell(0).getDigit(), "earlier cell")
+        );
+    }
+
+    /**
+     * Test of the bounds on the history.
+     */
+    @Test
+    public void testBounds() {
+        System.out.println("bounds");
+        final SujikoGrid grid = emptyGrid();
+        final SujikoGrid other = emptyGrid();
+        final UndoRedo entries = new UndoRedo(3, Long.MAX_VALUE, true);
+        final UndoRedo bytes = new UndoRedo(Integer.MAX_VALUE, 2 * UndoRedo.PACKED_BYTES, true);
+        for (int i = 0; i < 9; i++) {
+            entries.did(new SetCommand(grid.getCell(i), i + 1));
+            bytes.did(new SetCommand(other.getCell(i), 1));
+        }
+        entries.undoAll(true);
+        assertAll(
+                () -> assertEquals(3, entries.size(), "entries"),
+                () -> assertEquals(6, grid.getCell(5).getDigit(), "forgotten"),
+                () -> assertEquals(0, grid.getCell(6).getDigit(), "undone"),
+                () -> assertEquals(2, bytes.size(), "bytes"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new UndoRedo(0, 1, true), "no entries")
+        );
+    }
+
+    /**
+     * Test of jumping in a history of packed entries and command objects.
+     */
+    @Test
+    public void testJump() {
+        System.out.println("jump");
+        final SujikoGrid grid = emptyGrid();
+        instance.did(new SetCommand(grid.getCell(0), 1));
+        instance.did(new SetCommand(grid.getCell(1), 2));
+        instance.did(new TestCommand(grid.getCell(0), 3));
+        instance.did(new SetCommand(grid.getCell(0), 4));
+        instance.did(new SetCommand(grid.getCell(1), 5));
+        final String end = grid.toString();
+        instance.jump(1);
+        final String first = grid.toString();
+        final int bytes = (int) instance.getBytes();
+        instance.jump(4);
+        final int cell0 = grid.getCell(0).getDigit();
+        instance.redo();
+        assertAll(
+                () -> assertEquals("1 0 0 \n0 0 0 \n0 0 0 \n10 10 10 10 \n", first, "back"),
+                () -> assertEquals(4, cell0, "forward"),
+                () -> assertEquals(end, grid.toString(), "redo after jump"),
+                () -> assertEquals(5, instance.getPosition(), "position"),
+                () -> assertEquals(bytes, instance.getBytes(), "bytes kept"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> instance.jump(6), "beyond history")
+        );
+    }
+
     private class TestCommand extends SetCommand {
 
         public TestCommand(DigitCell digitCell, int no) {
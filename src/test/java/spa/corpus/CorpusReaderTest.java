@@ -0,0 +1,107 @@
+package spa.corpus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.generator.SujikoGenerator;
+import spa.model.CircleLayout;
+import spa.model.SujikoGrid;
+
+/**
+ * Test cases for {@link CorpusReader}, {@link CorpusWriter} and
+ * {@link ZgrConverter}.
+ *
+ */
+public class CorpusReaderTest {
+
+    /** Directory for the corpus files. */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that records read back as written, across buffer flushes.
+     *
+     * @throws IOException  if a file cannot be read or written
+     */
+    @Test
+    public void testWriteRead() throws IOException {
+        System.out.println("corpus write and read");
+        final Path file = directory.resolve("corpus.sjb");
+        final int count = 20_000;
+        try (CorpusWriter writer = new CorpusWriter(file)) {
+            for (long i = 0; i < count; i++) {
+                writer.add(i * 0x9E3779B97F4A7C15L);
+            }
+        }
+        try (CorpusReader reader = new CorpusReader(file)) {
+            assertEquals(count, reader.size(), "size");
+            for (long i = 0; i < count; i++) {
+                assertEquals(i * 0x9E3779B97F4A7C15L, reader.get(i), "record " + i);
+            }
+        }
+        assertEquals(CorpusWriter.HEADER_BYTES + 8L * count, Files.size(file), "file size");
+        try (CorpusWriter writer = new CorpusWriter(directory.resolve("empty.sjb"))) {
+            assertEquals(0, writer.getCount(), "nothing added");
+        }
+        try (CorpusReader reader = new CorpusReader(directory.resolve("empty.sjb"))) {
+            assertEquals(0, reader.size(), "empty");
+        }
+    }
+
+    /**
+     * Test that files that are not a complete corpus are rejected.
+     *
+     * @throws IOException  if a file cannot be written
+     */
+    @Test
+    public void testInvalid() throws IOException {
+        System.out.println("corpus invalid");
+        final Path file = directory.resolve("corpus.sjb");
+        try (CorpusWriter writer = new CorpusWriter(file)) {
+            writer.add(1L);
+            writer.add(2L);
+        }
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> new CorpusReader(file), "truncated");
+        Files.writeString(file, "0 4 0\n0 0 2\n3 0 0\n18 18 19 26");
+        assertThrows(IOException.class, () -> new CorpusReader(file), "text");
+    }
+
+    /**
+     * Test that converting .zgr files to a corpus and back keeps the puzzles.
+     *
+     * @throws IOException  if a file cannot be read or written
+     */
+    @Test
+    public void testConvert() throws IOException {
+        System.out.println("corpus convert");
+        final SujikoGenerator generator = new SujikoGenerator(CircleLayout.CLASSIC, 11);
+        final List<Path> files = new ArrayList<>();
+        final List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final String text = generator.generate().toString();
+            final Path file = directory.resolve("g" + i + ".zgr");
+            Files.writeString(file, text);
+            files.add(file);
+            texts.add(text);
+        }
+        final Path corpus = directory.resolve("corpus.sjb");
+        assertEquals(50, ZgrConverter.toBinary(files, corpus), "to binary");
+        final Path out = directory.resolve("out");
+        assertEquals(50, ZgrConverter.toZgr(corpus, out), "to zgr");
+        for (int i = 0; i < 50; i++) {
+            final Path file = out.resolve(String.format("puzzle_%09d.zgr", i + 1));
+            assertEquals(texts.get(i),
+                    SujikoGrid.read(new Scanner(Files.readString(file))).toString(), "puzzle");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package spa.corpus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.model.Canonicalizer;
+import spa.model.SujikoGrid;
+
+/**
+ * Test cases for {@link Deduplicator}.
+ *
+ */
+public class DeduplicatorTest {
+
+    /** Temporary directory for puzzle files. */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test of addAll on files holding images of one puzzle and another
+     * puzzle.
+     *
+     * @throws IOException  if a file cannot be written or read
+     */
+    @Test
+    public void testAddAll() throws IOException {
+        System.out.println("deduplicate");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner("0 4 0\n0 0 2\n3 0 0\n18 18 19 26"));
+        final Canonicalizer canonicalizer = Canonicalizer.of(grid.getLayout());
+        final StringBuilder images = new StringBuilder();
+        for (int s = 0; s < canonicalizer.getSymmetries().size(); s++) {
+            images.append(canonicalizer.transform(grid, s)).append('\n');
+        }
+        final Path first = directory.resolve("images.zgr");
+        final Path second = directory.resolve("other.zgr");
+        Files.write(first, images.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(second, "0 0 0\n0 5 0\n0 0 0\n20 20 20 20\n".getBytes(
+                StandardCharsets.UTF_8));
+        final Deduplicator deduplicator = new Deduplicator(true);
+        deduplicator.addAll(Arrays.asList(first, second, second));
+        assertAll(
+                () -> assertEquals(10, deduplicator.getCount(), "count"),
+                () -> assertEquals(2, deduplicator.getUnique(), "unique"),
+                () -> assertEquals(grid.toString(), deduplicator.getKept().get(0).toString(),
+                        "first image kept as given"),
+                () -> assertThrows(IllegalStateException.class,
+                        () -> new Deduplicator(false).getKept(), "not remembered")
+        );
+    }
+}
@@ -0,0 +1,55 @@
+package spa.corpus;
+
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.model.SujikoGrid;
+
+/**
+ * Test cases for {@link PuzzleRecord}.
+ *
+ */
+public class PuzzleRecordTest {
+
+    /**
+     * Test of encode, digit, sum and decode.
+     */
+    @Test
+    public void testEncodeDecode() {
+        System.out.println("encode and decode");
+        final String text = "0 4 0 \n0 0 2 \n3 0 0 \n18 18 19 26 \n";
+        final long record = PuzzleRecord.encode(SujikoGrid.read(new Scanner(text)));
+        final SujikoGrid grid = PuzzleRecord.decode(record);
+        final long largest = PuzzleRecord.encode(SujikoGrid.read(
+                new Scanner("9 9 9\n9 9 9\n9 9 9\n127 127 127 127")));
+        assertAll(
+                () -> assertEquals(4, PuzzleRecord.digit(record, 1), "digit"),
+                () -> assertEquals(0, PuzzleRecord.digit(record, 8), "empty"),
+                () -> assertEquals(26, PuzzleRecord.sum(record, 3), "sum"),
+                () -> assertEquals(text, grid.toString(), "decode"),
+                () -> assertTrue(grid.getCell(6).getBlocked(), "given"),
+                () -> assertEquals(127, PuzzleRecord.sum(largest, 3), "largest sum"),
+                () -> assertEquals(9, PuzzleRecord.digit(largest, 8), "last digit")
+        );
+    }
+
+    /**
+     * Test that puzzles that do not fit are rejected.
+     */
+    @Test
+    public void testEncodeInvalid() {
+        System.out.println("encode invalid");
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> PuzzleRecord.encode(SujikoGrid.read(
+                                new Scanner("size 2 2 4\n0 0\n0 0\n10\n"))), "layout"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> PuzzleRecord.encode(SujikoGrid.read(
+                                new Scanner("0 0 0\n0 0 0\n0 0 0\n128 0 0 0"))), "sum"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> PuzzleRecord.encode(SujikoGrid.read(
+                                new Scanner("16 0 0\n0 0 0\n0 0 0\n10 0 0 0"))), "digit")
+        );
+    }
+}
@@ -0,0 +1,105 @@
+package spa.generator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.model.CircleLayout;
+import spa.model.SujikoGrid;
+import spa.solvers.ConcreteSujikoSolver;
+
+/**
+ * Test cases for {@link SujikoGenerator}.
+ *
+ */
+public class SujikoGeneratorTest {
+
+    /** Directory for the generated files. */
+    @TempDir
+    Path directory;
+
+    /**
+     * Test that generated puzzles have a unique solution, checked by
+     * another solver, and that the givens are blocked.
+     */
+    @Test
+    public void testGenerateUnique() {
+        System.out.println("generate unique");
+        final SujikoGenerator instance = new SujikoGenerator(CircleLayout.CLASSIC, 42);
+        for (int i = 0; i < 100; i++) {
+            final SujikoGrid grid = instance.generate();
+            final int index = i;
+            assertAll(
+                    () -> assertEquals(1, new ConcreteSujikoSolver(grid, null).countSolutions(2),
+                            "puzzle " + index),
+                    () -> grid.getCells().forEach(row -> row.forEach(cell -> assertEquals(
+                            !cell.isEmpty(), cell.getBlocked(), "blocked " + cell)))
+            );
+        }
+    }
+
+    /**
+     * Test of filling and sums methods.
+     */
+    @Test
+    public void testFilling() {
+        System.out.println("filling");
+        final SujikoGenerator instance = new SujikoGenerator(CircleLayout.blocks(3, 3, 12), 7);
+        final int[] filling = instance.filling();
+        int digits = 0;
+        for (int digit : filling) {
+            digits |= 1 << (digit - 1);
+        }
+        final int used = digits;
+        final int[] sums = instance.sums(filling);
+        assertAll(
+                () -> assertEquals(9, Integer.bitCount(used), "distinct"),
+                () -> assertEquals(0, used & ~0xFFF, "range"),
+                () -> assertEquals(filling[4] + filling[5] + filling[7] + filling[8], sums[3],
+                        "sum")
+        );
+    }
+
+    /**
+     * Test that the generated puzzles have the requested difficulty.
+     */
+    @Test
+    public void testDifficulty() {
+        System.out.println("difficulty");
+        final SujikoGenerator instance = new SujikoGenerator(CircleLayout.CLASSIC, 1);
+        for (Difficulty difficulty : Difficulty.values()) {
+            for (int i = 0; i < 20; i++) {
+                final long effort = SujikoGenerator.effort(instance.generate(difficulty));
+                assertTrue(difficulty.contains(effort), difficulty + " " + effort);
+            }
+        }
+        assertEquals(Difficulty.MEDIUM, Difficulty.of(20), "of");
+    }
+
+    /**
+     * Test that a generator is reproducible and that the written files
+     * read back as the generated puzzles.
+     *
+     * @throws IOException  if a file cannot be read or written
+     */
+    @Test
+    public void testWrite() throws IOException {
+        System.out.println("write");
+        final CircleLayout layout = CircleLayout.blocks(3, 4, 12);
+        new SujikoGenerator(layout, 5).write(3, Difficulty.ANY, directory);
+        final SujikoGenerator again = new SujikoGenerator(layout, 5);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.count(), "files");
+        }
+        for (int i = 1; i <= 3; i++) {
+            final String text = Files.readString(directory.resolve("generated_0000" + i + ".zgr"));
+            assertEquals(again.generate().toString(),
+                    SujikoGrid.read(new Scanner(text)).toString(), "puzzle " + i);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package spa.model;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Scanner;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for {@link Canonicalizer} and {@link Symmetry}.
+ *
+ */
+public class CanonicalizerTest {
+
+    /** A classic puzzle. */
+    private static final String PUZZLE = "0 4 0\n0 0 2\n3 0 0\n18 18 19 26";
+
+    /**
+     * Test of the symmetries found for several layouts.
+     */
+    @Test
+    public void testSymmetries() {
+        System.out.println("canonicalizer symmetries");
+        final CircleLayout skew = new CircleLayout(2, 2, 4,
+                new int[][] {{0, 1}, {0, 2}});
+        assertAll(
+                () -> assertEquals(8, Canonicalizer.of(CircleLayout.CLASSIC)
+                        .getSymmetries().size(), "classic"),
+                () -> assertSame(Canonicalizer.of(CircleLayout.CLASSIC),
+                        Canonicalizer.of(CircleLayout.blocks(3, 3, 9)), "shared"),
+                () -> assertEquals(Arrays.asList(Symmetry.IDENTITY, Symmetry.ROTATE_180,
+                        Symmetry.FLIP_ROWS, Symmetry.FLIP_COLUMNS),
+                        new Canonicalizer(CircleLayout.blocks(2, 3, 6)).getSymmetries(),
+                        "rectangle"),
+                () -> assertEquals(Arrays.asList(Symmetry.IDENTITY, Symmetry.TRANSPOSE),
+                        new Canonicalizer(skew).getSymmetries(), "skew circles"),
+                () -> assertArrayEquals(new int[] {1, 0},
+                        new Canonicalizer(skew).getCircleMap(1), "circles swapped"),
+                () -> assertEquals(2, Symmetry.ROTATE_90.map(CircleLayout.CLASSIC, 0),
+                        "rotate top left"),
+                () -> assertEquals(6, Symmetry.ROTATE_270.map(CircleLayout.CLASSIC, 0),
+                        "rotate top left back")
+        );
+    }
+
+    /**
+     * Test that all images of a puzzle have the same canonical form, and
+     * that the images are different puzzles with mapped solutions.
+     */
+    @Test
+    public void testCanonical() {
+        System.out.println("canonicalizer canonical");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(PUZZLE));
+        final Canonicalizer canonicalizer = Canonicalizer.of(grid.getLayout());
+        final String canonical = canonicalizer.canonical(grid).toString();
+        final Set<String> images = new HashSet<>();
+        for (int s = 0; s < canonicalizer.getSymmetries().size(); s++) {
+            final SujikoGrid image = canonicalizer.transform(grid, s);
+            images.add(image.toString());
+            assertEquals(canonical, canonicalizer.canonical(image).toString(),
+                    canonicalizer.getSymmetries().get(s).toString());
+        }
+        final SujikoGrid rotated = canonicalizer.transform(grid, 1);
+        assertAll(
+                () -> assertEquals(8, images.size(), "images"),
+                () -> assertEquals("3 0 0 \n0 0 4 \n0 2 0 \n19 18 26 18 \n",
+                        rotated.toString(), "rotated"),
+                () -> assertEquals(canonical, canonicalizer.canonical(
+                        canonicalizer.canonical(grid)).toString(), "idempotent")
+        );
+    }
+
+    /**
+     * Test of key, on equivalent puzzles and on layouts of circles and of
+     * blocks.
+     */
+    @Test
+    public void testKey() {
+        System.out.println("canonicalizer key");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(PUZZLE));
+        final Canonicalizer canonicalizer = Canonicalizer.of(grid.getLayout());
+        final int[] key = canonicalizer.key(grid);
+        final SujikoGrid entered = SujikoGrid.read(new Scanner(PUZZLE));
+        entered.getCell(0).setDigit(1);
+        final int[] circles = key(SujikoGrid.read(new Scanner(
+                "size 2 2 4\ncircle 0 0 0 1\ncircle 1 0 1 1\n0 0\n0 0\n3 7\n")));
+        final int[] blocks = key(SujikoGrid.read(new Scanner("size 2 2 4\n0 0\n0 0\n10\n")));
+        assertAll(
+                () -> assertEquals(4 + 9 + 4, key.length, "classic length"),
+                () -> assertArrayEquals(key, canonicalizer.key(canonicalizer.transform(grid, 3)),
+                        "equivalent puzzle"),
+                () -> assertFalse(Arrays.equals(key, canonicalizer.key(entered)),
+                        "entered digit"),
+                () -> assertEquals(4 + 2 * 3 + 4 + 2, circles.length, "circles length"),
+                () -> assertEquals(4 + 4 + 1, blocks.length, "blocks length"),
+                () -> assertEquals(-1, blocks[3], "blocks marker")
+        );
+    }
+
+    /**
+     * Computes the key of a puzzle with the canonicalizer of its layout.
+     *
+     * @param grid the puzzle
+     * @return the key
+     */
+    private static int[] key(final SujikoGrid grid) {
+        return Canonicalizer.of(grid.getLayout()).key(grid);
+    }
+}
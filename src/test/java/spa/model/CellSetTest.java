@@ -0,0 +1,68 @@
+package spa.model;
+
+import java.util.List;
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+import spa.command.CompoundCommand;
+import spa.command.SetCommand;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for class {@code CellSet}.
+ *
+ */
+public class CellSetTest {
+
+    /**
+     * Test of adding cells of a grid and other cells.
+     */
+    @Test
+    public void testAdd() {
+        System.out.println("add");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(
+                "0 4 0\n0 0 2\n3 0 0\n18 18 19 26\n"));
+        final DigitCell other = new DigitCell(new Location(0, 0), 0);
+        final CellSet instance = new CellSet();
+        instance.add(grid.getCell(5));
+        instance.add(other);
+        final boolean again = instance.add(grid.getCell(5));
+        instance.add(grid.getCell(1));
+        grid.getCell(1).setDigit(7);
+        assertAll(
+                () -> assertFalse(again, "added twice"),
+                () -> assertEquals(0b100010, instance.getMask(), "mask"),
+                () -> assertEquals(3, instance.size(), "size"),
+                () -> assertTrue(instance.contains(grid.getCell(1)), "digit changed"),
+                () -> assertTrue(instance.contains(other), "other cell"),
+                () -> assertFalse(instance.contains(grid.getCell(0)), "equal to other cell"),
+                () -> assertEquals(List.of(grid.getCell(1), grid.getCell(5), other),
+                        List.copyOf(instance), "order")
+        );
+    }
+
+    /**
+     * Test of the cells of a compound command, and of merging sets.
+     */
+    @Test
+    public void testCommands() {
+        System.out.println("commands");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(
+                "0 4 0\n0 0 2\n3 0 0\n18 18 19 26\n"));
+        final CompoundCommand inner = new CompoundCommand();
+        inner.add(new SetCommand(grid.getCell(0), 1));
+        inner.add(new SetCommand(grid.getCell(4), 9));
+        final CompoundCommand outer = new CompoundCommand();
+        outer.add(inner);
+        outer.add(new SetCommand(grid.getCell(0), 5));
+        final CellSet merged = new CellSet();
+        merged.add(grid.getCell(8));
+        merged.addAll(outer.getCells());
+        assertAll(
+                () -> assertEquals(0b10001, outer.getCells().getMask(), "compound"),
+                () -> assertEquals(0b100010001, merged.getMask(), "merged"),
+                () -> assertTrue(new SetCommand(grid.getCell(2), 1).getCells()
+                        .contains(grid.getCell(2)), "set command"),
+                () -> assertTrue(new CompoundCommand().getCells().isEmpty(), "empty")
+        );
+    }
+}
@@ -0,0 +1,115 @@
+package spa.model;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for class {@code CircleLayout}.
+ *
+ */
+public class CircleLayoutTest {
+
+    /**
+     * Test of the classic layout and its index arrays.
+     */
+    @Test
+    public void testClassic() {
+        System.out.println("classic layout");
+        final CircleLayout instance = CircleLayout.CLASSIC;
+        assertAll(
+                () -> assertEquals(9, instance.getCellCount(), "cells"),
+                () -> assertEquals(4, instance.getCircleCount(), "circles"),
+                () -> assertEquals(0x1FF, instance.getAllDigits(), "all digits"),
+                () -> assertArrayEquals(new int[] {0, 1, 3, 4}, instance.getCircleCells(0),
+                        "circle 0"),
+                () -> assertArrayEquals(new int[] {4, 5, 7, 8}, instance.getCircleCells(3),
+                        "circle 3"),
+                () -> assertArrayEquals(new int[] {0, 1, 2, 3}, instance.getCellCircles(4),
+                        "centre"),
+                () -> assertArrayEquals(new int[] {1}, instance.getCellCircles(2), "corner"),
+                () -> assertEquals(List.of(new Location(1, 1), new Location(1, 2),
+                        new Location(2, 1), new Location(2, 2)), instance.getLocations(3),
+                        "locations"),
+                () -> assertTrue(instance.isBlocks(), "blocks")
+        );
+    }
+
+    /**
+     * Test of blocks on a 4 by 4 grid.
+     */
+    @Test
+    public void testBlocks() {
+        System.out.println("blocks");
+        final CircleLayout instance = CircleLayout.blocks(4, 4, 16);
+        assertAll(
+                () -> assertEquals(9, instance.getCircleCount(), "circles"),
+                () -> assertArrayEquals(new int[] {5, 6, 9, 10}, instance.getCircleCells(4),
+                        "middle circle"),
+                () -> assertArrayEquals(new int[] {0, 1, 3, 4}, instance.getCellCircles(5),
+                        "inner cell"),
+                () -> assertEquals(9, instance.index(new Location(2, 1)), "index"),
+                () -> assertFalse(instance.has(4, 0), "has"),
+                () -> assertNotEquals(CircleLayout.CLASSIC, instance, "equals")
+        );
+    }
+
+    /**
+     * Test of a layout with circles of different sizes.
+     */
+    @Test
+    public void testIrregular() {
+        System.out.println("irregular layout");
+        final CircleLayout instance = new CircleLayout(2, 3, 7,
+                new int[][] {{0, 1, 3}, {1, 2, 4, 5}});
+        assertAll(
+                () -> assertArrayEquals(new int[] {0, 1}, instance.getCellCircles(1), "shared"),
+                () -> assertArrayEquals(new int[] {0}, instance.getCellCircles(3), "one circle"),
+                () -> assertFalse(instance.isBlocks(), "blocks"),
+                () -> assertEquals(instance, new CircleLayout(2, 3, 7,
+                        new int[][] {{0, 1, 3}, {1, 2, 4, 5}}), "equals")
+        );
+    }
+
+    /**
+     * Test of the bitmasks of the cell-circle relation.
+     */
+    @Test
+    public void testMasks() {
+        System.out.println("masks");
+        final CircleLayout instance = new CircleLayout(2, 3, 7,
+                new int[][] {{0, 1, 3}, {1, 2, 4, 5}});
+        assertAll(
+                () -> assertEquals(0b001011, instance.getCircleCellMask(0), "circle 0"),
+                () -> assertEquals(0b110110, instance.getCircleCellMask(1), "circle 1"),
+                () -> assertEquals(0b11L, instance.getCellCircleMask(1), "shared"),
+                () -> assertEquals(0b10L, instance.getCellCircleMask(5), "one circle"),
+                () -> assertEquals(0b1111L, CircleLayout.CLASSIC.getCellCircleMask(4), "centre")
+        );
+    }
+
+    /**
+     * Test of the validation of the constructor.
+     */
+    @Test
+    public void testInvalid() {
+        System.out.println("invalid layouts");
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> CircleLayout.blocks(3, 3, 8), "too few digits"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> CircleLayout.blocks(6, 6, 36), "too many digits"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new CircleLayout(2, 2, 4, new int[][] {{0, 4}}), "outside"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new CircleLayout(2, 2, 4, new int[][] {{1, 1}}), "twice"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new CircleLayout(2, 2, 4, new int[][] {{}}), "empty"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new CircleLayout(2, 2, 4, new int[65][]), "too many circles"),
+                () -> assertEquals("[0, 1, 2, 3]", Arrays.toString(
+                        CircleLayout.blocks(2, 2, 4).getCircleCells(0)), "smallest")
+        );
+    }
+}
@@ -0,0 +1,73 @@
+package spa.model;
+
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test for class {@code GridSnapshot}.
+ *
+ */
+public class GridSnapshotTest {
+
+    /**
+     * Test of taking and restoring snapshots.
+     */
+    @Test
+    public void testRestore() {
+        System.out.println("restore");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(
+                "0 4 0\n0 0 2\n3 0 0\n18 18 19 26\n"));
+        final String before = grid.toString();
+        final GridSnapshot checkpoint = grid.snapshot();
+        grid.getCell(0).setDigit(9);
+        grid.getCell(4).setDigit(1);
+        final GridSnapshot changed = grid.snapshot();
+        final int restored = grid.restore(checkpoint);
+        assertAll(
+                () -> assertEquals(0, checkpoint.getDigit(0), "snapshot unchanged"),
+                () -> assertEquals(9, changed.getDigit(0), "later snapshot"),
+                () -> assertEquals(0b10001, restored, "cells restored"),
+                () -> assertEquals(before, grid.toString(), "digits"),
+                () -> assertEquals(2, grid.getCircleSum(1) - 4, "counts"),
+                () -> assertEquals(checkpoint, grid.snapshot(), "equal snapshot"),
+                () -> assertEquals(checkpoint.hashCode(), grid.snapshot().hashCode(), "hash"),
+                () -> assertEquals("0 4 0\n0 0 2\n3 0 0\n", checkpoint.toString(), "string")
+        );
+    }
+
+    /**
+     * Test of deriving snapshots and comparing them, on the largest layout.
+     */
+    @Test
+    public void testWith() {
+        System.out.println("with");
+        final CircleLayout layout = CircleLayout.blocks(2, 15, 31);
+        final SujikoGrid grid = SujikoGrid.of(layout, new int[layout.getCellCount()],
+                new int[layout.getCircleCount()]);
+        final GridSnapshot empty = grid.snapshot();
+        final GridSnapshot last = empty.with(29, 31).with(12, 5);
+        final SujikoGrid classic = SujikoGrid.read(new Scanner(
+                "0 0 0\n0 0 0\n0 0 0\n10 10 10 10\n"));
+        assertAll(
+                () -> assertEquals(31, last.getDigit(29), "last cell"),
+                () -> assertEquals(5, last.getDigit(12), "second word"),
+                () -> assertEquals(0, empty.getDigit(29), "persistent"),
+                () -> assertEquals(1 << 29 | 1 << 12, empty.diff(last), "diff"),
+                () -> assertEquals(0, last.diff(last.with(11, 0)), "no change"),
+                () -> assertSame(grid.getLayout(), last.getLayout(), "shared layout"),
+                () -> assertThrows(IndexOutOfBoundsException.class,
+                        () -> empty.getDigit(30), "no cell"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> empty.with(0, 32), "digit"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> classic.restore(last), "other layout")
+        );
+        grid.restore(last);
+        assertAll(
+                () -> assertEquals(31, grid.getCell(29).getDigit(), "restored"),
+                () -> assertEquals(1, grid.getDigitCount(31), "digit count")
+        );
+    }
+}
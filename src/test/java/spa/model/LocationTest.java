@@ -5,7 +5,10 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Scanner;
 
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * Test cases for {@code Location}.
@@ -80,4 +83,22 @@ public class LocationTest {
         assertEquals(expResult, result, "toString");
     }
 
+    /**
+     * Test of the factory method of, and of hashCode, of class Location.
+     */
+    @Test
+    public void testOf() {
+        System.out.println("of");
+        Location instance = Location.of(1, 2);
+        assertAll(
+                () -> assertSame(instance, Location.of(1, 2), "shared"),
+                () -> assertEquals(new Location(1, 2), instance, "equals"),
+                () -> assertEquals(new Location(1, 2).hashCode(), instance.hashCode(),
+                        "hashCode"),
+                () -> assertEquals(Location.of(40, 0), Location.of(40, 0), "not pooled"),
+                () -> assertNotSame(Location.of(40, 0), Location.of(40, 0), "new instance"),
+                () -> assertSame(instance, CircleLayout.CLASSIC.getLocation(5), "by index")
+        );
+    }
+
 }
@@ -21,9 +21,7 @@ public class SujikoCellTest {
                 + "0 0 2\n" 
                 + "3 0 0\n" 
                 + "18 18 19 26";
-        SujikoGrid.getInstance().clearInstance();
-        SujikoGrid instance = SujikoGrid.getInstance();
-        instance.readGrid(new Scanner(grid));
+        SujikoGrid instance = SujikoGrid.read(new Scanner(grid));
         DigitCell expDigitCell = new DigitCell(new Location(2, 2), 0);
         SumCell expSumCell = new SumCell(4, 26);
         assertAll(
@@ -42,15 +40,15 @@ public class SujikoCellTest {
                 + "0 0 2\n" 
                 + "3 0 0\n" 
                 + "18 18 19 26";
-        SujikoGrid.getInstance().clearInstance();
-        SujikoGrid instance = SujikoGrid.getInstance();
-        instance.readGrid(new Scanner(grid));
+        SujikoGrid instance = SujikoGrid.read(new Scanner(grid));
         DigitCell expDigitCell = new DigitCell(new Location(2, 2), 0);
         assertAll(
                 () -> assertEquals(new Location(2, 2), expDigitCell.getLocation(), "getLocation"),
                 () -> assertEquals("0", expDigitCell.toString(), "toString"),
                 () -> assertEquals(Arrays.asList(4), 
-                        expDigitCell.determineGroup(), "determineGroup")
+                        expDigitCell.determineGroup(), "determineGroup"),
+                () -> assertSame(expDigitCell.determineGroup(),
+                        expDigitCell.determineGroup(), "determineGroup cached")
         );
     }
     
@@ -63,13 +61,12 @@ public class SujikoCellTest {
                 + "0 0 2\n" 
                 + "3 0 0\n" 
                 + "18 18 19 26";
-        SujikoGrid.getInstance().clearInstance();
-        SujikoGrid instance = SujikoGrid.getInstance();
-        instance.readGrid(new Scanner(grid));
+        SujikoGrid instance = SujikoGrid.read(new Scanner(grid));
         SumCell expSumCell = new SumCell(4, 26);
         assertAll(
                 () -> assertEquals(false, expSumCell.isEmpty(), "isEmpty"),
-                () -> assertEquals(true, expSumCell.canAchieveSum(1, instance), "canAchieveSum")
+                () -> assertEquals(true, expSumCell.canAchieveSum(1, instance), "canAchieveSum"),
+                () -> assertTrue(expSumCell.canAchieveSum(instance), "canAchieveSum of grid")
         );
     }
     
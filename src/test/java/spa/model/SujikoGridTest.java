@@ -3,6 +3,8 @@ package spa.model;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import spa.command.SetCommand;
+import spa.command.UndoRedo;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -12,7 +14,7 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 public class SujikoGridTest {
     /**
-     * Test constructor using Singleton pattern,
+     * Test factory method read,
      * readGrid, toString, getCells, getSumCells, and has.
      */
     @Test
@@ -48,9 +50,7 @@ public class SujikoGridTest {
                 + "0 0 2\n" 
                 + "3 0 0\n" 
                 + "18 18 19 26";
-        SujikoGrid.getInstance().clearInstance();
-        SujikoGrid instance = SujikoGrid.getInstance();
-        instance.readGrid(new Scanner(expResult));
+        SujikoGrid instance = SujikoGrid.read(new Scanner(expResult));
         System.out.println(instance.toString());
         assertAll(
                 () -> assertEquals(expMatrix, instance.getCells(), "getCells"),
@@ -58,4 +58,140 @@ public class SujikoGridTest {
                 () -> assertTrue(instance.has(2, 2), "has")
         );
     }
+
+    /**
+     * Test of readGrid and toString with a layout header.
+     */
+    @Test
+    public void testLayoutHeader() {
+        System.out.println("Sujiko Grid layout header");
+        String text = "size 3 4 12\n"
+                + "circle 0 0 0 1 1 0\n"
+                + "circle 1 1 1 2 2 1 2 2\n"
+                + "circle 0 3 1 3 2 3\n"
+                + "0 11 0 0 \n"
+                + "0 0 0 12 \n"
+                + "0 0 0 0 \n"
+                + "20 26 30 \n";
+        SujikoGrid instance = SujikoGrid.read(new Scanner(text));
+        CircleLayout layout = instance.getLayout();
+        assertAll(
+                () -> assertEquals(3, layout.getRows(), "rows"),
+                () -> assertEquals(4, layout.getColumns(), "columns"),
+                () -> assertEquals(12, layout.getMaxDigit(), "max digit"),
+                () -> assertEquals(3, instance.getSumCells().size(), "sum cells"),
+                () -> assertEquals(List.of(new Location(0, 3), new Location(1, 3),
+                        new Location(2, 3)), instance.getSumCells().get(2).getLocations(),
+                        "circle locations"),
+                () -> assertEquals(12, instance.getCell(7).getDigit(), "getCell"),
+                () -> assertTrue(instance.has(2, 3), "has"),
+                () -> assertEquals(text, instance.toString(), "toString")
+        );
+    }
+
+    /**
+     * Test of readGrid with only a size header: the circles are the blocks.
+     */
+    @Test
+    public void testSizeHeader() {
+        System.out.println("Sujiko Grid size header");
+        String text = "size 4 4 16\n"
+                + "5 12 0 0 \n"
+                + "0 0 16 0 \n"
+                + "0 0 8 0 \n"
+                + "11 0 0 4 \n"
+                + "34 32 33 29 37 44 29 39 40 \n";
+        SujikoGrid instance = SujikoGrid.read(new Scanner(text));
+        assertAll(
+                () -> assertEquals(CircleLayout.blocks(4, 4, 16), instance.getLayout(), "layout"),
+                () -> assertEquals(9, instance.getSumCells().size(), "sum cells"),
+                () -> assertEquals(text, instance.toString(), "toString"),
+                () -> assertEquals(CircleLayout.CLASSIC, SujikoGrid.read(new Scanner(
+                        "0 4 0\n0 0 2\n3 0 0\n18 18 19 26")).getLayout(), "no header")
+        );
+    }
+
+    /**
+     * Test copy: equal contents, independent cells.
+     */
+    @Test
+    public void testCopy() {
+        System.out.println("copy");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(
+                "size 4 4 16\n5 12 0 0\n0 0 16 0\n0 0 8 0\n11 0 0 4\n"
+                + "34 32 33 29 37 44 29 39 40\n"));
+        grid.getCell(2).setDigit(7);
+        final SujikoGrid copy = grid.copy();
+        copy.getCell(3).setDigit(1);
+        assertAll(
+                () -> assertSame(grid.getLayout(), copy.getLayout(), "layout"),
+                () -> assertEquals(7, copy.getCell(2).getDigit(), "digit copied"),
+                () -> assertFalse(copy.getCell(2).getBlocked(), "not blocked"),
+                () -> assertTrue(copy.getCell(0).getBlocked(), "blocked"),
+                () -> assertEquals(0, grid.getCell(3).getDigit(), "independent"),
+                () -> assertEquals(3, copy.getCell(3).getIndex(), "index"),
+                () -> assertSame(grid.getCell(3).getLocation(), copy.getCell(3).getLocation(),
+                        "shared location"),
+                () -> assertEquals(grid.getSumCells().get(8).getSum(),
+                        copy.getSumCells().get(8).getSum(), "sums"),
+                () -> assertEquals(grid.getSumCells().get(8).getLocations(),
+                        copy.getSumCells().get(8).getLocations(), "circles")
+        );
+    }
+
+    /**
+     * Test the running counts: circle sums, empty cells and used digits.
+     */
+    @Test
+    public void testCounts() {
+        System.out.println("counts");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(
+                "0 4 0\n0 0 2\n3 0 0\n18 18 19 26\n"));
+        final SetCommand command = new SetCommand(grid.getCell(4), 9);
+        command.execute();
+        grid.setCell(new Location(0, 0), 4);
+        final SujikoGrid copy = grid.copy();
+        command.revert();
+        assertAll(
+                () -> assertEquals(8, grid.getCircleSum(0), "circle sum"),
+                () -> assertEquals(2, grid.getEmptyCount(0), "empty cells"),
+                () -> assertEquals(0b1110, grid.getUsedDigits(), "used digits"),
+                () -> assertEquals(2, grid.getDigitCount(4), "duplicate digit"),
+                () -> assertEquals(5, grid.getDigitCount(0), "empty cell count"),
+                () -> assertEquals(17, copy.getCircleSum(0), "copy circle sum"),
+                () -> assertEquals(0b100001110, copy.getUsedDigits(), "copy used digits")
+        );
+        grid.clear();
+        assertAll(
+                () -> assertEquals(4, grid.getCircleSum(0), "cleared circle sum"),
+                () -> assertEquals(0b1110, grid.getUsedDigits(), "cleared used digits"),
+                () -> assertEquals(6, grid.getDigitCount(0), "cleared empty cells")
+        );
+    }
+
+    /**
+     * Test of rejecting digits beyond the largest digit of the layout,
+     * which leaves the grid unchanged.
+     */
+    @Test
+    public void testDigitRange() {
+        System.out.println("digit range");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(
+                "size 2 2 4\n0 0\n0 0\n10\n"));
+        final UndoRedo undoRedo = new UndoRedo();
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> undoRedo.did(new SetCommand(grid.getCell(0), 9)), "command"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> grid.getCell(1).setDigit(-1), "negative"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> grid.setCell(new Location(1, 1), 5), "set cell")
+        );
+        undoRedo.did(new SetCommand(grid.getCell(0), 4));
+        assertAll(
+                () -> assertEquals(1, undoRedo.size(), "history"),
+                () -> assertEquals(4, grid.getCircleSum(0), "circle sum"),
+                () -> assertEquals(3, grid.getDigitCount(0), "empty cells")
+        );
+    }
 }
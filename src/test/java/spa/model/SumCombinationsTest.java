@@ -0,0 +1,120 @@
+package spa.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for {@link SumCombinations}.
+ *
+ */
+public class SumCombinationsTest {
+
+    /**
+     * Computes the candidates by enumerating all digit subsets.
+     *
+     * @param remaining the remaining sum
+     * @param empty the number of empty cells
+     * @param used the digits that may not be used
+     * @return the union of all matching subsets
+     */
+    private static int bruteForce(final int remaining, final int empty, final int used) {
+        int result = 0;
+        for (int subset = 1; subset <= SumCombinations.ALL_DIGITS; subset++) {
+            if ((subset & used) == 0 && Integer.bitCount(subset) == empty
+                    && SumCombinations.sumOf(subset) == remaining) {
+                result |= subset;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Test of candidates method, against brute force for all arguments.
+     */
+    @Test
+    public void testCandidates() {
+        System.out.println("candidates");
+        for (int used = 0; used <= SumCombinations.ALL_DIGITS; used++) {
+            for (int empty = 0; empty <= SumCombinations.CELLS; empty++) {
+                for (int remaining = -1; remaining <= SumCombinations.MAX_SUM + 1; remaining++) {
+                    assertEquals(bruteForce(remaining, empty, used),
+                            SumCombinations.candidates(remaining, empty, used),
+                            "remaining " + remaining + ", empty " + empty + ", used " + used);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test of isFeasible method.
+     */
+    @Test
+    public void testIsFeasible() {
+        System.out.println("isFeasible");
+        final int used1to3 = 0b111;
+        assertAll(
+                () -> assertTrue(SumCombinations.isFeasible(0, 0, 0), "nothing left"),
+                () -> assertFalse(SumCombinations.isFeasible(1, 0, 0), "sum left, no cells"),
+                () -> assertTrue(SumCombinations.isFeasible(10, 4, 0), "1+2+3+4"),
+                () -> assertFalse(SumCombinations.isFeasible(10, 4, used1to3), "1..3 used"),
+                () -> assertFalse(SumCombinations.isFeasible(2, 1, 0b10), "2 used"),
+                () -> assertTrue(SumCombinations.isFeasible(30, 4, 0), "6+7+8+9"),
+                () -> assertFalse(SumCombinations.isFeasible(31, 4, 0), "too large")
+        );
+    }
+
+    /**
+     * Test of combinationCount and combination methods.
+     */
+    @Test
+    public void testCombinations() {
+        System.out.println("combinations");
+        int total = 0;
+        for (int sum = 0; sum <= SumCombinations.MAX_SUM; sum++) {
+            for (int i = 0; i < SumCombinations.combinationCount(sum); i++) {
+                final int combination = SumCombinations.combination(sum, i);
+                assertEquals(4, Integer.bitCount(combination), "size");
+                assertEquals(sum, SumCombinations.sumOf(combination), "sum");
+            }
+            total += SumCombinations.combinationCount(sum);
+        }
+        assertEquals(126, total, "9 choose 4");
+        assertEquals(1, SumCombinations.combinationCount(10), "only 1+2+3+4");
+    }
+
+    /**
+     * Test of candidates for larger digit ranges: never missing a digit,
+     * and exact for a single empty cell.
+     */
+    @Test
+    public void testCandidatesLargerDigits() {
+        System.out.println("candidates maxDigit 12");
+        final int maxDigit = 12;
+        final int all = (1 << maxDigit) - 1;
+        for (int used : new int[] {0, 0b10100}) {
+            for (int empty = 0; empty <= 5; empty++) {
+                for (int remaining = 0; remaining <= 60; remaining++) {
+                    int exact = 0;
+                    for (int subset = 1; subset <= all; subset++) {
+                        if ((subset & used) == 0 && Integer.bitCount(subset) == empty
+                                && SumCombinations.sumOf(subset) == remaining) {
+                            exact |= subset;
+                        }
+                    }
+                    final int result =
+                            SumCombinations.candidates(remaining, empty, used, maxDigit);
+                    final String message = "remaining " + remaining + ", empty " + empty
+                            + ", used " + used;
+                    assertEquals(exact, exact & result, message);
+                    assertEquals(0, result & used, message);
+                    if (empty <= 1) {
+                        assertEquals(exact, result, message);
+                    }
+                }
+            }
+        }
+        assertEquals(0b1111 << 12, SumCombinations.candidates(13 + 14 + 15 + 16, 4, 0, 16),
+                "13+14+15+16");
+    }
+}
@@ -0,0 +1,137 @@
+package spa.model;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.generator.SujikoGenerator;
+
+/**
+ * Test cases for {@link ZgrParser}.
+ *
+ */
+public class ZgrParserTest {
+
+    /**
+     * Makes a buffer holding a text.
+     *
+     * @param text the text
+     * @return the buffer
+     */
+    private static ByteBuffer bytes(final String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a text that is expected to be malformed.
+     *
+     * @param text the text
+     * @return the exception raised
+     */
+    private static ZgrFormatException failure(final String text) {
+        return assertThrows(ZgrFormatException.class, () -> new ZgrParser(bytes(text)).next(),
+                text);
+    }
+
+    /**
+     * Test of concatenated puzzles of different layouts, with blank lines,
+     * carriage returns and no final line end.
+     */
+    @Test
+    public void testConcatenated() {
+        System.out.println("parse concatenated");
+        final String text = "0 4 0\r\n0 0 2\r\n3 0 0\r\n18 18 19 26\r\n"
+                + "\n  \n"
+                + "size 3 4 12\n"
+                + "circle 0 0 0 1 1 0\n"
+                + "circle 1 1 1 2 2 1 2 2\n"
+                + "circle 0 3 1 3 2 3\n"
+                + "0 11 0 0\n0 0 0 12\n0 0 0 0\n20 26 30\n"
+                + "1 0 0\n0 0 0\n0 0\t0\n10 10 10 10";
+        final ZgrParser instance = new ZgrParser(bytes(text));
+        final List<SujikoGrid> grids = new ArrayList<>();
+        while (instance.hasNext()) {
+            grids.add(instance.next());
+        }
+        assertAll(
+                () -> assertEquals(3, grids.size(), "puzzles"),
+                () -> assertEquals("0 4 0 \n0 0 2 \n3 0 0 \n18 18 19 26 \n",
+                        grids.get(0).toString(), "classic"),
+                () -> assertEquals(12, grids.get(1).getCell(7).getDigit(), "digit"),
+                () -> assertEquals(3, grids.get(1).getLayout().getCircleCount(), "circles"),
+                () -> assertEquals(CircleLayout.CLASSIC, grids.get(2).getLayout(), "classic again"),
+                () -> assertTrue(grids.get(2).getCell(0).getBlocked(), "given"),
+                () -> assertThrows(NoSuchElementException.class, instance::next, "no more")
+        );
+    }
+
+    /**
+     * Test of stream input larger than the internal buffer, against
+     * the generated texts, and of parse without building grids.
+     */
+    @Test
+    public void testStream() {
+        System.out.println("parse stream");
+        final SujikoGenerator generator = new SujikoGenerator(CircleLayout.blocks(3, 4, 12), 2);
+        final StringBuilder text = new StringBuilder();
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final String puzzle = generator.generate().toString();
+            expected.add(puzzle);
+            text.append(puzzle);
+        }
+        final ZgrParser instance = new ZgrParser(new ByteArrayInputStream(
+                text.toString().getBytes(StandardCharsets.UTF_8)));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), instance.next().toString(), "puzzle " + i);
+        }
+        assertFalse(instance.hasNext(), "end");
+        final ZgrParser parser = new ZgrParser(bytes(expected.get(0)));
+        final SujikoGrid grid = SujikoGrid.read(bytes(expected.get(0)));
+        parser.parse();
+        for (int cell = 0; cell < 12; cell++) {
+            assertEquals(grid.getCell(cell).getDigit(), parser.getDigit(cell), "cell " + cell);
+        }
+        assertEquals(grid.getSumCells().get(5).getSum(), parser.getSum(5), "sum");
+    }
+
+    /**
+     * Test of the positions reported for malformed content.
+     */
+    @Test
+    public void testErrors() {
+        System.out.println("parse errors");
+        final ZgrFormatException letter = failure("0 4 0\n0 x 2\n3 0 0\n18 18 19 26");
+        final ZgrFormatException shortRow = failure("0 4 0\n0 0\n3 0 0\n18 18 19 26");
+        final ZgrFormatException longRow = failure("0 4 0\n0 0 2 5\n3 0 0\n18 18 19 26");
+        final ZgrFormatException digit = failure("0 4 0\n0 0 2\n3 10 0\n18 18 19 26");
+        final ZgrFormatException sums = failure("0 4 0\n0 0 2\n3 0 0\n18 18 19");
+        final ZgrFormatException keyword = failure("sizes 2 2 4\n0 0\n0 0\n10");
+        final ZgrFormatException cell = failure("size 2 2 4\ncircle 0 0 2 0\n0 0\n0 0\n10");
+        final ZgrFormatException layout = failure("size 3 3 8\n0 0 0\n0 0 0\n0 0 0\n1 1 1 1");
+        assertAll(
+                () -> assertEquals(2, letter.getLine(), "letter line"),
+                () -> assertEquals(3, letter.getColumn(), "letter column"),
+                () -> assertEquals(8, letter.getOffset(), "letter offset"),
+                () -> assertEquals("line 2, column 3: number expected", letter.getMessage(),
+                        "message"),
+                () -> assertEquals(4, shortRow.getColumn(), "short row"),
+                () -> assertEquals(2, longRow.getLine(), "long row line"),
+                () -> assertEquals(7, longRow.getColumn(), "long row column"),
+                () -> assertEquals(3, digit.getColumn(), "digit"),
+                () -> assertEquals(4, sums.getLine(), "sums"),
+                () -> assertEquals(1, keyword.getColumn(), "keyword"),
+                () -> assertEquals(2, cell.getLine(), "cell line"),
+                () -> assertEquals(12, cell.getColumn(), "cell column"),
+                () -> assertEquals(1, layout.getLine(), "layout"),
+                () -> assertThrows(ZgrFormatException.class,
+                        () -> SujikoGrid.read(bytes("  \n")), "empty"),
+                () -> assertTrue(IllegalArgumentException.class.isInstance(letter), "subclass")
+        );
+    }
+}
@@ -0,0 +1,130 @@
+package spa.reasoning;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.command.CompoundCommand;
+import spa.model.SujikoGrid;
+import spa.solvers.AbstractSolver;
+import spa.solvers.ConcreteSujikoSolver;
+
+/**
+ * Test cases for the concrete reasoners.
+ *
+ */
+public class ReasonerTest {
+
+    /** A puzzle with a unique solution, 645/172/389. */
+    private static final String PUZZLE = "0 4 0\n0 0 2\n3 0 0\n18 18 19 26";
+
+    /**
+     * Test of NakedSingleReasoner, on a puzzle with one empty cell.
+     */
+    @Test
+    public void testNakedSingle() {
+        System.out.println("naked single");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner("6 4 5\n1 7 2\n3 8 0\n18 18 19 26"));
+        final CompoundCommand result = new NakedSingleReasoner(grid).apply();
+        assertAll(
+                () -> assertEquals(1, result.size(), "commands"),
+                () -> assertTrue(result.isExecuted(), "executed"),
+                () -> assertEquals(9, grid.getCells().get(2).get(2).getDigit(), "forced digit")
+        );
+    }
+
+    /**
+     * Test of NakedSingleReasoner, on a contradiction.
+     */
+    @Test
+    public void testNakedSingleContradiction() {
+        System.out.println("naked single contradiction");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner("1 0 0\n0 0 0\n0 0 0\n10 10 10 10"));
+        final String before = grid.toString();
+        assertAll(
+                () -> assertNull(new NakedSingleReasoner(grid).apply(), "contradiction"),
+                () -> assertEquals(before, grid.toString(), "puzzle unchanged")
+        );
+    }
+
+    /**
+     * Test of ProbingReasoner, on the sample puzzle with a single given,
+     * where the singles find nothing.
+     *
+     * @throws FileNotFoundException  if the sample puzzle is missing
+     */
+    @Test
+    public void testProbing() throws FileNotFoundException {
+        System.out.println("probing");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(
+                new File("puzzles", "example_sujiko3.zgr")));
+        final String before = grid.toString();
+        final CompoundCommand singlesOnly = new CompoundReasoner(grid)
+                .add(new NakedSingleReasoner(grid))
+                .add(new HiddenSingleReasoner(grid)).apply();
+        final CompoundCommand result = new ProbingReasoner(grid).apply();
+        assertAll(
+                () -> assertEquals(0, singlesOnly.size(), "no singles"),
+                () -> assertTrue(result.size() > 0, "probing places digits"),
+                () -> assertEquals(1, new ConcreteSujikoSolver(grid, null).countSolutions(2),
+                        "still solvable")
+        );
+        result.revert();
+        assertEquals(before, grid.toString(), "reverted");
+    }
+
+    /**
+     * Test of FixpointReasoner with the standard reasoners.
+     */
+    @Test
+    public void testFixpoint() {
+        System.out.println("fixpoint");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(PUZZLE));
+        final String before = grid.toString();
+        final CompoundCommand step = new CompoundReasoner(grid)
+                .add(new NakedSingleReasoner(grid))
+                .add(new HiddenSingleReasoner(grid)).apply();
+        step.revert();
+        assertEquals(before, grid.toString(), "reverted");
+        final CompoundCommand result = CompoundReasoner.standard(grid).apply();
+        assertAll(
+                () -> assertTrue(result.size() >= step.size(), "at least one step"),
+                () -> assertTrue(new ConcreteSujikoSolver(grid, null).countSolutions(2) == 1,
+                        "still solvable")
+        );
+        result.revert();
+        assertEquals(before, grid.toString(), "reverted");
+    }
+
+    /**
+     * Checks that the standard reasoner cuts explored nodes by at least an
+     * order of magnitude on the sample puzzles (98 to 4 at the time of
+     * writing: with probing every sample is solved at the root).
+     *
+     * @throws FileNotFoundException  if a sample puzzle is missing
+     */
+    @Test
+    public void testReasonerReducesNodes() throws FileNotFoundException {
+        System.out.println("reasoner reduces nodes");
+        long without = 0;
+        long with = 0;
+        for (String name : new String[] {"example_sujiko.zgr", "example_sujiko2.zgr",
+            "example_sujiko3.zgr", "example_sujiko4.zgr"}) {
+            final File file = new File("puzzles", name);
+            final SujikoGrid plain = SujikoGrid.read(new Scanner(file));
+            final AbstractSolver plainSolver = new ConcreteSujikoSolver(plain, null);
+            assertTrue(plainSolver.solve(), "solved without reasoner " + name);
+            without += plainSolver.getNodes();
+            final SujikoGrid grid = SujikoGrid.read(new Scanner(file));
+            final AbstractSolver solver = new ConcreteSujikoSolver(grid,
+                    CompoundReasoner.standard(grid));
+            assertTrue(solver.solve(), "solved with reasoner " + name);
+            assertEquals(plain.toString(), grid.toString(), "same solution " + name);
+            with += solver.getNodes();
+        }
+        System.out.println("nodes without reasoner " + without + ", with " + with);
+        assertTrue(10 * with <= without, "an order of magnitude fewer nodes");
+    }
+}
@@ -3,11 +3,20 @@ package spa.solvers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 import static org.junit.jupiter.api.Assertions.*;
+import spa.command.Command;
+import spa.model.DigitCell;
 import spa.model.SujikoGrid;
 import spa.model.SujikoPuzzle;
+import spa.reasoning.Candidates;
+import spa.reasoning.CompoundReasoner;
 
 /**
  * Test cases for {@link BacktrackSolverTemplate}.
@@ -48,4 +57,336 @@ public class BacktrackSolverTemplateTest {
                 () -> assertEquals(6, instance.getCommands().size(), "commands size")
         );
     }
+
+    /**
+     * Test of solve method, of class BitboardSujikoSolver.
+     */
+    @Test
+    public void testSolveBitboardWithoutReasoner() {
+        System.out.println("solve bitboard w/o reasoner");
+        BacktrackSolverTemplate instance = new BitboardSujikoSolver(grid, null);
+        boolean result = instance.solve();
+        System.out.println(grid.toString());
+        assertAll(
+                () -> assertTrue(result, "return value"),
+                () -> assertTrue(instance.isSolved(), "puzzle solved"),
+                () -> assertTrue(new ConcreteSujikoSolver(grid, null).isSolved(),
+                        "puzzle solved according to ConcreteSujikoSolver"),
+                () -> assertEquals(6, instance.getCommands().size(), "commands size")
+        );
+    }
+
+    /**
+     * Test of solve method, of class BitboardSujikoSolver, for unsolvable puzzle.
+     */
+    @Test
+    public void testSolveBitboardUnsolvable() {
+        System.out.println("solve bitboard unsolvable");
+        grid = new SujikoPuzzle(new Scanner("1 0 0\n0 0 0\n0 0 0\n10 10 10 10"),
+                "Unsolvable").getGrid();
+        String before = grid.toString();
+        BacktrackSolverTemplate instance = new BitboardSujikoSolver(grid, null);
+        assertAll(
+                () -> assertFalse(instance.solve(), "return value"),
+                () -> assertEquals(before, grid.toString(), "puzzle unchanged"),
+                () -> assertTrue(instance.getCommands().isEmpty(), "no commands")
+        );
+    }
+
+    /**
+     * Test of countSolutions and hasUniqueSolution, of both solvers.
+     */
+    @Test
+    public void testCountSolutions() {
+        System.out.println("countSolutions");
+        String before = grid.toString();
+        BacktrackSolverTemplate concrete = new ConcreteSujikoSolver(grid, null);
+        BacktrackSolverTemplate bitboard = new BitboardSujikoSolver(grid, null);
+        assertAll(
+                () -> assertEquals(1, concrete.countSolutions(10), "concrete count"),
+                () -> assertEquals(1, bitboard.countSolutions(10), "bitboard count"),
+                () -> assertTrue(concrete.hasUniqueSolution(), "concrete unique"),
+                () -> assertTrue(bitboard.hasUniqueSolution(), "bitboard unique"),
+                () -> assertEquals(0, bitboard.countSolutions(0), "limit 0"),
+                () -> assertEquals(before, grid.toString(), "puzzle unchanged")
+        );
+    }
+
+    /**
+     * Test of countSolutions, of both solvers, on a puzzle without givens.
+     */
+    @Test
+    public void testCountSolutionsNoGivens() {
+        System.out.println("countSolutions no givens");
+        grid = new SujikoPuzzle(new Scanner("0 0 0\n0 0 0\n0 0 0\n20 20 20 20"),
+                "Many").getGrid();
+        int concrete = new ConcreteSujikoSolver(grid, null).countSolutions(Integer.MAX_VALUE);
+        int bitboard = new BitboardSujikoSolver(grid, null).countSolutions(Integer.MAX_VALUE);
+        assertAll(
+                () -> assertTrue(concrete > 1, "several solutions"),
+                () -> assertEquals(concrete, bitboard, "same count"),
+                () -> assertEquals(2, new BitboardSujikoSolver(grid, null).countSolutions(2),
+                        "limited count"),
+                () -> assertFalse(new BitboardSujikoSolver(grid, null).hasUniqueSolution(),
+                        "not unique")
+        );
+    }
+
+    /**
+     * Test of enableStatistics method, of class AbstractSolver,
+     * for both solvers.
+     */
+    @Test
+    public void testStatistics() {
+        System.out.println("statistics");
+        final SujikoGrid other = new SujikoPuzzle(new Scanner(grid.toString()), "Copy")
+                .getGrid();
+        for (AbstractSolver instance : new AbstractSolver[] {
+            new ConcreteSujikoSolver(grid, null), new BitboardSujikoSolver(other, null)}) {
+            assertNull(instance.getStatistics(), "disabled by default");
+            final SolverStatistics statistics = instance.enableStatistics();
+            final boolean result = instance.solve();
+            System.out.println(statistics);
+            assertAll(
+                    () -> assertTrue(result, "return value"),
+                    () -> assertSame(statistics, instance.getStatistics(), "statistics"),
+                    () -> assertEquals(instance.getNodes(), statistics.getNodes(), "nodes"),
+                    () -> assertTrue(statistics.getDigitsTried() >= statistics.getNodes() - 1,
+                            "digits tried"),
+                    () -> assertTrue(statistics.getDuplicatePrunes() > 0, "duplicate prunes"),
+                    () -> assertTrue(statistics.getCirclePrunes() > 0, "circle prunes"),
+                    () -> assertEquals(6, statistics.getMaxDepth(), "max depth"),
+                    () -> assertTrue(statistics.getWallNanos() > 0, "wall time")
+            );
+            statistics.reset();
+            assertEquals(0, statistics.getNodes(), "nodes after reset");
+        }
+    }
+
+    /**
+     * Test of solve method, of class BacktrackSolverTemplate,
+     * for all ordering strategies.
+     */
+    @Test
+    public void testOrderings() {
+        System.out.println("orderings");
+        final String start = grid.toString();
+        for (CellOrders cellOrder : CellOrders.values()) {
+            for (DigitOrders digitOrder : DigitOrders.values()) {
+                final SujikoGrid copy = new SujikoPuzzle(new Scanner(start), "Copy").getGrid();
+                final BacktrackSolverTemplate instance =
+                        new ConcreteSujikoSolver(copy, null, cellOrder, digitOrder);
+                final String name = cellOrder + " " + digitOrder;
+                assertAll(
+                        () -> assertTrue(instance.solve(), name),
+                        () -> assertTrue(instance.isSolved(), name + " solved"),
+                        () -> assertEquals("6 4 5 \n1 7 2 \n3 8 9 \n18 18 19 26 \n",
+                                copy.toString(), name + " solution"),
+                        () -> assertEquals(1, new ConcreteSujikoSolver(copy, null, cellOrder,
+                                digitOrder).countSolutions(2), name + " count")
+                );
+            }
+        }
+    }
+
+    /**
+     * Test that the candidate digit orders yield the candidates of the cell
+     * and no other digits.
+     */
+    @Test
+    public void testCandidateOrders() {
+        System.out.println("candidate orders");
+        final DigitCell cell = grid.getCell(0);
+        final int candidates = Candidates.of(grid, cell);
+        final DigitOrders[] orders = {DigitOrders.CANDIDATES_FIRST, DigitOrders.LEAST_CONSTRAINING};
+        for (DigitOrders digitOrder : orders) {
+            int yielded = 0;
+            for (int digit : digitOrder.digits(grid, cell)) {
+                yielded |= 1 << (digit - 1);
+            }
+            final int digits = yielded;
+            final int length = digitOrder.digits(grid, cell).length;
+            assertAll(
+                    () -> assertEquals(candidates, digits, digitOrder + " digits"),
+                    () -> assertEquals(Integer.bitCount(candidates), length,
+                            digitOrder + " once each")
+            );
+        }
+    }
+
+    /**
+     * Test that choosing the most constrained cell explores fewer nodes
+     * on the example puzzles.
+     *
+     * @throws IOException  if an example puzzle cannot be read
+     */
+    @Test
+    public void testMinimumRemainingValuesReducesNodes() throws IOException {
+        System.out.println("minimum remaining values");
+        long first = 0;
+        long constrained = 0;
+        for (String file : new String[] {"example_sujiko.zgr", "example_sujiko2.zgr",
+            "example_sujiko3.zgr", "example_sujiko4.zgr"}) {
+            final String text = Files.readString(Paths.get("puzzles", file));
+            final AbstractSolver plain = new ConcreteSujikoSolver(
+                    SujikoGrid.read(new Scanner(text)), null);
+            final AbstractSolver ordered = new ConcreteSujikoSolver(
+                    SujikoGrid.read(new Scanner(text)), null,
+                    CellOrders.MINIMUM_REMAINING_VALUES, DigitOrders.CANDIDATES_FIRST);
+            assertTrue(plain.solve() && ordered.solve(), file);
+            first += plain.getNodes();
+            constrained += ordered.getNodes();
+        }
+        System.out.println("nodes first empty " + first + ", most constrained " + constrained);
+        assertTrue(constrained < first, "fewer nodes");
+    }
+
+    /**
+     * Test of solve method with a step limit, of class BacktrackSolverTemplate:
+     * solving one node at a time gives the same result as solving at once.
+     */
+    @Test
+    public void testSolveInSteps() {
+        System.out.println("solve in steps");
+        final String start = grid.toString();
+        final BacktrackSolverTemplate whole = new ConcreteSujikoSolver(
+                new SujikoPuzzle(new Scanner(start), "Copy").getGrid(), null);
+        assertTrue(whole.solve(), "solve at once");
+        final BacktrackSolverTemplate instance = new ConcreteSujikoSolver(grid, null);
+        int slices = 0;
+        SearchStatus status;
+        do {
+            status = instance.solve(1);
+            slices++;
+        } while (status == SearchStatus.PAUSED);
+        final int count = slices;
+        final SearchStatus result = status;
+        assertAll(
+                () -> assertEquals(SearchStatus.SOLVED, result, "status"),
+                () -> assertFalse(instance.isSearching(), "search ended"),
+                () -> assertEquals(whole.getNodes(), instance.getNodes(), "nodes"),
+                () -> assertEquals(whole.getNodes(), count, "one slice per node"),
+                () -> assertEquals(6, instance.getCommands().size(), "commands size"),
+                () -> assertTrue(instance.isSolved(), "puzzle solved")
+        );
+    }
+
+    /**
+     * Test of solve method with a step limit, of class BitboardSujikoSolver:
+     * the search of the template finds the solution of its own search.
+     */
+    @Test
+    public void testSolveBitboardInSteps() {
+        System.out.println("solve bitboard in steps");
+        final SujikoGrid copy = new SujikoPuzzle(new Scanner(grid.toString()), "Copy").getGrid();
+        assertTrue(new BitboardSujikoSolver(copy, null).solve(), "solve at once");
+        final BacktrackSolverTemplate instance = new BitboardSujikoSolver(grid, null);
+        SearchStatus status;
+        do {
+            status = instance.solve(1);
+        } while (status == SearchStatus.PAUSED);
+        final SearchStatus result = status;
+        assertAll(
+                () -> assertEquals(SearchStatus.SOLVED, result, "status"),
+                () -> assertTrue(instance.isSolved(), "puzzle solved"),
+                () -> assertEquals(copy.toString(), grid.toString(), "same solution")
+        );
+    }
+
+    /**
+     * Test of pause and abandon methods, of class BacktrackSolverTemplate.
+     */
+    @Test
+    public void testPauseAndAbandon() {
+        System.out.println("pause and abandon");
+        final String start = grid.toString();
+        final BacktrackSolverTemplate instance = new ConcreteSujikoSolver(grid, null);
+        instance.pause();
+        final SearchStatus early = instance.solve(Long.MAX_VALUE);
+        final long earlyNodes = instance.getNodes();
+        final SearchStatus limited = instance.solve(3);
+        final String partial = grid.toString();
+        instance.pause();
+        final SearchStatus paused = instance.solve(Long.MAX_VALUE);
+        final boolean searching = instance.isSearching();
+        instance.abandon();
+        assertAll(
+                () -> assertEquals(SearchStatus.PAUSED, early, "pause before first slice"),
+                () -> assertEquals(0, earlyNodes, "no node before pause"),
+                () -> assertEquals(SearchStatus.PAUSED, limited, "step limit"),
+                () -> assertNotEquals(start, partial, "partial assignment"),
+                () -> assertEquals(SearchStatus.PAUSED, paused, "pause requested"),
+                () -> assertTrue(searching, "searching while paused"),
+                () -> assertFalse(instance.isSearching(), "abandoned"),
+                () -> assertEquals(start, grid.toString(), "puzzle restored"),
+                () -> assertTrue(instance.getCommands().isEmpty(), "no commands"),
+                () -> assertThrows(IllegalStateException.class, () -> {
+                    instance.solve(1);
+                    instance.countSolutions(2);
+                }, "count while searching")
+        );
+    }
+
+    /**
+     * Test that the commands of a solution, with a reasoner, lead from the
+     * puzzle to the solution and back.
+     */
+    @Test
+    public void testCommandsReplay() {
+        System.out.println("commands replay");
+        final String start = grid.toString();
+        final BacktrackSolverTemplate instance = new ConcreteSujikoSolver(grid,
+                CompoundReasoner.standard(grid));
+        assertTrue(instance.solve(), "solve");
+        final String solution = grid.toString();
+        final List<Command> commands = new ArrayList<>(instance.getCommands());
+        for (int i = commands.size() - 1; i >= 0; i--) {
+            commands.get(i).revert();
+        }
+        final String reverted = grid.toString();
+        commands.forEach(Command::execute);
+        assertAll(
+                () -> assertFalse(commands.isEmpty(), "commands"),
+                () -> assertEquals(start, reverted, "reverted"),
+                () -> assertEquals(solution, grid.toString(), "replayed")
+        );
+    }
+
+    /**
+     * Test that both solvers, with and without reasoner, solve a 4 by 4
+     * puzzle with digits 1..16, which has a unique solution.
+     */
+    @Test
+    public void testFourByFour() {
+        System.out.println("solve 4 by 4");
+        final String start = "size 4 4 16\n"
+                + "5 12 0 0\n"
+                + "0 0 16 0\n"
+                + "0 0 8 0\n"
+                + "11 0 0 4\n"
+                + "34 32 33 29 37 44 29 39 40\n";
+        final String solution = "size 4 4 16\n"
+                + "5 12 1 9 \n"
+                + "14 3 16 7 \n"
+                + "2 10 8 13 \n"
+                + "11 6 15 4 \n"
+                + "34 32 33 29 37 44 29 39 40 \n";
+        final SujikoGrid concrete = SujikoGrid.read(new Scanner(start));
+        final SujikoGrid reasoned = SujikoGrid.read(new Scanner(start));
+        final SujikoGrid bitboard = SujikoGrid.read(new Scanner(start));
+        final SujikoGrid counted = SujikoGrid.read(new Scanner(start));
+        assertAll(
+                () -> assertTrue(new ConcreteSujikoSolver(concrete, null,
+                        CellOrders.MINIMUM_REMAINING_VALUES, DigitOrders.ASCENDING).solve(),
+                        "concrete"),
+                () -> assertEquals(solution, concrete.toString(), "concrete solution"),
+                () -> assertTrue(new ConcreteSujikoSolver(reasoned,
+                        CompoundReasoner.standard(reasoned)).solve(), "reasoner"),
+                () -> assertEquals(solution, reasoned.toString(), "reasoner solution"),
+                () -> assertTrue(new BitboardSujikoSolver(bitboard, null).solve(), "bitboard"),
+                () -> assertEquals(solution, bitboard.toString(), "bitboard solution"),
+                () -> assertEquals(1, new BitboardSujikoSolver(counted, null).countSolutions(2),
+                        "unique")
+        );
+    }
 }
@@ -0,0 +1,137 @@
+package spa.solvers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.cache.SolveCache;
+import spa.generator.SujikoGenerator;
+import spa.model.Canonicalizer;
+import spa.model.CircleLayout;
+import spa.model.SujikoGrid;
+
+/**
+ * Test cases for {@link CachingSolver}.
+ *
+ */
+public class CachingSolverTest {
+
+    /**
+     * Test of solve, on a miss and on a hit.
+     */
+    @Test
+    public void testSolve() {
+        System.out.println("caching solve");
+        final SolveCache cache = new SolveCache(10);
+        final SujikoGrid puzzle = new SujikoGenerator(CircleLayout.CLASSIC, 5).generate();
+        final SujikoGrid first = puzzle.copy();
+        final SujikoGrid second = puzzle.copy();
+        final CachingSolver miss = new CachingSolver(new ConcreteSujikoSolver(first, null),
+                cache);
+        final CachingSolver hit = new CachingSolver(new ConcreteSujikoSolver(second, null),
+                cache);
+        final boolean missSolved = miss.solve();
+        final boolean hitSolved = hit.solve();
+        assertAll(
+                () -> assertTrue(missSolved && hitSolved, "solved"),
+                () -> assertFalse(miss.isHit(), "miss"),
+                () -> assertTrue(hit.isHit(), "hit"),
+                () -> assertTrue(miss.getNodes() > 0, "nodes on a miss"),
+                () -> assertEquals(0, hit.getNodes(), "no nodes on a hit"),
+                () -> assertEquals(first.toString(), second.toString(), "same solution"),
+                () -> assertEquals(miss.getCommands().size(), hit.getCommands().size(),
+                        "one command per empty cell"),
+                () -> assertEquals("hits 1, misses 1, evictions 0, entries 1/10",
+                        cache.toString(), "counters")
+        );
+    }
+
+    /**
+     * Test that equivalent puzzles share an entry, with the solution
+     * mapped to the orientation of each.
+     */
+    @Test
+    public void testSymmetric() {
+        System.out.println("caching symmetric");
+        final SolveCache cache = new SolveCache(10);
+        final SujikoGrid puzzle = new SujikoGenerator(CircleLayout.CLASSIC, 7).generate();
+        final Canonicalizer canonicalizer = Canonicalizer.of(CircleLayout.CLASSIC);
+        new CachingSolver(new ConcreteSujikoSolver(puzzle.copy(), null), cache).solve();
+        for (int s = 0; s < canonicalizer.getSymmetries().size(); s++) {
+            final SujikoGrid image = canonicalizer.transform(puzzle, s);
+            final SujikoGrid expected = image.copy();
+            new BitboardSujikoSolver(expected, null).solve();
+            final CachingSolver solver = new CachingSolver(
+                    new ConcreteSujikoSolver(image, null), cache);
+            assertTrue(solver.solve(), "solved");
+            assertTrue(solver.isHit(), "hit");
+            assertEquals(expected.toString(), image.toString(), "solution");
+        }
+        assertEquals(1, cache.size(), "one entry");
+    }
+
+    /**
+     * Test of unsolvable puzzles.
+     */
+    @Test
+    public void testUnsolvable() {
+        System.out.println("caching unsolvable");
+        final SolveCache cache = new SolveCache(10);
+        final SujikoGrid grid = SujikoGrid.of(CircleLayout.CLASSIC,
+                new int[] {4, 4, 0, 0, 0, 2, 3, 0, 0}, new int[] {18, 18, 19, 26});
+        final String before = grid.toString();
+        assertFalse(new CachingSolver(new BitboardSujikoSolver(grid, null), cache).solve(),
+                "miss");
+        final CachingSolver hit = new CachingSolver(new BitboardSujikoSolver(grid, null), cache);
+        assertAll(
+                () -> assertFalse(hit.solve(), "hit"),
+                () -> assertTrue(hit.isHit(), "isHit"),
+                () -> assertEquals(before, grid.toString(), "unchanged")
+        );
+    }
+
+    /**
+     * Test of a small cache shared by many threads solving a few puzzles
+     * over and over.
+     *
+     * @throws Exception  if a solve fails
+     */
+    @Test
+    public void testConcurrent() throws Exception {
+        System.out.println("caching concurrent");
+        final SujikoGenerator generator = new SujikoGenerator(CircleLayout.CLASSIC, 11);
+        final List<SujikoGrid> puzzles = new ArrayList<>();
+        final List<String> solutions = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final SujikoGrid puzzle = generator.generate();
+            final SujikoGrid solved = puzzle.copy();
+            new BitboardSujikoSolver(solved, null).solve();
+            puzzles.add(puzzle);
+            solutions.add(solved.toString());
+        }
+        final SolveCache cache = new SolveCache(4);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final int which = i * 7 % puzzles.size();
+            results.add(executor.submit(() -> {
+                final SujikoGrid grid = puzzles.get(which).copy();
+                new CachingSolver(new ConcreteSujikoSolver(grid, null), cache).solve();
+                return solutions.get(which).equals(grid.toString());
+            }));
+        }
+        executor.shutdown();
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(), "solution");
+        }
+        assertAll(
+                () -> assertEquals(2000, cache.getHits() + cache.getMisses(), "lookups"),
+                () -> assertTrue(cache.size() <= 4, "bounded"),
+                () -> assertTrue(cache.getEvictions() > 0, "evictions")
+        );
+    }
+}
@@ -0,0 +1,77 @@
+package spa.solvers;
+
+import java.util.Scanner;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.generator.SujikoGenerator;
+import spa.model.CircleLayout;
+import spa.model.SujikoGrid;
+
+/**
+ * Test cases for {@link CatalogueSolver}.
+ *
+ */
+public class CatalogueSolverTest {
+
+    /**
+     * Test of solve method, against the concrete solver.
+     */
+    @Test
+    public void testSolve() {
+        System.out.println("catalogue solve");
+        final String start = "0 4 0\n0 0 2\n3 0 0\n18 18 19 26";
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(start));
+        final SujikoGrid expected = SujikoGrid.read(new Scanner(start));
+        new ConcreteSujikoSolver(expected, null).solve();
+        final CatalogueSolver instance = new CatalogueSolver(grid, null);
+        assertAll(
+                () -> assertTrue(instance.solve(), "solved"),
+                () -> assertEquals(expected.toString(), grid.toString(), "solution"),
+                () -> assertEquals(6, instance.getCommands().size(), "commands"),
+                () -> assertTrue(instance.getNodes() <= 64, "nodes")
+        );
+    }
+
+    /**
+     * Test of countSolutions method, against the bitboard solver, on
+     * generated puzzles with some givens removed.
+     */
+    @Test
+    public void testCountSolutions() {
+        System.out.println("catalogue countSolutions");
+        final SujikoGenerator generator = new SujikoGenerator(CircleLayout.CLASSIC, 3);
+        for (int i = 0; i < 200; i++) {
+            final SujikoGrid grid = generator.generate();
+            if (i % 2 == 0) {
+                grid.getCell(i % 9).clear();
+            }
+            final String before = grid.toString();
+            final int expected = new BitboardSujikoSolver(grid, null).countSolutions(100);
+            assertEquals(expected, new CatalogueSolver(grid, null).countSolutions(100),
+                    before);
+            assertEquals(before, grid.toString(), "unchanged");
+        }
+    }
+
+    /**
+     * Test of puzzles without solution and of the layout check.
+     */
+    @Test
+    public void testUnsolvable() {
+        System.out.println("catalogue unsolvable");
+        final SujikoGrid outOfRange = SujikoGrid.read(new Scanner(
+                "0 0 0\n0 0 0\n0 0 0\n9 20 20 20"));
+        final SujikoGrid duplicate = SujikoGrid.read(new Scanner(
+                "4 4 0\n0 0 2\n3 0 0\n18 18 19 26"));
+        final SujikoGrid larger = SujikoGrid.read(new Scanner(
+                "size 2 2 4\n0 0\n0 0\n10\n"));
+        assertAll(
+                () -> assertFalse(new CatalogueSolver(outOfRange, null).solve(), "sum 9"),
+                () -> assertEquals(0, new CatalogueSolver(duplicate, null).countSolutions(2),
+                        "duplicate"),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new CatalogueSolver(larger, null), "layout")
+        );
+    }
+}
@@ -0,0 +1,161 @@
+package spa.solvers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.model.DigitCell;
+import spa.model.SujikoGrid;
+import spa.model.SujikoPuzzle;
+import spa.model.SumCell;
+import spa.reasoning.Reasoner;
+
+/**
+ * Stress test solving many independent puzzles concurrently.
+ *
+ */
+public class ConcurrentSolveTest {
+
+    /** Number of puzzles to solve. */
+    private static final int PUZZLES = 400;
+
+    /** Number of threads to solve them on. */
+    private static final int THREADS = 16;
+
+    /**
+     * Generates a puzzle text from a random filling, keeping two givens.
+     *
+     * @param random the source of randomness
+     * @return the puzzle text
+     */
+    private static String generate(final Random random) {
+        final List<Integer> digits = new ArrayList<>();
+        for (int digit = 1; digit <= 9; digit++) {
+            digits.add(digit);
+        }
+        Collections.shuffle(digits, random);
+        final int[] tops = {0, 1, 3, 4};
+        final StringBuilder sums = new StringBuilder();
+        for (int top : tops) {
+            sums.append(digits.get(top) + digits.get(top + 1)
+                    + digits.get(top + 3) + digits.get(top + 4)).append(' ');
+        }
+        final int keep1 = random.nextInt(9);
+        final int keep2 = random.nextInt(9);
+        final StringBuilder sb = new StringBuilder();
+        for (int cell = 0; cell < 9; cell++) {
+            sb.append(cell == keep1 || cell == keep2 ? digits.get(cell) : 0)
+                    .append(cell % 3 == 2 ? "\n" : " ");
+        }
+        return sb.append(sums.toString().trim()).toString();
+    }
+
+    /**
+     * Checks that a grid is a solution that respects the given puzzle text.
+     *
+     * @param text the puzzle text
+     * @param grid the solved grid
+     */
+    private static void checkSolution(final String text, final SujikoGrid grid) {
+        final SujikoGrid original = SujikoGrid.read(new Scanner(text));
+        final boolean[] seen = new boolean[10];
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                final int digit = grid.getCells().get(row).get(col).getDigit();
+                final int given = original.getCells().get(row).get(col).getDigit();
+                assertTrue(1 <= digit && digit <= 9, "digit in range for\n" + text);
+                assertFalse(seen[digit], "digits distinct for\n" + text);
+                seen[digit] = true;
+                assertTrue(given == 0 || given == digit, "given kept for\n" + text);
+            }
+        }
+        for (SumCell sumCell : grid.getSumCells()) {
+            final int sum = sumCell.getLocations().stream()
+                    .mapToInt(location -> grid.getCell(location).getDigit()).sum();
+            assertEquals(sumCell.getSum(), sum, "sum of circle " + sumCell.getGroup()
+                    + " for\n" + text);
+        }
+    }
+
+    /**
+     * Loads and solves all puzzles on a thread pool, and checks every result.
+     *
+     * @param factory creates the solver for a grid
+     * @throws Exception  if a task fails
+     */
+    private void solveConcurrently(final BiFunction<SujikoGrid, Reasoner,
+            AbstractSolver> factory) throws Exception {
+        final Random random = new Random(42);
+        final List<String> texts = new ArrayList<>();
+        for (int i = 0; i < PUZZLES; i++) {
+            texts.add(generate(random));
+        }
+        final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<SujikoGrid>> results = new ArrayList<>();
+            for (final String text : texts) {
+                final Callable<SujikoGrid> task = () -> {
+                    final SujikoPuzzle puzzle = new SujikoPuzzle(new Scanner(text), "Stress");
+                    final SujikoGrid grid = puzzle.getGrid();
+                    assertTrue(factory.apply(grid, null).solve(), "solvable\n" + text);
+                    return grid;
+                };
+                results.add(pool.submit(task));
+            }
+            for (int i = 0; i < texts.size(); i++) {
+                checkSolution(texts.get(i), results.get(i).get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Solves many puzzles concurrently with ConcreteSujikoSolver.
+     *
+     * @throws Exception  if a task fails
+     */
+    @Test
+    public void testConcreteSolverConcurrently() throws Exception {
+        System.out.println("concurrent solve, concrete");
+        solveConcurrently(ConcreteSujikoSolver::new);
+    }
+
+    /**
+     * Solves many puzzles concurrently with BitboardSujikoSolver.
+     *
+     * @throws Exception  if a task fails
+     */
+    @Test
+    public void testBitboardSolverConcurrently() throws Exception {
+        System.out.println("concurrent solve, bitboard");
+        solveConcurrently(BitboardSujikoSolver::new);
+    }
+
+    /**
+     * Checks that cells of independently loaded puzzles are distinct objects.
+     */
+    @Test
+    public void testIndependentGrids() {
+        System.out.println("independent grids");
+        final Random random = new Random(7);
+        final SujikoGrid first = new SujikoPuzzle(new Scanner(generate(random)), "A").getGrid();
+        final SujikoGrid second = new SujikoPuzzle(new Scanner(generate(random)), "B").getGrid();
+        final DigitCell cell = first.getCells().get(0).get(0);
+        assertAll(
+                () -> assertNotSame(first, second, "grids"),
+                () -> assertEquals(3, first.getCells().size(), "rows of first"),
+                () -> assertEquals(3, second.getCells().size(), "rows of second"),
+                () -> assertNotSame(cell, second.getCells().get(0).get(0), "cells")
+        );
+    }
+}
@@ -0,0 +1,93 @@
+package spa.solvers;
+
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import spa.command.CompoundCommand;
+import spa.model.SujikoGrid;
+
+/**
+ * Test cases for {@link SolveTask}.
+ *
+ */
+public class SolveTaskTest {
+
+    /** A classic puzzle with a unique solution. */
+    private static final String PUZZLE = "0 4 0\n0 0 2\n3 0 0\n18 18 19 26";
+
+    /**
+     * Test of run on another thread, and of getChanges.
+     *
+     * @throws Exception  if the task fails
+     */
+    @Test
+    public void testRun() throws Exception {
+        System.out.println("solve task run");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(PUZZLE));
+        final SujikoGrid expected = SujikoGrid.read(new Scanner(PUZZLE));
+        new ConcreteSujikoSolver(expected, null).solve();
+        final SolveTask task = new SolveTask(grid);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final Future<SearchStatus> status = executor.submit(task::run);
+        executor.shutdown();
+        assertEquals(SearchStatus.SOLVED, status.get(), "status");
+        final String before = grid.toString();
+        final CompoundCommand changes = task.getChanges();
+        assertEquals(before, grid.toString(), "grid unchanged by the search");
+        changes.execute();
+        assertAll(
+                () -> assertEquals(6, changes.size(), "one command per empty cell"),
+                () -> assertEquals(expected.toString(), grid.toString(), "solution"),
+                () -> assertTrue(task.getNodes() > 0, "nodes"),
+                () -> assertTrue(task.getElapsedNanos() > 0, "elapsed"),
+                () -> assertEquals(task.getElapsedNanos(), task.getElapsedNanos(), "final"),
+                () -> assertThrows(IllegalStateException.class, task::run, "run twice")
+        );
+    }
+
+    /**
+     * Test of cancel and of unsolvable puzzles.
+     */
+    @Test
+    public void testCancel() {
+        System.out.println("solve task cancel");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(PUZZLE));
+        final SolveTask cancelled = new SolveTask(grid);
+        cancelled.cancel();
+        final SolveTask unsolvable = new SolveTask(SujikoGrid.read(new Scanner(
+                "4 4 0\n0 0 2\n3 0 0\n18 18 19 26")));
+        assertAll(
+                () -> assertEquals(SearchStatus.PAUSED, cancelled.run(), "cancelled"),
+                () -> assertTrue(cancelled.isCancelled(), "isCancelled"),
+                () -> assertThrows(IllegalStateException.class, cancelled::getChanges,
+                        "no changes"),
+                () -> assertEquals(SujikoGrid.read(new Scanner(PUZZLE)).toString(),
+                        grid.toString(), "grid unchanged"),
+                () -> assertEquals(SearchStatus.UNSOLVABLE, unsolvable.run(), "unsolvable")
+        );
+    }
+
+    /**
+     * Test of changes between a grid and a copy.
+     */
+    @Test
+    public void testChanges() {
+        System.out.println("solve task changes");
+        final SujikoGrid grid = SujikoGrid.read(new Scanner(PUZZLE));
+        final SujikoGrid copy = grid.copy();
+        copy.getCell(0).setDigit(9);
+        copy.getCell(4).setDigit(1);
+        final CompoundCommand changes = SolveTask.changes(grid, copy);
+        assertAll(
+                () -> assertEquals(2, changes.size(), "size"),
+                () -> assertFalse(changes.isExecuted(), "not executed"),
+                () -> assertEquals(0, grid.getCell(0).getDigit(), "grid unchanged")
+        );
+        changes.execute();
+        assertEquals(copy.toString(), grid.toString(), "executed");
+    }
+}